@@ -0,0 +1,124 @@
+package com.example.algorithm;
+
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ROLLUPS DE ACTIVIDAD POR CUBETAS DE TIEMPO
+ *
+ * <h2>Descripción</h2>
+ * La actividad de cada wallet se acumula en cubetas horarias y diarias (UTC)
+ * alineadas a epoch. Un rango arbitrario {@code [from, to)} se descompone en como
+ * mucho tres tramos: horas sueltas hasta el primer día completo, días completos y
+ * horas sueltas tras el último día completo. Sumar esas cubetas da el total del
+ * rango sin recorrer transacciones.
+ *
+ * <h2>Resolución</h2>
+ * La unidad mínima es la hora: {@code from} se redondea hacia abajo y {@code to}
+ * hacia arriba a la hora.
+ *
+ * <h2>Complejidad</h2>
+ * Como mucho 23 + días + 23 cubetas por rango, independiente del número de
+ * transacciones.
+ */
+public final class ActivityRollup {
+
+    public enum Granularity {
+        HOUR(3_600_000L),
+        DAY(86_400_000L);
+
+        private final long millis;
+
+        Granularity(long millis) {
+            this.millis = millis;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        /** Inicio de la cubeta que contiene {@code epochMillis} */
+        public long bucketStart(long epochMillis) {
+            return Math.floorDiv(epochMillis, millis) * millis;
+        }
+    }
+
+    private ActivityRollup() {
+    }
+
+    /**
+     * Tramos de cubetas que cubren exactamente {@code [from, to)} redondeado a horas
+     */
+    public static List<Span> cover(long from, long to) {
+        long start = Granularity.HOUR.bucketStart(from);
+        long end = Granularity.HOUR.bucketStart(to + Granularity.HOUR.getMillis() - 1);
+        List<Span> spans = new ArrayList<>(3);
+        if (end <= start) {
+            return spans;
+        }
+        long firstDay = Granularity.DAY.bucketStart(start + Granularity.DAY.getMillis() - 1);
+        long lastDay = Granularity.DAY.bucketStart(end);
+        if (firstDay >= lastDay) {
+            // Sin ningún día completo dentro del rango
+            spans.add(new Span(Granularity.HOUR, start, end));
+            return spans;
+        }
+        if (start < firstDay) {
+            spans.add(new Span(Granularity.HOUR, start, firstDay));
+        }
+        spans.add(new Span(Granularity.DAY, firstDay, lastDay));
+        if (lastDay < end) {
+            spans.add(new Span(Granularity.HOUR, lastDay, end));
+        }
+        return spans;
+    }
+
+    /**
+     * Instante ISO-8601 ({@code confirmed}) en milisegundos epoch, o null si no se
+     * puede leer
+     */
+    public static Long parseEpochMillis(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timestamp).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Cubetas de una granularidad con inicio en {@code [from, to)}
+     */
+    public static final class Span {
+        private final Granularity granularity;
+        private final long from;
+        private final long to;
+
+        public Span(Granularity granularity, long from, long to) {
+            this.granularity = granularity;
+            this.from = from;
+            this.to = to;
+        }
+
+        public Granularity getGranularity() {
+            return granularity;
+        }
+
+        public long getFrom() {
+            return from;
+        }
+
+        public long getTo() {
+            return to;
+        }
+
+        /** Número de cubetas del tramo */
+        public long getBuckets() {
+            return (to - from) / granularity.getMillis();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.algorithm;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vista de adyacencia para los algoritmos de búsqueda
+ *
+ * Permite que un algoritmo recorra tanto un grafo ya materializado en memoria
+ * ({@link #of(Map)}) como uno que se carga bajo demanda ({@link LazyAdjacency}).
+ *
+ * @param <E> Tipo de arista del algoritmo
+ */
+@FunctionalInterface
+public interface AdjacencyProvider<E> {
+
+    /**
+     * Aristas de {@code wallet}
+     *
+     * @return Lista de aristas (vacía si la wallet no tiene)
+     */
+    List<E> neighbours(String wallet);
+
+    /**
+     * Avisa que {@code wallet} entró a la frontera de la búsqueda y probablemente se
+     * expanda: las implementaciones perezosas la incluyen en la próxima carga por lotes
+     */
+    default void hint(String wallet) {
+    }
+
+    /** Vista sobre una lista de adyacencia en memoria */
+    static <E> AdjacencyProvider<E> of(Map<String, List<E>> graph) {
+        return wallet -> graph.getOrDefault(wallet, Collections.emptyList());
+    }
+}
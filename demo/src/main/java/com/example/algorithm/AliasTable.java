@@ -0,0 +1,116 @@
+package com.example.algorithm;
+
+import java.util.SplittableRandom;
+
+/**
+ * MUESTREO DISCRETO EN O(1): Método de alias de Vose
+ *
+ * <h2>Descripción</h2>
+ * Dada una distribución discreta w_0..w_{n-1}, cada celda i guarda una probabilidad
+ * {@code probability[i]} y un alias: se elige una celda uniforme y se devuelve i con
+ * probabilidad {@code probability[i]} o su alias en caso contrario.
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Construcción:</b> O(n)</li>
+ *   <li><b>Muestreo:</b> O(1), un entero y un double aleatorios</li>
+ * </ul>
+ *
+ * Las tablas pueden escribirse en arrays compartidos (en {@code offset}) para que
+ * muchas distribuciones pequeñas vivan en un único par de arrays planos.
+ */
+public final class AliasTable {
+
+    private final float[] probability;
+    private final int[] alias;
+    private final int offset;
+    private final int size;
+
+    private AliasTable(float[] probability, int[] alias, int offset, int size) {
+        this.probability = probability;
+        this.alias = alias;
+        this.offset = offset;
+        this.size = size;
+    }
+
+    /**
+     * Construye una tabla independiente a partir de pesos no negativos
+     */
+    public static AliasTable of(double[] weights) {
+        float[] probability = new float[weights.length];
+        int[] alias = new int[weights.length];
+        fill(weights, 0, weights.length, probability, alias, 0);
+        return new AliasTable(probability, alias, 0, weights.length);
+    }
+
+    /**
+     * Escribe la tabla de {@code weights[from..to)} en {@code probability/alias[offset..)}.
+     * Los alias guardados son índices locales en [0, to - from).
+     */
+    public static void fill(double[] weights, int from, int to,
+                            float[] probability, int[] alias, int offset) {
+        int n = to - from;
+        if (n == 0) {
+            return;
+        }
+        double total = 0.0;
+        for (int i = from; i < to; i++) {
+            total += weights[i];
+        }
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = total > 0 ? weights[from + i] * n / total : 1.0;
+            if (scaled[i] < 1.0) {
+                small[smallCount++] = i;
+            } else {
+                large[largeCount++] = i;
+            }
+        }
+
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            probability[offset + s] = (float) scaled[s];
+            alias[offset + s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) {
+                small[smallCount++] = l;
+            } else {
+                large[largeCount++] = l;
+            }
+        }
+        // Restos por redondeo: probabilidad 1
+        while (largeCount > 0) {
+            int l = large[--largeCount];
+            probability[offset + l] = 1.0f;
+            alias[offset + l] = l;
+        }
+        while (smallCount > 0) {
+            int s = small[--smallCount];
+            probability[offset + s] = 1.0f;
+            alias[offset + s] = s;
+        }
+    }
+
+    /**
+     * Muestrea sobre una tabla escrita con {@link #fill}
+     *
+     * @return índice local en [0, size)
+     */
+    public static int sample(float[] probability, int[] alias, int offset, int size, SplittableRandom random) {
+        int cell = random.nextInt(size);
+        return random.nextDouble() < probability[offset + cell] ? cell : alias[offset + cell];
+    }
+
+    public int sample(SplittableRandom random) {
+        return sample(probability, alias, offset, size, random);
+    }
+
+    public int size() {
+        return size;
+    }
+}
@@ -7,6 +7,8 @@ import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * ALGORITMO BACKTRACKING: Detección de Cadenas de Lavado y Ciclos
@@ -23,7 +25,7 @@ import java.util.*;
  * <h2>Complejidad</h2>
  * <ul>
  *   <li><b>Temporal:</b> O(b^d) donde b=branching factor, d=profundidad máxima</li>
- *   <li><b>Espacial:</b> O(d) para la pila de recursión</li>
+ *   <li><b>Espacial:</b> O(V + E) para el grafo compilado y el estado; O(1) por paso</li>
  *   <li><b>Peor caso:</b> Exploración completa del grafo - O(V + E)</li>
  * </ul>
  *
@@ -41,6 +43,51 @@ import java.util.*;
  *             path.remove(vecino)               // BACKTRACK!
  * </pre>
  *
+ * <h2>Implementación Iterativa</h2>
+ * La recursión anterior se ejecuta con una pila explícita sobre ids enteros: el grafo
+ * se compila una vez a CSR, el camino es un {@code int[]}, un array de posiciones
+ * reemplaza al {@code HashSet} de visitados (y da el inicio del ciclo en O(1)) y cada
+ * nivel guarda un cursor sobre sus aristas. Avanzar y retroceder no asigna objetos, y
+ * la profundidad sólo la limita {@code maxDepth}, no la pila de hilos de Java.
+ *
+ * <h2>Modo Paralelo (Fork-Join)</h2>
+ * El árbol de búsqueda se divide en los primeros {@link #DEFAULT_SPLIT_DEPTH} niveles:
+ * cada rama es una tarea {@link RecursiveTask} con su propio camino y sus propias
+ * métricas, y el pool reparte el trabajo por work stealing. Las métricas se combinan
+ * al hacer join y las cadenas van a un colector compartido. Un contador atómico global
+ * limita el número de cadenas y una bandera de parada corta a todos los workers en
+ * cuanto se alcanza el límite.
+ *
+ * <h2>Resultados Acotados</h2>
+ * Las cadenas no se acumulan en una lista sin límite: se entregan a un
+ * {@link ChainCollector} (min-heap top-K por sospecha, con deduplicación de cadenas
+ * equivalentes). Antes de materializar una cadena se consulta si entraría al top-K,
+ * y en modo streaming cada cadena admitida se emite en cuanto se encuentra.
+ *
+ * <h2>Ciclos Canónicos</h2>
+ * Un ciclo se reporta una sola vez por búsqueda, sin importar la rotación ni el camino
+ * por el que se cierre: se normaliza a su rotación mínima y se deduplica en un
+ * {@link CycleStore}. Opcionalmente cada ciclo distinto se registra también en un
+ * almacén compartido entre búsquedas, consultable por wallet.
+ *
+ * <h2>Presupuesto (Anytime)</h2>
+ * Toda búsqueda recibe un {@link SearchBudget} (tiempo, nodos, memoria, cadenas). El
+ * bucle sólo lee la bandera de parada; cada ~1000 nodos se cargan los nodos y la
+ * memoria estimada al presupuesto. Al agotarse se devuelven las mejores cadenas
+ * encontradas con {@code complete=false} (ver {@link BacktrackingResult}).
+ *
+ * <h2>Estrategias de Exploración</h2>
+ * <ul>
+ *   <li>{@link ExplorationStrategy#DEPTH_FIRST}: orden original de las aristas.</li>
+ *   <li>{@link ExplorationStrategy#BEST_FIRST}: mismo backtracking, pero en cada nivel
+ *       las aristas se recorren de mayor a menor valor (monto, recencia y conservación
+ *       del monto recibido), así las cadenas de más valor aparecen primero y un
+ *       presupuesto corto las conserva.</li>
+ *   <li>{@link ExplorationStrategy#BEAM}: búsqueda por niveles que conserva sólo los W
+ *       caminos parciales de mayor valor acumulado por profundidad; memoria
+ *       O(W · profundidad), viable a 10-15 saltos.</li>
+ * </ul>
+ *
  * <h2>Ejemplo de Uso</h2>
  * <pre>
  * BacktrackingAlgorithm bt = new BacktrackingAlgorithm();
@@ -63,8 +110,31 @@ import java.util.*;
 @Slf4j
 public class BacktrackingAlgorithm {
 
+    /** Niveles del árbol que se reparten como tareas independientes en modo paralelo */
+    public static final int DEFAULT_SPLIT_DEPTH = 2;
+
+    private static final double CYCLE_SUSPICION = 0.95;
+
+    /** Caminos parciales retenidos por nivel en modo BEAM si no se indica otro valor */
+    public static final int DEFAULT_BEAM_WIDTH = 64;
+
+    /** Cadenas retenidas por las búsquedas que no indican top-K */
+    public static final int DEFAULT_TOP_K = 500;
+
+    // Pesos del valor de una arista (suman 1)
+    private static final double AMOUNT_WEIGHT = 0.4;
+    private static final double RECENCY_WEIGHT = 0.2;
+    private static final double CONSERVATION_WEIGHT = 0.4;
+
+    // Estimaciones gruesas de memoria para el presupuesto (bytes)
+    private static final long CHAIN_BYTES_ESTIMATE = 512;
+    private static final long CYCLE_BYTES_ESTIMATE = 64;
+
+    // Resolución del valor de una arista al ordenarlas (BEST_FIRST)
+    private static final double SCORE_SCALE = 1 << 30;
+
     /**
-     * Encuentra cadenas sospechosas usando backtracking
+     * Encuentra las {@link #DEFAULT_TOP_K} cadenas más sospechosas usando backtracking
      *
      * @param graph Grafo de transacciones (adjacency list)
      * @param startWallet Wallet desde donde iniciar la búsqueda
@@ -76,196 +146,943 @@ public class BacktrackingAlgorithm {
             String startWallet,
             int maxDepth) {
 
-        long startTime = System.currentTimeMillis();
-        log.info("Iniciando BACKTRACKING desde wallet: {} con profundidad: {}",
-                startWallet, maxDepth);
+        return findTopSuspiciousChains(graph, startWallet, maxDepth, DEFAULT_TOP_K);
+    }
+
+    /**
+     * Encuentra las {@code topK} cadenas más sospechosas (memoria O(K + profundidad))
+     *
+     * @return Cadenas ordenadas por nivel de sospecha
+     */
+    public List<SuspiciousChain> findTopSuspiciousChains(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            int topK) {
+
+        ChainCollector collector = ChainCollector.topK(topK);
+        collectSuspiciousChains(graph, startWallet, maxDepth, collector);
+        return collector.toSortedList();
+    }
+
+    /**
+     * Backtracking secuencial que entrega las cadenas a {@code collector}
+     * (top-K, sin límite o streaming)
+     *
+     * @return Métricas de la exploración
+     */
+    public BacktrackingMetrics collectSuspiciousChains(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            ChainCollector collector) {
 
-        List<SuspiciousChain> suspiciousChains = new ArrayList<>();
-        List<String> currentPath = new ArrayList<>();
-        Set<String> visitedInPath = new HashSet<>();
+        return collectSuspiciousChains(graph, startWallet, maxDepth, collector, null);
+    }
+
+    /**
+     * Igual que {@link #collectSuspiciousChains(Map, String, int, ChainCollector)} y además
+     * registra cada ciclo distinto en {@code sharedCycles} (si no es null)
+     */
+    public BacktrackingMetrics collectSuspiciousChains(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            ChainCollector collector,
+            CycleStore sharedCycles) {
+
+        return collectSuspiciousChains(graph, startWallet, maxDepth, collector, sharedCycles,
+                SearchBudget.unlimited());
+    }
+
+    /**
+     * Backtracking secuencial acotado por {@code budget} (tiempo, nodos, memoria, cadenas).
+     * Si el presupuesto se agota, la búsqueda se detiene y el colector conserva las
+     * mejores cadenas encontradas hasta ese momento.
+     */
+    public BacktrackingMetrics collectSuspiciousChains(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            ChainCollector collector,
+            CycleStore sharedCycles,
+            SearchBudget budget) {
+
+        return collectSuspiciousChains(graph, startWallet, maxDepth, collector, sharedCycles, budget,
+                ExplorationStrategy.DEPTH_FIRST);
+    }
+
+    /**
+     * Backtracking secuencial con la estrategia indicada ({@code BEAM} usa
+     * {@link #DEFAULT_BEAM_WIDTH})
+     */
+    public BacktrackingMetrics collectSuspiciousChains(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            ChainCollector collector,
+            CycleStore sharedCycles,
+            SearchBudget budget,
+            ExplorationStrategy strategy) {
+
+        if (strategy == ExplorationStrategy.BEAM) {
+            return collectSuspiciousChainsBeam(graph, startWallet, maxDepth, DEFAULT_BEAM_WIDTH,
+                    collector, sharedCycles, budget);
+        }
+
+        long startTime = System.currentTimeMillis();
+        log.info("Iniciando BACKTRACKING ({}) desde wallet: {} con profundidad: {}",
+                strategy, startWallet, maxDepth);
 
         // Estadísticas de exploración
         BacktrackingMetrics metrics = new BacktrackingMetrics();
 
         // INICIO DEL BACKTRACKING
-        currentPath.add(startWallet);
-        visitedInPath.add(startWallet);
-
-        backtrack(
-            graph,
-            startWallet,
-            currentPath,
-            visitedInPath,
-            maxDepth,
-            suspiciousChains,
-            metrics
-        );
+        CompiledGraph compiled = CompiledGraph.of(graph, startWallet);
+        SearchState state = new SearchState(compiled, 1, maxDepth, collector, metrics,
+                budget, new CycleRegistry(compiled, sharedCycles), strategy == ExplorationStrategy.BEST_FIRST);
+        state.push(compiled.idOf(startWallet));
+
+        backtrack(state, maxDepth, -1);
 
         long executionTime = System.currentTimeMillis() - startTime;
 
-        log.info("BACKTRACKING completado en {}ms", executionTime);
-        log.info("Estadísticas: {} paths explorados, {} backtracks, {} ciclos detectados",
-                metrics.pathsExplored, metrics.backtrackCount, metrics.cyclesDetected);
+        log.info("BACKTRACKING completado en {}ms{}", executionTime,
+                budget.isStopped() ? " (detenido: " + budget.getStopReason() + ")" : "");
+        log.info("Estadísticas: {} paths explorados, {} backtracks, {} ciclos distintos ({} repetidos), {} cadenas retenidas",
+                metrics.pathsExplored, metrics.backtrackCount, metrics.cyclesDetected,
+                metrics.cycleRevisits, collector.size());
 
-        // Ordenar por nivel de sospecha
-        suspiciousChains.sort((a, b) ->
-            Double.compare(b.suspicionLevel, a.suspicionLevel));
+        return metrics;
+    }
 
-        return suspiciousChains;
+    /**
+     * Variante PARALELA: divide el árbol de búsqueda en tareas fork-join
+     *
+     * @param graph Grafo de transacciones (adjacency list, sólo lectura)
+     * @param startWallet Wallet desde donde iniciar la búsqueda
+     * @param maxDepth Profundidad máxima de exploración
+     * @param maxResults Número de cadenas tras el cual se detienen todos los workers
+     * @return Cadenas detectadas (a lo sumo maxResults), ordenadas por sospecha
+     */
+    public List<SuspiciousChain> findSuspiciousChainsParallel(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            int maxResults) {
+
+        ChainCollector collector = ChainCollector.topK(maxResults);
+        collectSuspiciousChainsParallel(graph, startWallet, maxDepth, maxResults, collector);
+        return collector.toSortedList();
     }
 
     /**
-     * FUNCIÓN RECURSIVA DE BACKTRACKING
+     * Backtracking paralelo que entrega las cadenas a un colector compartido
      *
-     * Esta es la implementación core del algoritmo
+     * @param maxResults Cadenas admitidas tras las cuales se detienen todos los workers
+     * @return Métricas combinadas de todas las tareas
      */
-    private void backtrack(
+    public BacktrackingMetrics collectSuspiciousChainsParallel(
             Map<String, List<Edge>> graph,
-            String currentWallet,
-            List<String> currentPath,
-            Set<String> visitedInPath,
-            int remainingDepth,
-            List<SuspiciousChain> results,
-            BacktrackingMetrics metrics) {
-
-        metrics.pathsExplored++;
-
-        // CASO BASE 1: Profundidad máxima alcanzada
-        if (remainingDepth == 0) {
-            analyzePath(currentPath, results, metrics, "MAX_DEPTH_REACHED");
-            return;
+            String startWallet,
+            int maxDepth,
+            int maxResults,
+            ChainCollector collector) {
+
+        return collectSuspiciousChainsParallel(graph, startWallet, maxDepth, collector, null,
+                SearchBudget.ofResults(maxResults));
+    }
+
+    /**
+     * Variante paralela acotada por {@code budget}, compartido por todos los workers;
+     * además registra cada ciclo distinto en {@code sharedCycles} (si no es null)
+     */
+    public BacktrackingMetrics collectSuspiciousChainsParallel(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            ChainCollector collector,
+            CycleStore sharedCycles,
+            SearchBudget budget) {
+
+        return collectSuspiciousChainsParallel(graph, startWallet, maxDepth, collector, sharedCycles, budget,
+                ExplorationStrategy.DEPTH_FIRST);
+    }
+
+    /**
+     * Variante paralela con la estrategia indicada. {@code BEAM} es secuencial por
+     * naturaleza (un único beam por nivel) y se ejecuta como tal.
+     */
+    public BacktrackingMetrics collectSuspiciousChainsParallel(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            ChainCollector collector,
+            CycleStore sharedCycles,
+            SearchBudget budget,
+            ExplorationStrategy strategy) {
+
+        if (strategy == ExplorationStrategy.BEAM) {
+            return collectSuspiciousChainsBeam(graph, startWallet, maxDepth, DEFAULT_BEAM_WIDTH,
+                    collector, sharedCycles, budget);
         }
 
-        // CASO BASE 2: No hay más vecinos (callejón sin salida)
-        List<Edge> neighbors = graph.getOrDefault(currentWallet, Collections.emptyList());
-        if (neighbors.isEmpty()) {
-            analyzePath(currentPath, results, metrics, "DEAD_END");
-            return;
+        long startTime = System.currentTimeMillis();
+        log.info("Iniciando BACKTRACKING PARALELO ({}) desde wallet: {} con profundidad: {} (top {} cadenas, {} workers)",
+                strategy, startWallet, maxDepth, collector.getCapacity(), ForkJoinPool.commonPool().getParallelism());
+
+        CompiledGraph compiled = CompiledGraph.of(graph, startWallet);
+        CycleRegistry cycles = new CycleRegistry(compiled, sharedCycles);
+
+        BacktrackingMetrics metrics = ForkJoinPool.commonPool().invoke(
+                new BacktrackTask(compiled, new int[]{compiled.idOf(startWallet)}, -1, maxDepth,
+                        DEFAULT_SPLIT_DEPTH, collector, budget, cycles,
+                        strategy == ExplorationStrategy.BEST_FIRST));
+
+        long executionTime = System.currentTimeMillis() - startTime;
+
+        log.info("BACKTRACKING PARALELO completado en {}ms{}", executionTime,
+                budget.isStopped() ? " (detenido: " + budget.getStopReason() + ")" : "");
+        log.info("Estadísticas: {} paths explorados, {} backtracks, {} ciclos distintos ({} repetidos), {} cadenas retenidas",
+                metrics.pathsExplored, metrics.backtrackCount, metrics.cyclesDetected,
+                metrics.cycleRevisits, collector.size());
+
+        return metrics;
+    }
+
+    /**
+     * Búsqueda ANYTIME: corre hasta agotar el espacio o el presupuesto y devuelve las
+     * mejores cadenas encontradas junto con {@code complete} y la brecha de optimalidad
+     *
+     * @param parallel true para repartir el árbol en tareas fork-join
+     * @return Resultado con cadenas, métricas y estado del presupuesto
+     */
+    public BacktrackingResult searchSuspiciousChains(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            ChainCollector collector,
+            CycleStore sharedCycles,
+            SearchBudget budget,
+            boolean parallel) {
+
+        return searchSuspiciousChains(graph, startWallet, maxDepth, collector, sharedCycles, budget,
+                parallel, ExplorationStrategy.DEPTH_FIRST, DEFAULT_BEAM_WIDTH);
+    }
+
+    /**
+     * Búsqueda anytime con estrategia de exploración seleccionable
+     *
+     * @param strategy Orden de exploración (ver {@link ExplorationStrategy})
+     * @param beamWidth Caminos parciales retenidos por nivel (sólo {@code BEAM})
+     */
+    public BacktrackingResult searchSuspiciousChains(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            ChainCollector collector,
+            CycleStore sharedCycles,
+            SearchBudget budget,
+            boolean parallel,
+            ExplorationStrategy strategy,
+            int beamWidth) {
+
+        BacktrackingMetrics metrics;
+        if (strategy == ExplorationStrategy.BEAM) {
+            metrics = collectSuspiciousChainsBeam(graph, startWallet, maxDepth, beamWidth,
+                    collector, sharedCycles, budget);
+        } else if (parallel) {
+            metrics = collectSuspiciousChainsParallel(graph, startWallet, maxDepth, collector, sharedCycles,
+                    budget, strategy);
+        } else {
+            metrics = collectSuspiciousChains(graph, startWallet, maxDepth, collector, sharedCycles,
+                    budget, strategy);
         }
+        return BacktrackingResult.of(collector, metrics, budget);
+    }
+
+    /**
+     * BEAM SEARCH: expande el grafo nivel por nivel y en cada profundidad conserva sólo
+     * los {@code beamWidth} caminos parciales de mayor valor acumulado de aristas.
+     * Cada camino expandido se analiza igual que en el backtracking (ciclos, callejones,
+     * profundidad máxima), así que las cadenas son comparables entre estrategias.
+     *
+     * @param beamWidth Caminos parciales retenidos por nivel (W)
+     * @return Métricas de la exploración ({@code beamPruned} = caminos descartados)
+     */
+    public BacktrackingMetrics collectSuspiciousChainsBeam(
+            Map<String, List<Edge>> graph,
+            String startWallet,
+            int maxDepth,
+            int beamWidth,
+            ChainCollector collector,
+            CycleStore sharedCycles,
+            SearchBudget budget) {
+
+        long startTime = System.currentTimeMillis();
+        int width = Math.max(1, beamWidth);
+        log.info("Iniciando BEAM SEARCH desde wallet: {} con profundidad: {} y ancho: {}",
+                startWallet, maxDepth, width);
 
-        // EXPLORACIÓN RECURSIVA
-        for (Edge edge : neighbors) {
-            String nextWallet = edge.to;
+        BacktrackingMetrics metrics = new BacktrackingMetrics();
+        CompiledGraph compiled = CompiledGraph.of(graph, startWallet);
+        SearchState state = new SearchState(compiled, 1, maxDepth, collector, metrics,
+                budget, new CycleRegistry(compiled, sharedCycles), false);
 
-            // DETECCIÓN DE CICLO - ¡Patrón altamente sospechoso!
-            if (visitedInPath.contains(nextWallet)) {
-                metrics.cyclesDetected++;
+        try {
+            beamSearch(state, compiled.idOf(startWallet), maxDepth, width);
+        } finally {
+            state.flushNodes();
+        }
 
-                // Crear ciclo desde la primera aparición
-                int cycleStartIndex = currentPath.indexOf(nextWallet);
-                List<String> cyclePath = new ArrayList<>(
-                    currentPath.subList(cycleStartIndex, currentPath.size())
-                );
-                cyclePath.add(nextWallet); // Cerrar el ciclo
+        long executionTime = System.currentTimeMillis() - startTime;
 
-                results.add(SuspiciousChain.builder()
-                    .path(cyclePath)
-                    .type(ChainType.CYCLE)
-                    .suspicionLevel(0.95) // Ciclos son MUY sospechosos
-                    .totalAmount(calculatePathAmount(cyclePath, graph))
-                    .depth(currentPath.size() - cycleStartIndex)
-                    .description("Ciclo detectado: fondos retornan al origen")
-                    .build());
+        log.info("BEAM SEARCH completado en {}ms{}", executionTime,
+                budget.isStopped() ? " (detenido: " + budget.getStopReason() + ")" : "");
+        log.info("Estadísticas: {} paths explorados, {} descartados por el beam, {} ciclos distintos, {} cadenas retenidas",
+                metrics.pathsExplored, metrics.beamPruned, metrics.cyclesDetected, collector.size());
+
+        return metrics;
+    }
 
-                continue; // No explorar ciclos (evitar bucle infinito)
+    /**
+     * MOTOR ITERATIVO DE BACKTRACKING
+     *
+     * Recorre el subárbol que cuelga del último nodo de {@code state.path} con una pila
+     * explícita: el camino es un {@code int[]}, la pertenencia al camino se consulta en
+     * O(1) con {@code state.position} y cada nivel guarda su cursor sobre las aristas.
+     * La profundidad sólo está acotada por {@code remainingDepth}, no por la pila de Java.
+     */
+    private void backtrack(SearchState state, int remainingDepth, int incomingEdge) {
+        try {
+            explore(state, remainingDepth, incomingEdge);
+        } finally {
+            state.flushNodes();
+        }
+    }
+
+    private void explore(SearchState state, int remainingDepth, int incomingEdge) {
+        CompiledGraph graph = state.graph;
+        int[] path = state.path;
+        int[] cursor = state.cursor;
+        int base = state.length - 1;
+
+        if (!state.enter(remainingDepth)) {
+            return;
+        }
+        cursor[base] = state.firstEdge(base, 0, path[base], incomingEdge);
+
+        while (true) {
+            // PARADA TEMPRANA: presupuesto agotado (por este u otro worker)
+            if (state.budget.isStopped()) {
+                while (state.length - 1 > base) {
+                    state.pop();
+                }
+                return;
             }
 
-            // PODA: Evitar caminos muy largos sin sentido
-            if (currentPath.size() > 20) {
+            int top = state.length - 1;
+            int currentWallet = path[top];
+
+            if (cursor[top] < state.edgeEnd(top, currentWallet)) {
+                int edge = state.edgeAt(cursor[top]++);
+                int nextWallet = graph.targets[edge];
+
+                // DETECCIÓN DE CICLO - ¡Patrón altamente sospechoso!
+                int cycleStart = state.position[nextWallet] - 1;
+                if (cycleStart >= 0) {
+                    state.recordCycle(cycleStart, nextWallet);
+                    continue; // No explorar ciclos (evitar bucle infinito)
+                }
+
+                // AGREGAR AL CAMINO y descender un nivel
+                state.push(nextWallet);
+                if (state.enter(remainingDepth - (top + 1 - base))) {
+                    cursor[top + 1] = state.firstEdge(top + 1, state.edgeEnd(top, currentWallet),
+                            nextWallet, edge);
+                } else {
+                    // ⬅BACKTRACK inmediato: caso base en el hijo
+                    state.pop();
+                    state.metrics.backtrackCount++;
+                }
                 continue;
             }
 
-            // AGREGAR AL CAMINO
-            currentPath.add(nextWallet);
-            visitedInPath.add(nextWallet);
-
-            // LLAMADA RECURSIVA (el corazón del backtracking)
-            backtrack(
-                graph,
-                nextWallet,
-                currentPath,
-                visitedInPath,
-                remainingDepth - 1,
-                results,
-                metrics
-            );
+            // Vecinos agotados: si el camino es interesante, guardarlo
+            if (state.length >= 3) {
+                state.analyzePath("EXPLORED_FULLY");
+            }
+            if (top == base) {
+                return;
+            }
 
             // ⬅BACKTRACK: DESHACER la decisión (retroceder)
-            currentPath.remove(currentPath.size() - 1);
-            visitedInPath.remove(nextWallet);
-            metrics.backtrackCount++;
+            state.pop();
+            state.metrics.backtrackCount++;
+        }
+    }
+
+    /**
+     * MOTOR BEAM: {@code beam} contiene los caminos parciales del nivel actual; al
+     * expandirlos, un min-heap de tamaño W retiene los mejores hijos, de modo que nunca
+     * hay más de W caminos vivos (más los hijos de un solo camino en evaluación).
+     */
+    private void beamSearch(SearchState state, int startWallet, int maxDepth, int beamWidth) {
+        CompiledGraph graph = state.graph;
+        long sequence = 0;
+        List<BeamEntry> beam = new ArrayList<>();
+        beam.add(new BeamEntry(new int[]{startWallet}, 0.0, -1, sequence++));
+
+        while (!beam.isEmpty() && !state.budget.isStopped()) {
+            PriorityQueue<BeamEntry> next = new PriorityQueue<>(Math.min(beamWidth, 1024) + 1, BeamEntry.WORST_FIRST);
+
+            for (BeamEntry entry : beam) {
+                state.load(entry.path);
+                int depth = entry.path.length - 1;
+                if (state.enter(maxDepth < 0 ? -1 : maxDepth - depth)) {
+                    int wallet = entry.path[depth];
+                    for (int e = graph.offsets[wallet]; e < graph.offsets[wallet + 1]; e++) {
+                        int nextWallet = graph.targets[e];
+
+                        // DETECCIÓN DE CICLO (igual que en el backtracking)
+                        int cycleStart = state.position[nextWallet] - 1;
+                        if (cycleStart >= 0) {
+                            state.recordCycle(cycleStart, nextWallet);
+                            continue;
+                        }
+
+                        // PODA DEL BEAM: sólo sobreviven los W hijos de mayor valor
+                        double score = entry.score + graph.edgeScore(e, entry.lastEdge);
+                        if (next.size() >= beamWidth) {
+                            state.metrics.beamPruned++;
+                            if (score <= next.peek().score) {
+                                continue;
+                            }
+                            next.poll();
+                        }
+                        int[] childPath = Arrays.copyOf(entry.path, depth + 2);
+                        childPath[depth + 1] = nextWallet;
+                        next.add(new BeamEntry(childPath, score, e, sequence++));
+                    }
+
+                    // Camino interior expandido: se analiza como en EXPLORED_FULLY
+                    if (state.length >= 3) {
+                        state.analyzePath("BEAM_EXPANDED");
+                    }
+                }
+                state.unload();
+            }
+
+            // Siguiente nivel, de mayor a menor valor (las mejores cadenas salen primero)
+            beam = new ArrayList<>(next);
+            beam.sort(BeamEntry.WORST_FIRST.reversed());
         }
+    }
+
+    /** Camino parcial retenido en el beam */
+    private static final class BeamEntry {
+        private static final Comparator<BeamEntry> WORST_FIRST = Comparator
+                .comparingDouble((BeamEntry b) -> b.score)
+                .thenComparing(Comparator.comparingLong((BeamEntry b) -> b.sequence).reversed());
+
+        private final int[] path;
+        private final double score;
+        private final int lastEdge;
+        private final long sequence;
 
-        // Si llegamos aquí y el camino es interesante, guardarlo
-        if (currentPath.size() >= 3) {
-            analyzePath(currentPath, results, metrics, "EXPLORED_FULLY");
+        private BeamEntry(int[] path, double score, int lastEdge, long sequence) {
+            this.path = path;
+            this.score = score;
+            this.lastEdge = lastEdge;
+            this.sequence = sequence;
         }
     }
 
+    // MODO PARALELO
+
     /**
-     * Analiza un camino para determinar si es sospechoso
+     * Tarea fork-join: explora el subárbol que cuelga de {@code path}.
+     * En los primeros niveles crea una subtarea por vecino; más abajo corre el
+     * motor iterativo con su propio estado y métricas; todas comparten el colector.
      */
-    private void analyzePath(
-            List<String> path,
-            List<SuspiciousChain> results,
-            BacktrackingMetrics metrics,
-            String reason) {
+    private class BacktrackTask extends RecursiveTask<BacktrackingMetrics> {
+
+        private final CompiledGraph graph;
+        private final int[] path;
+        /** Arista por la que se llegó al último wallet del camino (-1 en la raíz) */
+        private final int incomingEdge;
+        private final int remainingDepth;
+        private final int splitLevels;
+        private final ChainCollector collector;
+        private final SearchBudget budget;
+        private final CycleRegistry cycles;
+        private final boolean bestFirst;
+
+        BacktrackTask(CompiledGraph graph, int[] path, int incomingEdge, int remainingDepth, int splitLevels,
+                      ChainCollector collector, SearchBudget budget, CycleRegistry cycles, boolean bestFirst) {
+            this.graph = graph;
+            this.path = path;
+            this.incomingEdge = incomingEdge;
+            this.remainingDepth = remainingDepth;
+            this.splitLevels = splitLevels;
+            this.collector = collector;
+            this.budget = budget;
+            this.cycles = cycles;
+            this.bestFirst = bestFirst;
+        }
 
-        if (path.size() < 3) return; // Caminos muy cortos no son interesantes
+        @Override
+        protected BacktrackingMetrics compute() {
+            BacktrackingMetrics metrics = new BacktrackingMetrics();
+            SearchState state = new SearchState(graph, path.length, remainingDepth,
+                    collector, metrics, budget, cycles, bestFirst);
+            for (int wallet : path) {
+                state.push(wallet);
+            }
+
+            int currentWallet = path[path.length - 1];
+            int from = graph.offsets[currentWallet];
+            int to = graph.offsets[currentWallet + 1];
+
+            // Por debajo del nivel de división (o sin ramificación): secuencial
+            if (splitLevels == 0 || remainingDepth == 0 || to - from < 2 || budget.isStopped()) {
+                backtrack(state, remainingDepth, incomingEdge);
+                return metrics;
+            }
+
+            metrics.pathsExplored++;
+            List<BacktrackTask> subtasks = new ArrayList<>();
+
+            for (int e = from; e < to; e++) {
+                int nextWallet = graph.targets[e];
+                int cycleStart = state.position[nextWallet] - 1;
+                if (cycleStart >= 0) {
+                    state.recordCycle(cycleStart, nextWallet);
+                    continue;
+                }
+                // Cada subtarea recibe su propia copia del camino
+                int[] childPath = Arrays.copyOf(path, path.length + 1);
+                childPath[path.length] = nextWallet;
+                subtasks.add(new BacktrackTask(graph, childPath, e, remainingDepth - 1, splitLevels - 1,
+                        collector, budget, cycles, bestFirst));
+            }
+
+            // BEST_FIRST: las ramas más valiosas se encolan primero
+            if (bestFirst) {
+                subtasks.sort(Comparator.comparingDouble(
+                        (BacktrackTask t) -> -graph.edgeScore(t.incomingEdge, incomingEdge)));
+            }
 
-        // Calcular nivel de sospecha basado en patrones
-        double suspicionLevel = 0.0;
-        ChainType type = ChainType.LINEAR_CHAIN;
+            // Work stealing: todas las ramas quedan disponibles para otros workers
+            for (BacktrackingMetrics child : invokeAll(subtasks).stream().map(RecursiveTask::join).toList()) {
+                metrics.merge(child);
+                metrics.backtrackCount++;
+            }
 
-        // PATRÓN 1: Cadena larga (peel chain potencial)
-        if (path.size() >= 5) {
-            suspicionLevel += 0.3;
-            type = ChainType.PEEL_CHAIN;
+            if (path.length >= 3) {
+                state.analyzePath("EXPLORED_FULLY");
+            }
+            return metrics;
         }
+    }
+
+    // REPRESENTACIÓN COMPACTA
 
-        // PATRÓN 2: Redistribución rápida
-        if (path.size() >= 4 && path.size() <= 6) {
-            suspicionLevel += 0.2;
-            type = ChainType.RAPID_REDISTRIBUTION;
+    /**
+     * Lista de adyacencia compilada a CSR sobre ids enteros. Las aristas de cada wallet
+     * conservan el orden de la lista original, así el recorrido es idéntico al de la
+     * versión sobre {@code Map<String, List<Edge>>}. Los ids siguen el orden de las
+     * direcciones, de modo que la rotación canónica de un ciclo empieza en su menor
+     * dirección sin importar por dónde se descubrió.
+     */
+    private static final class CompiledGraph {
+        private final String[] names;
+        private final int[] offsets;
+        private final int[] targets;
+        private final double[] amounts;
+        /** Parte estática del valor de cada arista: monto y recencia normalizados */
+        private final double[] edgeValues;
+
+        private CompiledGraph(String[] names, int[] offsets, int[] targets, double[] amounts,
+                              double[] edgeValues) {
+            this.names = names;
+            this.offsets = offsets;
+            this.targets = targets;
+            this.amounts = amounts;
+            this.edgeValues = edgeValues;
         }
 
-        // PATRÓN 3: Caminos moderadamente largos
-        if (path.size() >= 3) {
-            suspicionLevel += 0.1 * path.size();
+        /** Compila el grafo (incluye {@code startWallet} aunque no tenga aristas) */
+        static CompiledGraph of(Map<String, List<Edge>> graph, String startWallet) {
+            Set<String> wallets = new HashSet<>();
+            wallets.add(startWallet);
+            int edgeCount = 0;
+            for (Map.Entry<String, List<Edge>> entry : graph.entrySet()) {
+                wallets.add(entry.getKey());
+                for (Edge edge : entry.getValue()) {
+                    wallets.add(edge.to);
+                }
+                edgeCount += entry.getValue().size();
+            }
+            String[] names = wallets.toArray(new String[0]);
+            Arrays.sort(names);
+            Map<String, Integer> ids = new HashMap<>(names.length * 2);
+            for (int v = 0; v < names.length; v++) {
+                ids.put(names[v], v);
+            }
+
+            int n = names.length;
+            int[] offsets = new int[n + 1];
+            int[] targets = new int[edgeCount];
+            double[] amounts = new double[edgeCount];
+            long[] timestamps = new long[edgeCount];
+            double maxAmount = 0.0;
+            long minTimestamp = Long.MAX_VALUE;
+            long maxTimestamp = Long.MIN_VALUE;
+            int e = 0;
+            for (int v = 0; v < n; v++) {
+                offsets[v] = e;
+                for (Edge edge : graph.getOrDefault(names[v], Collections.emptyList())) {
+                    targets[e] = ids.get(edge.to);
+                    amounts[e] = edge.amount;
+                    timestamps[e] = edge.timestamp;
+                    maxAmount = Math.max(maxAmount, edge.amount);
+                    minTimestamp = Math.min(minTimestamp, edge.timestamp);
+                    maxTimestamp = Math.max(maxTimestamp, edge.timestamp);
+                    e++;
+                }
+            }
+            offsets[n] = e;
+
+            // Monto en escala logarítmica (los montos abarcan varios órdenes de magnitud)
+            double[] edgeValues = new double[edgeCount];
+            double logMaxAmount = Math.log1p(maxAmount);
+            double timeRange = (double) maxTimestamp - minTimestamp;
+            for (int i = 0; i < edgeCount; i++) {
+                double amountScore = logMaxAmount > 0 ? Math.log1p(Math.max(0.0, amounts[i])) / logMaxAmount : 0.0;
+                double recencyScore = timeRange > 0 ? (timestamps[i] - minTimestamp) / timeRange : 0.0;
+                edgeValues[i] = AMOUNT_WEIGHT * amountScore + RECENCY_WEIGHT * recencyScore;
+            }
+            return new CompiledGraph(names, offsets, targets, amounts, edgeValues);
+        }
+
+        /**
+         * Valor de la arista {@code edge} en [0, 1] llegando por {@code incomingEdge}:
+         * monto, recencia y conservación (qué tanto del monto recibido se reenvía;
+         * neutra en la raíz)
+         */
+        double edgeScore(int edge, int incomingEdge) {
+            double conservation = 0.5;
+            if (incomingEdge >= 0) {
+                double in = amounts[incomingEdge];
+                double out = amounts[edge];
+                double max = Math.max(in, out);
+                conservation = max > 0 ? Math.min(in, out) / max : 1.0;
+            }
+            return edgeValues[edge] + CONSERVATION_WEIGHT * conservation;
+        }
+
+        int size() {
+            return names.length;
+        }
+
+        int idOf(String wallet) {
+            return Arrays.binarySearch(names, wallet);
         }
 
-        // Solo guardar si tiene nivel de sospecha significativo
-        if (suspicionLevel >= 0.3) {
-            results.add(SuspiciousChain.builder()
-                .path(new ArrayList<>(path))
+        /** Monto de la primera arista from→to (0 si no existe) */
+        double amount(int from, int to) {
+            for (int e = offsets[from]; e < offsets[from + 1]; e++) {
+                if (targets[e] == to) {
+                    return amounts[e];
+                }
+            }
+            return 0.0;
+        }
+    }
+
+    /**
+     * Estado reutilizable de una búsqueda: camino, posiciones y cursores por nivel.
+     * Se reserva una vez por búsqueda (o por tarea); avanzar y retroceder no crea
+     * objetos, sólo se materializan Strings al emitir una cadena.
+     */
+    private static final class SearchState {
+        private final CompiledGraph graph;
+        private final int[] path;
+        private final int[] cursor;
+        /** position[v] = índice de v en el camino + 1; 0 si no está en el camino */
+        private final int[] position;
+        private int length;
+
+        private final ChainCollector collector;
+        private final BacktrackingMetrics metrics;
+        private final SearchBudget budget;
+        private final CycleRegistry cycles;
+
+        // Nodos expandidos aún no cargados al presupuesto
+        private final int checkInterval;
+        private int pendingNodes;
+
+        /**
+         * BEST_FIRST: aristas de cada nivel ordenadas por valor, en bloques apilados
+         * ({@code order[orderEnd[nivel - 1] .. orderEnd[nivel])}); el cursor recorre
+         * {@code order} en lugar del CSR
+         */
+        private final boolean ordered;
+        private int[] order;
+        private long[] sortKeys;
+        private final int[] orderEnd;
+
+        SearchState(CompiledGraph graph, int prefixLength, int remainingDepth, ChainCollector collector,
+                    BacktrackingMetrics metrics, SearchBudget budget, CycleRegistry cycles, boolean ordered) {
+            // Un camino simple nunca repite wallets: su longitud está acotada por V
+            long maxPathLength = remainingDepth < 0 ? graph.size() : (long) prefixLength + remainingDepth;
+            int capacity = (int) Math.max(prefixLength, Math.min(maxPathLength, graph.size()));
+            this.graph = graph;
+            this.path = new int[capacity];
+            this.cursor = new int[capacity];
+            this.position = new int[graph.size()];
+            this.collector = collector;
+            this.metrics = metrics;
+            this.budget = budget;
+            this.cycles = cycles;
+            this.checkInterval = budget.checkInterval();
+            this.ordered = ordered;
+            this.order = ordered ? new int[16] : null;
+            this.sortKeys = ordered ? new long[16] : null;
+            this.orderEnd = ordered ? new int[capacity] : null;
+        }
+
+        /**
+         * Prepara el recorrido de las aristas de {@code wallet} en el nivel {@code level}
+         *
+         * @param blockStart Primera posición libre de {@code order} (fin del bloque padre)
+         * @param incomingEdge Arista por la que se llegó a {@code wallet} (-1 si se desconoce)
+         * @return Cursor inicial del nivel
+         */
+        int firstEdge(int level, int blockStart, int wallet, int incomingEdge) {
+            int from = graph.offsets[wallet];
+            if (!ordered) {
+                return from;
+            }
+            int degree = graph.offsets[wallet + 1] - from;
+            if (order.length < blockStart + degree) {
+                order = Arrays.copyOf(order, Math.max(order.length * 2, blockStart + degree));
+            }
+            if (sortKeys.length < degree) {
+                sortKeys = Arrays.copyOf(sortKeys, Math.max(sortKeys.length * 2, degree));
+            }
+            // Clave = (1 - valor) en los 32 bits altos + índice local: orden descendente
+            // por valor y, a igual valor, el orden original
+            for (int i = 0; i < degree; i++) {
+                double score = graph.edgeScore(from + i, incomingEdge);
+                sortKeys[i] = ((long) ((1.0 - score) * SCORE_SCALE) << 32) | i;
+            }
+            Arrays.sort(sortKeys, 0, degree);
+            for (int i = 0; i < degree; i++) {
+                order[blockStart + i] = from + (int) (sortKeys[i] & 0xFFFFFFFFL);
+            }
+            orderEnd[level] = blockStart + degree;
+            return blockStart;
+        }
+
+        /** Fin (exclusivo) del cursor del nivel {@code level} */
+        int edgeEnd(int level, int wallet) {
+            return ordered ? orderEnd[level] : graph.offsets[wallet + 1];
+        }
+
+        /** Arista en la posición {@code cursor} del recorrido */
+        int edgeAt(int cursor) {
+            return ordered ? order[cursor] : cursor;
+        }
+
+        /** Carga un camino completo (modo BEAM) */
+        void load(int[] wallets) {
+            for (int wallet : wallets) {
+                push(wallet);
+            }
+        }
+
+        /** Vacía el camino */
+        void unload() {
+            while (length > 0) {
+                pop();
+            }
+        }
+
+        void push(int wallet) {
+            path[length] = wallet;
+            position[wallet] = ++length;
+        }
+
+        void pop() {
+            position[path[--length]] = 0;
+        }
+
+        /**
+         * Entrada a un nodo: casos base de la recursión original.
+         *
+         * @return true si hay que iterar sus vecinos
+         */
+        boolean enter(int remainingDepth) {
+            if (budget.isStopped()) {
+                return false;
+            }
+            metrics.pathsExplored++;
+            if (++pendingNodes >= checkInterval && !flushNodes()) {
+                return false;
+            }
+
+            // CASO BASE 1: Profundidad máxima alcanzada
+            if (remainingDepth == 0) {
+                analyzePath("MAX_DEPTH_REACHED");
+                return false;
+            }
+
+            // CASO BASE 2: No hay más vecinos (callejón sin salida)
+            int wallet = path[length - 1];
+            if (graph.offsets[wallet] == graph.offsets[wallet + 1]) {
+                analyzePath("DEAD_END");
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * Carga al presupuesto los nodos pendientes junto con la memoria estimada
+         * (cadenas retenidas + ciclos vistos + estado propio)
+         *
+         * @return true si la búsqueda puede continuar
+         */
+        boolean flushNodes() {
+            long memory = collector.size() * CHAIN_BYTES_ESTIMATE
+                    + cycles.local.size() * CYCLE_BYTES_ESTIMATE
+                    + 12L * position.length;
+            boolean canContinue = budget.charge(pendingNodes, memory);
+            pendingNodes = 0;
+            return canContinue;
+        }
+
+        /**
+         * Registra el ciclo que se cierra al volver a {@code nextWallet}, cuya primera
+         * aparición en el camino está en {@code cycleStartIndex}
+         */
+        void recordCycle(int cycleStartIndex, int nextWallet) {
+            int cycleLength = length - cycleStartIndex;
+            double totalAmount = 0.0;
+            for (int i = cycleStartIndex; i < length; i++) {
+                int next = i + 1 < length ? path[i + 1] : nextWallet;
+                totalAmount += graph.amount(path[i], next);
+            }
+
+            // DEDUPLICACIÓN: cada ciclo (en cualquier rotación) cuenta una vez por búsqueda
+            if (cycles.local.add(path, cycleStartIndex, cycleLength, totalAmount) < 0) {
+                metrics.cycleRevisits++;
+                return;
+            }
+            metrics.cyclesDetected++;
+            cycles.share(path, cycleStartIndex, cycleLength, totalAmount);
+
+            if (budget.isStopped() || !collector.wouldAccept(CYCLE_SUSPICION)) {
+                return;
+            }
+
+            // Camino en rotación canónica: empieza en la menor dirección del ciclo
+            int rotation = CycleStore.minimalRotation(path, cycleStartIndex, cycleLength);
+            List<String> cyclePath = new ArrayList<>(cycleLength + 1);
+            for (int i = 0; i < cycleLength; i++) {
+                cyclePath.add(graph.names[path[cycleStartIndex + (rotation + i) % cycleLength]]);
+            }
+            cyclePath.add(cyclePath.get(0)); // Cerrar el ciclo
+
+            emit(SuspiciousChain.builder()
+                .path(cyclePath)
+                .type(ChainType.CYCLE)
+                .suspicionLevel(CYCLE_SUSPICION) // Ciclos son MUY sospechosos
+                .totalAmount(totalAmount)
+                .depth(cycleLength)
+                .description("Ciclo detectado: fondos retornan al origen")
+                .build());
+        }
+
+        /**
+         * Analiza el camino actual para determinar si es sospechoso
+         */
+        void analyzePath(String reason) {
+            int size = length;
+            if (size < 3) return; // Caminos muy cortos no son interesantes
+
+            // Calcular nivel de sospecha basado en patrones
+            double suspicionLevel = 0.0;
+            ChainType type = ChainType.LINEAR_CHAIN;
+
+            // PATRÓN 1: Cadena larga (peel chain potencial)
+            if (size >= 5) {
+                suspicionLevel += 0.3;
+                type = ChainType.PEEL_CHAIN;
+            }
+
+            // PATRÓN 2: Redistribución rápida
+            if (size >= 4 && size <= 6) {
+                suspicionLevel += 0.2;
+                type = ChainType.RAPID_REDISTRIBUTION;
+            }
+
+            // PATRÓN 3: Caminos moderadamente largos
+            suspicionLevel += 0.1 * size;
+
+            // Solo guardar si tiene nivel de sospecha significativo
+            suspicionLevel = Math.min(suspicionLevel, 1.0);
+            if (suspicionLevel < 0.3 || budget.isStopped() || !collector.wouldAccept(suspicionLevel)) {
+                return;
+            }
+
+            List<String> walletPath = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                walletPath.add(graph.names[path[i]]);
+            }
+            emit(SuspiciousChain.builder()
+                .path(walletPath)
                 .type(type)
-                .suspicionLevel(Math.min(suspicionLevel, 1.0))
-                .depth(path.size())
+                .suspicionLevel(suspicionLevel)
+                .depth(size)
                 .description("Cadena sospechosa detectada: " + reason)
                 .build());
         }
+
+        /** Entrega la cadena al colector y la descuenta del límite global si entró */
+        private void emit(SuspiciousChain chain) {
+            if (collector.offer(chain)) {
+                budget.recordAccepted();
+            }
+        }
     }
 
     /**
-     * Calcula el monto total transferido en un camino
+     * Ciclos vistos en una búsqueda (ids locales) y, opcionalmente, el almacén compartido
+     * entre búsquedas (ids del diccionario global)
      */
-    private double calculatePathAmount(List<String> path, Map<String, List<Edge>> graph) {
-        double total = 0.0;
-
-        for (int i = 0; i < path.size() - 1; i++) {
-            String from = path.get(i);
-            String to = path.get(i + 1);
-
-            List<Edge> edges = graph.getOrDefault(from, Collections.emptyList());
-            for (Edge edge : edges) {
-                if (edge.to.equals(to)) {
-                    total += edge.amount;
-                    break;
-                }
-            }
+    private static final class CycleRegistry {
+        private final CycleStore local = new CycleStore();
+        private final CycleStore shared;
+        private final int[] globalIds;
+
+        CycleRegistry(CompiledGraph graph, CycleStore shared) {
+            this.shared = shared;
+            this.globalIds = shared != null ? shared.walletIds(graph.names) : null;
         }
 
-        return total;
+        /** Registra en el almacén compartido un ciclo nuevo para esta búsqueda */
+        void share(int[] path, int from, int length, double totalAmount) {
+            if (shared == null) {
+                return;
+            }
+            int[] members = new int[length];
+            for (int i = 0; i < length; i++) {
+                members[i] = globalIds[path[from + i]];
+            }
+            shared.add(members, 0, length, totalAmount);
+        }
     }
 
     // CLASES AUXILIARES
@@ -310,6 +1127,56 @@ public class BacktrackingAlgorithm {
         MIXING_PATTERN           // Patrón de mezcla
     }
 
+    /**
+     * Orden en que se explora el árbol de caminos
+     */
+    public enum ExplorationStrategy {
+        DEPTH_FIRST,             // Backtracking clásico, aristas en orden original
+        BEST_FIRST,              // Backtracking con aristas de mayor valor primero
+        BEAM                     // Top-W caminos parciales por profundidad
+    }
+
+    /**
+     * Resultado de una búsqueda acotada por presupuesto
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class BacktrackingResult {
+        private List<SuspiciousChain> chains;
+        private BacktrackingMetrics metrics;
+        /** false si la búsqueda se detuvo por el presupuesto antes de agotar el espacio */
+        private boolean complete;
+        private String stopReason;
+        /**
+         * Cota de cuánto podría mejorar el top-K si se siguiera buscando: 0 si la búsqueda
+         * terminó; si no, la sospecha máxima posible (1.0) menos la peor cadena retenida
+         * (o 1.0 si el top-K no se llenó)
+         */
+        private double optimalityGap;
+        private long nodesExpanded;
+        private long executionTimeMs;
+        /** Lo que la política de supernodos truncó al construir el grafo (null si no aplica) */
+        private Map<String, Object> supernodeReport;
+
+        static BacktrackingResult of(ChainCollector collector, BacktrackingMetrics metrics, SearchBudget budget) {
+            double gap = 0.0;
+            if (!budget.isComplete()) {
+                gap = collector.isFull() ? Math.max(0.0, 1.0 - collector.worstRetainedSuspicion()) : 1.0;
+            }
+            return BacktrackingResult.builder()
+                .chains(collector.toSortedList())
+                .metrics(metrics)
+                .complete(budget.isComplete())
+                .stopReason(budget.getStopReason().name())
+                .optimalityGap(gap)
+                .nodesExpanded(budget.getNodesExpanded())
+                .executionTimeMs(budget.getElapsedMs())
+                .build();
+        }
+    }
+
     /**
      * Métricas de ejecución del algoritmo
      */
@@ -317,7 +1184,21 @@ public class BacktrackingAlgorithm {
     public static class BacktrackingMetrics {
         private int pathsExplored = 0;
         private int backtrackCount = 0;
+        /** Ciclos distintos (módulo rotación) encontrados en la búsqueda */
         private int cyclesDetected = 0;
+        /** Veces que se volvió a cerrar un ciclo ya registrado */
+        private int cycleRevisits = 0;
+        /** Caminos parciales descartados por el beam (sólo BEAM) */
+        private int beamPruned = 0;
+
+        /** Acumula las métricas de otra tarea */
+        public void merge(BacktrackingMetrics other) {
+            pathsExplored += other.pathsExplored;
+            backtrackCount += other.backtrackCount;
+            cyclesDetected += other.cyclesDetected;
+            cycleRevisits += other.cycleRevisits;
+            beamPruned += other.beamPruned;
+        }
     }
 }
 
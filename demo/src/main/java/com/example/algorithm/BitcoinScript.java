@@ -0,0 +1,393 @@
+package com.example.algorithm;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * DECODIFICACIÓN DE SCRIPTS DE BITCOIN A DIRECCIONES
+ *
+ * <h2>Descripción</h2>
+ * Clasifica un {@code scriptPubKey} con los nombres de tipo que usa BlockCypher y
+ * lo convierte a la dirección que mostraría un explorador:
+ * <ul>
+ *   <li><b>P2PKH</b> {@code OP_DUP OP_HASH160 <20> OP_EQUALVERIFY OP_CHECKSIG} → Base58Check</li>
+ *   <li><b>P2SH</b> {@code OP_HASH160 <20> OP_EQUAL} → Base58Check</li>
+ *   <li><b>P2PK</b> {@code <33|65> OP_CHECKSIG} → P2PKH de HASH160(pubkey), como BlockCypher</li>
+ *   <li><b>P2WPKH / P2WSH</b> {@code OP_0 <20|32>} → Bech32 (BIP-173)</li>
+ *   <li><b>P2TR</b> {@code OP_1 <32>} → Bech32m (BIP-350)</li>
+ * </ul>
+ * {@code OP_RETURN}, multisig desnudo y scripts no estándar no tienen dirección.
+ *
+ * <h2>Zero-copy</h2>
+ * Los métodos leen el script en su posición dentro del buffer (p. ej. un archivo
+ * de bloques mapeado); sólo el programa de 20/32 bytes se copia para codificarlo.
+ */
+public final class BitcoinScript {
+
+    public static final String PAY_TO_PUBKEY_HASH = "pay-to-pubkey-hash";
+    public static final String PAY_TO_SCRIPT_HASH = "pay-to-script-hash";
+    public static final String PAY_TO_PUBKEY = "pay-to-pubkey";
+    public static final String PAY_TO_WITNESS_PUBKEY_HASH = "pay-to-witness-pubkey-hash";
+    public static final String PAY_TO_WITNESS_SCRIPT_HASH = "pay-to-witness-script-hash";
+    public static final String PAY_TO_TAPROOT = "pay-to-taproot";
+    public static final String NULL_DATA = "null-data";
+    public static final String NONSTANDARD = "nonstandard";
+
+    private static final char[] BASE58 = "123456789ABCDEFGHJKLMNPQRSTUVWXYZabcdefghijkmnopqrstuvwxyz".toCharArray();
+    private static final char[] BECH32 = "qpzry9x8gf2tvdw0s3jn54khce6mua7l".toCharArray();
+    private static final int BECH32_CONST = 1;
+    private static final int BECH32M_CONST = 0x2bc830a3;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Parámetros de red: magic de los archivos blk*.dat y prefijos de dirección
+     */
+    public enum Network {
+        MAINNET(0xD9B4BEF9, 0x00, 0x05, "bc"),
+        TESTNET(0x0709110B, 0x6F, 0xC4, "tb");
+
+        private final int magic;
+        private final int pubkeyHashVersion;
+        private final int scriptHashVersion;
+        private final String bech32Hrp;
+
+        Network(int magic, int pubkeyHashVersion, int scriptHashVersion, String bech32Hrp) {
+            this.magic = magic;
+            this.pubkeyHashVersion = pubkeyHashVersion;
+            this.scriptHashVersion = scriptHashVersion;
+            this.bech32Hrp = bech32Hrp;
+        }
+
+        /** Magic leído en little-endian desde el archivo */
+        public int getMagic() {
+            return magic;
+        }
+    }
+
+    private BitcoinScript() {
+    }
+
+    /**
+     * Tipo del script en {@code buffer[offset, offset + length)}
+     */
+    public static String type(ByteBuffer buffer, int offset, int length) {
+        if (length == 25 && u8(buffer, offset) == 0x76 && u8(buffer, offset + 1) == 0xA9
+                && u8(buffer, offset + 2) == 0x14 && u8(buffer, offset + 23) == 0x88
+                && u8(buffer, offset + 24) == 0xAC) {
+            return PAY_TO_PUBKEY_HASH;
+        }
+        if (length == 23 && u8(buffer, offset) == 0xA9 && u8(buffer, offset + 1) == 0x14
+                && u8(buffer, offset + 22) == 0x87) {
+            return PAY_TO_SCRIPT_HASH;
+        }
+        if (length == 22 && u8(buffer, offset) == 0x00 && u8(buffer, offset + 1) == 0x14) {
+            return PAY_TO_WITNESS_PUBKEY_HASH;
+        }
+        if (length == 34 && u8(buffer, offset) == 0x00 && u8(buffer, offset + 1) == 0x20) {
+            return PAY_TO_WITNESS_SCRIPT_HASH;
+        }
+        if (length == 34 && u8(buffer, offset) == 0x51 && u8(buffer, offset + 1) == 0x20) {
+            return PAY_TO_TAPROOT;
+        }
+        if ((length == 35 && u8(buffer, offset) == 0x21 || length == 67 && u8(buffer, offset) == 0x41)
+                && u8(buffer, offset + length - 1) == 0xAC) {
+            return PAY_TO_PUBKEY;
+        }
+        if (length > 0 && u8(buffer, offset) == 0x6A) {
+            return NULL_DATA;
+        }
+        return NONSTANDARD;
+    }
+
+    /**
+     * Dirección del script ya clasificado con {@link #type}
+     *
+     * @return null si el tipo no tiene dirección
+     */
+    public static String address(Network network, String type, ByteBuffer buffer, int offset, int length) {
+        switch (type) {
+            case PAY_TO_PUBKEY_HASH:
+                return base58Check(network.pubkeyHashVersion, copy(buffer, offset + 3, 20));
+            case PAY_TO_SCRIPT_HASH:
+                return base58Check(network.scriptHashVersion, copy(buffer, offset + 2, 20));
+            case PAY_TO_PUBKEY:
+                return base58Check(network.pubkeyHashVersion, hash160(copy(buffer, offset + 1, length - 2)));
+            case PAY_TO_WITNESS_PUBKEY_HASH:
+                return segwit(network.bech32Hrp, 0, copy(buffer, offset + 2, 20));
+            case PAY_TO_WITNESS_SCRIPT_HASH:
+                return segwit(network.bech32Hrp, 0, copy(buffer, offset + 2, 32));
+            case PAY_TO_TAPROOT:
+                return segwit(network.bech32Hrp, 1, copy(buffer, offset + 2, 32));
+            default:
+                return null;
+        }
+    }
+
+    /** Versión + payload + 4 bytes de SHA-256d, en Base58 */
+    static String base58Check(int version, byte[] payload) {
+        byte[] data = new byte[payload.length + 5];
+        data[0] = (byte) version;
+        System.arraycopy(payload, 0, data, 1, payload.length);
+        byte[] checksum = sha256d(data, 0, payload.length + 1);
+        System.arraycopy(checksum, 0, data, payload.length + 1, 4);
+        return base58(data);
+    }
+
+    static String base58(byte[] input) {
+        int zeros = 0;
+        while (zeros < input.length && input[zeros] == 0) {
+            zeros++;
+        }
+        byte[] number = input.clone();
+        char[] encoded = new char[input.length * 2];
+        int out = encoded.length;
+        int start = zeros;
+        while (start < number.length) {
+            // Divide el número (base 256) por 58 y emite el resto
+            int remainder = 0;
+            for (int i = start; i < number.length; i++) {
+                int digit = (remainder << 8) | (number[i] & 0xFF);
+                number[i] = (byte) (digit / 58);
+                remainder = digit % 58;
+            }
+            encoded[--out] = BASE58[remainder];
+            while (start < number.length && number[start] == 0) {
+                start++;
+            }
+        }
+        while (zeros-- > 0) {
+            encoded[--out] = BASE58[0];
+        }
+        return new String(encoded, out, encoded.length - out);
+    }
+
+    /** Dirección segwit: Bech32 para la versión 0, Bech32m desde la 1 */
+    static String segwit(String hrp, int version, byte[] program) {
+        int[] groups = new int[1 + (program.length * 8 + 4) / 5];
+        groups[0] = version;
+        int accumulator = 0;
+        int bits = 0;
+        int n = 1;
+        for (byte b : program) {
+            accumulator = (accumulator << 8) | (b & 0xFF);
+            bits += 8;
+            while (bits >= 5) {
+                bits -= 5;
+                groups[n++] = (accumulator >>> bits) & 31;
+            }
+        }
+        if (bits > 0) {
+            groups[n++] = (accumulator << (5 - bits)) & 31;
+        }
+
+        int[] values = new int[hrp.length() * 2 + 1 + n + 6];
+        int v = 0;
+        for (int i = 0; i < hrp.length(); i++) {
+            values[v++] = hrp.charAt(i) >> 5;
+        }
+        values[v++] = 0;
+        for (int i = 0; i < hrp.length(); i++) {
+            values[v++] = hrp.charAt(i) & 31;
+        }
+        System.arraycopy(groups, 0, values, v, n);
+        int checksum = polymod(values) ^ (version == 0 ? BECH32_CONST : BECH32M_CONST);
+
+        StringBuilder address = new StringBuilder(hrp.length() + 1 + n + 6).append(hrp).append('1');
+        for (int i = 0; i < n; i++) {
+            address.append(BECH32[groups[i]]);
+        }
+        for (int i = 0; i < 6; i++) {
+            address.append(BECH32[(checksum >>> (5 * (5 - i))) & 31]);
+        }
+        return address.toString();
+    }
+
+    private static int polymod(int[] values) {
+        int[] generator = {0x3b6a57b2, 0x26508e6d, 0x1ea119fa, 0x3d4233dd, 0x2a1462b3};
+        int checksum = 1;
+        for (int value : values) {
+            int top = checksum >>> 25;
+            checksum = ((checksum & 0x1ffffff) << 5) ^ value;
+            for (int i = 0; i < 5; i++) {
+                if (((top >>> i) & 1) != 0) {
+                    checksum ^= generator[i];
+                }
+            }
+        }
+        return checksum;
+    }
+
+    /** RIPEMD-160(SHA-256(data)) */
+    static byte[] hash160(byte[] data) {
+        return Ripemd160.digest(sha256().digest(data));
+    }
+
+    /** SHA-256(SHA-256(data[offset, offset + length))) */
+    static byte[] sha256d(byte[] data, int offset, int length) {
+        MessageDigest digest = sha256();
+        digest.update(data, offset, length);
+        return digest.digest(digest.digest());
+    }
+
+    static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hex en el orden de visualización de Bitcoin (bytes invertidos), como los
+     * hashes de bloque y transacción de los exploradores
+     */
+    public static String reversedHex(byte[] hash) {
+        char[] chars = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            int b = hash[hash.length - 1 - i] & 0xFF;
+            chars[2 * i] = HEX[b >>> 4];
+            chars[2 * i + 1] = HEX[b & 0xF];
+        }
+        return new String(chars);
+    }
+
+    /** Inverso de {@link #reversedHex}: bytes en el orden interno */
+    public static byte[] fromReversedHex(String hex) {
+        byte[] bytes = new byte[hex.length() / 2];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[bytes.length - 1 - i] = (byte) Integer.parseInt(hex, 2 * i, 2 * i + 2, 16);
+        }
+        return bytes;
+    }
+
+    /** Hex en el orden del buffer (scripts) */
+    public static String hex(ByteBuffer buffer, int offset, int length) {
+        char[] chars = new char[length * 2];
+        for (int i = 0; i < length; i++) {
+            int b = u8(buffer, offset + i);
+            chars[2 * i] = HEX[b >>> 4];
+            chars[2 * i + 1] = HEX[b & 0xF];
+        }
+        return new String(chars);
+    }
+
+    private static int u8(ByteBuffer buffer, int index) {
+        return buffer.get(index) & 0xFF;
+    }
+
+    private static byte[] copy(ByteBuffer buffer, int offset, int length) {
+        byte[] bytes = new byte[length];
+        buffer.get(offset, bytes);
+        return bytes;
+    }
+
+    /**
+     * RIPEMD-160 (no está en los proveedores estándar del JDK)
+     */
+    static final class Ripemd160 {
+
+        private static final int[] R_LEFT = {
+            0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15,
+            7, 4, 13, 1, 10, 6, 15, 3, 12, 0, 9, 5, 2, 14, 11, 8,
+            3, 10, 14, 4, 9, 15, 8, 1, 2, 7, 0, 6, 13, 11, 5, 12,
+            1, 9, 11, 10, 0, 8, 12, 4, 13, 3, 7, 15, 14, 5, 6, 2,
+            4, 0, 5, 9, 7, 12, 2, 10, 14, 1, 3, 8, 11, 6, 15, 13
+        };
+        private static final int[] R_RIGHT = {
+            5, 14, 7, 0, 9, 2, 11, 4, 13, 6, 15, 8, 1, 10, 3, 12,
+            6, 11, 3, 7, 0, 13, 5, 10, 14, 15, 8, 12, 4, 9, 1, 2,
+            15, 5, 1, 3, 7, 14, 6, 9, 11, 8, 12, 2, 10, 0, 4, 13,
+            8, 6, 4, 1, 3, 11, 15, 0, 5, 12, 2, 13, 9, 7, 10, 14,
+            12, 15, 10, 4, 1, 5, 8, 7, 6, 2, 13, 14, 0, 3, 9, 11
+        };
+        private static final int[] S_LEFT = {
+            11, 14, 15, 12, 5, 8, 7, 9, 11, 13, 14, 15, 6, 7, 9, 8,
+            7, 6, 8, 13, 11, 9, 7, 15, 7, 12, 15, 9, 11, 7, 13, 12,
+            11, 13, 6, 7, 14, 9, 13, 15, 14, 8, 13, 6, 5, 12, 7, 5,
+            11, 12, 14, 15, 14, 15, 9, 8, 9, 14, 5, 6, 8, 6, 5, 12,
+            9, 15, 5, 11, 6, 8, 13, 12, 5, 12, 13, 14, 11, 8, 5, 6
+        };
+        private static final int[] S_RIGHT = {
+            8, 9, 9, 11, 13, 15, 15, 5, 7, 7, 8, 11, 14, 14, 12, 6,
+            9, 13, 15, 7, 12, 8, 9, 11, 7, 7, 12, 7, 6, 15, 13, 11,
+            9, 7, 15, 11, 8, 6, 6, 14, 12, 13, 5, 14, 13, 13, 7, 5,
+            15, 5, 8, 11, 14, 14, 6, 14, 6, 9, 12, 9, 12, 5, 15, 8,
+            8, 5, 12, 9, 12, 5, 14, 6, 8, 13, 6, 5, 15, 13, 11, 11
+        };
+        private static final int[] K_LEFT = {0x00000000, 0x5A827999, 0x6ED9EBA1, 0x8F1BBCDC, 0xA953FD4E};
+        private static final int[] K_RIGHT = {0x50A28BE6, 0x5C4DD124, 0x6D703EF3, 0x7A6D76E9, 0x00000000};
+
+        private Ripemd160() {
+        }
+
+        static byte[] digest(byte[] message) {
+            // Relleno MD4: 0x80, ceros y longitud en bits (64 bits little-endian)
+            int padded = ((message.length + 8) / 64 + 1) * 64;
+            byte[] data = new byte[padded];
+            System.arraycopy(message, 0, data, 0, message.length);
+            data[message.length] = (byte) 0x80;
+            long bitLength = (long) message.length * 8;
+            for (int i = 0; i < 8; i++) {
+                data[padded - 8 + i] = (byte) (bitLength >>> (8 * i));
+            }
+
+            int[] h = {0x67452301, 0xEFCDAB89, 0x98BADCFE, 0x10325476, 0xC3D2E1F0};
+            int[] x = new int[16];
+            for (int block = 0; block < padded; block += 64) {
+                for (int i = 0; i < 16; i++) {
+                    int p = block + 4 * i;
+                    x[i] = (data[p] & 0xFF) | (data[p + 1] & 0xFF) << 8
+                            | (data[p + 2] & 0xFF) << 16 | (data[p + 3] & 0xFF) << 24;
+                }
+                int al = h[0], bl = h[1], cl = h[2], dl = h[3], el = h[4];
+                int ar = h[0], br = h[1], cr = h[2], dr = h[3], er = h[4];
+                for (int j = 0; j < 80; j++) {
+                    int round = j >>> 4;
+                    int t = Integer.rotateLeft(al + f(j, bl, cl, dl) + x[R_LEFT[j]] + K_LEFT[round], S_LEFT[j]) + el;
+                    al = el;
+                    el = dl;
+                    dl = Integer.rotateLeft(cl, 10);
+                    cl = bl;
+                    bl = t;
+                    t = Integer.rotateLeft(ar + f(79 - j, br, cr, dr) + x[R_RIGHT[j]] + K_RIGHT[round], S_RIGHT[j]) + er;
+                    ar = er;
+                    er = dr;
+                    dr = Integer.rotateLeft(cr, 10);
+                    cr = br;
+                    br = t;
+                }
+                int t = h[1] + cl + dr;
+                h[1] = h[2] + dl + er;
+                h[2] = h[3] + el + ar;
+                h[3] = h[4] + al + br;
+                h[4] = h[0] + bl + cr;
+                h[0] = t;
+            }
+
+            byte[] out = new byte[20];
+            for (int i = 0; i < 5; i++) {
+                for (int b = 0; b < 4; b++) {
+                    out[4 * i + b] = (byte) (h[i] >>> (8 * b));
+                }
+            }
+            return out;
+        }
+
+        private static int f(int j, int x, int y, int z) {
+            if (j < 16) {
+                return x ^ y ^ z;
+            }
+            if (j < 32) {
+                return (x & y) | (~x & z);
+            }
+            if (j < 48) {
+                return (x | ~y) ^ z;
+            }
+            if (j < 64) {
+                return (x & z) | (y & ~z);
+            }
+            return x ^ (y | ~z);
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.example.algorithm;
+
+import com.example.algorithm.BlockFileParser.Block;
+import com.example.algorithm.BlockFileParser.Input;
+import com.example.algorithm.BlockFileParser.Output;
+import com.example.algorithm.BlockFileParser.Tx;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * IMPORTADOR OFFLINE DE ARCHIVOS blk*.dat
+ *
+ * <h2>Descripción</h2>
+ * Recorre los archivos de bloques de Bitcoin Core en tres pasadas, cada una
+ * paralela por archivo:
+ * <ol>
+ *   <li><b>Cabeceras:</b> sólo los 80 bytes de cada bloque. Los bloques se guardan
+ *       fuera de orden y hay bloques huérfanos, así que la altura se calcula
+ *       enlazando {@code prevHash} y la cadena principal es la más larga</li>
+ *   <li><b>Índice:</b> cada output de la cadena principal entra en un
+ *       {@link OutpointIndex} fuera del heap (txid, vout) → (valor, dirección)</li>
+ *   <li><b>Emisión:</b> se resuelve el outpoint de cada input contra el índice y
+ *       la transacción se entrega al {@link Sink} del archivo (CSV, escritura
+ *       directa...)</li>
+ * </ol>
+ * Un input puede gastar un output de un archivo posterior (bloques fuera de
+ * orden), por eso el índice se completa antes de emitir.
+ *
+ * <h2>Complejidad</h2>
+ * O(bytes) por pasada; memoria O(bloques) en el heap y O(outputs) fuera de él.
+ */
+@Slf4j
+public final class BlockFileImporter {
+
+    private static final String NULL_HASH = "0".repeat(64);
+
+    /**
+     * Destino de las transacciones de un archivo; se usa desde un solo hilo
+     */
+    public interface Sink extends AutoCloseable {
+        void accept(BlockContext block, Tx tx, List<ResolvedInput> inputs) throws IOException;
+
+        @Override
+        void close() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface SinkFactory {
+        Sink open(Path file) throws IOException;
+    }
+
+    private final BitcoinScript.Network network;
+    private final int parallelism;
+
+    private final AtomicLong transactions = new AtomicLong();
+    private final AtomicLong outputs = new AtomicLong();
+    private final AtomicLong inputs = new AtomicLong();
+    private final AtomicLong unresolvedInputs = new AtomicLong();
+
+    public BlockFileImporter(BitcoinScript.Network network, int parallelism) {
+        this.network = network;
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Importa los archivos (en cualquier orden) y emite las transacciones de la
+     * cadena principal
+     */
+    public Report run(List<Path> files, SinkFactory sinks) throws IOException, InterruptedException {
+        long startTime = System.currentTimeMillis();
+        transactions.set(0);
+        outputs.set(0);
+        inputs.set(0);
+        unresolvedInputs.set(0);
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "blk-import");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            // 1. Cabeceras → cadena principal con alturas
+            Map<String, String> parents = new ConcurrentHashMap<>();
+            BlockFileParser headerParser = new BlockFileParser(network, false);
+            forEachFile(pool, files, file -> headerParser.parse(file, true,
+                    block -> parents.put(block.getHashHex(), block.getPrevHashHex())));
+            MainChain chain = mainChain(parents);
+            log.info("Cabeceras: {} bloques, cadena principal de {} (altura tip {}), {} fuera de ella",
+                    parents.size(), chain.heights.size(), chain.tipHeight, parents.size() - chain.heights.size());
+
+            // 2. Índice de outpoints
+            long totalBytes = 0;
+            for (Path file : files) {
+                totalBytes += Files.size(file);
+            }
+            try (OutpointIndex index = new OutpointIndex(totalBytes / 100)) {
+                BlockFileParser indexParser = new BlockFileParser(network, false);
+                forEachFile(pool, files, file -> indexParser.parse(file, false, block -> {
+                    if (chain.heights.containsKey(block.getHashHex())) {
+                        for (Tx tx : block.getTransactions()) {
+                            for (Output output : tx.getOutputs()) {
+                                index.put(tx.getTxid(), output.getIndex(), output.getValue(), output.getAddress());
+                            }
+                        }
+                    }
+                }));
+                log.info("Índice de outpoints: {} outputs, {} MB fuera del heap",
+                        index.size(), index.offHeapBytes() / (1024 * 1024));
+
+                // 3. Emisión con los inputs resueltos
+                BlockFileParser emitParser = new BlockFileParser(network, true);
+                forEachFile(pool, files, file -> {
+                    try (Sink sink = sinks.open(file)) {
+                        emitParser.parse(file, false, block -> emit(block, chain, index, sink));
+                    }
+                    return null;
+                });
+                return new Report(files.size(), parents.size(), chain.heights.size(),
+                        parents.size() - chain.heights.size(), chain.tipHeight, chain.genesis,
+                        transactions.get(), outputs.get(), inputs.get(), unresolvedInputs.get(),
+                        index.size(), index.offHeapBytes(), System.currentTimeMillis() - startTime);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private void emit(Block block, MainChain chain, OutpointIndex index, Sink sink) {
+        String hash = block.getHashHex();
+        Integer depth = chain.heights.get(hash);
+        if (depth == null) {
+            return;  // bloque huérfano: sus transacciones están (o no) en la cadena principal
+        }
+        int height = chain.genesis ? depth : -1;
+        int confirmations = chain.tipHeight - depth + 1;
+        BlockContext context = new BlockContext(hash, height, block.getTime(), confirmations);
+
+        for (Tx tx : block.getTransactions()) {
+            List<ResolvedInput> resolved = new ArrayList<>(tx.getInputs().size());
+            if (!tx.isCoinbase()) {
+                for (Input input : tx.getInputs()) {
+                    OutpointIndex.Output spent = index.get(input.getPrevTxid(), input.getPrevIndex());
+                    if (spent == null) {
+                        unresolvedInputs.incrementAndGet();
+                    }
+                    resolved.add(new ResolvedInput(input,
+                            spent != null ? spent.getValue() : -1L,
+                            spent != null ? spent.getAddress() : null));
+                }
+            }
+            try {
+                sink.accept(context, tx, resolved);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            transactions.incrementAndGet();
+            outputs.addAndGet(tx.getOutputs().size());
+            inputs.addAndGet(resolved.size());
+        }
+    }
+
+    /**
+     * Profundidad de cada bloque desde su raíz y la cadena más larga. Si la raíz
+     * es el génesis (prevHash nulo) la profundidad es la altura.
+     */
+    static MainChain mainChain(Map<String, String> parents) {
+        Map<String, Integer> depths = new HashMap<>(parents.size() * 2);
+        Deque<String> pending = new ArrayDeque<>();
+        String tip = null;
+        int tipDepth = -1;
+        for (String start : parents.keySet()) {
+            String current = start;
+            while (current != null && !depths.containsKey(current)) {
+                pending.push(current);
+                String parent = parents.get(current);
+                current = parent != null && parents.containsKey(parent) ? parent : null;
+            }
+            int depth = current != null ? depths.get(current) : -1;
+            while (!pending.isEmpty()) {
+                String hash = pending.pop();
+                depths.put(hash, ++depth);
+                if (depth > tipDepth || depth == tipDepth && hash.compareTo(tip) < 0) {
+                    tip = hash;
+                    tipDepth = depth;
+                }
+            }
+        }
+
+        Map<String, Integer> heights = new HashMap<>(tipDepth + 1);
+        String root = null;
+        for (String hash = tip; hash != null; hash = parents.containsKey(parents.get(hash)) ? parents.get(hash) : null) {
+            heights.put(hash, depths.get(hash));
+            root = hash;
+        }
+        boolean genesis = root != null && NULL_HASH.equals(parents.get(root));
+        return new MainChain(heights, tipDepth, genesis);
+    }
+
+    private static void forEachFile(ExecutorService pool, List<Path> files, FileTask task)
+            throws IOException, InterruptedException {
+        List<Future<Object>> futures = new ArrayList<>(files.size());
+        for (Path file : files) {
+            futures.add(pool.submit((Callable<Object>) () -> task.run(file)));
+        }
+        try {
+            for (Future<Object> future : futures) {
+                future.get();
+            }
+        } catch (ExecutionException e) {
+            futures.forEach(future -> future.cancel(true));
+            Throwable cause = e.getCause() instanceof UncheckedIOException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    @FunctionalInterface
+    private interface FileTask {
+        Object run(Path file) throws IOException;
+    }
+
+    static final class MainChain {
+        private final Map<String, Integer> heights;
+        private final int tipHeight;
+        private final boolean genesis;
+
+        MainChain(Map<String, Integer> heights, int tipHeight, boolean genesis) {
+            this.heights = heights;
+            this.tipHeight = tipHeight;
+            this.genesis = genesis;
+        }
+    }
+
+    /**
+     * Bloque de la cadena principal al que pertenece una transacción
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class BlockContext {
+        private final String hash;
+        /** -1 si los archivos no incluyen el génesis */
+        private final int height;
+        private final long time;
+        private final int confirmations;
+    }
+
+    /**
+     * Input con el output que gasta resuelto contra el índice
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class ResolvedInput {
+        private final Input input;
+        /** Satoshis del output gastado; -1 si no está en los archivos importados */
+        private final long value;
+        private final String address;
+
+        public boolean isResolved() {
+            return value >= 0;
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Report {
+        private final int files;
+        private final long blocks;
+        private final long mainChainBlocks;
+        private final long staleBlocks;
+        private final int tipHeight;
+        private final boolean genesisFound;
+        private final long transactions;
+        private final long outputs;
+        private final long inputs;
+        private final long unresolvedInputs;
+        private final long indexedOutpoints;
+        private final long offHeapBytes;
+        private final long elapsedMs;
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.algorithm;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * PARSER DE ARCHIVOS DE BLOQUES DE BITCOIN CORE (blk*.dat)
+ *
+ * <h2>Formato</h2>
+ * Cada archivo es una secuencia de registros {@code magic (4) | tamaño (4) | bloque};
+ * el bloque es la cabecera de 80 bytes, un varint con el número de transacciones
+ * y las transacciones serializadas (BIP-144 si llevan witness). Bitcoin Core
+ * prealoca los archivos, así que el final puede ser relleno de ceros.
+ *
+ * <h2>Zero-copy</h2>
+ * El archivo se mapea en memoria y se recorre con lecturas absolutas sobre el
+ * {@link MappedByteBuffer}: los hashes se calculan sobre vistas del buffer y sólo
+ * se materializan los campos que se entregan (txids, valores, direcciones).
+ *
+ * <h2>Hashes</h2>
+ * <ul>
+ *   <li><b>Bloque:</b> SHA-256d de la cabecera</li>
+ *   <li><b>Transacción (txid):</b> SHA-256d de la serialización sin witness
+ *       (versión + inputs/outputs + locktime), igual para transacciones segwit</li>
+ * </ul>
+ *
+ * <h2>Complejidad</h2>
+ * O(bytes del archivo); la memoria es la de un bloque decodificado a la vez.
+ */
+public final class BlockFileParser {
+
+    private static final int HEADER_BYTES = 80;
+    private static final byte[] NULL_HASH = new byte[32];
+
+    private final BitcoinScript.Network network;
+    private final boolean withScripts;
+
+    /**
+     * @param withScripts true para incluir los scripts en hex (más lento; no hace
+     *                    falta para indexar outpoints)
+     */
+    public BlockFileParser(BitcoinScript.Network network, boolean withScripts) {
+        this.network = network;
+        this.withScripts = withScripts;
+    }
+
+    /**
+     * Recorre los bloques de un archivo
+     *
+     * @param headersOnly true para saltar las transacciones (sólo cabeceras)
+     * @return Bloques leídos
+     */
+    public long parse(Path file, boolean headersOnly, Consumer<Block> visitor) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            return parse(mapped, file.getFileName().toString(), headersOnly, visitor);
+        }
+    }
+
+    /**
+     * Recorre los bloques de un buffer con el formato de blk*.dat
+     */
+    public long parse(ByteBuffer data, String source, boolean headersOnly, Consumer<Block> visitor) {
+        ByteBuffer buffer = data.duplicate().order(ByteOrder.LITTLE_ENDIAN);
+        MessageDigest digest = BitcoinScript.sha256();
+        long blocks = 0;
+        int position = 0;
+        int limit = buffer.limit();
+
+        while (position + 8 <= limit) {
+            int magic = buffer.getInt(position);
+            if (magic == 0) {
+                break;  // relleno de la prealocación
+            }
+            if (magic != network.getMagic()) {
+                throw new IllegalStateException(String.format(
+                        "Magic inesperado 0x%08x en %s@%d (¿archivos ofuscados con xor.dat u otra red?)",
+                        magic, source, position));
+            }
+            int size = buffer.getInt(position + 4);
+            int start = position + 8;
+            if (size < HEADER_BYTES || (long) start + size > limit) {
+                break;  // bloque a medio escribir al final del archivo
+            }
+            visitor.accept(parseBlock(buffer, start, size, source, headersOnly, digest));
+            blocks++;
+            position = start + size;
+        }
+        return blocks;
+    }
+
+    private Block parseBlock(ByteBuffer buffer, int start, int size, String source, boolean headersOnly,
+                             MessageDigest digest) {
+        byte[] hash = sha256d(digest, buffer, start, HEADER_BYTES, -1, 0, -1, 0);
+        byte[] prevHash = new byte[32];
+        buffer.get(start + 4, prevHash);
+        long time = buffer.getInt(start + 68) & 0xFFFFFFFFL;
+
+        Cursor cursor = new Cursor(buffer, start + HEADER_BYTES);
+        int txCount = (int) cursor.varint();
+        List<Tx> transactions = new ArrayList<>(headersOnly ? 0 : txCount);
+        if (!headersOnly) {
+            for (int i = 0; i < txCount; i++) {
+                transactions.add(parseTransaction(cursor, digest));
+            }
+            if (cursor.position != start + size) {
+                throw new IllegalStateException("Bloque " + BitcoinScript.reversedHex(hash) + " en " + source
+                        + ": se leyeron " + (cursor.position - start) + " de " + size + " bytes");
+            }
+        }
+        return new Block(hash, prevHash, time, txCount, transactions, source, start - 8);
+    }
+
+    private Tx parseTransaction(Cursor cursor, MessageDigest digest) {
+        ByteBuffer buffer = cursor.buffer;
+        int txStart = cursor.position;
+        cursor.position += 4;  // versión
+        boolean segwit = buffer.get(cursor.position) == 0 && buffer.get(cursor.position + 1) == 1;
+        if (segwit) {
+            cursor.position += 2;
+        }
+
+        int bodyStart = cursor.position;
+        int inputCount = (int) cursor.varint();
+        List<Input> inputs = new ArrayList<>(inputCount);
+        for (int i = 0; i < inputCount; i++) {
+            byte[] prevTxid = new byte[32];
+            buffer.get(cursor.position, prevTxid);
+            int prevIndex = buffer.getInt(cursor.position + 32);
+            cursor.position += 36;
+            int scriptLength = (int) cursor.varint();
+            String script = withScripts ? BitcoinScript.hex(buffer, cursor.position, scriptLength) : null;
+            cursor.position += scriptLength + 4;  // script + sequence
+            inputs.add(new Input(prevTxid, prevIndex, script));
+        }
+
+        int outputCount = (int) cursor.varint();
+        List<Output> outputs = new ArrayList<>(outputCount);
+        for (int i = 0; i < outputCount; i++) {
+            long value = buffer.getLong(cursor.position);
+            cursor.position += 8;
+            int scriptLength = (int) cursor.varint();
+            String type = BitcoinScript.type(buffer, cursor.position, scriptLength);
+            String address = BitcoinScript.address(network, type, buffer, cursor.position, scriptLength);
+            String script = withScripts ? BitcoinScript.hex(buffer, cursor.position, scriptLength) : null;
+            cursor.position += scriptLength;
+            outputs.add(new Output(i, value, type, address, script));
+        }
+        int bodyEnd = cursor.position;
+
+        if (segwit) {
+            for (int i = 0; i < inputCount; i++) {
+                long items = cursor.varint();
+                for (long item = 0; item < items; item++) {
+                    int length = (int) cursor.varint();
+                    cursor.position += length;
+                }
+            }
+        }
+        int lockTime = cursor.position;
+        cursor.position += 4;
+
+        byte[] txid = segwit
+                ? sha256d(digest, buffer, txStart, 4, bodyStart, bodyEnd - bodyStart, lockTime, 4)
+                : sha256d(digest, buffer, txStart, cursor.position - txStart, -1, 0, -1, 0);
+        boolean coinbase = inputCount == 1 && inputs.get(0).getPrevIndex() == -1
+                && Arrays.equals(inputs.get(0).getPrevTxid(), NULL_HASH);
+        return new Tx(txid, segwit, coinbase, inputs, outputs);
+    }
+
+    /** SHA-256d de hasta tres tramos del buffer (sin copiarlos al heap) */
+    private static byte[] sha256d(MessageDigest digest, ByteBuffer buffer,
+                                  int offset1, int length1, int offset2, int length2, int offset3, int length3) {
+        digest.update(buffer.slice(offset1, length1));
+        if (offset2 >= 0) {
+            digest.update(buffer.slice(offset2, length2));
+        }
+        if (offset3 >= 0) {
+            digest.update(buffer.slice(offset3, length3));
+        }
+        return digest.digest(digest.digest());
+    }
+
+    /** Posición de lectura dentro de un bloque */
+    private static final class Cursor {
+        private final ByteBuffer buffer;
+        private int position;
+
+        Cursor(ByteBuffer buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        /** CompactSize: 1, 3, 5 o 9 bytes */
+        long varint() {
+            int first = buffer.get(position) & 0xFF;
+            if (first < 0xFD) {
+                position += 1;
+                return first;
+            }
+            long value;
+            if (first == 0xFD) {
+                value = buffer.getShort(position + 1) & 0xFFFFL;
+                position += 3;
+            } else if (first == 0xFE) {
+                value = buffer.getInt(position + 1) & 0xFFFFFFFFL;
+                position += 5;
+            } else {
+                value = buffer.getLong(position + 1);
+                position += 9;
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Bloque decodificado (sin transacciones si se pidieron sólo cabeceras)
+     */
+    @Getter
+    @AllArgsConstructor
+    public static final class Block {
+        /** Hash en orden interno; {@link #getHashHex()} para el de los exploradores */
+        private final byte[] hash;
+        private final byte[] prevHash;
+        /** Timestamp de la cabecera (epoch s) */
+        private final long time;
+        private final int txCount;
+        private final List<Tx> transactions;
+        private final String source;
+        private final int offset;
+
+        public String getHashHex() {
+            return BitcoinScript.reversedHex(hash);
+        }
+
+        public String getPrevHashHex() {
+            return BitcoinScript.reversedHex(prevHash);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Tx {
+        private final byte[] txid;
+        private final boolean segwit;
+        private final boolean coinbase;
+        private final List<Input> inputs;
+        private final List<Output> outputs;
+
+        public String getHashHex() {
+            return BitcoinScript.reversedHex(txid);
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Input {
+        /** Txid del output gastado, en orden interno */
+        private final byte[] prevTxid;
+        /** vout gastado; -1 (0xFFFFFFFF) en la coinbase */
+        private final int prevIndex;
+        /** scriptSig en hex, o null si el parser no incluye scripts */
+        private final String script;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static final class Output {
+        private final int index;
+        private final long value;
+        private final String scriptType;
+        /** null si el script no tiene dirección (OP_RETURN, multisig, no estándar) */
+        private final String address;
+        private final String script;
+    }
+}
@@ -0,0 +1,128 @@
+package com.example.algorithm;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * FILTRO DE BLOOM DE DIRECCIONES
+ *
+ * <h2>Descripción</h2>
+ * Conjunto probabilístico de m bits con k funciones hash: {@link #mightContain}
+ * nunca da falsos negativos y da falsos positivos con probabilidad
+ * <pre>
+ * fpp ≈ (1 - e^(-k·n/m))^k
+ * </pre>
+ * Para n elementos y una fpp objetivo se usa m = -n·ln(fpp) / ln²2 y
+ * k = (m/n)·ln 2. Con 1% de falsos positivos son ~9.6 bits por wallet, frente a
+ * decenas de bytes por String en un {@code HashSet}.
+ *
+ * <h2>Hashing</h2>
+ * Doble hashing de Kirsch–Mitzenmacher sobre un FNV-1a de 64 bits mezclado:
+ * h_i = h1 + i·h2. Los bits se escriben con CAS, así que admite inserciones
+ * concurrentes.
+ *
+ * <h2>Complejidad</h2>
+ * O(k) por operación; O(m) bits de memoria.
+ */
+public final class BloomFilter {
+
+    private final AtomicLongArray bits;
+    private final long numBits;
+    private final int numHashes;
+
+    private BloomFilter(long numBits, int numHashes) {
+        this.numBits = numBits;
+        this.numHashes = numHashes;
+        this.bits = new AtomicLongArray((int) ((numBits + 63) >>> 6));
+    }
+
+    /**
+     * Filtro dimensionado para {@code expectedInsertions} elementos con la tasa de
+     * falsos positivos indicada
+     */
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long m = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        m = Math.max(64, Math.min(m, (long) Integer.MAX_VALUE * 64));
+        int k = (int) Math.max(1, Math.round((double) m / n * Math.log(2)));
+        return new BloomFilter(m, k);
+    }
+
+    /**
+     * @return true si algún bit cambió (el elemento seguro no estaba)
+     */
+    public boolean put(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1L;
+        boolean changed = false;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            changed |= setBit(bit);
+        }
+        return changed;
+    }
+
+    /** false = seguro que no está; true = probablemente está */
+    public boolean mightContain(String value) {
+        long hash = hash(value);
+        long h1 = hash;
+        long h2 = Long.rotateLeft(hash, 32) | 1L;
+        for (int i = 0; i < numHashes; i++) {
+            long bit = Math.floorMod(h1 + i * h2, numBits);
+            if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long getNumBits() {
+        return numBits;
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    /** Fracción de bits en 1 */
+    public double fillRatio() {
+        long set = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            set += Long.bitCount(bits.get(i));
+        }
+        return (double) set / numBits;
+    }
+
+    /** Tasa de falsos positivos esperada con el llenado actual: fillRatio^k */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(fillRatio(), numHashes);
+    }
+
+    private boolean setBit(long bit) {
+        int word = (int) (bit >>> 6);
+        long mask = 1L << bit;
+        while (true) {
+            long current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+            if (bits.compareAndSet(word, current, current | mask)) {
+                return true;
+            }
+        }
+    }
+
+    /** FNV-1a de 64 bits con mezcla final */
+    private static long hash(String value) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        h += 0x9E3779B97F4A7C15L;
+        h = (h ^ (h >>> 30)) * 0xBF58476D1CE4E5B9L;
+        h = (h ^ (h >>> 27)) * 0x94D049BB133111EBL;
+        return h ^ (h >>> 31);
+    }
+}
@@ -36,6 +36,17 @@ import java.util.*;
  *   3. Profundidad > maxDepth (límite de exploración)
  * </pre>
  *
+ * <h2>Búsqueda Anytime</h2>
+ * Con un {@link SearchBudget} (tiempo, nodos, memoria) la búsqueda se corta al agotarse
+ * el presupuesto y devuelve la mejor solución encontrada con {@code complete=false}.
+ * Como la cola se ordena por costo + heurística admisible, el mínimo de la cola es una
+ * cota inferior del óptimo: {@code optimalityGap = totalCost - lowerBound}.
+ *
+ * <h2>Grafo Perezoso</h2>
+ * El núcleo recorre un {@link AdjacencyProvider}: con {@link LazyAdjacency} la
+ * adyacencia de cada wallet se pide a la base al expandirla, en lotes con toda la
+ * frontera pendiente, en lugar de materializar el grafo antes de buscar.
+ *
  * <h2>Diferencia con Dijkstra</h2>
  * - Dijkstra: Solo encuentra camino más corto sin restricciones
  * - B&B: Puede optimizar múltiples criterios Y respetar restricciones
@@ -66,6 +77,9 @@ import java.util.*;
 @Slf4j
 public class BranchAndBoundAlgorithm {
 
+    // Estimación gruesa de un nodo en la cola (objeto + lista del camino), en bytes
+    private static final long NODE_BYTES_ESTIMATE = 64;
+
     /**
      * Encuentra el camino óptimo con restricción de costo usando Branch & Bound
      *
@@ -81,6 +95,42 @@ public class BranchAndBoundAlgorithm {
             String targetWallet,
             double maxCost) {
 
+        return findOptimalPath(graph, sourceWallet, targetWallet, maxCost, SearchBudget.unlimited());
+    }
+
+    /**
+     * Igual que {@link #findOptimalPath(Map, String, String, double)} pero acotado por
+     * {@code budget}: si se agota, devuelve la mejor solución hasta el momento
+     * con {@code complete=false} y la brecha respecto de la cota inferior
+     *
+     * @param budget Presupuesto de tiempo, nodos y memoria
+     * @return Mejor camino encontrado dentro del presupuesto
+     */
+    public OptimalPathResult findOptimalPath(
+            Map<String, List<Edge>> graph,
+            String sourceWallet,
+            String targetWallet,
+            double maxCost,
+            SearchBudget budget) {
+
+        return findOptimalPath(AdjacencyProvider.of(graph), sourceWallet, targetWallet, maxCost, budget);
+    }
+
+    /**
+     * Branch & Bound sobre una vista de adyacencia (p. ej. {@link LazyAdjacency}).
+     * Cada rama nueva se anuncia con {@link AdjacencyProvider#hint(String)}, así un
+     * grafo perezoso carga toda la frontera pendiente en una sola ronda.
+     *
+     * @param graph Vista de adyacencia (se consulta sólo al expandir un nodo)
+     * @return Mejor camino encontrado dentro del presupuesto
+     */
+    public OptimalPathResult findOptimalPath(
+            AdjacencyProvider<Edge> graph,
+            String sourceWallet,
+            String targetWallet,
+            double maxCost,
+            SearchBudget budget) {
+
         long startTime = System.currentTimeMillis();
         log.info("Iniciando BRANCH & BOUND de {} a {} con maxCost: {}",
                 sourceWallet, targetWallet, maxCost);
@@ -114,8 +164,24 @@ public class BranchAndBoundAlgorithm {
         // Visitados: para evitar ciclos
         Map<String, Double> visited = new HashMap<>();
 
+        // Nodos aún no cargados al presupuesto (se verifica cada checkInterval)
+        int checkInterval = budget.checkInterval();
+        int pendingNodes = 0;
+        boolean stoppedEarly = false;
+
         // ========== ALGORITMO BRANCH & BOUND ==========
         while (!priorityQueue.isEmpty()) {
+            // PRESUPUESTO: cortar antes de sacar el nodo para no perder su cota
+            if (++pendingNodes >= checkInterval) {
+                long memory = priorityQueue.size() * (NODE_BYTES_ESTIMATE
+                        + 8L * priorityQueue.peek().path.size());
+                pendingNodes = 0;
+                if (!budget.charge(checkInterval, memory)) {
+                    stoppedEarly = true;
+                    break;
+                }
+            }
+
             Node currentNode = priorityQueue.poll();
             metrics.nodesExplored++;
 
@@ -166,7 +232,7 @@ public class BranchAndBoundAlgorithm {
             }
 
             // RAMIFICACIÓN: Explorar vecinos
-            List<Edge> neighbors = graph.getOrDefault(currentNode.wallet, Collections.emptyList());
+            List<Edge> neighbors = graph.neighbours(currentNode.wallet);
 
             for (Edge edge : neighbors) {
                 String nextWallet = edge.to;
@@ -191,15 +257,17 @@ public class BranchAndBoundAlgorithm {
                     heuristic
                 );
 
-                // Agregar a la cola de prioridad
+                // Agregar a la cola de prioridad (y a la frontera de carga)
                 priorityQueue.offer(newNode);
+                graph.hint(nextWallet);
                 metrics.branchesCreated++;
             }
         }
 
         long executionTime = System.currentTimeMillis() - startTime;
 
-        log.info("BRANCH & BOUND completado en {}ms", executionTime);
+        log.info("BRANCH & BOUND completado en {}ms{}", executionTime,
+                stoppedEarly ? " (detenido: " + budget.getStopReason() + ")" : "");
         log.info("Estadísticas: {} nodos explorados, {} ramas creadas, {} ramas podadas",
                 metrics.nodesExplored, metrics.branchesCreated, metrics.branchesPruned);
 
@@ -208,6 +276,22 @@ public class BranchAndBoundAlgorithm {
         bestSolution.setBranchesPruned(metrics.branchesPruned);
         bestSolution.setExecutionTimeMs(executionTime);
 
+        // Estado anytime: el mínimo de la cola acota inferiormente al óptimo
+        bestSolution.setComplete(!stoppedEarly);
+        bestSolution.setStopReason(stoppedEarly ? budget.getStopReason().name() : SearchBudget.StopReason.NONE.name());
+        if (stoppedEarly) {
+            Node frontier = priorityQueue.peek();
+            double lowerBound = frontier.costSoFar + frontier.heuristic;
+            if (bestSolution.isPathFound()) {
+                lowerBound = Math.min(lowerBound, bestSolution.getTotalCost());
+                bestSolution.setOptimalityGap(bestSolution.getTotalCost() - lowerBound);
+            }
+            bestSolution.setLowerBound(lowerBound);
+        } else if (bestSolution.isPathFound()) {
+            bestSolution.setLowerBound(bestSolution.getTotalCost());
+            bestSolution.setOptimalityGap(0.0);
+        }
+
         return bestSolution;
     }
 
@@ -220,7 +304,7 @@ public class BranchAndBoundAlgorithm {
     private double estimateHeuristic(
             String current,
             String target,
-            Map<String, List<Edge>> graph) {
+            AdjacencyProvider<Edge> graph) {
 
         // Heurística simple: 0 (equivalente a Dijkstra)
         // Podrías mejorarla con distancia en el grafo o costo promedio
@@ -284,6 +368,20 @@ public class BranchAndBoundAlgorithm {
         private int branchesPruned;
         private long executionTimeMs;
 
+        // Estado anytime
+        /** false si el presupuesto cortó la búsqueda antes de probar optimalidad */
+        private boolean complete;
+        private String stopReason;
+        /** Cota inferior del costo óptimo (null si no se encontró camino y la búsqueda terminó) */
+        private Double lowerBound;
+        /** totalCost - lowerBound; 0 si es óptimo, null si no hay camino */
+        private Double optimalityGap;
+        /**
+         * Lo que la política de supernodos truncó (null si no aplica); la optimalidad es
+         * relativa al grafo filtrado
+         */
+        private Map<String, Object> supernodeReport;
+
         /**
          * Detalles del camino para visualización
          */
@@ -0,0 +1,185 @@
+package com.example.algorithm;
+
+import com.example.algorithm.BacktrackingAlgorithm.SuspiciousChain;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * COLECTOR TOP-K DE CADENAS SOSPECHOSAS
+ *
+ * <h2>Descripción</h2>
+ * Mantiene las K cadenas con mayor {@code suspicionLevel} en un min-heap: la raíz es
+ * la peor cadena retenida, así que decidir si una cadena nueva entra es O(1) y
+ * insertarla (desalojando a la raíz) es O(log K). Las cadenas equivalentes (mismo
+ * tipo y mismo camino) se descartan mientras la original siga en el heap.
+ *
+ * <h2>Streaming</h2>
+ * Con un {@code listener}, cada cadena que entra al top-K se entrega en el momento
+ * en que se encuentra. La admisión se anota bajo el lock y la entrega ocurre fuera de
+ * él, en el hilo que ofreció la cadena: un listener lento no bloquea a los demás
+ * workers. Cada cadena se entrega una sola vez aunque se desaloje y se vuelva a
+ * encontrar (las claves entregadas se guardan aparte de las retenidas). El listener
+ * debe ser barato y seguro entre hilos (p. ej. encolar para otro hilo).
+ *
+ * <h2>Concurrencia</h2>
+ * Los métodos son {@code synchronized}: los workers fork-join comparten un único
+ * colector. El motor consulta {@link #wouldAccept(double)} antes de construir la
+ * cadena, así que los caminos que no entrarían nunca materializan Strings.
+ *
+ * <h2>Orden</h2>
+ * A igual sospecha gana la cadena encontrada primero, y {@link #toSortedList()}
+ * devuelve el mismo orden que la ordenación estable de la lista completa.
+ */
+public final class ChainCollector {
+
+    /** Peor cadena primero: menor sospecha y, a igualdad, la más reciente */
+    private static final Comparator<Entry> WORST_FIRST = Comparator
+            .comparingDouble((Entry e) -> e.chain.getSuspicionLevel())
+            .thenComparing(Comparator.comparingLong((Entry e) -> e.sequence).reversed());
+
+    private final int capacity;
+    private final PriorityQueue<Entry> heap;
+    private final Set<String> retainedKeys = new HashSet<>();
+    private final Consumer<SuspiciousChain> listener;
+    /** Claves ya entregadas al listener (sólo en modo streaming) */
+    private final Set<String> emittedKeys = new HashSet<>();
+    /** Cadenas admitidas pendientes de entregar al listener */
+    private final List<SuspiciousChain> pending = new ArrayList<>();
+
+    private long sequence;
+    private long offered;
+    private long duplicates;
+    private long evicted;
+
+    private ChainCollector(int capacity, Consumer<SuspiciousChain> listener) {
+        this.capacity = Math.max(1, capacity);
+        this.heap = new PriorityQueue<>(Math.min(this.capacity, 1024), WORST_FIRST);
+        this.listener = listener;
+    }
+
+    /** Retiene las {@code k} cadenas más sospechosas */
+    public static ChainCollector topK(int k) {
+        return new ChainCollector(k, null);
+    }
+
+    /** Sin límite (comportamiento clásico de la búsqueda completa) */
+    public static ChainCollector unbounded() {
+        return new ChainCollector(Integer.MAX_VALUE, null);
+    }
+
+    /** Top-K que además entrega cada cadena admitida a {@code listener} */
+    public static ChainCollector streaming(int k, Consumer<SuspiciousChain> listener) {
+        return new ChainCollector(k, listener);
+    }
+
+    /**
+     * Indica si una cadena con esta sospecha entraría hoy al top-K
+     * (sirve para no construir cadenas que se descartarían)
+     */
+    public synchronized boolean wouldAccept(double suspicionLevel) {
+        return heap.size() < capacity || suspicionLevel > heap.peek().chain.getSuspicionLevel();
+    }
+
+    /**
+     * Ofrece una cadena
+     *
+     * @return true si quedó retenida en el top-K
+     */
+    public boolean offer(SuspiciousChain chain) {
+        boolean admitted = admit(chain);
+        if (admitted && listener != null) {
+            for (SuspiciousChain pendingChain : takePending()) {
+                listener.accept(pendingChain);
+            }
+        }
+        return admitted;
+    }
+
+    private synchronized boolean admit(SuspiciousChain chain) {
+        offered++;
+        if (!wouldAccept(chain.getSuspicionLevel())) {
+            return false;
+        }
+        String key = chain.getType() + ":" + chain.getPath();
+        if (!retainedKeys.add(key)) {
+            duplicates++;
+            return false;
+        }
+        if (heap.size() >= capacity) {
+            retainedKeys.remove(heap.poll().key);
+            evicted++;
+        }
+        heap.add(new Entry(chain, key, sequence++));
+        if (listener != null && emittedKeys.add(key)) {
+            pending.add(chain);
+        }
+        return true;
+    }
+
+    private synchronized List<SuspiciousChain> takePending() {
+        if (pending.isEmpty()) {
+            return List.of();
+        }
+        List<SuspiciousChain> taken = new ArrayList<>(pending);
+        pending.clear();
+        return taken;
+    }
+
+    /** Cadenas retenidas, de mayor a menor sospecha */
+    public synchronized List<SuspiciousChain> toSortedList() {
+        List<Entry> entries = new ArrayList<>(heap);
+        entries.sort(WORST_FIRST.reversed());
+        List<SuspiciousChain> chains = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            chains.add(entry.chain);
+        }
+        return chains;
+    }
+
+    public synchronized int size() {
+        return heap.size();
+    }
+
+    public synchronized boolean isFull() {
+        return heap.size() >= capacity;
+    }
+
+    /** Sospecha de la peor cadena retenida (0 si no hay ninguna) */
+    public synchronized double worstRetainedSuspicion() {
+        return heap.isEmpty() ? 0.0 : heap.peek().chain.getSuspicionLevel();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized long getOffered() {
+        return offered;
+    }
+
+    public synchronized long getDuplicates() {
+        return duplicates;
+    }
+
+    public synchronized long getEvicted() {
+        return evicted;
+    }
+
+    private static final class Entry {
+        private final SuspiciousChain chain;
+        private final String key;
+        private final long sequence;
+
+        private Entry(SuspiciousChain chain, String key, long sequence) {
+            this.chain = chain;
+            this.key = key;
+            this.sequence = sequence;
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.algorithm;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * CRAWLER BFS DE CONTRAPARTES (multi-hop, reanudable)
+ *
+ * <h2>Descripción</h2>
+ * Desde unas wallets semilla expande por niveles: en el nivel h se ingestan las
+ * wallets de la frontera y sus contrapartes forman la frontera del nivel h+1. Se
+ * detiene al superar {@code maxHops} o cuando {@code maxWallets} wallets distintas
+ * fueron descubiertas (las semillas cuentan).
+ *
+ * <h2>Deduplicación</h2>
+ * <ul>
+ *   <li><b>En el crawl:</b> conjunto exacto de wallets ya encoladas</li>
+ *   <li><b>Contra el grafo:</b> función {@code alreadyIngested} (p. ej. filtro de
+ *       Bloom + confirmación exacta); esas wallets no se vuelven a pedir a la API,
+ *       sólo se expanden con lo que ya hay en el grafo</li>
+ * </ul>
+ *
+ * <h2>Reanudación</h2>
+ * Todo el progreso vive en {@link State} (nivel, frontera, wallets terminadas del
+ * nivel, próxima frontera y visitadas), que se entrega al {@code checkpoint} cada
+ * {@code checkpointEvery} wallets y al cerrar cada nivel. Ejecutar {@link #run}
+ * sobre un estado guardado continúa sin repetir las wallets ya terminadas.
+ *
+ * <h2>Complejidad</h2>
+ * O(W) expansiones para W wallets descubiertas, con {@code parallelism} en vuelo.
+ */
+@Slf4j
+public final class CounterpartyCrawler {
+
+    public enum Status {
+        RUNNING, COMPLETED, INTERRUPTED, FAILED
+    }
+
+    /**
+     * Ingesta (o reutiliza) una wallet y devuelve sus contrapartes
+     */
+    @FunctionalInterface
+    public interface WalletSource {
+        /**
+         * @param fetch true si hay que pedirla a la API; false si ya está en el grafo
+         */
+        List<String> expand(String address, boolean fetch) throws Exception;
+    }
+
+    public static final int DEFAULT_CHECKPOINT_EVERY = 25;
+
+    private final WalletSource source;
+    private final Function<Collection<String>, Set<String>> alreadyIngested;
+    private final Consumer<State> checkpoint;
+    private final int parallelism;
+    private final int checkpointEvery;
+
+    public CounterpartyCrawler(WalletSource source,
+                               Function<Collection<String>, Set<String>> alreadyIngested,
+                               Consumer<State> checkpoint,
+                               int parallelism,
+                               int checkpointEvery) {
+        this.source = source;
+        this.alreadyIngested = alreadyIngested;
+        this.checkpoint = checkpoint;
+        this.parallelism = Math.max(1, parallelism);
+        this.checkpointEvery = checkpointEvery > 0 ? checkpointEvery : DEFAULT_CHECKPOINT_EVERY;
+    }
+
+    /**
+     * Ejecuta (o reanuda) el crawl hasta terminar o hasta que {@code cancelled}
+     * devuelva true
+     *
+     * @return El mismo estado, actualizado
+     */
+    public State run(State state, BooleanSupplier cancelled) {
+        Object lock = new Object();
+        Set<String> visited = new LinkedHashSet<>(state.getVisited());
+        Set<String> done = new HashSet<>(state.getDone());
+        List<String> frontier = new ArrayList<>(state.getFrontier());
+        List<String> next = new ArrayList<>(state.getNext());
+        int[] sinceCheckpoint = {0};
+
+        state.setStatus(Status.RUNNING);
+        state.setLastError(null);
+        checkpoint.accept(state);
+
+        ExecutorService pool = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "crawler-" + state.getId());
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            while (state.getHop() <= state.getMaxHops() && !frontier.isEmpty()) {
+                List<String> pending = new ArrayList<>();
+                for (String address : frontier) {
+                    if (!done.contains(address)) {
+                        pending.add(address);
+                    }
+                }
+                Set<String> known = alreadyIngested.apply(pending);
+                boolean lastHop = state.getHop() == state.getMaxHops();
+                log.debug("Crawl {}: nivel {} con {} wallets pendientes ({} ya en el grafo)",
+                        state.getId(), state.getHop(), pending.size(), known.size());
+
+                List<Future<?>> futures = new ArrayList<>(pending.size());
+                for (String address : pending) {
+                    futures.add(pool.submit(() -> {
+                        if (cancelled.getAsBoolean()) {
+                            return;
+                        }
+                        boolean fetch = !known.contains(address);
+                        List<String> counterparties;
+                        try {
+                            counterparties = source.expand(address, fetch);
+                        } catch (Exception e) {
+                            log.warn("Crawl {}: error expandiendo {}: {}", state.getId(), address, e.getMessage());
+                            synchronized (lock) {
+                                state.setFailed(state.getFailed() + 1);
+                                done.add(address);
+                            }
+                            return;
+                        }
+                        synchronized (lock) {
+                            done.add(address);
+                            if (fetch) {
+                                state.setFetched(state.getFetched() + 1);
+                            } else {
+                                state.setReused(state.getReused() + 1);
+                            }
+                            if (!lastHop) {
+                                for (String counterparty : counterparties) {
+                                    if (visited.size() >= state.getMaxWallets()) {
+                                        break;
+                                    }
+                                    if (visited.add(counterparty)) {
+                                        next.add(counterparty);
+                                    }
+                                }
+                            }
+                            if (++sinceCheckpoint[0] >= checkpointEvery) {
+                                sinceCheckpoint[0] = 0;
+                                publish(state, frontier, next, done, visited);
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+
+                synchronized (lock) {
+                    if (cancelled.getAsBoolean()) {
+                        state.setStatus(Status.INTERRUPTED);
+                        publish(state, frontier, next, done, visited);
+                        return state;
+                    }
+                    state.setHop(state.getHop() + 1);
+                    frontier.clear();
+                    frontier.addAll(next);
+                    next.clear();
+                    done.clear();
+                    publish(state, frontier, next, done, visited);
+                }
+            }
+            state.setStatus(Status.COMPLETED);
+            publish(state, frontier, next, done, visited);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            state.setStatus(Status.INTERRUPTED);
+            publish(state, frontier, next, done, visited);
+        } catch (ExecutionException e) {
+            state.setStatus(Status.FAILED);
+            state.setLastError(e.getCause().getMessage());
+            publish(state, frontier, next, done, visited);
+        } finally {
+            pool.shutdownNow();
+        }
+        return state;
+    }
+
+    private void publish(State state, List<String> frontier, List<String> next,
+                         Set<String> done, Set<String> visited) {
+        state.setFrontier(new ArrayList<>(frontier));
+        state.setNext(new ArrayList<>(next));
+        state.setDone(new ArrayList<>(done));
+        state.setVisited(new ArrayList<>(visited));
+        state.setUpdatedAt(System.currentTimeMillis());
+        checkpoint.accept(state);
+    }
+
+    /**
+     * Progreso persistible de un crawl
+     */
+    @Data
+    @Builder(toBuilder = true)
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class State {
+        private String id;
+        private String chain;
+        private int maxHops;
+        private int maxWallets;
+
+        /** Nivel en curso (0 = semillas) */
+        private int hop;
+        private List<String> frontier;
+        /** Wallets de la frontera ya expandidas en este nivel */
+        private List<String> done;
+        /** Frontera del siguiente nivel, en construcción */
+        private List<String> next;
+        /** Todas las wallets encoladas (frontera actual, siguiente y niveles previos) */
+        private List<String> visited;
+
+        private long fetched;
+        private long reused;
+        private long failed;
+        private Status status;
+        private String lastError;
+        private long startedAt;
+        private long updatedAt;
+
+        /**
+         * Estado inicial: las semillas (sin repetir, hasta {@code maxWallets}) forman
+         * la frontera del nivel 0
+         */
+        public static State start(String id, Collection<String> seeds, String chain, int maxHops, int maxWallets) {
+            List<String> frontier = new ArrayList<>();
+            for (String seed : new LinkedHashSet<>(seeds)) {
+                if (frontier.size() >= maxWallets) {
+                    break;
+                }
+                frontier.add(seed);
+            }
+            long now = System.currentTimeMillis();
+            return State.builder()
+                .id(id)
+                .chain(chain)
+                .maxHops(maxHops)
+                .maxWallets(maxWallets)
+                .hop(0)
+                .frontier(frontier)
+                .done(new ArrayList<>())
+                .next(new ArrayList<>())
+                .visited(new ArrayList<>(frontier))
+                .status(Status.RUNNING)
+                .startedAt(now)
+                .updatedAt(now)
+                .build();
+        }
+    }
+}
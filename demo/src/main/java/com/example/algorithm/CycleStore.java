@@ -0,0 +1,436 @@
+package com.example.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ALMACÉN DE CICLOS CANÓNICOS con deduplicación por firma de 64 bits
+ *
+ * <h2>Forma Canónica</h2>
+ * Un ciclo dirigido A→B→C→A es el mismo que B→C→A→B o C→A→B→C. Se representa por
+ * la secuencia de ids sin repetir el cierre y se rota a su rotación mínima
+ * lexicográfica, calculada en O(n) y sin memoria extra con el algoritmo de la
+ * expresión mínima (dos candidatos i, j y un desplazamiento k).
+ *
+ * <h2>Deduplicación</h2>
+ * La rotación canónica se resume en una firma {@code long} (longitud + mezcla de los
+ * ids) guardada en una tabla hash abierta {@code long[] → int} hacia el id del ciclo.
+ * Ante una coincidencia de firma se compara la secuencia guardada, así que una
+ * colisión nunca descarta un ciclo distinto. Consultar un ciclo ya visto no reserva
+ * memoria.
+ *
+ * <h2>Almacenamiento</h2>
+ * Los miembros de todos los ciclos viven en un único {@code int[]} plano con offsets,
+ * junto con el monto de la primera observación y el número de veces que se observó.
+ * Con un diccionario global de wallets (dirección → id) el almacén puede compartirse
+ * entre búsquedas y consultarse por wallet.
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Inserción / consulta de duplicado:</b> O(n) esperado para un ciclo de n wallets</li>
+ *   <li><b>Espacial:</b> 4 bytes por miembro + 20 bytes por ciclo + índice por wallet</li>
+ * </ul>
+ *
+ * Thread-safe: las inserciones toman el lock de escritura y las consultas el de lectura.
+ */
+public final class CycleStore {
+
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    private static final long EMPTY = 0L;
+
+    private final int maxCycles;
+
+    // Tabla hash abierta firma → id de ciclo
+    private long[] signatureKeys = new long[1024];
+    private int[] signatureValues = new int[1024];
+
+    // Ciclos: miembros planos [cycleOffsets[c], cycleOffsets[c + 1])
+    private int[] members = new int[1024];
+    private int[] cycleOffsets = new int[257];
+    private double[] amounts = new double[256];
+    private int[] observations = new int[256];
+    private int cycleCount = 0;
+
+    // Diccionario global de wallets e índice wallet → ciclos
+    private final Map<String, Integer> idsByAddress = new HashMap<>();
+    private String[] addresses = new String[256];
+    private int[][] cyclesByWallet = new int[256][];
+    private int[] cyclesByWalletCount = new int[256];
+    private int walletCount = 0;
+
+    private long rejected = 0;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public CycleStore() {
+        this(UNBOUNDED);
+    }
+
+    /**
+     * @param maxCycles Ciclos distintos a guardar; al llenarse los nuevos se cuentan y descartan
+     */
+    public CycleStore(int maxCycles) {
+        this.maxCycles = maxCycles;
+    }
+
+    // ========== DICCIONARIO ==========
+
+    /** Id global de la wallet (la registra si es nueva) */
+    public int walletId(String address) {
+        lock.writeLock().lock();
+        try {
+            return internWallet(address);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Ids globales de un lote de direcciones, alineados con el array de entrada */
+    public int[] walletIds(String[] batch) {
+        int[] ids = new int[batch.length];
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < batch.length; i++) {
+                ids[i] = internWallet(batch[i]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return ids;
+    }
+
+    public String address(int walletId) {
+        lock.readLock().lock();
+        try {
+            return walletId >= 0 && walletId < walletCount ? addresses[walletId] : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== INSERCIÓN ==========
+
+    /**
+     * Registra el ciclo {@code wallets[from..from+length)} (sin repetir el cierre)
+     *
+     * @param totalAmount Monto del ciclo; se guarda el de la primera observación
+     * @return id del ciclo si es nuevo; {@code -(id + 1)} si ya existía;
+     *         {@code Integer.MIN_VALUE} si es nuevo pero el almacén está lleno
+     */
+    public int add(int[] wallets, int from, int length, double totalAmount) {
+        int rotation = minimalRotation(wallets, from, length);
+        long signature = signature(wallets, from, length, rotation);
+
+        lock.writeLock().lock();
+        try {
+            int mask = signatureKeys.length - 1;
+            int slot = (int) mix64(signature) & mask;
+            while (signatureKeys[slot] != EMPTY) {
+                if (signatureKeys[slot] == signature) {
+                    int existing = signatureValues[slot];
+                    if (sameCycle(existing, wallets, from, length, rotation)) {
+                        observations[existing]++;
+                        return -(existing + 1);
+                    }
+                }
+                slot = (slot + 1) & mask;
+            }
+
+            if (cycleCount >= maxCycles) {
+                rejected++;
+                return Integer.MIN_VALUE;
+            }
+
+            int id = appendCycle(wallets, from, length, rotation, totalAmount);
+            signatureKeys[slot] = signature;
+            signatureValues[slot] = id;
+            if (2L * (cycleCount + 1) > signatureKeys.length) {
+                rehash(signatureKeys.length * 2);
+            }
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Desplazamiento de la rotación mínima lexicográfica de {@code s[from..from+n)}
+     * (algoritmo de la expresión mínima, O(n) comparaciones, O(1) memoria)
+     */
+    public static int minimalRotation(int[] s, int from, int n) {
+        int i = 0, j = 1, k = 0;
+        while (i < n && j < n && k < n) {
+            int a = s[from + (i + k) % n];
+            int b = s[from + (j + k) % n];
+            if (a == b) {
+                k++;
+                continue;
+            }
+            if (a > b) {
+                i += k + 1;
+            } else {
+                j += k + 1;
+            }
+            if (i == j) {
+                j++;
+            }
+            k = 0;
+        }
+        return Math.min(i, j);
+    }
+
+    // ========== CONSULTAS ==========
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return cycleCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ciclo por id, en su rotación canónica y cerrado (el primer miembro se repite al final) */
+    public StoredCycle get(int cycleId) {
+        lock.readLock().lock();
+        try {
+            return view(cycleId);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ciclos en orden de descubrimiento, paginados */
+    public List<StoredCycle> list(int offset, int limit) {
+        lock.readLock().lock();
+        try {
+            List<StoredCycle> cycles = new ArrayList<>();
+            for (int c = Math.max(0, offset); c < cycleCount && cycles.size() < limit; c++) {
+                cycles.add(view(c));
+            }
+            return cycles;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Ciclos que pasan por la wallet (vacío si no se conoce) */
+    public List<StoredCycle> cyclesThrough(String address, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer walletId = idsByAddress.get(address);
+            List<StoredCycle> cycles = new ArrayList<>();
+            if (walletId == null) {
+                return cycles;
+            }
+            int count = cyclesByWalletCount[walletId];
+            for (int i = 0; i < count && cycles.size() < limit; i++) {
+                cycles.add(view(cyclesByWallet[walletId][i]));
+            }
+            return cycles;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Número de ciclos que pasan por la wallet */
+    public int cycleCountThrough(String address) {
+        lock.readLock().lock();
+        try {
+            Integer walletId = idsByAddress.get(address);
+            return walletId == null ? 0 : cyclesByWalletCount[walletId];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Estadísticas del almacén */
+    public Map<String, Object> getStats() {
+        lock.readLock().lock();
+        try {
+            long totalObservations = 0;
+            int[] lengthHistogram = new int[0];
+            for (int c = 0; c < cycleCount; c++) {
+                totalObservations += observations[c];
+                int length = cycleOffsets[c + 1] - cycleOffsets[c];
+                if (length >= lengthHistogram.length) {
+                    lengthHistogram = Arrays.copyOf(lengthHistogram, length + 1);
+                }
+                lengthHistogram[length]++;
+            }
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("distinctCycles", cycleCount);
+            stats.put("observations", totalObservations);
+            stats.put("wallets", walletCount);
+            stats.put("rejectedWhenFull", rejected);
+            stats.put("maxCycles", maxCycles);
+            stats.put("cyclesByLength", lengthHistogram);
+            return stats;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== INTERNOS ==========
+
+    private int internWallet(String address) {
+        Integer existing = idsByAddress.get(address);
+        if (existing != null) {
+            return existing;
+        }
+        int id = walletCount++;
+        if (id == addresses.length) {
+            int capacity = addresses.length * 2;
+            addresses = Arrays.copyOf(addresses, capacity);
+            cyclesByWallet = Arrays.copyOf(cyclesByWallet, capacity);
+            cyclesByWalletCount = Arrays.copyOf(cyclesByWalletCount, capacity);
+        }
+        addresses[id] = address;
+        idsByAddress.put(address, id);
+        return id;
+    }
+
+    private int appendCycle(int[] wallets, int from, int length, int rotation, double totalAmount) {
+        int id = cycleCount++;
+        if (id == amounts.length) {
+            amounts = Arrays.copyOf(amounts, id * 2);
+            observations = Arrays.copyOf(observations, id * 2);
+            cycleOffsets = Arrays.copyOf(cycleOffsets, id * 2 + 1);
+        }
+        int start = cycleOffsets[id];
+        if (start + length > members.length) {
+            members = Arrays.copyOf(members, Math.max(members.length * 2, start + length));
+        }
+        for (int i = 0; i < length; i++) {
+            int wallet = wallets[from + (rotation + i) % length];
+            members[start + i] = wallet;
+            indexWallet(wallet, id);
+        }
+        cycleOffsets[id + 1] = start + length;
+        amounts[id] = totalAmount;
+        observations[id] = 1;
+        return id;
+    }
+
+    /** Índice wallet → ciclos; sólo aplica a ids registrados en el diccionario */
+    private void indexWallet(int wallet, int cycleId) {
+        if (wallet < 0 || wallet >= walletCount) {
+            return;
+        }
+        int[] list = cyclesByWallet[wallet];
+        int count = cyclesByWalletCount[wallet];
+        if (list == null) {
+            list = new int[4];
+        } else if (count == list.length) {
+            list = Arrays.copyOf(list, count * 2);
+        }
+        list[count] = cycleId;
+        cyclesByWallet[wallet] = list;
+        cyclesByWalletCount[wallet] = count + 1;
+    }
+
+    private boolean sameCycle(int cycleId, int[] wallets, int from, int length, int rotation) {
+        int start = cycleOffsets[cycleId];
+        if (cycleOffsets[cycleId + 1] - start != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (members[start + i] != wallets[from + (rotation + i) % length]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void rehash(int capacity) {
+        long[] keys = new long[capacity];
+        int[] values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < signatureKeys.length; i++) {
+            if (signatureKeys[i] != EMPTY) {
+                int slot = (int) mix64(signatureKeys[i]) & mask;
+                while (keys[slot] != EMPTY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = signatureKeys[i];
+                values[slot] = signatureValues[i];
+            }
+        }
+        signatureKeys = keys;
+        signatureValues = values;
+    }
+
+    private StoredCycle view(int cycleId) {
+        if (cycleId < 0 || cycleId >= cycleCount) {
+            return null;
+        }
+        int start = cycleOffsets[cycleId];
+        int end = cycleOffsets[cycleId + 1];
+        List<String> path = new ArrayList<>(end - start + 1);
+        for (int i = start; i < end; i++) {
+            int wallet = members[i];
+            path.add(wallet < walletCount ? addresses[wallet] : String.valueOf(wallet));
+        }
+        path.add(path.get(0)); // Cerrar el ciclo
+        return new StoredCycle(cycleId, path, end - start, amounts[cycleId], observations[cycleId]);
+    }
+
+    private static long signature(int[] wallets, int from, int length, int rotation) {
+        long h = 0x9E3779B97F4A7C15L * (length + 1);
+        for (int i = 0; i < length; i++) {
+            h = mix64(h ^ wallets[from + (rotation + i) % length]);
+        }
+        return h == EMPTY ? 1L : h;
+    }
+
+    private static long mix64(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Vista inmutable de un ciclo guardado
+     */
+    public static final class StoredCycle {
+        private final int id;
+        private final List<String> path;
+        private final int length;
+        private final double totalAmount;
+        private final int observations;
+
+        private StoredCycle(int id, List<String> path, int length, double totalAmount, int observations) {
+            this.id = id;
+            this.path = path;
+            this.length = length;
+            this.totalAmount = totalAmount;
+            this.observations = observations;
+        }
+
+        public int getId() {
+            return id;
+        }
+
+        /** Camino cerrado: el primer miembro se repite al final */
+        public List<String> getPath() {
+            return path;
+        }
+
+        public int getLength() {
+            return length;
+        }
+
+        public double getTotalAmount() {
+            return totalAmount;
+        }
+
+        public int getObservations() {
+            return observations;
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package com.example.algorithm;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * VISTA DE FLUJOS (aristas paralelas colapsadas)
+ *
+ * <h2>Descripción</h2>
+ * Entre dos wallets activas puede haber miles de transacciones; como aristas
+ * individuales multiplican el factor de ramificación de las búsquedas sin aportar
+ * información para quien sólo necesita saber que hay flujo entre el par. Esta vista
+ * agrega cada par (from, to) en un único {@link FlowEdge}:
+ * <pre>
+ * txCount, totalAmount, minFee, maxFee, firstTimestamp, lastTimestamp
+ * </pre>
+ * Es la contraparte en memoria de la relación materializada {@code (:Wallet)-[:FLOW]->(:Wallet)}.
+ *
+ * <h2>Uso</h2>
+ * Se alimenta con aristas por transacción ({@link #add}) o con flujos ya agregados
+ * ({@link #addFlow}) y se convierte al tipo de arista de cada algoritmo con
+ * {@link #map(Function)}. Para el camino de menor costo la vista es exacta: de las
+ * aristas paralelas sólo puede usarse la de menor fee, que es {@code minFee}.
+ *
+ * <h2>Complejidad</h2>
+ * O(E) para construir; el resultado tiene una arista por par distinto.
+ */
+public final class FlowGraph {
+
+    /** Pares (from → to) en orden de primera aparición, por wallet origen */
+    private final Map<String, LinkedHashMap<String, FlowEdge>> flows = new HashMap<>();
+
+    private long rawEdges;
+    private long flowEdges;
+
+    /**
+     * Agrega una transacción from → to al flujo del par
+     */
+    public FlowGraph add(String from, String to, double amount, double fee, long timestamp, String txHash) {
+        if (from == null || to == null || from.equals(to)) {
+            return this;
+        }
+        rawEdges++;
+        FlowEdge flow = flows.computeIfAbsent(from, k -> new LinkedHashMap<>()).get(to);
+        if (flow == null) {
+            flow = FlowEdge.of(from, to);
+            flows.get(from).put(to, flow);
+            flowEdges++;
+        }
+        flow.add(amount, fee, timestamp, txHash);
+        return this;
+    }
+
+    /**
+     * Agrega un flujo ya agregado (p. ej. leído de una relación FLOW); si el par
+     * ya existe se combinan
+     */
+    public FlowGraph addFlow(FlowEdge edge) {
+        if (edge.getFrom() == null || edge.getTo() == null || edge.getFrom().equals(edge.getTo())) {
+            return this;
+        }
+        rawEdges += edge.getTxCount();
+        Map<String, FlowEdge> out = flows.computeIfAbsent(edge.getFrom(), k -> new LinkedHashMap<>());
+        FlowEdge existing = out.get(edge.getTo());
+        if (existing == null) {
+            out.put(edge.getTo(), edge);
+            flowEdges++;
+        } else {
+            existing.merge(edge);
+        }
+        return this;
+    }
+
+    /** Flujos salientes de {@code wallet} */
+    public List<FlowEdge> flowsFrom(String wallet) {
+        Map<String, FlowEdge> out = flows.get(wallet);
+        return out != null ? new ArrayList<>(out.values()) : Collections.emptyList();
+    }
+
+    /**
+     * Lista de adyacencia con el tipo de arista de un algoritmo
+     *
+     * @param edgeFactory Convierte un flujo en la arista del algoritmo
+     */
+    public <E> Map<String, List<E>> map(Function<FlowEdge, E> edgeFactory) {
+        Map<String, List<E>> graph = new HashMap<>(flows.size() * 2);
+        for (Map.Entry<String, LinkedHashMap<String, FlowEdge>> entry : flows.entrySet()) {
+            List<E> edges = new ArrayList<>(entry.getValue().size());
+            for (FlowEdge flow : entry.getValue().values()) {
+                edges.add(edgeFactory.apply(flow));
+            }
+            graph.put(entry.getKey(), edges);
+        }
+        return graph;
+    }
+
+    public int walletCount() {
+        return flows.size();
+    }
+
+    /** Transacciones agregadas */
+    public long getRawEdgeCount() {
+        return rawEdges;
+    }
+
+    /** Pares distintos (aristas de la vista) */
+    public long getFlowEdgeCount() {
+        return flowEdges;
+    }
+
+    /** Aristas por transacción / aristas de la vista (>= 1) */
+    public double getCompressionRatio() {
+        return flowEdges > 0 ? (double) rawEdges / flowEdges : 1.0;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("wallets", flows.size());
+        stats.put("rawEdges", rawEdges);
+        stats.put("flowEdges", flowEdges);
+        stats.put("compressionRatio", getCompressionRatio());
+        return stats;
+    }
+
+    /**
+     * Flujo agregado entre un par de wallets
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class FlowEdge {
+        private String from;
+        private String to;
+        private long txCount;
+        private double totalAmount;
+        private double minFee;
+        private double maxFee;
+        private long firstTimestamp;
+        private long lastTimestamp;
+        /** Transacción de menor fee (la que usaría un camino de costo mínimo) */
+        private String minFeeTxHash;
+
+        public static FlowEdge of(String from, String to) {
+            return FlowEdge.builder()
+                .from(from)
+                .to(to)
+                .minFee(Double.POSITIVE_INFINITY)
+                .maxFee(Double.NEGATIVE_INFINITY)
+                .firstTimestamp(Long.MAX_VALUE)
+                .lastTimestamp(Long.MIN_VALUE)
+                .build();
+        }
+
+        public void add(double amount, double fee, long timestamp, String txHash) {
+            txCount++;
+            totalAmount += amount;
+            if (fee < minFee) {
+                minFee = fee;
+                minFeeTxHash = txHash;
+            }
+            maxFee = Math.max(maxFee, fee);
+            firstTimestamp = Math.min(firstTimestamp, timestamp);
+            lastTimestamp = Math.max(lastTimestamp, timestamp);
+        }
+
+        public void merge(FlowEdge other) {
+            txCount += other.txCount;
+            totalAmount += other.totalAmount;
+            if (other.minFee < minFee) {
+                minFee = other.minFee;
+                minFeeTxHash = other.minFeeTxHash;
+            }
+            maxFee = Math.max(maxFee, other.maxFee);
+            firstTimestamp = Math.min(firstTimestamp, other.firstTimestamp);
+            lastTimestamp = Math.max(lastTimestamp, other.lastTimestamp);
+        }
+    }
+}
@@ -0,0 +1,255 @@
+package com.example.algorithm;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * MUESTREO DE GRAFOS (analítica global aproximada)
+ *
+ * <h2>Descripción</h2>
+ * Las métricas globales (longitud media de camino, clustering, distribución de
+ * grados) son inviables de calcular exactamente sobre el grafo completo. Este
+ * muestreador elige un subconjunto de wallets del snapshot y le asocia a cada una
+ * un <b>peso de estimación</b> proporcional a 1/π(v), donde π(v) es su probabilidad
+ * de ser elegida; {@link SampleEstimator} usa esos pesos para estimadores de razón
+ * (Hansen–Hurwitz) con intervalo de confianza.
+ *
+ * <h2>Métodos</h2>
+ * <ul>
+ *   <li><b>RANDOM_NODE:</b> wallets uniformes sin reemplazo (algoritmo de Floyd);
+ *       π(v) constante, peso 1</li>
+ *   <li><b>RANDOM_EDGE:</b> extremo de una arista uniforme (con reemplazo);
+ *       π(v) ∝ grado, peso 1/grado. No alcanza wallets aisladas</li>
+ *   <li><b>RANDOM_WALK:</b> caminata con saltos (Avrachenkov et al. 2010): en v se
+ *       salta a una wallet uniforme con probabilidad α/(grado+α); la distribución
+ *       estacionaria es π(v) ∝ grado+α, peso 1/(grado+α). Las observaciones son
+ *       correlacionadas: el estimador usa medias por lotes</li>
+ *   <li><b>FOREST_FIRE:</b> Leskovec y Faloutsos 2006; conserva la estructura local
+ *       pero π(v) no tiene forma cerrada, así que los estimadores quedan marcados
+ *       como sesgados (peso 1)</li>
+ * </ul>
+ *
+ * <h2>Complejidad</h2>
+ * O(k) para RANDOM_NODE / RANDOM_EDGE / RANDOM_WALK y O(k · d) para FOREST_FIRE,
+ * independiente del tamaño del grafo. Se usa la vista no dirigida del snapshot.
+ */
+public final class GraphSampler {
+
+    public enum Method {
+        RANDOM_NODE, RANDOM_EDGE, RANDOM_WALK, FOREST_FIRE
+    }
+
+    /** Peso de salto α de la caminata */
+    public static final double DEFAULT_JUMP_WEIGHT = 1.0;
+
+    /** Probabilidad de propagación hacia adelante del forest fire */
+    public static final double DEFAULT_BURN_PROBABILITY = 0.7;
+
+    /** Pasos descartados al inicio de la caminata */
+    private static final int WALK_BURN_IN = 100;
+
+    private final WalletGraph graph;
+    private final long seed;
+
+    public GraphSampler(WalletGraph graph, long seed) {
+        this.graph = graph;
+        this.seed = seed;
+    }
+
+    /**
+     * Muestra de {@code k} wallets con el método indicado (parámetros por defecto)
+     */
+    public Sample sample(Method method, int k) {
+        return switch (method) {
+            case RANDOM_NODE -> randomNodes(k);
+            case RANDOM_EDGE -> randomEdges(k);
+            case RANDOM_WALK -> randomWalk(k, DEFAULT_JUMP_WEIGHT);
+            case FOREST_FIRE -> forestFire(k, DEFAULT_BURN_PROBABILITY);
+        };
+    }
+
+    /**
+     * {@code k} wallets distintas uniformes (algoritmo de Floyd, O(k) memoria)
+     */
+    public Sample randomNodes(int k) {
+        int n = graph.size();
+        int size = Math.min(k, n);
+        SplittableRandom random = new SplittableRandom(seed);
+        Set<Integer> chosen = new HashSet<>(size * 2);
+        int[] nodes = new int[size];
+        int count = 0;
+        for (int j = n - size; j < n; j++) {
+            int t = random.nextInt(j + 1);
+            int pick = chosen.contains(t) ? j : t;
+            chosen.add(pick);
+            nodes[count++] = pick;
+        }
+        double[] weights = new double[size];
+        Arrays.fill(weights, 1.0);
+        return new Sample(Method.RANDOM_NODE, nodes, weights, 1, true);
+    }
+
+    /**
+     * {@code k} extremos de aristas uniformes (con reemplazo)
+     */
+    public Sample randomEdges(int k) {
+        int[] targets = graph.undirectedTargets;
+        if (targets.length == 0) {
+            return Sample.empty(Method.RANDOM_EDGE);
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] nodes = new int[k];
+        double[] weights = new double[k];
+        for (int i = 0; i < k; i++) {
+            // Un slot uniforme de la lista de adyacencia es un extremo con probabilidad ∝ grado
+            int v = targets[random.nextInt(targets.length)];
+            nodes[i] = v;
+            weights[i] = 1.0 / graph.degree(v);
+        }
+        return new Sample(Method.RANDOM_EDGE, nodes, weights, 1, true);
+    }
+
+    /**
+     * Caminata aleatoria con saltos de {@code k} pasos (tras el burn-in)
+     *
+     * @param jumpWeight α: cuanto mayor, más saltos y menos correlación
+     */
+    public Sample randomWalk(int k, double jumpWeight) {
+        int n = graph.size();
+        if (n == 0) {
+            return Sample.empty(Method.RANDOM_WALK);
+        }
+        double alpha = jumpWeight > 0 ? jumpWeight : DEFAULT_JUMP_WEIGHT;
+        int[] offsets = graph.undirectedOffsets;
+        int[] targets = graph.undirectedTargets;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        int[] nodes = new int[k];
+        double[] weights = new double[k];
+        int current = random.nextInt(n);
+        for (int step = -WALK_BURN_IN; step < k; step++) {
+            int degree = offsets[current + 1] - offsets[current];
+            if (random.nextDouble() * (degree + alpha) < alpha) {
+                current = random.nextInt(n);
+            } else {
+                current = targets[offsets[current] + random.nextInt(degree)];
+            }
+            if (step >= 0) {
+                nodes[step] = current;
+                weights[step] = 1.0 / (graph.degree(current) + alpha);
+            }
+        }
+        // Lotes de ~√k pasos consecutivos para el error estándar
+        int batchSize = Math.max(1, (int) Math.sqrt(k));
+        return new Sample(Method.RANDOM_WALK, nodes, weights, batchSize, true);
+    }
+
+    /**
+     * Forest fire: desde una semilla uniforme se "queman" Geom(p) vecinos no visitados
+     * de cada wallet alcanzada; si el fuego se extingue se reinicia en otra semilla
+     *
+     * @param burnProbability p; la media de vecinos quemados es p / (1 - p)
+     */
+    public Sample forestFire(int k, double burnProbability) {
+        int n = graph.size();
+        int size = Math.min(k, n);
+        double p = Math.min(Math.max(burnProbability, 0.0), 0.99);
+        int[] offsets = graph.undirectedOffsets;
+        int[] targets = graph.undirectedTargets;
+        SplittableRandom random = new SplittableRandom(seed);
+
+        Set<Integer> visited = new HashSet<>(size * 2);
+        int[] nodes = new int[size];
+        int count = 0;
+        ArrayDeque<Integer> fire = new ArrayDeque<>();
+        while (count < size) {
+            if (fire.isEmpty()) {
+                int seedNode = random.nextInt(n);
+                if (visited.add(seedNode)) {
+                    nodes[count++] = seedNode;
+                    fire.add(seedNode);
+                }
+                continue;
+            }
+            int v = fire.poll();
+            int burn = 0;
+            while (random.nextDouble() < p) {
+                burn++;
+            }
+            int start = offsets[v];
+            int degree = offsets[v + 1] - start;
+            // Recorrido desde un desplazamiento aleatorio: orden sin sesgo por id
+            int shift = degree > 0 ? random.nextInt(degree) : 0;
+            for (int i = 0; i < degree && burn > 0 && count < size; i++) {
+                int u = targets[start + (shift + i) % degree];
+                if (visited.add(u)) {
+                    nodes[count++] = u;
+                    fire.add(u);
+                    burn--;
+                }
+            }
+        }
+        double[] weights = new double[size];
+        Arrays.fill(weights, 1.0);
+        return new Sample(Method.FOREST_FIRE, nodes, weights, 1, false);
+    }
+
+    /**
+     * Wallets muestreadas con su peso de estimación
+     */
+    public static final class Sample {
+
+        private final Method method;
+        private final int[] nodes;
+        private final double[] weights;
+        private final int batchSize;
+        private final boolean unbiased;
+
+        Sample(Method method, int[] nodes, double[] weights, int batchSize, boolean unbiased) {
+            this.method = method;
+            this.nodes = nodes;
+            this.weights = weights;
+            this.batchSize = batchSize;
+            this.unbiased = unbiased;
+        }
+
+        static Sample empty(Method method) {
+            return new Sample(method, new int[0], new double[0], 1, true);
+        }
+
+        public Method getMethod() {
+            return method;
+        }
+
+        public int size() {
+            return nodes.length;
+        }
+
+        public int node(int i) {
+            return nodes[i];
+        }
+
+        /** Peso ∝ 1/π(v) de la observación i */
+        public double weight(int i) {
+            return weights[i];
+        }
+
+        /** Observaciones consecutivas por lote para el error estándar (1 = independientes) */
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        /** false si π(v) no es conocida y los estimadores pueden estar sesgados */
+        public boolean isUnbiased() {
+            return unbiased;
+        }
+
+        /** Wallets distintas de la muestra */
+        public int distinctNodes() {
+            return (int) Arrays.stream(nodes).distinct().count();
+        }
+    }
+}
@@ -0,0 +1,346 @@
+package com.example.algorithm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+/**
+ * FUNCIÓN DE VECINDARIO: HyperBall (HyperLogLog sobre bolas de radio t)
+ *
+ * <h2>Descripción Académica</h2>
+ * Para cada wallet {@code v} se estima |B(v, t)|, el número de wallets distintas
+ * alcanzables en a lo sumo t saltos, para t = 1..k. En lugar de un BFS por wallet
+ * (O(V·E)), cada wallet mantiene un contador HyperLogLog de su bola y se usa la
+ * recurrencia
+ * <pre>
+ * B(v, 0)     = {v}
+ * B(v, t + 1) = B(v, t) ∪ ⋃ { B(w, t) : w ∈ N(v) }
+ * </pre>
+ * La unión de dos HyperLogLog es el máximo registro a registro, así que cada
+ * ronda es un recorrido lineal de las aristas (Boldi, Vigna 2013).
+ *
+ * <h2>Optimizaciones</h2>
+ * <ul>
+ *   <li><b>Registros empaquetados:</b> un único {@code byte[]} de V·m registros,
+ *       sin objetos por wallet</li>
+ *   <li><b>Paralelismo:</b> cada ronda procesa las wallets en paralelo; cada una
+ *       escribe sólo su propio tramo del buffer siguiente</li>
+ *   <li><b>Propagación incremental:</b> sólo se unen los vecinos cuyo contador
+ *       cambió en la ronda anterior; la iteración termina al estabilizarse</li>
+ * </ul>
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ *   <li><b>reach@t:</b> |B(v, t)| - 1 (se excluye la propia wallet)</li>
+ *   <li><b>Harmonic centrality:</b> Σ_t (|B(v, t)| - |B(v, t-1)|) / t, es decir Σ 1/d(v, u)</li>
+ * </ul>
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Temporal:</b> O(k · (V + E) · m) con m registros por contador</li>
+ *   <li><b>Espacial:</b> 2 · V · m bytes + k · V floats para reach@t</li>
+ *   <li><b>Error relativo:</b> ~ 1.04 / √m por estimación</li>
+ * </ul>
+ */
+@Slf4j
+public final class HyperBall {
+
+    public static final int MAX_HOPS = 16;
+    public static final int MIN_LOG2_REGISTERS = 4;
+    public static final int MAX_LOG2_REGISTERS = 12;
+    public static final int DEFAULT_LOG2_REGISTERS = 7;
+
+    /**
+     * Sentido en que se expanden las bolas
+     */
+    public enum Direction {
+        /** Wallets que pueden recibir fondos desde v */
+        OUT,
+        /** Wallets desde las que pueden llegar fondos a v */
+        IN,
+        /** Vista no dirigida */
+        BOTH
+    }
+
+    private static final double[] INVERSE_POWERS_OF_TWO = new double[65];
+
+    static {
+        for (int i = 0; i < INVERSE_POWERS_OF_TWO.length; i++) {
+            INVERSE_POWERS_OF_TWO[i] = Math.scalb(1.0, -i);
+        }
+    }
+
+    private HyperBall() {
+    }
+
+    /**
+     * Calcula la función de vecindario para todas las wallets del snapshot
+     *
+     * @param graph Snapshot del grafo
+     * @param maxHops Radio máximo k (1..{@link #MAX_HOPS})
+     * @param log2Registers log2 del número de registros por contador
+     * @param direction Sentido de expansión
+     * @return reach@t y harmonic centrality por wallet
+     */
+    public static Result compute(WalletGraph graph, int maxHops, int log2Registers, Direction direction) {
+        if (maxHops < 1 || maxHops > MAX_HOPS) {
+            throw new IllegalArgumentException("maxHops must be between 1 and " + MAX_HOPS);
+        }
+        if (log2Registers < MIN_LOG2_REGISTERS || log2Registers > MAX_LOG2_REGISTERS) {
+            throw new IllegalArgumentException("log2Registers must be between "
+                    + MIN_LOG2_REGISTERS + " and " + MAX_LOG2_REGISTERS);
+        }
+
+        long startTime = System.currentTimeMillis();
+        int n = graph.size();
+        int m = 1 << log2Registers;
+        if ((long) n * m > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many wallets for " + m
+                    + " registers per counter, lower log2Registers");
+        }
+        log.info("Ejecutando HYPERBALL: {} wallets, {} aristas, k={}, m={}, dirección={}",
+                n, graph.edgeCount(), maxHops, m, direction);
+
+        int[] offsets;
+        int[] targets;
+        switch (direction) {
+            case OUT:
+                offsets = graph.outOffsets;
+                targets = graph.outTargets;
+                break;
+            case IN:
+                offsets = graph.inOffsets;
+                targets = graph.inSources;
+                break;
+            default:
+                offsets = graph.undirectedOffsets;
+                targets = graph.undirectedTargets;
+        }
+
+        byte[] current = new byte[n * m];
+        byte[] next = new byte[n * m];
+        boolean[] changed = new boolean[n];
+        boolean[] changedNext = new boolean[n];
+        double[] previousCount = new double[n];
+
+        // INICIALIZACIÓN: B(v, 0) = {v}
+        for (int v = 0; v < n; v++) {
+            addToCounter(current, v * m, log2Registers, v);
+            changed[v] = true;
+            previousCount[v] = 1.0;
+        }
+
+        float[][] reachByHop = new float[maxHops][];
+        float[] harmonic = new float[n];
+        int rounds = 0;
+
+        for (int t = 1; t <= maxHops; t++) {
+            final byte[] src = current;
+            final byte[] dst = next;
+            final boolean[] srcChanged = changed;
+            final boolean[] dstChanged = changedNext;
+            final float[] reach = new float[n];
+            final double inverseDistance = 1.0 / t;
+            final AtomicBoolean anyChange = new AtomicBoolean(false);
+
+            IntStream.range(0, n).parallel().forEach(v -> {
+                int base = v * m;
+                System.arraycopy(src, base, dst, base, m);
+                boolean modified = false;
+
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int w = targets[e];
+                    if (srcChanged[w]) {
+                        modified |= union(dst, base, src, w * m, m);
+                    }
+                }
+                dstChanged[v] = modified;
+
+                double count = modified ? estimate(dst, base, m) : previousCount[v];
+                if (modified) {
+                    if (!anyChange.get()) {
+                        anyChange.set(true);
+                    }
+                    // El estimador no es monótono en sí mismo; la bola sí
+                    count = Math.max(count, previousCount[v]);
+                    harmonic[v] += (float) ((count - previousCount[v]) * inverseDistance);
+                    previousCount[v] = count;
+                }
+                reach[v] = (float) Math.max(0.0, count - 1.0);
+            });
+
+            reachByHop[t - 1] = reach;
+            rounds = t;
+
+            byte[] swapRegisters = current;
+            current = next;
+            next = swapRegisters;
+            boolean[] swapFlags = changed;
+            changed = changedNext;
+            changedNext = swapFlags;
+
+            if (!anyChange.get()) {
+                // Grafo estabilizado: las bolas restantes son iguales a la actual
+                for (int rest = t + 1; rest <= maxHops; rest++) {
+                    reachByHop[rest - 1] = reach;
+                }
+                break;
+            }
+        }
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        log.info("HYPERBALL completado en {}ms ({} rondas efectivas)", executionTime, rounds);
+
+        return new Result(graph, reachByHop, harmonic, maxHops, rounds, m, direction, executionTime);
+    }
+
+    // ========== HYPERLOGLOG ==========
+
+    /**
+     * Agrega un elemento al contador que empieza en {@code base}
+     */
+    static void addToCounter(byte[] registers, int base, int log2Registers, long element) {
+        long hash = mix64(element);
+        int index = (int) (hash >>> (64 - log2Registers));
+        long remaining = hash << log2Registers;
+        int rank = Math.min(Long.numberOfLeadingZeros(remaining), 64 - log2Registers) + 1;
+        if (rank > registers[base + index]) {
+            registers[base + index] = (byte) rank;
+        }
+    }
+
+    /**
+     * dst ∪= src (máximo registro a registro)
+     *
+     * @return true si algún registro de dst cambió
+     */
+    private static boolean union(byte[] dst, int dstBase, byte[] src, int srcBase, int m) {
+        boolean modified = false;
+        for (int j = 0; j < m; j++) {
+            byte value = src[srcBase + j];
+            if (value > dst[dstBase + j]) {
+                dst[dstBase + j] = value;
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    /**
+     * Estimación de cardinalidad con corrección de rango pequeño (linear counting)
+     */
+    static double estimate(byte[] registers, int base, int m) {
+        double sum = 0.0;
+        int zeros = 0;
+        for (int j = 0; j < m; j++) {
+            int value = registers[base + j];
+            sum += INVERSE_POWERS_OF_TWO[value];
+            if (value == 0) {
+                zeros++;
+            }
+        }
+        double raw = alpha(m) * m * m / sum;
+        if (raw <= 2.5 * m && zeros > 0) {
+            return m * Math.log((double) m / zeros);
+        }
+        return raw;
+    }
+
+    private static double alpha(int m) {
+        switch (m) {
+            case 16:
+                return 0.673;
+            case 32:
+                return 0.697;
+            case 64:
+                return 0.709;
+            default:
+                return 0.7213 / (1.0 + 1.079 / m);
+        }
+    }
+
+    /** Finalizador de SplitMix64: buena dispersión para ids densos consecutivos */
+    private static long mix64(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    // ========== RESULTADO ==========
+
+    /**
+     * Resultado inmutable de una ejecución de HyperBall
+     */
+    public static final class Result {
+
+        private final WalletGraph graph;
+        private final float[][] reachByHop;
+        private final float[] harmonic;
+        private final int maxHops;
+        private final int effectiveRounds;
+        private final int registersPerCounter;
+        private final Direction direction;
+        private final long executionTimeMs;
+
+        private Result(WalletGraph graph, float[][] reachByHop, float[] harmonic, int maxHops,
+                       int effectiveRounds, int registersPerCounter, Direction direction, long executionTimeMs) {
+            this.graph = graph;
+            this.reachByHop = reachByHop;
+            this.harmonic = harmonic;
+            this.maxHops = maxHops;
+            this.effectiveRounds = effectiveRounds;
+            this.registersPerCounter = registersPerCounter;
+            this.direction = direction;
+            this.executionTimeMs = executionTimeMs;
+        }
+
+        /** Wallets estimadas a <= hops saltos de {@code v} (sin contar v) */
+        public double reach(int v, int hops) {
+            return reachByHop[hops - 1][v];
+        }
+
+        /** reach@1..k para la wallet {@code v} */
+        public long[] reachProfile(int v) {
+            long[] profile = new long[maxHops];
+            for (int t = 0; t < maxHops; t++) {
+                profile[t] = Math.round(reachByHop[t][v]);
+            }
+            return profile;
+        }
+
+        public double harmonicCentrality(int v) {
+            return harmonic[v];
+        }
+
+        public WalletGraph getGraph() {
+            return graph;
+        }
+
+        public int getMaxHops() {
+            return maxHops;
+        }
+
+        public int getEffectiveRounds() {
+            return effectiveRounds;
+        }
+
+        public int getRegistersPerCounter() {
+            return registersPerCounter;
+        }
+
+        /** Error estándar relativo teórico de cada estimación */
+        public double getRelativeStandardError() {
+            return 1.04 / Math.sqrt(registersPerCounter);
+        }
+
+        public Direction getDirection() {
+            return direction;
+        }
+
+        public long getExecutionTimeMs() {
+            return executionTimeMs;
+        }
+    }
+}
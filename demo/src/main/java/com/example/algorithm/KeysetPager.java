@@ -0,0 +1,160 @@
+package com.example.algorithm;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * PAGINACIÓN POR CLAVE (KEYSET) PEREZOSA
+ *
+ * <h2>Descripción</h2>
+ * Recorre un conjunto de filas ordenado por una clave única pidiendo páginas
+ * {@code WHERE key > $cursor ORDER BY key LIMIT $page} a medida que se consumen.
+ * A diferencia de {@code SKIP}, cada página cuesta lo mismo (el índice salta
+ * directamente al cursor) y en memoria sólo hay una página a la vez.
+ *
+ * <h2>Claves y filas</h2>
+ * El límite se aplica a claves, no a filas: una página puede expandir cada clave
+ * en varias filas (p. ej. una transacción en sus outputs) o en ninguna (una
+ * coinbase sin inputs, una transacción sin aristas). Por eso cada página informa,
+ * aparte de las filas, cuántas claves recorrió y cuál fue la última: ésa es el
+ * siguiente cursor, y el recorrido termina con la primera página de menos de
+ * {@code pageSize} claves recorridas, no de filas devueltas.
+ *
+ * <h2>Complejidad</h2>
+ * O(n / pageSize) consultas; memoria O(pageSize × filas por clave).
+ */
+public final class KeysetPager<R> implements Iterator<R> {
+
+    /**
+     * Consulta de una página: claves estrictamente mayores que {@code cursor}
+     */
+    @FunctionalInterface
+    public interface PageFetcher<R> {
+        Page<R> fetch(String cursor, int limit);
+    }
+
+    /**
+     * Resultado de una página: filas decodificadas (en orden de clave) y las claves
+     * recorridas, aunque alguna no haya producido filas
+     */
+    public static final class Page<R> {
+        private final List<R> rows;
+        private final String lastKey;
+        private final int scannedKeys;
+
+        /**
+         * @param lastKey     Última clave recorrida (null si ninguna)
+         * @param scannedKeys Claves recorridas (como mucho el límite pedido)
+         */
+        public Page(List<R> rows, String lastKey, int scannedKeys) {
+            this.rows = Objects.requireNonNull(rows);
+            this.lastKey = lastKey;
+            this.scannedKeys = scannedKeys;
+        }
+
+        public List<R> getRows() {
+            return rows;
+        }
+
+        public String getLastKey() {
+            return lastKey;
+        }
+
+        public int getScannedKeys() {
+            return scannedKeys;
+        }
+    }
+
+    private final PageFetcher<R> fetcher;
+    private final Function<R, String> keyOf;
+    private final int pageSize;
+
+    private final Deque<R> buffer = new ArrayDeque<>();
+    private String cursor;
+    private boolean exhausted;
+    private long pages;
+    private long rows;
+
+    /**
+     * @param start Cursor inicial (p. ej. "" para cadenas)
+     */
+    public KeysetPager(PageFetcher<R> fetcher, Function<R, String> keyOf, String start, int pageSize) {
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize debe ser >= 1");
+        }
+        this.fetcher = Objects.requireNonNull(fetcher);
+        this.keyOf = Objects.requireNonNull(keyOf);
+        this.cursor = Objects.requireNonNull(start);
+        this.pageSize = pageSize;
+    }
+
+    /**
+     * Stream perezoso y secuencial sobre todas las filas
+     */
+    public static <R> Stream<R> stream(PageFetcher<R> fetcher, Function<R, String> keyOf, String start,
+                                       int pageSize) {
+        KeysetPager<R> pager = new KeysetPager<>(fetcher, keyOf, start, pageSize);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(pager,
+                Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (buffer.isEmpty() && !exhausted) {
+            fetchPage();
+        }
+        return !buffer.isEmpty();
+    }
+
+    @Override
+    public R next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return buffer.poll();
+    }
+
+    /** Páginas pedidas hasta ahora */
+    public long getPages() {
+        return pages;
+    }
+
+    /** Filas entregadas al buffer hasta ahora */
+    public long getRows() {
+        return rows;
+    }
+
+    private void fetchPage() {
+        Page<R> page = fetcher.fetch(cursor, pageSize);
+        pages++;
+        String previous = null;
+        for (R row : page.getRows()) {
+            String key = keyOf.apply(row);
+            if (key.compareTo(cursor) <= 0 || (previous != null && key.compareTo(previous) < 0)
+                    || (page.getLastKey() != null && key.compareTo(page.getLastKey()) > 0)) {
+                throw new IllegalStateException("Página fuera de orden: " + key + " tras el cursor " + cursor);
+            }
+            previous = key;
+            buffer.add(row);
+        }
+        rows += page.getRows().size();
+        if (page.getScannedKeys() == 0 || page.getLastKey() == null) {
+            exhausted = true;
+            return;
+        }
+        if (page.getLastKey().compareTo(cursor) <= 0) {
+            throw new IllegalStateException("El cursor no avanza: " + page.getLastKey() + " tras " + cursor);
+        }
+        cursor = page.getLastKey();
+        exhausted = page.getScannedKeys() < pageSize;
+    }
+}
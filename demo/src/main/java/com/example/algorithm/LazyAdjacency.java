@@ -0,0 +1,160 @@
+package com.example.algorithm;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * GRAFO PAGINADO BAJO DEMANDA
+ *
+ * <h2>Descripción</h2>
+ * La adyacencia de una wallet se carga la primera vez que la búsqueda la expande. Las
+ * wallets que entran a la frontera se anotan con {@link #hint(String)}; cuando hace
+ * falta cargar una wallet, se piden en la misma ronda todas las wallets pendientes de
+ * la frontera (hasta {@code batchSize}), de modo que cada nivel de la búsqueda cuesta
+ * una consulta ({@code UNWIND $ids}) y no una por wallet.
+ *
+ * <h2>Memoria</h2>
+ * Los bloques de adyacencia viven en un LRU acotado por número total de aristas: una
+ * búsqueda profunda sólo retiene la parte del grafo que está explorando, y un bloque
+ * desalojado se vuelve a pedir si la búsqueda regresa a esa wallet.
+ *
+ * <h2>Concurrencia</h2>
+ * Los métodos son {@code synchronized}; una instancia pertenece a una búsqueda.
+ *
+ * @param <E> Tipo de arista del algoritmo
+ */
+public final class LazyAdjacency<E> implements AdjacencyProvider<E> {
+
+    /** Wallets por consulta */
+    public static final int DEFAULT_BATCH_SIZE = 256;
+
+    /** Aristas retenidas en el LRU */
+    public static final long DEFAULT_MAX_CACHED_EDGES = 200_000;
+
+    private final Function<Collection<String>, Map<String, List<E>>> loader;
+    private final int batchSize;
+    private final long maxCachedEdges;
+
+    /** LRU en orden de acceso: la primera entrada es la menos usada */
+    private final LinkedHashMap<String, List<E>> cache = new LinkedHashMap<>(256, 0.75f, true);
+    /** Wallets de la frontera aún no cargadas, en orden de llegada */
+    private final Set<String> frontier = new LinkedHashSet<>();
+
+    private long cachedEdges;
+    private long rounds;
+    private long walletsLoaded;
+    private long edgesLoaded;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    /**
+     * @param loader Carga por lotes: recibe wallets y devuelve sus aristas (las wallets
+     *               ausentes del mapa se consideran sin aristas)
+     */
+    public LazyAdjacency(Function<Collection<String>, Map<String, List<E>>> loader) {
+        this(loader, DEFAULT_BATCH_SIZE, DEFAULT_MAX_CACHED_EDGES);
+    }
+
+    public LazyAdjacency(Function<Collection<String>, Map<String, List<E>>> loader,
+                         int batchSize, long maxCachedEdges) {
+        this.loader = loader;
+        this.batchSize = Math.max(1, batchSize);
+        this.maxCachedEdges = Math.max(1, maxCachedEdges);
+    }
+
+    @Override
+    public synchronized List<E> neighbours(String wallet) {
+        List<E> block = cache.get(wallet);
+        if (block != null) {
+            hits++;
+            return block;
+        }
+        misses++;
+        return load(wallet);
+    }
+
+    @Override
+    public synchronized void hint(String wallet) {
+        // containsKey no altera el orden de acceso del LRU
+        if (!cache.containsKey(wallet)) {
+            frontier.add(wallet);
+        }
+    }
+
+    /**
+     * Carga {@code wallet} junto con las wallets pendientes de la frontera en una ronda
+     */
+    private List<E> load(String wallet) {
+        frontier.remove(wallet);
+        List<String> batch = new ArrayList<>(Math.min(batchSize, frontier.size() + 1));
+        batch.add(wallet);
+        Iterator<String> pending = frontier.iterator();
+        while (batch.size() < batchSize && pending.hasNext()) {
+            String next = pending.next();
+            pending.remove();
+            if (!cache.containsKey(next)) {
+                batch.add(next);
+            }
+        }
+
+        Map<String, List<E>> loaded = loader.apply(batch);
+        rounds++;
+        walletsLoaded += batch.size();
+
+        // La wallet pedida se inserta al final: es la más reciente y no se desaloja
+        for (int i = batch.size() - 1; i >= 0; i--) {
+            String id = batch.get(i);
+            List<E> block = loaded != null ? loaded.get(id) : null;
+            block = block != null ? block : Collections.emptyList();
+            edgesLoaded += block.size();
+            List<E> previous = cache.put(id, block);
+            cachedEdges += block.size() - (previous != null ? previous.size() : 0);
+        }
+        evict();
+        return cache.get(wallet);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, List<E>>> eldest = cache.entrySet().iterator();
+        while (cachedEdges > maxCachedEdges && cache.size() > 1 && eldest.hasNext()) {
+            cachedEdges -= eldest.next().getValue().size();
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long getRounds() {
+        return rounds;
+    }
+
+    public synchronized long getWalletsLoaded() {
+        return walletsLoaded;
+    }
+
+    /**
+     * Estadísticas de carga y del LRU
+     */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("rounds", rounds);
+        stats.put("walletsLoaded", walletsLoaded);
+        stats.put("edgesLoaded", edgesLoaded);
+        stats.put("cacheHits", hits);
+        stats.put("cacheMisses", misses);
+        stats.put("evictions", evictions);
+        stats.put("cachedWallets", cache.size());
+        stats.put("cachedEdges", cachedEdges);
+        stats.put("pendingFrontier", frontier.size());
+        return stats;
+    }
+}
@@ -0,0 +1,373 @@
+package com.example.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ÍNDICE DE SIMILITUD: MinHash + LSH por bandas sobre conjuntos de contrapartes
+ *
+ * <h2>Descripción Académica</h2>
+ * Cada wallet se representa por el conjunto C(w) de wallets con las que transaccionó.
+ * Para k funciones hash h_1..h_k, la firma MinHash es
+ * <pre>
+ * sig(w)[i] = min { h_i(c) : c ∈ C(w) }
+ * </pre>
+ * y P(sig(a)[i] = sig(b)[i]) = Jaccard(C(a), C(b)), así que la fracción de
+ * posiciones iguales estima la similitud de Jaccard (Broder 1997).
+ *
+ * <h2>LSH por bandas</h2>
+ * La firma se divide en b bandas de r filas; dos wallets son candidatas si
+ * coinciden en todas las filas de alguna banda. La probabilidad de colisión es
+ * 1 - (1 - s^r)^b, una curva S con umbral ≈ (1/b)^(1/r). Una consulta sólo
+ * compara contra los miembros de sus b buckets, sin comparación por pares.
+ *
+ * <h2>Construcción incremental</h2>
+ * La firma se actualiza con el mínimo de los nuevos hashes: agregar contrapartes
+ * nunca requiere el conjunto completo. Sólo se re-indexan las bandas que cambiaron.
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Actualización:</b> O(k) por contraparte nueva</li>
+ *   <li><b>Consulta:</b> O(b + |candidatos| · k)</li>
+ *   <li><b>Espacial:</b> 4·k bytes por wallet + b entradas de bucket</li>
+ * </ul>
+ *
+ * Thread-safe: las actualizaciones (ingesta) toman el lock de escritura y las
+ * consultas el de lectura.
+ */
+public final class MinHashLshIndex {
+
+    private static final int EMPTY = Integer.MAX_VALUE;
+
+    private final int numHashes;
+    private final int bands;
+    private final int rowsPerBand;
+    private final long[] seeds;
+
+    private final Map<String, Integer> idsByAddress = new HashMap<>();
+    private String[] addresses = new String[1024];
+    private int[] signatures;
+    private int walletCount = 0;
+
+    // clave (banda, hash de las filas) → ids de wallets en el bucket
+    private final Map<Long, int[]> buckets = new HashMap<>();
+
+    private long updates = 0;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * @param numHashes Longitud de la firma (k)
+     * @param bands Número de bandas (b); debe dividir a k
+     */
+    public MinHashLshIndex(int numHashes, int bands) {
+        if (numHashes <= 0 || bands <= 0 || numHashes % bands != 0) {
+            throw new IllegalArgumentException("numHashes must be a positive multiple of bands");
+        }
+        this.numHashes = numHashes;
+        this.bands = bands;
+        this.rowsPerBand = numHashes / bands;
+        this.seeds = new long[numHashes];
+        long seed = 0x5DEECE66DL;
+        for (int i = 0; i < numHashes; i++) {
+            seed = mix64(seed + i);
+            seeds[i] = seed;
+        }
+        this.signatures = new int[addresses.length * numHashes];
+    }
+
+    // ========== ACTUALIZACIÓN ==========
+
+    /**
+     * Agrega contrapartes al conjunto de una wallet
+     *
+     * @return true si la firma cambió
+     */
+    public boolean addCounterparties(String address, Collection<String> counterparties) {
+        if (address == null || counterparties == null || counterparties.isEmpty()) {
+            return false;
+        }
+        lock.writeLock().lock();
+        try {
+            int id = idFor(address);
+            int base = id * numHashes;
+            int[] previous = Arrays.copyOfRange(signatures, base, base + numHashes);
+            boolean changed = false;
+
+            for (String counterparty : counterparties) {
+                if (counterparty == null || counterparty.equals(address)) {
+                    continue;
+                }
+                long elementHash = hashAddress(counterparty);
+                for (int i = 0; i < numHashes; i++) {
+                    int h = (int) (mix64(elementHash ^ seeds[i]) >>> 33);
+                    if (h < signatures[base + i]) {
+                        signatures[base + i] = h;
+                        changed = true;
+                    }
+                }
+            }
+
+            if (changed) {
+                rebucket(id, previous);
+                updates++;
+            }
+            return changed;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Registra una transacción: inputs y outputs son contrapartes mutuas
+     */
+    public void addTransaction(Collection<String> inputAddresses, Collection<String> outputAddresses) {
+        for (String input : inputAddresses) {
+            addCounterparties(input, outputAddresses);
+        }
+        for (String output : outputAddresses) {
+            addCounterparties(output, inputAddresses);
+        }
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Wallets candidatas a similitud con {@code address}, ordenadas por Jaccard estimado
+     *
+     * @param minSimilarity Jaccard estimado mínimo [0, 1]
+     * @param limit Máximo de resultados
+     * @return lista vacía si la wallet no está indexada
+     */
+    public List<Match> findSimilar(String address, double minSimilarity, int limit) {
+        lock.readLock().lock();
+        try {
+            Integer id = idsByAddress.get(address);
+            if (id == null || signatures[id * numHashes] == EMPTY) {
+                return new ArrayList<>();
+            }
+            int base = id * numHashes;
+
+            // Candidatos: unión de los buckets de cada banda (deduplicada por id)
+            Set<Integer> seen = new HashSet<>();
+            List<Match> matches = new ArrayList<>();
+            for (int band = 0; band < bands; band++) {
+                int[] members = buckets.get(bucketKey(signatures, base, band));
+                if (members == null) {
+                    continue;
+                }
+                for (int k = 1; k <= members[0]; k++) {
+                    int candidate = members[k];
+                    if (candidate == id || !seen.add(candidate)) {
+                        continue;
+                    }
+                    double similarity = estimateSimilarity(base, candidate * numHashes);
+                    if (similarity >= minSimilarity) {
+                        matches.add(new Match(addresses[candidate], similarity));
+                    }
+                }
+            }
+
+            matches.sort((a, b) -> Double.compare(b.getSimilarity(), a.getSimilarity()));
+            return matches.size() > limit ? new ArrayList<>(matches.subList(0, limit)) : matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Jaccard estimado entre dos wallets indexadas, o null si alguna no lo está
+     */
+    public Double estimateSimilarity(String a, String b) {
+        lock.readLock().lock();
+        try {
+            Integer idA = idsByAddress.get(a);
+            Integer idB = idsByAddress.get(b);
+            if (idA == null || idB == null) {
+                return null;
+            }
+            return estimateSimilarity(idA * numHashes, idB * numHashes);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return walletCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    public int getBands() {
+        return bands;
+    }
+
+    public int getRowsPerBand() {
+        return rowsPerBand;
+    }
+
+    /** Similitud a partir de la cual dos wallets empiezan a ser candidatas con probabilidad alta */
+    public double getSimilarityThreshold() {
+        return Math.pow(1.0 / bands, 1.0 / rowsPerBand);
+    }
+
+    public long getUpdates() {
+        lock.readLock().lock();
+        try {
+            return updates;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int getBucketCount() {
+        lock.readLock().lock();
+        try {
+            return buckets.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // ========== AUXILIARES ==========
+
+    private int idFor(String address) {
+        Integer id = idsByAddress.get(address);
+        if (id != null) {
+            return id;
+        }
+        if (walletCount == addresses.length) {
+            addresses = Arrays.copyOf(addresses, walletCount * 2);
+            signatures = Arrays.copyOf(signatures, addresses.length * numHashes);
+        }
+        int newId = walletCount++;
+        addresses[newId] = address;
+        Arrays.fill(signatures, newId * numHashes, (newId + 1) * numHashes, EMPTY);
+        idsByAddress.put(address, newId);
+        return newId;
+    }
+
+    private double estimateSimilarity(int baseA, int baseB) {
+        int equal = 0;
+        for (int i = 0; i < numHashes; i++) {
+            if (signatures[baseA + i] == signatures[baseB + i] && signatures[baseA + i] != EMPTY) {
+                equal++;
+            }
+        }
+        return (double) equal / numHashes;
+    }
+
+    /**
+     * Mueve la wallet a los buckets de las bandas que cambiaron
+     */
+    private void rebucket(int id, int[] previous) {
+        int base = id * numHashes;
+        boolean wasEmpty = previous[0] == EMPTY;
+        for (int band = 0; band < bands; band++) {
+            int from = band * rowsPerBand;
+            boolean bandChanged = false;
+            for (int r = 0; r < rowsPerBand; r++) {
+                if (previous[from + r] != signatures[base + from + r]) {
+                    bandChanged = true;
+                    break;
+                }
+            }
+            if (!bandChanged) {
+                continue;
+            }
+            if (!wasEmpty) {
+                removeFromBucket(bucketKey(previous, 0, band), id);
+            }
+            addToBucket(bucketKey(signatures, base, band), id);
+        }
+    }
+
+    private long bucketKey(int[] signature, int base, int band) {
+        long h = band * 0x9E3779B97F4A7C15L;
+        int from = base + band * rowsPerBand;
+        for (int r = 0; r < rowsPerBand; r++) {
+            h = mix64(h ^ signature[from + r]);
+        }
+        return h;
+    }
+
+    /** Bucket como array [tamaño, id1, id2, ...] para evitar boxing */
+    private void addToBucket(long key, int id) {
+        int[] members = buckets.get(key);
+        if (members == null) {
+            members = new int[4];
+        } else if (members[0] + 1 == members.length) {
+            members = Arrays.copyOf(members, members.length * 2);
+        }
+        members[++members[0]] = id;
+        buckets.put(key, members);
+    }
+
+    private void removeFromBucket(long key, int id) {
+        int[] members = buckets.get(key);
+        if (members == null) {
+            return;
+        }
+        for (int k = 1; k <= members[0]; k++) {
+            if (members[k] == id) {
+                members[k] = members[members[0]];
+                members[0]--;
+                break;
+            }
+        }
+        if (members[0] == 0) {
+            buckets.remove(key);
+        }
+    }
+
+    /** FNV-1a de 64 bits sobre la dirección */
+    private static long hashAddress(String address) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < address.length(); i++) {
+            h ^= address.charAt(i);
+            h *= 0x100000001B3L;
+        }
+        return mix64(h);
+    }
+
+    private static long mix64(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * Wallet similar con su Jaccard estimado
+     */
+    public static final class Match {
+        private final String address;
+        private final double similarity;
+
+        public Match(String address, double similarity) {
+            this.address = address;
+            this.similarity = similarity;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.algorithm;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * ÍNDICE DE OUTPOINTS FUERA DEL HEAP
+ *
+ * <h2>Descripción</h2>
+ * Tabla hash (txid, vout) → (valor, dirección) con direccionamiento abierto y
+ * sondeo lineal sobre {@link ByteBuffer#allocateDirect buffers directos}: con
+ * cientos de millones de outputs un {@code HashMap<String, ...>} no entra en el
+ * heap (≈150 bytes por entrada), aquí cada slot ocupa 32 bytes más la dirección.
+ *
+ * <h2>Layout del slot (32 bytes)</h2>
+ * <pre>
+ * [0..8)   primeros 8 bytes del txid
+ * [8..16)  bytes 8..12 del txid (alto) | vout (bajo)
+ * [16..24) valor en satoshis | bit 63 = ocupado
+ * [24..32) referencia a la dirección en la arena (chunk, offset, longitud); 0 = sin dirección
+ * </pre>
+ * La clave usa 96 bits del txid (uniformes por ser un hash) más el vout: la
+ * probabilidad de colisión con mil millones de outputs es del orden de 10^-11.
+ * Las direcciones se guardan en una arena append-only de buffers directos.
+ *
+ * <h2>Concurrencia</h2>
+ * Lecturas concurrentes con cerrojo de lectura; inserciones (y el crecimiento al
+ * superar el factor de carga) con cerrojo de escritura.
+ *
+ * <h2>Complejidad</h2>
+ * O(1) esperado por operación; el crecimiento duplica y reinserta, O(n) amortizado.
+ */
+public final class OutpointIndex implements AutoCloseable {
+
+    private static final int SLOT_BYTES = 32;
+    /** 2^25 slots (1 GiB) por segmento: un ByteBuffer no pasa de 2 GiB */
+    private static final int SLOTS_PER_SEGMENT_SHIFT = 25;
+    private static final int ARENA_CHUNK_BYTES = 64 * 1024 * 1024;
+    private static final long OCCUPIED = 1L << 63;
+    private static final double MAX_LOAD = 0.7;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private ByteBuffer[] segments;
+    private long capacity;
+    private long mask;
+    private long size;
+    private int slotsPerSegmentShift;
+
+    private final List<ByteBuffer> arena = new ArrayList<>();
+    private ByteBuffer arenaTail;
+
+    /**
+     * @param expectedEntries Outputs esperados; la tabla crece si se supera
+     */
+    public OutpointIndex(long expectedEntries) {
+        long slots = Long.highestOneBit(Math.max(16, (long) (expectedEntries / MAX_LOAD)) * 2 - 1);
+        allocate(slots);
+    }
+
+    /**
+     * Registra (o reemplaza) un output
+     *
+     * @param txid    Hash de la transacción en orden interno (32 bytes)
+     * @param address Dirección del output, o null si el script no tiene
+     */
+    public void put(byte[] txid, int vout, long value, String address) {
+        long k1 = key1(txid);
+        long k2 = key2(txid, vout);
+        lock.writeLock().lock();
+        try {
+            if (size + 1 > capacity * MAX_LOAD) {
+                grow();
+            }
+            long ref = address != null ? store(address) : 0L;
+            long slot = find(k1, k2);
+            ByteBuffer segment = segments[(int) (slot >>> slotsPerSegmentShift)];
+            int offset = offsetOf(slot);
+            if ((segment.getLong(offset + 16) & OCCUPIED) == 0) {
+                size++;
+            }
+            write(segment, offset, k1, k2, value | OCCUPIED, ref);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return El output, o null si el outpoint no está indexado
+     */
+    public Output get(byte[] txid, int vout) {
+        long k1 = key1(txid);
+        long k2 = key2(txid, vout);
+        lock.readLock().lock();
+        try {
+            long slot = find(k1, k2);
+            ByteBuffer segment = segments[(int) (slot >>> slotsPerSegmentShift)];
+            int offset = offsetOf(slot);
+            long value = segment.getLong(offset + 16);
+            if ((value & OCCUPIED) == 0) {
+                return null;
+            }
+            return new Output(value & ~OCCUPIED, load(segment.getLong(offset + 24)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean contains(byte[] txid, int vout) {
+        return get(txid, vout) != null;
+    }
+
+    public long size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Bytes fuera del heap reservados (tabla + arena de direcciones) */
+    public long offHeapBytes() {
+        lock.readLock().lock();
+        try {
+            return capacity * SLOT_BYTES + (long) arena.size() * ARENA_CHUNK_BYTES;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suelta los buffers; la memoria directa se libera cuando el GC los recolecta
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            segments = new ByteBuffer[0];
+            arena.clear();
+            arenaTail = null;
+            size = 0;
+            capacity = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Slot con la clave o el primer slot libre de su secuencia de sondeo */
+    private long find(long k1, long k2) {
+        if (capacity == 0) {
+            throw new IllegalStateException("El índice de outpoints está cerrado");
+        }
+        long slot = mix(k1, k2) & mask;
+        while (true) {
+            ByteBuffer segment = segments[(int) (slot >>> slotsPerSegmentShift)];
+            int offset = offsetOf(slot);
+            if ((segment.getLong(offset + 16) & OCCUPIED) == 0
+                    || segment.getLong(offset) == k1 && segment.getLong(offset + 8) == k2) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private void grow() {
+        ByteBuffer[] old = segments;
+        long oldCapacity = capacity;
+        int oldShift = slotsPerSegmentShift;
+        allocate(oldCapacity * 2);
+        for (long slot = 0; slot < oldCapacity; slot++) {
+            ByteBuffer segment = old[(int) (slot >>> oldShift)];
+            int offset = (int) ((slot & ((1L << oldShift) - 1)) * SLOT_BYTES);
+            long value = segment.getLong(offset + 16);
+            if ((value & OCCUPIED) != 0) {
+                long k1 = segment.getLong(offset);
+                long k2 = segment.getLong(offset + 8);
+                long target = find(k1, k2);
+                write(segments[(int) (target >>> slotsPerSegmentShift)], offsetOf(target),
+                        k1, k2, value, segment.getLong(offset + 24));
+                size++;
+            }
+        }
+    }
+
+    private void allocate(long slots) {
+        capacity = slots;
+        mask = slots - 1;
+        size = 0;
+        slotsPerSegmentShift = (int) Math.min(SLOTS_PER_SEGMENT_SHIFT, Long.numberOfTrailingZeros(slots));
+        int count = (int) (slots >>> slotsPerSegmentShift);
+        segments = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            segments[i] = ByteBuffer.allocateDirect((1 << slotsPerSegmentShift) * SLOT_BYTES)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    private int offsetOf(long slot) {
+        return (int) ((slot & ((1L << slotsPerSegmentShift) - 1)) * SLOT_BYTES);
+    }
+
+    private static void write(ByteBuffer segment, int offset, long k1, long k2, long value, long ref) {
+        segment.putLong(offset, k1);
+        segment.putLong(offset + 8, k2);
+        segment.putLong(offset + 16, value);
+        segment.putLong(offset + 24, ref);
+    }
+
+    /** Referencia: chunk (bits 40+), offset en el chunk (bits 8..40), longitud (bits 0..8) */
+    private long store(String address) {
+        byte[] bytes = address.getBytes(StandardCharsets.US_ASCII);
+        if (bytes.length == 0 || bytes.length > 255) {
+            return 0L;
+        }
+        if (arenaTail == null || arenaTail.remaining() < bytes.length) {
+            arenaTail = ByteBuffer.allocateDirect(ARENA_CHUNK_BYTES);
+            arena.add(arenaTail);
+        }
+        long offset = arenaTail.position();
+        arenaTail.put(bytes);
+        return ((long) (arena.size() - 1) << 40) | (offset << 8) | bytes.length;
+    }
+
+    private String load(long ref) {
+        if (ref == 0L) {
+            return null;
+        }
+        ByteBuffer chunk = arena.get((int) (ref >>> 40));
+        int offset = (int) ((ref >>> 8) & 0xFFFFFFFFL);
+        byte[] bytes = new byte[(int) (ref & 0xFF)];
+        chunk.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    private static long key1(byte[] txid) {
+        return ByteBuffer.wrap(txid, 0, 8).order(ByteOrder.LITTLE_ENDIAN).getLong();
+    }
+
+    private static long key2(byte[] txid, int vout) {
+        int high = ByteBuffer.wrap(txid, 8, 4).order(ByteOrder.LITTLE_ENDIAN).getInt();
+        return ((long) high << 32) | (vout & 0xFFFFFFFFL);
+    }
+
+    private static long mix(long k1, long k2) {
+        long h = k1 ^ (k2 * 0x9E3779B97F4A7C15L);
+        h = (h ^ (h >>> 33)) * 0xFF51AFD7ED558CCDL;
+        return h ^ (h >>> 33);
+    }
+
+    /**
+     * Output resuelto
+     */
+    public static final class Output {
+        private final long value;
+        private final String address;
+
+        public Output(long value, String address) {
+            this.value = value;
+            this.address = address;
+        }
+
+        public long getValue() {
+            return value;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.example.algorithm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * ÍNDICE DE DISTANCIAS: Pruned Landmark Labeling (2-hop cover)
+ *
+ * <h2>Descripción Académica</h2>
+ * Cada wallet {@code v} guarda una etiqueta L(v) = {(hub, d(v, hub))}. Las etiquetas
+ * cumplen la propiedad 2-hop cover: para todo par (u, v) existe un hub común en un
+ * camino más corto, por lo que
+ * <pre>
+ * d(u, v) = min { d(u, h) + d(h, v) : h ∈ L(u) ∩ L(v) }
+ * </pre>
+ *
+ * <h2>Construcción (Akiba, Iwata, Yoshida 2013)</h2>
+ * Se procesan las wallets en orden de grado descendente. Desde cada una se lanza
+ * un BFS que se PODA en cuanto las etiquetas ya construidas responden una distancia
+ * menor o igual: los hubs de alto grado cubren casi todos los caminos, así que los
+ * BFS posteriores visitan muy pocos nodos.
+ *
+ * <h2>Representación</h2>
+ * Las etiquetas se empaquetan en arrays planos: {@code labelHubs} (rank del hub,
+ * ordenado) y {@code labelDistances} (byte sin signo), indexados por
+ * {@code labelOffsets}. Una consulta es un merge de dos listas ordenadas, sin
+ * objetos ni hashing.
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Consulta:</b> O(|L(u)| + |L(v)|), típicamente microsegundos</li>
+ *   <li><b>Construcción:</b> O(V · |L| · log V) en la práctica</li>
+ *   <li><b>Espacial:</b> 5 bytes por entrada de etiqueta</li>
+ * </ul>
+ *
+ * Las distancias son en saltos wallet→wallet sobre la vista no dirigida del grafo
+ * (equivalente a {@code shortestPath((w1)-[:INPUT|OUTPUT*]-(w2))} / 2). Distancias
+ * mayores a {@link #MAX_DISTANCE} se consideran inalcanzables.
+ *
+ * La instancia es inmutable y segura para consultas concurrentes.
+ */
+@Slf4j
+public final class PrunedLandmarkLabeling {
+
+    public static final int UNREACHABLE = -1;
+    public static final int MAX_DISTANCE = 254;
+
+    private static final int INF = Integer.MAX_VALUE / 2;
+
+    private final WalletGraph graph;
+    private final int[] labelOffsets;
+    private final int[] labelHubs;
+    private final byte[] labelDistances;
+    private final long buildTimeMs;
+
+    private PrunedLandmarkLabeling(WalletGraph graph,
+                                   int[] labelOffsets,
+                                   int[] labelHubs,
+                                   byte[] labelDistances,
+                                   long buildTimeMs) {
+        this.graph = graph;
+        this.labelOffsets = labelOffsets;
+        this.labelHubs = labelHubs;
+        this.labelDistances = labelDistances;
+        this.buildTimeMs = buildTimeMs;
+    }
+
+    /**
+     * Construye el índice completo sobre el snapshot
+     *
+     * @param graph Snapshot del grafo de wallets
+     * @return Índice listo para consultas
+     */
+    public static PrunedLandmarkLabeling build(WalletGraph graph) {
+        long startTime = System.currentTimeMillis();
+        int n = graph.size();
+        log.info("Construyendo PRUNED LANDMARK LABELING: {} wallets, {} aristas", n, graph.edgeCount());
+
+        // ORDEN: grado descendente (los hubs naturales van primero)
+        int[] order = orderByDegree(graph);
+
+        // Etiquetas temporales por vértice (crecen a medida que avanza el BFS podado)
+        int[][] hubs = new int[n][];
+        byte[][] dists = new byte[n][];
+        int[] sizes = new int[n];
+
+        int[] rootLabel = new int[n];          // d(root, hub) indexado por rank del hub
+        Arrays.fill(rootLabel, INF);
+        int[] distance = new int[n];
+        Arrays.fill(distance, INF);
+        int[] queue = new int[n];
+        boolean[] processed = new boolean[n];
+
+        int[] uOffsets = graph.undirectedOffsets;
+        int[] uTargets = graph.undirectedTargets;
+        long visits = 0;
+
+        for (int rank = 0; rank < n; rank++) {
+            int root = order[rank];
+
+            for (int i = 0; i < sizes[root]; i++) {
+                rootLabel[hubs[root][i]] = dists[root][i] & 0xFF;
+            }
+
+            int head = 0, tail = 0;
+            queue[tail++] = root;
+            distance[root] = 0;
+
+            while (head < tail) {
+                int u = queue[head++];
+                int d = distance[u];
+                visits++;
+
+                if (processed[u]) {
+                    continue;
+                }
+
+                // PODA: las etiquetas actuales ya cubren (root, u) con distancia <= d
+                if (coveredWithin(rootLabel, hubs[u], dists[u], sizes[u], d)) {
+                    continue;
+                }
+
+                appendLabel(hubs, dists, sizes, u, rank, d);
+
+                if (d >= MAX_DISTANCE) {
+                    continue;
+                }
+                for (int e = uOffsets[u]; e < uOffsets[u + 1]; e++) {
+                    int w = uTargets[e];
+                    if (distance[w] == INF) {
+                        distance[w] = d + 1;
+                        queue[tail++] = w;
+                    }
+                }
+            }
+
+            // Reset sólo de lo que tocamos (evita O(V) por raíz)
+            for (int i = 0; i < tail; i++) {
+                distance[queue[i]] = INF;
+            }
+            for (int i = 0; i < sizes[root]; i++) {
+                rootLabel[hubs[root][i]] = INF;
+            }
+            processed[root] = true;
+        }
+
+        // EMPAQUETADO en arrays planos
+        int[] offsets = new int[n + 1];
+        for (int v = 0; v < n; v++) {
+            offsets[v + 1] = offsets[v] + sizes[v];
+        }
+        int[] flatHubs = new int[offsets[n]];
+        byte[] flatDists = new byte[offsets[n]];
+        for (int v = 0; v < n; v++) {
+            if (sizes[v] > 0) {
+                System.arraycopy(hubs[v], 0, flatHubs, offsets[v], sizes[v]);
+                System.arraycopy(dists[v], 0, flatDists, offsets[v], sizes[v]);
+            }
+            hubs[v] = null;
+            dists[v] = null;
+        }
+
+        long buildTime = System.currentTimeMillis() - startTime;
+        log.info("PRUNED LANDMARK LABELING construido en {}ms: {} entradas ({} promedio por wallet), {} visitas BFS",
+                buildTime, offsets[n], n > 0 ? String.format("%.1f", (double) offsets[n] / n) : "0", visits);
+
+        return new PrunedLandmarkLabeling(graph, offsets, flatHubs, flatDists, buildTime);
+    }
+
+    // ========== CONSULTAS ==========
+
+    /**
+     * Distancia exacta en saltos entre dos wallets del snapshot
+     *
+     * @return número de saltos, o {@link #UNREACHABLE}
+     */
+    public int distance(int u, int v) {
+        if (u == v) {
+            return 0;
+        }
+        int best = INF;
+        int i = labelOffsets[u], iEnd = labelOffsets[u + 1];
+        int j = labelOffsets[v], jEnd = labelOffsets[v + 1];
+        while (i < iEnd && j < jEnd) {
+            int hi = labelHubs[i];
+            int hj = labelHubs[j];
+            if (hi == hj) {
+                int d = (labelDistances[i] & 0xFF) + (labelDistances[j] & 0xFF);
+                if (d < best) {
+                    best = d;
+                }
+                i++;
+                j++;
+            } else if (hi < hj) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return best == INF ? UNREACHABLE : best;
+    }
+
+    /**
+     * Distancia por dirección
+     *
+     * @return número de saltos, {@link #UNREACHABLE}, o null si alguna wallet no está indexada
+     */
+    public Integer distance(String from, String to) {
+        int u = graph.idOf(from);
+        int v = graph.idOf(to);
+        if (u < 0 || v < 0) {
+            return null;
+        }
+        return distance(u, v);
+    }
+
+    /**
+     * Filtro masivo "¿conectado en <= k saltos?"
+     *
+     * @param source Wallet origen (id)
+     * @param targets Wallets candidatas (ids)
+     * @param maxHops Límite k
+     * @return resultado por posición de {@code targets}
+     */
+    public boolean[] withinHops(int source, int[] targets, int maxHops) {
+        boolean[] result = new boolean[targets.length];
+        for (int t = 0; t < targets.length; t++) {
+            int target = targets[t];
+            if (target < 0) {
+                continue;
+            }
+            int d = distance(source, target);
+            result[t] = d != UNREACHABLE && d <= maxHops;
+        }
+        return result;
+    }
+
+    /**
+     * Variante por dirección: devuelve las wallets de {@code targets} a distancia <= k
+     */
+    public List<String> filterWithinHops(String source, Collection<String> targets, int maxHops) {
+        int s = graph.idOf(source);
+        if (s < 0) {
+            return new ArrayList<>();
+        }
+        int[] ids = new int[targets.size()];
+        String[] names = targets.toArray(new String[0]);
+        for (int i = 0; i < names.length; i++) {
+            ids[i] = graph.idOf(names[i]);
+        }
+        boolean[] hits = withinHops(s, ids, maxHops);
+        List<String> reachable = new ArrayList<>();
+        for (int i = 0; i < names.length; i++) {
+            if (hits[i]) {
+                reachable.add(names[i]);
+            }
+        }
+        return reachable;
+    }
+
+    // ========== METADATOS ==========
+
+    public WalletGraph getGraph() {
+        return graph;
+    }
+
+    public long getLabelEntries() {
+        return labelHubs.length;
+    }
+
+    public double getAverageLabelSize() {
+        return graph.size() == 0 ? 0.0 : (double) labelHubs.length / graph.size();
+    }
+
+    public long getMemoryBytes() {
+        return 4L * labelOffsets.length + 4L * labelHubs.length + labelDistances.length;
+    }
+
+    public long getBuildTimeMs() {
+        return buildTimeMs;
+    }
+
+    // ========== AUXILIARES ==========
+
+    private static boolean coveredWithin(int[] rootLabel, int[] hubs, byte[] dists, int size, int d) {
+        for (int i = 0; i < size; i++) {
+            int viaHub = rootLabel[hubs[i]];
+            if (viaHub != INF && viaHub + (dists[i] & 0xFF) <= d) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void appendLabel(int[][] hubs, byte[][] dists, int[] sizes, int v, int hubRank, int d) {
+        int size = sizes[v];
+        if (hubs[v] == null) {
+            hubs[v] = new int[4];
+            dists[v] = new byte[4];
+        } else if (size == hubs[v].length) {
+            hubs[v] = Arrays.copyOf(hubs[v], size * 2);
+            dists[v] = Arrays.copyOf(dists[v], size * 2);
+        }
+        hubs[v][size] = hubRank;
+        dists[v][size] = (byte) d;
+        sizes[v] = size + 1;
+    }
+
+    private static int[] orderByDegree(WalletGraph graph) {
+        int n = graph.size();
+        long[] keyed = new long[n];
+        for (int v = 0; v < n; v++) {
+            // grado descendente, id ascendente como desempate
+            keyed[v] = ((long) (Integer.MAX_VALUE - graph.degree(v)) << 32) | v;
+        }
+        Arrays.sort(keyed);
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = (int) keyed[i];
+        }
+        return order;
+    }
+}
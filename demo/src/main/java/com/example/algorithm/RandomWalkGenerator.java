@@ -0,0 +1,202 @@
+package com.example.algorithm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * GENERADOR DE RANDOM WALKS (DeepWalk / node2vec) en paralelo
+ *
+ * <h2>Descripción Académica</h2>
+ * Produce caminatas aleatorias de longitud fija desde cada wallet sobre la vista no
+ * dirigida del snapshot. La transición de primer orden es proporcional al peso de la
+ * arista (1 + log(1 + monto) si se pondera por montos, uniforme si no).
+ *
+ * El sesgo de segundo orden de node2vec (Grover, Leskovec 2016), dado el nodo previo t:
+ * <pre>
+ * α(t, x) = 1/p  si x = t          (volver)
+ *         = 1    si x es vecino de t (quedarse cerca: BFS)
+ *         = 1/q  en otro caso        (alejarse: DFS)
+ * </pre>
+ * se aplica por rechazo sobre la distribución de primer orden, así no hace falta
+ * una tabla por par de aristas (memoria O(E) en vez de O(Σ d²)).
+ *
+ * <h2>Muestreo</h2>
+ * <ul>
+ *   <li><b>Wallets de grado alto:</b> tabla de alias precalculada, O(1) por paso</li>
+ *   <li><b>Wallets de grado bajo:</b> búsqueda lineal sobre los pesos (más barata que
+ *       la tabla para pocos vecinos)</li>
+ * </ul>
+ *
+ * <h2>Salida</h2>
+ * Un único {@code int[]} plano: la caminata i ocupa {@code [i·L, (i+1)·L)}; si la
+ * caminata termina antes (wallet aislada) se completa con -1. Cada caminata usa su
+ * propio generador derivado de (seed, i), por lo que el resultado es determinista
+ * aunque se genere en paralelo.
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Preparación:</b> O(E log d)</li>
+ *   <li><b>Generación:</b> O(V · walks · L) esperado</li>
+ * </ul>
+ */
+@Slf4j
+public final class RandomWalkGenerator {
+
+    public static final int PADDING = -1;
+    public static final int DEFAULT_ALIAS_THRESHOLD = 16;
+
+    private final WalletGraph graph;
+    private final int aliasThreshold;
+
+    // Pesos por arista de la vista no dirigida y total por wallet
+    private final float[] weights;
+    private final float[] totals;
+
+    // Tablas de alias alineadas con undirectedTargets (sólo wallets de grado alto)
+    private final float[] aliasProbability;
+    private final int[] aliasIndex;
+
+    /**
+     * @param graph Snapshot del grafo
+     * @param weightedByAmount true para sesgar las transiciones por monto transferido
+     * @param aliasThreshold Grado a partir del cual se usa tabla de alias
+     */
+    public RandomWalkGenerator(WalletGraph graph, boolean weightedByAmount, int aliasThreshold) {
+        this.graph = graph;
+        this.aliasThreshold = aliasThreshold;
+
+        int n = graph.size();
+        int[] offsets = graph.undirectedOffsets;
+        int[] targets = graph.undirectedTargets;
+        this.weights = new float[targets.length];
+        this.totals = new float[n];
+        this.aliasProbability = new float[targets.length];
+        this.aliasIndex = new int[targets.length];
+
+        double[] scratch = new double[0];
+        for (int v = 0; v < n; v++) {
+            int start = offsets[v];
+            int degree = offsets[v + 1] - start;
+            if (scratch.length < degree) {
+                scratch = new double[degree];
+            }
+            double total = 0.0;
+            for (int i = 0; i < degree; i++) {
+                int w = targets[start + i];
+                double weight = weightedByAmount
+                        ? 1.0 + Math.log1p(graph.amount(v, w) + graph.amount(w, v))
+                        : 1.0;
+                weights[start + i] = (float) weight;
+                scratch[i] = weight;
+                total += weight;
+            }
+            totals[v] = (float) total;
+            if (degree >= aliasThreshold) {
+                AliasTable.fill(scratch, 0, degree, aliasProbability, aliasIndex, start);
+            }
+        }
+    }
+
+    /**
+     * Genera {@code walksPerWallet} caminatas desde cada wallet
+     *
+     * @param walkLength Longitud L (incluye la wallet inicial)
+     * @param returnParameter p de node2vec (1 = sin sesgo)
+     * @param inOutParameter q de node2vec (1 = sin sesgo)
+     * @param seed Semilla base
+     * @return caminatas planas de longitud {@code walkLength}, rellenas con {@link #PADDING}
+     */
+    public int[] generate(int walksPerWallet, int walkLength, double returnParameter, double inOutParameter, long seed) {
+        int n = graph.size();
+        long totalWalks = (long) n * walksPerWallet;
+        if (walkLength < 2 || walksPerWallet < 1) {
+            throw new IllegalArgumentException("walkLength must be >= 2 and walksPerWallet >= 1");
+        }
+        if (totalWalks * walkLength > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many walk steps for a single buffer, lower walksPerWallet or walkLength");
+        }
+
+        long startTime = System.currentTimeMillis();
+        int[] walks = new int[(int) totalWalks * walkLength];
+
+        double returnBias = 1.0 / returnParameter;
+        double outwardBias = 1.0 / inOutParameter;
+        double maxBias = Math.max(1.0, Math.max(returnBias, outwardBias));
+        boolean biased = returnParameter != 1.0 || inOutParameter != 1.0;
+
+        IntStream.range(0, (int) totalWalks).parallel().forEach(walk -> {
+            SplittableRandom random = new SplittableRandom(mix64(seed + walk));
+            int base = walk * walkLength;
+            int start = walk % n;
+            walks[base] = start;
+
+            int previous = -1;
+            int current = start;
+            for (int step = 1; step < walkLength; step++) {
+                if (graph.degree(current) == 0) {
+                    Arrays.fill(walks, base + step, base + walkLength, PADDING);
+                    return;
+                }
+                int next;
+                if (!biased || previous < 0) {
+                    next = sampleNeighbour(current, random);
+                } else {
+                    // Rechazo: propuesta de primer orden, aceptación α(t, x) / max α
+                    while (true) {
+                        next = sampleNeighbour(current, random);
+                        double bias = next == previous ? returnBias
+                                : isNeighbour(previous, next) ? 1.0 : outwardBias;
+                        if (random.nextDouble() * maxBias < bias) {
+                            break;
+                        }
+                    }
+                }
+                walks[base + step] = next;
+                previous = current;
+                current = next;
+            }
+        });
+
+        log.info("RANDOM WALKS generados en {}ms: {} caminatas de longitud {} (p={}, q={})",
+                System.currentTimeMillis() - startTime, totalWalks, walkLength, returnParameter, inOutParameter);
+        return walks;
+    }
+
+    public WalletGraph getGraph() {
+        return graph;
+    }
+
+    // ========== AUXILIARES ==========
+
+    private int sampleNeighbour(int v, SplittableRandom random) {
+        int start = graph.undirectedOffsets[v];
+        int degree = graph.undirectedOffsets[v + 1] - start;
+        if (degree >= aliasThreshold) {
+            return graph.undirectedTargets[start
+                    + AliasTable.sample(aliasProbability, aliasIndex, start, degree, random)];
+        }
+        float r = (float) (random.nextDouble() * totals[v]);
+        for (int i = 0; i < degree - 1; i++) {
+            r -= weights[start + i];
+            if (r < 0) {
+                return graph.undirectedTargets[start + i];
+            }
+        }
+        return graph.undirectedTargets[start + degree - 1];
+    }
+
+    private boolean isNeighbour(int u, int w) {
+        return Arrays.binarySearch(graph.undirectedTargets,
+                graph.undirectedOffsets[u], graph.undirectedOffsets[u + 1], w) >= 0;
+    }
+
+    private static long mix64(long z) {
+        z += 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
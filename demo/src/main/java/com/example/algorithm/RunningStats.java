@@ -0,0 +1,80 @@
+package com.example.algorithm;
+
+/**
+ * MEDIA Y VARIANZA EN UNA PASADA (WELFORD)
+ *
+ * <h2>Descripción</h2>
+ * Acumula n, media y la suma de cuadrados de las desviaciones (M2) con la
+ * recurrencia de Welford: numéricamente estable (no resta dos sumas grandes como
+ * {@code E[x²] - E[x]²}) y con memoria O(1), así que sirve para recorrer todo el
+ * grafo en streaming. Dos acumuladores se combinan con la fórmula de Chan.
+ *
+ * <h2>Complejidad</h2>
+ * O(1) por valor y por combinación.
+ */
+public final class RunningStats {
+
+    private long count;
+    private double mean;
+    private double m2;
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        m2 += delta * (value - mean);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Combina otro acumulador en este (p. ej. resultados de particiones)
+     */
+    public RunningStats merge(RunningStats other) {
+        if (other.count == 0) {
+            return this;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        m2 += other.m2 + delta * delta * ((double) count * other.count / total);
+        mean += delta * other.count / total;
+        count = total;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+        return this;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return count > 0 ? mean : 0.0;
+    }
+
+    /** Varianza poblacional (divide por n) */
+    public double getVariance() {
+        return count > 0 ? m2 / count : 0.0;
+    }
+
+    public double getStdDev() {
+        return Math.sqrt(getVariance());
+    }
+
+    public double getMin() {
+        return count > 0 ? min : 0.0;
+    }
+
+    public double getMax() {
+        return count > 0 ? max : 0.0;
+    }
+
+    /**
+     * Desviaciones estándar de {@code value} respecto de la media (valor absoluto)
+     */
+    public double zScore(double value) {
+        return Math.abs((value - getMean()) / (getStdDev() + 1e-10));
+    }
+}
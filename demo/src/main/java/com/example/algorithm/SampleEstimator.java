@@ -0,0 +1,305 @@
+package com.example.algorithm;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * ESTIMADORES CON INTERVALO DE CONFIANZA SOBRE UNA MUESTRA
+ *
+ * <h2>Descripción</h2>
+ * Cada métrica global se expresa como una razón de totales sobre las wallets,
+ * {@code R = Σ a(v) / Σ b(v)}, y se estima con los pesos w ∝ 1/π(v) de la
+ * {@link GraphSampler.Sample}:
+ * <pre>
+ * R̂ = Σ w·a / Σ w·b
+ * Var(R̂) ≈ m/(m-1) · Σ_lotes (Σ w·(a - R̂·b))² / (Σ w·b)²     (linealización)
+ * IC = R̂ ± z · √Var
+ * </pre>
+ * Con muestras independientes cada lote es una observación; la caminata aleatoria
+ * agrupa pasos consecutivos (medias por lotes) para no subestimar el error.
+ *
+ * <h2>Métricas</h2>
+ * <ul>
+ *   <li><b>Grado medio:</b> a = grado, b = 1</li>
+ *   <li><b>Clustering medio:</b> a = clustering local (exacto o por muestreo de
+ *       cuñas en wallets de grado alto), b = 1</li>
+ *   <li><b>Distribución de grados:</b> proporción por cubeta log2</li>
+ *   <li><b>Longitud media de camino:</b> BFS desde las wallets muestreadas;
+ *       a = Σ distancias, b = wallets alcanzadas (sólo pares conectados)</li>
+ * </ul>
+ *
+ * <h2>Complejidad</h2>
+ * O(k · d log d) para grado y clustering (acotado por {@code maxWedges} por wallet);
+ * O(s · (V + E)) para la longitud de camino con s fuentes, detenido por un
+ * {@link SearchBudget}.
+ */
+public final class SampleEstimator {
+
+    /** Pares de vecinos evaluados por wallet antes de pasar a muestreo de cuñas */
+    public static final int DEFAULT_MAX_WEDGES = 2_000;
+
+    private SampleEstimator() {
+    }
+
+    /**
+     * Grado medio (vista no dirigida)
+     */
+    public static Estimate meanDegree(WalletGraph graph, GraphSampler.Sample sample, double confidence) {
+        int k = sample.size();
+        double[] degrees = new double[k];
+        for (int i = 0; i < k; i++) {
+            degrees[i] = graph.degree(sample.node(i));
+        }
+        return ratio("meanDegree", degrees, ones(k), sample, confidence);
+    }
+
+    /**
+     * Coeficiente de clustering medio (Watts–Strogatz); grado &lt; 2 cuenta como 0
+     */
+    public static Estimate clusteringCoefficient(WalletGraph graph, GraphSampler.Sample sample,
+                                                 double confidence, int maxWedges) {
+        int k = sample.size();
+        double[] clustering = new double[k];
+        for (int i = 0; i < k; i++) {
+            clustering[i] = localClustering(graph, sample.node(i), maxWedges, i);
+        }
+        return ratio("clusteringCoefficient", clustering, ones(k), sample, confidence);
+    }
+
+    /**
+     * Proporción de wallets por cubeta de grado [2^b, 2^(b+1)); la cubeta 0 es grado 0
+     */
+    public static List<Estimate> degreeDistribution(WalletGraph graph, GraphSampler.Sample sample,
+                                                    double confidence) {
+        int k = sample.size();
+        int[] buckets = new int[k];
+        int maxBucket = 0;
+        for (int i = 0; i < k; i++) {
+            buckets[i] = degreeBucket(graph.degree(sample.node(i)));
+            maxBucket = Math.max(maxBucket, buckets[i]);
+        }
+        double[] ones = ones(k);
+        List<Estimate> distribution = new ArrayList<>(maxBucket + 1);
+        for (int b = 0; b <= maxBucket; b++) {
+            double[] indicator = new double[k];
+            for (int i = 0; i < k; i++) {
+                indicator[i] = buckets[i] == b ? 1.0 : 0.0;
+            }
+            String label = b == 0 ? "degree[0]" : "degree[" + (1 << (b - 1)) + "," + (1 << b) + ")";
+            distribution.add(ratio(label, indicator, ones, sample, confidence));
+        }
+        return distribution;
+    }
+
+    /**
+     * Longitud media de camino más corto entre pares conectados (no dirigido),
+     * con BFS desde hasta {@code maxSources} wallets distintas de la muestra
+     *
+     * @param budget Límite de tiempo / nodos; al agotarse se estima con las fuentes ya recorridas
+     */
+    public static Estimate averagePathLength(WalletGraph graph, GraphSampler.Sample sample,
+                                             double confidence, int maxSources, SearchBudget budget) {
+        int n = graph.size();
+        int[] offsets = graph.undirectedOffsets;
+        int[] targets = graph.undirectedTargets;
+        int[] distance = new int[n];
+        Arrays.fill(distance, -1);
+        int[] queue = new int[n];
+
+        int limit = Math.min(maxSources, sample.size());
+        double[] distanceSums = new double[limit];
+        double[] reached = new double[limit];
+        int[] sources = new int[limit];
+        double[] weights = new double[limit];
+        boolean[] seen = new boolean[n];
+        int used = 0;
+
+        for (int i = 0; i < sample.size() && used < limit; i++) {
+            int source = sample.node(i);
+            if (seen[source]) {
+                continue;
+            }
+            seen[source] = true;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = source;
+            distance[source] = 0;
+            long sum = 0;
+            while (head < tail) {
+                int v = queue[head++];
+                for (int e = offsets[v]; e < offsets[v + 1]; e++) {
+                    int u = targets[e];
+                    if (distance[u] < 0) {
+                        distance[u] = distance[v] + 1;
+                        sum += distance[u];
+                        queue[tail++] = u;
+                    }
+                }
+            }
+            for (int j = 0; j < tail; j++) {
+                distance[queue[j]] = -1;
+            }
+
+            sources[used] = source;
+            weights[used] = sample.weight(i);
+            distanceSums[used] = sum;
+            reached[used] = tail - 1;
+            used++;
+            if (!budget.charge(tail, 0)) {
+                break;
+            }
+        }
+
+        // Fuentes distintas: cada BFS es una observación independiente
+        GraphSampler.Sample bfsSources = new GraphSampler.Sample(sample.getMethod(),
+                Arrays.copyOf(sources, used), Arrays.copyOf(weights, used), 1, sample.isUnbiased());
+        Estimate estimate = ratio("averagePathLength",
+                Arrays.copyOf(distanceSums, used), Arrays.copyOf(reached, used), bfsSources, confidence);
+        estimate.setComplete(budget.isComplete());
+        return estimate;
+    }
+
+    /**
+     * Estimador de razón con error estándar por linealización sobre lotes
+     */
+    static Estimate ratio(String metric, double[] a, double[] b, GraphSampler.Sample sample, double confidence) {
+        int k = a.length;
+        double totalA = 0;
+        double totalB = 0;
+        for (int i = 0; i < k; i++) {
+            totalA += sample.weight(i) * a[i];
+            totalB += sample.weight(i) * b[i];
+        }
+        double value = totalB > 0 ? totalA / totalB : Double.NaN;
+
+        int batchSize = Math.max(1, sample.getBatchSize());
+        int batches = (k + batchSize - 1) / batchSize;
+        double standardError = Double.NaN;
+        if (batches >= 2 && totalB > 0) {
+            double squares = 0;
+            for (int start = 0; start < k; start += batchSize) {
+                double residual = 0;
+                for (int i = start; i < Math.min(k, start + batchSize); i++) {
+                    residual += sample.weight(i) * (a[i] - value * b[i]);
+                }
+                squares += residual * residual;
+            }
+            standardError = Math.sqrt(squares * batches / (batches - 1.0)) / totalB;
+        }
+
+        double z = zScore(confidence);
+        return Estimate.builder()
+            .metric(metric)
+            .value(value)
+            .standardError(standardError)
+            .ciLow(value - z * standardError)
+            .ciHigh(value + z * standardError)
+            .confidence(confidence)
+            .sampleSize(k)
+            .method(sample.getMethod().name())
+            .unbiased(sample.isUnbiased())
+            .complete(true)
+            .build();
+    }
+
+    /**
+     * Cuantil z de la normal para un intervalo bilateral (Abramowitz y Stegun 26.2.23,
+     * error &lt; 4.5e-4)
+     */
+    public static double zScore(double confidence) {
+        double c = Math.min(Math.max(confidence, 0.5), 0.9999);
+        double p = (1.0 - c) / 2.0;
+        double t = Math.sqrt(-2.0 * Math.log(p));
+        return t - (2.515517 + 0.802853 * t + 0.010328 * t * t)
+                / (1.0 + 1.432788 * t + 0.189269 * t * t + 0.001308 * t * t * t);
+    }
+
+    /**
+     * Clustering local de v: fracción de pares de vecinos conectados. Hasta
+     * {@code maxWedges} pares se evalúan todos; por encima se muestrean
+     */
+    static double localClustering(WalletGraph graph, int v, int maxWedges, long salt) {
+        int[] offsets = graph.undirectedOffsets;
+        int[] targets = graph.undirectedTargets;
+        int start = offsets[v];
+        int degree = offsets[v + 1] - start;
+        if (degree < 2) {
+            return 0.0;
+        }
+        long wedges = (long) degree * (degree - 1) / 2;
+        long closed = 0;
+        if (wedges <= maxWedges) {
+            for (int i = 0; i < degree; i++) {
+                int u = targets[start + i];
+                for (int j = i + 1; j < degree; j++) {
+                    if (adjacent(offsets, targets, u, targets[start + j])) {
+                        closed++;
+                    }
+                }
+            }
+            return (double) closed / wedges;
+        }
+        SplittableRandom random = new SplittableRandom(((long) v << 32) ^ salt);
+        for (int s = 0; s < maxWedges; s++) {
+            int i = random.nextInt(degree);
+            int j = random.nextInt(degree - 1);
+            if (j >= i) {
+                j++;
+            }
+            if (adjacent(offsets, targets, targets[start + i], targets[start + j])) {
+                closed++;
+            }
+        }
+        return (double) closed / maxWedges;
+    }
+
+    /** Búsqueda binaria en la lista (ordenada) del extremo de menor grado */
+    private static boolean adjacent(int[] offsets, int[] targets, int u, int w) {
+        if (offsets[u + 1] - offsets[u] > offsets[w + 1] - offsets[w]) {
+            int swap = u;
+            u = w;
+            w = swap;
+        }
+        return Arrays.binarySearch(targets, offsets[u], offsets[u + 1], w) >= 0;
+    }
+
+    private static int degreeBucket(int degree) {
+        return degree == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(degree);
+    }
+
+    private static double[] ones(int k) {
+        double[] ones = new double[k];
+        Arrays.fill(ones, 1.0);
+        return ones;
+    }
+
+    /**
+     * Valor estimado con su intervalo de confianza
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Estimate {
+        private String metric;
+        private double value;
+        private double standardError;
+        private double ciLow;
+        private double ciHigh;
+        private double confidence;
+        /** Observaciones usadas (fuentes BFS en la longitud de camino) */
+        private int sampleSize;
+        private String method;
+        /** false con forest fire: el intervalo no tiene garantía de cobertura */
+        private boolean unbiased;
+        /** false si el presupuesto cortó el cálculo antes de usar toda la muestra */
+        private boolean complete;
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.algorithm;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * PRESUPUESTO DE BÚSQUEDA para algoritmos "anytime"
+ *
+ * <h2>Descripción</h2>
+ * Limita una búsqueda por tiempo de reloj, nodos expandidos, memoria estimada y número
+ * de resultados. Cuando se agota, la búsqueda se detiene y devuelve la mejor solución
+ * encontrada hasta ese momento marcada como incompleta.
+ *
+ * <h2>Costo en el bucle caliente</h2>
+ * El bucle sólo lee una bandera {@code volatile} ({@link #isStopped()}). Los nodos se
+ * acumulan localmente y se cargan en lotes de {@link #checkInterval()} con
+ * {@link #charge(long, long)}, que es donde se consulta el reloj y la memoria: una
+ * llamada a {@code System.nanoTime()} cada ~1000 nodos.
+ *
+ * <h2>Concurrencia</h2>
+ * Los contadores son atómicos: un mismo presupuesto se comparte entre los workers
+ * fork-join y el primero que lo agota detiene a todos.
+ */
+public final class SearchBudget {
+
+    /** Motivo por el que se detuvo la búsqueda */
+    public enum StopReason {
+        NONE,
+        DEADLINE,
+        NODE_LIMIT,
+        MEMORY_LIMIT,
+        RESULT_LIMIT,
+        CANCELLED
+    }
+
+    private static final int CHECK_INTERVAL = 1024;
+
+    private final long startNanos;
+    private final long deadlineNanos;
+    private final long maxNodes;
+    private final long maxMemoryBytes;
+    private final int maxResults;
+
+    private final AtomicLong nodes = new AtomicLong();
+    private final AtomicInteger accepted = new AtomicInteger();
+    private final AtomicReference<StopReason> stopReason = new AtomicReference<>(StopReason.NONE);
+    private volatile boolean stopped = false;
+
+    private SearchBudget(long timeoutMs, long maxNodes, long maxMemoryBytes, int maxResults) {
+        this.startNanos = System.nanoTime();
+        this.deadlineNanos = timeoutMs > 0 ? startNanos + timeoutMs * 1_000_000L : Long.MAX_VALUE;
+        this.maxNodes = maxNodes > 0 ? maxNodes : Long.MAX_VALUE;
+        this.maxMemoryBytes = maxMemoryBytes > 0 ? maxMemoryBytes : Long.MAX_VALUE;
+        this.maxResults = maxResults > 0 ? maxResults : Integer.MAX_VALUE;
+    }
+
+    /** Sin límites: la búsqueda corre hasta agotar el espacio */
+    public static SearchBudget unlimited() {
+        return new SearchBudget(0, 0, 0, 0);
+    }
+
+    /** Sólo límite de resultados (los workers se detienen al alcanzarlo) */
+    public static SearchBudget ofResults(int maxResults) {
+        return new SearchBudget(0, 0, 0, maxResults);
+    }
+
+    /**
+     * Presupuesto completo; valores {@code <= 0} significan "sin límite". El reloj
+     * empieza a correr al crear el presupuesto.
+     *
+     * @param timeoutMs Tiempo de reloj máximo
+     * @param maxNodes Nodos expandidos máximos
+     * @param maxMemoryBytes Memoria estimada máxima de las estructuras de la búsqueda
+     * @param maxResults Resultados admitidos tras los cuales se detiene
+     */
+    public static SearchBudget of(long timeoutMs, long maxNodes, long maxMemoryBytes, int maxResults) {
+        return new SearchBudget(timeoutMs, maxNodes, maxMemoryBytes, maxResults);
+    }
+
+    /** Lectura barata para el bucle caliente */
+    public boolean isStopped() {
+        return stopped;
+    }
+
+    /** Cada cuántos nodos conviene llamar a {@link #charge(long, long)} */
+    public int checkInterval() {
+        return (int) Math.max(1, Math.min(CHECK_INTERVAL, maxNodes));
+    }
+
+    /**
+     * Carga un lote de nodos expandidos y verifica los límites
+     *
+     * @param expandedNodes Nodos expandidos desde la última carga
+     * @param estimatedMemoryBytes Memoria estimada actual de la búsqueda (0 si no aplica)
+     * @return true si la búsqueda puede continuar
+     */
+    public boolean charge(long expandedNodes, long estimatedMemoryBytes) {
+        long total = nodes.addAndGet(expandedNodes);
+        if (total >= maxNodes) {
+            stop(StopReason.NODE_LIMIT);
+        } else if (estimatedMemoryBytes > maxMemoryBytes) {
+            stop(StopReason.MEMORY_LIMIT);
+        } else if (deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos) {
+            stop(StopReason.DEADLINE);
+        }
+        return !stopped;
+    }
+
+    /** Cuenta un resultado admitido; al llegar al límite detiene la búsqueda */
+    public void recordAccepted() {
+        if (accepted.incrementAndGet() >= maxResults) {
+            stop(StopReason.RESULT_LIMIT);
+        }
+    }
+
+    /** Detiene la búsqueda desde fuera (p. ej. el cliente se desconectó) */
+    public void cancel() {
+        stop(StopReason.CANCELLED);
+    }
+
+    private void stop(StopReason reason) {
+        stopReason.compareAndSet(StopReason.NONE, reason);
+        stopped = true;
+    }
+
+    /** true si la búsqueda terminó sin agotar ningún límite */
+    public boolean isComplete() {
+        return !stopped;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason.get();
+    }
+
+    public long getNodesExpanded() {
+        return nodes.get();
+    }
+
+    public long getElapsedMs() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+}
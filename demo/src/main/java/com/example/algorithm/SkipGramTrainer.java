@@ -0,0 +1,249 @@
+package com.example.algorithm;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * EMBEDDINGS DE WALLETS: Skip-gram con negative sampling (word2vec sobre random walks)
+ *
+ * <h2>Descripción Académica</h2>
+ * Cada caminata se trata como una "oración" de wallets. Para cada par (centro, contexto)
+ * dentro de la ventana se maximiza
+ * <pre>
+ * log σ(u_c · v_ctx) + Σ_{i=1..k} log σ(-u_{n_i} · v_ctx),   n_i ~ P(w) ∝ f(w)^0.75
+ * </pre>
+ * (Mikolov et al. 2013). Las wallets que aparecen en contextos parecidos terminan con
+ * vectores cercanos (DeepWalk, node2vec).
+ *
+ * <h2>Entrenamiento Hogwild</h2>
+ * Los hilos actualizan las mismas matrices {@code float[]} sin locks (Recht et al. 2011):
+ * con grafos dispersos las colisiones son raras y no afectan la convergencia. Cada
+ * hilo procesa un tramo contiguo de caminatas con su propio generador aleatorio.
+ *
+ * <h2>Representación</h2>
+ * Las matrices de entrada y salida son arrays planos V·d; el vector de la wallet v
+ * ocupa {@code [v·d, (v+1)·d)}. Las negativas se muestrean con una tabla de alias
+ * y σ se lee de una tabla precalculada.
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Temporal:</b> O(epochs · pasos · ventana · (k + 1) · d) / hilos</li>
+ *   <li><b>Espacial:</b> 2 · V · d floats</li>
+ * </ul>
+ *
+ * Todo corre en CPU, sin dependencias externas.
+ */
+@Slf4j
+public final class SkipGramTrainer {
+
+    private static final int SIGMOID_TABLE_SIZE = 1000;
+    private static final float MAX_EXP = 6.0f;
+    private static final float[] SIGMOID = new float[SIGMOID_TABLE_SIZE + 1];
+
+    static {
+        for (int i = 0; i <= SIGMOID_TABLE_SIZE; i++) {
+            double x = (2.0 * i / SIGMOID_TABLE_SIZE - 1.0) * MAX_EXP;
+            SIGMOID[i] = (float) (1.0 / (1.0 + Math.exp(-x)));
+        }
+    }
+
+    /**
+     * Hiperparámetros del entrenamiento
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class TrainingConfig {
+        @Builder.Default
+        private int dimensions = 64;
+        @Builder.Default
+        private int windowSize = 5;
+        @Builder.Default
+        private int negativeSamples = 5;
+        @Builder.Default
+        private int epochs = 1;
+        @Builder.Default
+        private float learningRate = 0.025f;
+        @Builder.Default
+        private int threads = Runtime.getRuntime().availableProcessors();
+        @Builder.Default
+        private long seed = 42L;
+    }
+
+    private SkipGramTrainer() {
+    }
+
+    /**
+     * Entrena embeddings sobre caminatas planas (ver {@link RandomWalkGenerator})
+     *
+     * @param graph Snapshot sobre el que se generaron las caminatas
+     * @param walks Caminatas planas con relleno {@link RandomWalkGenerator#PADDING}
+     * @param walkLength Longitud de cada caminata
+     * @param config Hiperparámetros
+     * @return Vectores normalizados listos para búsqueda por coseno
+     */
+    public static WalletEmbeddings train(WalletGraph graph, int[] walks, int walkLength, TrainingConfig config) {
+        long startTime = System.currentTimeMillis();
+        int n = graph.size();
+        int d = config.getDimensions();
+        int walkCount = walks.length / walkLength;
+        int threads = Math.max(1, Math.min(config.getThreads(), Math.max(1, walkCount)));
+        if ((long) n * d > Integer.MAX_VALUE - 8) {
+            throw new IllegalArgumentException("Too many wallets for " + d + " dimensions, lower dimensions");
+        }
+
+        // FRECUENCIAS → distribución de negativas f^0.75
+        long[] frequency = new long[n];
+        long tokens = 0;
+        for (int node : walks) {
+            if (node >= 0) {
+                frequency[node]++;
+                tokens++;
+            }
+        }
+        double[] negativeWeights = new double[n];
+        for (int v = 0; v < n; v++) {
+            negativeWeights[v] = Math.pow(frequency[v], 0.75);
+        }
+        AliasTable negativeTable = AliasTable.of(negativeWeights);
+
+        // INICIALIZACIÓN (word2vec): entrada uniforme pequeña, salida en cero
+        float[] input = new float[n * d];
+        float[] output = new float[n * d];
+        SplittableRandom init = new SplittableRandom(config.getSeed());
+        for (int i = 0; i < input.length; i++) {
+            input[i] = (float) ((init.nextDouble() - 0.5) / d);
+        }
+
+        log.info("Entrenando SKIP-GRAM: {} wallets, {} caminatas, {} tokens, d={}, ventana={}, k={}, {} hilos",
+                n, walkCount, tokens, d, config.getWindowSize(), config.getNegativeSamples(), threads);
+
+        long totalTokens = Math.max(1, tokens * config.getEpochs());
+        AtomicLong processed = new AtomicLong();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "skipgram-worker");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            for (int epoch = 0; epoch < config.getEpochs(); epoch++) {
+                List<Future<?>> futures = new ArrayList<>(threads);
+                for (int t = 0; t < threads; t++) {
+                    int fromWalk = (int) ((long) walkCount * t / threads);
+                    int toWalk = (int) ((long) walkCount * (t + 1) / threads);
+                    long threadSeed = config.getSeed() + 31L * epoch + t;
+                    futures.add(pool.submit(() -> trainRange(walks, walkLength, fromWalk, toWalk,
+                            input, output, d, config, negativeTable, processed, totalTokens,
+                            new SplittableRandom(threadSeed))));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Skip-gram training failed", e);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        long executionTime = System.currentTimeMillis() - startTime;
+        log.info("SKIP-GRAM completado en {}ms", executionTime);
+        return new WalletEmbeddings(graph, input, d, executionTime);
+    }
+
+    /**
+     * Bucle Hogwild de un hilo sobre las caminatas [fromWalk, toWalk)
+     */
+    private static void trainRange(int[] walks, int walkLength, int fromWalk, int toWalk,
+                                   float[] input, float[] output, int d, TrainingConfig config,
+                                   AliasTable negativeTable, AtomicLong processed, long totalTokens,
+                                   SplittableRandom random) {
+        float[] gradient = new float[d];
+        int window = config.getWindowSize();
+        int negatives = config.getNegativeSamples();
+        float initialRate = config.getLearningRate();
+        float rate = initialRate;
+        long localTokens = 0;
+
+        for (int walk = fromWalk; walk < toWalk; walk++) {
+            int base = walk * walkLength;
+            for (int i = 0; i < walkLength; i++) {
+                int center = walks[base + i];
+                if (center < 0) {
+                    break;
+                }
+
+                // Tasa de aprendizaje con decaimiento lineal (se actualiza cada 10k tokens)
+                if (++localTokens % 10_000 == 0) {
+                    long done = processed.addAndGet(10_000);
+                    rate = initialRate * Math.max(1e-4f, 1.0f - (float) done / totalTokens);
+                }
+
+                // Ventana reducida aleatoria, como en word2vec
+                int reduced = random.nextInt(window);
+                int from = Math.max(0, i - window + reduced);
+                int to = Math.min(walkLength - 1, i + window - reduced);
+                for (int j = from; j <= to; j++) {
+                    int context = walks[base + j];
+                    if (j == i || context < 0) {
+                        continue;
+                    }
+                    int contextBase = context * d;
+                    Arrays.fill(gradient, 0f);
+
+                    for (int s = 0; s <= negatives; s++) {
+                        int target;
+                        float label;
+                        if (s == 0) {
+                            target = center;
+                            label = 1f;
+                        } else {
+                            target = negativeTable.sample(random);
+                            if (target == center) {
+                                continue;
+                            }
+                            label = 0f;
+                        }
+                        int targetBase = target * d;
+                        float dot = 0f;
+                        for (int k = 0; k < d; k++) {
+                            dot += input[contextBase + k] * output[targetBase + k];
+                        }
+                        float g = (label - sigmoid(dot)) * rate;
+                        for (int k = 0; k < d; k++) {
+                            gradient[k] += g * output[targetBase + k];
+                            output[targetBase + k] += g * input[contextBase + k];
+                        }
+                    }
+                    for (int k = 0; k < d; k++) {
+                        input[contextBase + k] += gradient[k];
+                    }
+                }
+            }
+        }
+    }
+
+    private static float sigmoid(float x) {
+        if (x >= MAX_EXP) {
+            return 1f;
+        }
+        if (x <= -MAX_EXP) {
+            return 0f;
+        }
+        return SIGMOID[(int) ((x + MAX_EXP) * (SIGMOID_TABLE_SIZE / MAX_EXP / 2))];
+    }
+}
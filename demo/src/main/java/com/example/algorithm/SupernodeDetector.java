@@ -0,0 +1,178 @@
+package com.example.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DETECCIÓN DE SUPERNODOS (wallets de exchanges y servicios)
+ *
+ * <h2>Descripción</h2>
+ * Un supernodo es una wallet cuyo grado (contrapartes distintas) está en la cola
+ * extrema de la distribución: expandirlo en un {@code [*1..N]} o en un DFS multiplica
+ * la frontera por cientos de miles. El umbral se deriva de las estadísticas de grado
+ * del snapshot:
+ * <pre>
+ * umbral = max(minDegree, percentil_q(grado), media + 6·desvío)
+ * </pre>
+ * El piso {@code minDegree} evita marcar wallets normales en grafos pequeños. Las
+ * estadísticas pueden venir de un snapshot ({@link #fromGraph}) o de una agregación
+ * de grados en la base ({@link #fromDegrees}).
+ *
+ * <h2>Memoria</h2>
+ * Sólo se guardan los supernodos (dirección → grado); el resto del grafo no se retiene.
+ */
+public final class SupernodeDetector {
+
+    /** Percentil por defecto del umbral */
+    public static final double DEFAULT_QUANTILE = 0.999;
+
+    /** Grado mínimo para considerar supernodo a una wallet */
+    public static final int DEFAULT_MIN_DEGREE = 1000;
+
+    private static final double STDDEV_FACTOR = 6.0;
+
+    private final Map<String, Integer> supernodeDegrees;
+    private final int threshold;
+    private final long graphVersion;
+    private final Map<String, Object> degreeStats;
+
+    private SupernodeDetector(Map<String, Integer> supernodeDegrees, int threshold, long graphVersion,
+                              Map<String, Object> degreeStats) {
+        this.supernodeDegrees = supernodeDegrees;
+        this.threshold = threshold;
+        this.graphVersion = graphVersion;
+        this.degreeStats = degreeStats;
+    }
+
+    /** Sin supernodos conocidos (snapshot no disponible) */
+    public static SupernodeDetector empty() {
+        return new SupernodeDetector(Collections.emptyMap(), Integer.MAX_VALUE, -1, Collections.emptyMap());
+    }
+
+    /** Supernodos explícitos (p. ej. una lista curada de exchanges) */
+    public static SupernodeDetector of(Map<String, Integer> supernodeDegrees, int threshold) {
+        return new SupernodeDetector(new HashMap<>(supernodeDegrees), threshold, -1, Collections.emptyMap());
+    }
+
+    public static SupernodeDetector fromGraph(WalletGraph graph) {
+        return fromGraph(graph, DEFAULT_QUANTILE, DEFAULT_MIN_DEGREE);
+    }
+
+    /**
+     * Detecta los supernodos del snapshot por grado no dirigido
+     *
+     * @param quantile Percentil de grado a partir del cual una wallet es supernodo
+     * @param minDegree Piso absoluto del umbral
+     */
+    public static SupernodeDetector fromGraph(WalletGraph graph, double quantile, int minDegree) {
+        int n = graph.size();
+        int[] degrees = new int[n];
+        double sum = 0.0;
+        double sumSquares = 0.0;
+        for (int v = 0; v < n; v++) {
+            degrees[v] = graph.degree(v);
+            sum += degrees[v];
+            sumSquares += (double) degrees[v] * degrees[v];
+        }
+        double mean = n > 0 ? sum / n : 0.0;
+        double stddev = n > 0 ? Math.sqrt(Math.max(0.0, sumSquares / n - mean * mean)) : 0.0;
+
+        int[] sorted = degrees.clone();
+        Arrays.sort(sorted);
+        int quantileDegree = n > 0 ? sorted[Math.min(n - 1, (int) Math.floor(quantile * (n - 1)))] : 0;
+        int maxDegree = n > 0 ? sorted[n - 1] : 0;
+
+        int threshold = threshold(mean, stddev, quantileDegree, minDegree);
+
+        Map<String, Integer> supernodes = new HashMap<>();
+        for (int v = 0; v < n; v++) {
+            if (degrees[v] >= threshold) {
+                supernodes.put(graph.addressOf(v), degrees[v]);
+            }
+        }
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("wallets", n);
+        stats.put("meanDegree", mean);
+        stats.put("stddevDegree", stddev);
+        stats.put("quantile", quantile);
+        stats.put("quantileDegree", quantileDegree);
+        stats.put("maxDegree", maxDegree);
+        return new SupernodeDetector(supernodes, threshold, graph.getVersion(), stats);
+    }
+
+    /**
+     * Supernodos ya filtrados por la base a partir de sus estadísticas de grado
+     *
+     * @param supernodeDegrees Wallets con grado >= {@code threshold}
+     * @param degreeStats Estadísticas de grado de las que salió el umbral
+     */
+    public static SupernodeDetector fromDegrees(Map<String, Integer> supernodeDegrees, int threshold,
+                                                Map<String, Object> degreeStats) {
+        return new SupernodeDetector(new HashMap<>(supernodeDegrees), threshold, -1,
+            new LinkedHashMap<>(degreeStats));
+    }
+
+    /**
+     * umbral = max(minDegree, percentil_q(grado), media + 6·desvío)
+     */
+    public static int threshold(double mean, double stddev, int quantileDegree, int minDegree) {
+        return (int) Math.max(minDegree, Math.max(quantileDegree, Math.ceil(mean + STDDEV_FACTOR * stddev)));
+    }
+
+    public boolean isSupernode(String address) {
+        return address != null && supernodeDegrees.containsKey(address);
+    }
+
+    /** Grado de un supernodo, o -1 si la wallet no lo es */
+    public int degreeOf(String address) {
+        Integer degree = supernodeDegrees.get(address);
+        return degree != null ? degree : -1;
+    }
+
+    /** Direcciones de todos los supernodos (para excluirlos en Cypher) */
+    public List<String> addresses() {
+        return new ArrayList<>(supernodeDegrees.keySet());
+    }
+
+    /** Supernodos de mayor a menor grado */
+    public List<Map<String, Object>> top(int limit) {
+        List<Map<String, Object>> top = new ArrayList<>();
+        supernodeDegrees.entrySet().stream()
+            .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+            .limit(Math.max(0, limit))
+            .forEach(e -> {
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("address", e.getKey());
+                row.put("degree", e.getValue());
+                top.add(row);
+            });
+        return top;
+    }
+
+    public int size() {
+        return supernodeDegrees.size();
+    }
+
+    public int getThreshold() {
+        return threshold;
+    }
+
+    /** Versión del snapshot de origen (-1 si no proviene de uno) */
+    public long getGraphVersion() {
+        return graphVersion;
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>(degreeStats);
+        stats.put("threshold", threshold);
+        stats.put("supernodes", supernodeDegrees.size());
+        stats.put("graphVersion", graphVersion);
+        return stats;
+    }
+}
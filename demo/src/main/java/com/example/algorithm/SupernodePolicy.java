@@ -0,0 +1,274 @@
+package com.example.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SplittableRandom;
+import java.util.function.Function;
+
+/**
+ * POLÍTICA DE RECORRIDO PARA SUPERNODOS
+ *
+ * <h2>Descripción</h2>
+ * Decide qué hace una búsqueda al llegar a un supernodo ({@link SupernodeDetector}):
+ * <ul>
+ *   <li>{@code SKIP}: no entra al supernodo (se descartan las aristas hacia él)</li>
+ *   <li>{@code STOP_AT}: entra pero no lo expande (la ruta termina ahí)</li>
+ *   <li>{@code SAMPLE}: lo expande con una muestra de K aristas</li>
+ *   <li>{@code NONE}: sin tratamiento especial</li>
+ * </ul>
+ * Los extremos de la consulta (origen, destino) nunca se omiten ni se cortan: si son
+ * supernodos, sus aristas se muestrean a K para acotar el primer nivel.
+ *
+ * <h2>Muestreo</h2>
+ * Fisher–Yates parcial con semilla derivada de la wallet: la misma consulta devuelve la
+ * misma muestra, y la muestra conserva el orden original de las aristas.
+ *
+ * <h2>Reporte</h2>
+ * Una instancia pertenece a un recorrido y cuenta lo que truncó ({@link #getReport()}),
+ * para que la respuesta indique que el resultado no cubre el grafo completo.
+ */
+public final class SupernodePolicy {
+
+    public enum Mode {
+        NONE,
+        SKIP,
+        STOP_AT,
+        SAMPLE
+    }
+
+    /** Aristas que se conservan de un supernodo en modo SAMPLE */
+    public static final int DEFAULT_SAMPLE_SIZE = 50;
+
+    /** Supernodos listados en el reporte */
+    private static final int MAX_REPORTED_SUPERNODES = 20;
+
+    private final SupernodeDetector detector;
+    private final Mode mode;
+    private final int sampleSize;
+    private final Set<String> protectedWallets = new LinkedHashSet<>();
+
+    private final Set<String> supernodesHit = new LinkedHashSet<>();
+    private long skippedEdges;
+    private long stoppedAt;
+    private long sampledWallets;
+    private long droppedEdges;
+    private int excludedIntermediates;
+
+    public SupernodePolicy(SupernodeDetector detector, Mode mode, int sampleSize) {
+        this.detector = detector != null ? detector : SupernodeDetector.empty();
+        this.mode = mode != null ? mode : Mode.NONE;
+        this.sampleSize = sampleSize > 0 ? sampleSize : DEFAULT_SAMPLE_SIZE;
+    }
+
+    /** Política que no trunca nada */
+    public static SupernodePolicy none() {
+        return new SupernodePolicy(SupernodeDetector.empty(), Mode.NONE, DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Marca los extremos de la consulta: nunca se omiten ni se cortan
+     */
+    public synchronized SupernodePolicy protect(String... wallets) {
+        for (String wallet : wallets) {
+            if (wallet != null) {
+                protectedWallets.add(wallet);
+            }
+        }
+        return this;
+    }
+
+    public boolean isActive() {
+        return mode != Mode.NONE && detector.size() > 0;
+    }
+
+    public boolean isSupernode(String wallet) {
+        return mode != Mode.NONE && detector.isSupernode(wallet);
+    }
+
+    /** true si la búsqueda no debe expandir {@code wallet} */
+    public synchronized boolean isBlocked(String wallet) {
+        return (mode == Mode.SKIP || mode == Mode.STOP_AT)
+            && detector.isSupernode(wallet) && !protectedWallets.contains(wallet);
+    }
+
+    /**
+     * Direcciones que no pueden aparecer como nodos intermedios de una ruta. Sirve para
+     * las expansiones de longitud variable en Cypher, donde no se puede muestrear: en
+     * cualquier modo activo el supernodo deja de ser un puente.
+     */
+    public synchronized List<String> excludedAddresses() {
+        if (!isActive()) {
+            return Collections.emptyList();
+        }
+        List<String> excluded = new ArrayList<>();
+        for (String address : detector.addresses()) {
+            if (!protectedWallets.contains(address)) {
+                excluded.add(address);
+            }
+        }
+        excludedIntermediates = excluded.size();
+        return excluded;
+    }
+
+    /**
+     * Filtra las aristas salientes de {@code wallet} según la política
+     *
+     * @param target Extrae la wallet destino de una arista
+     * @return Las aristas a expandir (la lista original si no hay truncamiento)
+     */
+    public synchronized <E> List<E> filterEdges(String wallet, List<E> edges, Function<E, String> target) {
+        if (!isActive() || edges.isEmpty()) {
+            return edges;
+        }
+        boolean supernode = detector.isSupernode(wallet);
+        boolean endpoint = protectedWallets.contains(wallet);
+
+        if (supernode && !endpoint && mode == Mode.STOP_AT) {
+            supernodesHit.add(wallet);
+            stoppedAt++;
+            droppedEdges += edges.size();
+            return Collections.emptyList();
+        }
+
+        List<E> kept = edges;
+        if (mode == Mode.SKIP) {
+            kept = new ArrayList<>(edges.size());
+            for (E edge : edges) {
+                String next = target.apply(edge);
+                if (detector.isSupernode(next) && !protectedWallets.contains(next)) {
+                    supernodesHit.add(next);
+                    skippedEdges++;
+                } else {
+                    kept.add(edge);
+                }
+            }
+        }
+
+        if (supernode && (mode == Mode.SAMPLE || endpoint) && kept.size() > sampleSize) {
+            supernodesHit.add(wallet);
+            sampledWallets++;
+            droppedEdges += kept.size() - sampleSize;
+            kept = sample(wallet, kept, sampleSize);
+        }
+        return kept;
+    }
+
+    /**
+     * Aplica la política a una lista de adyacencia en memoria
+     */
+    public <E> Map<String, List<E>> apply(Map<String, List<E>> graph, Function<E, String> target) {
+        if (!isActive()) {
+            return graph;
+        }
+        Map<String, List<E>> filtered = new HashMap<>(graph.size() * 2);
+        for (Map.Entry<String, List<E>> entry : graph.entrySet()) {
+            filtered.put(entry.getKey(), filterEdges(entry.getKey(), entry.getValue(), target));
+        }
+        return filtered;
+    }
+
+    /**
+     * Envuelve un proveedor de adyacencia: las wallets bloqueadas no se cargan ni se
+     * anotan en la frontera del proveedor perezoso
+     */
+    public <E> AdjacencyProvider<E> wrap(AdjacencyProvider<E> provider, Function<E, String> target) {
+        if (!isActive()) {
+            return provider;
+        }
+        return new AdjacencyProvider<>() {
+            @Override
+            public List<E> neighbours(String wallet) {
+                if (mode == Mode.STOP_AT && isBlocked(wallet)) {
+                    // Se corta antes de cargar: el bloque del supernodo nunca se pide
+                    return recordStop(wallet);
+                }
+                return filterEdges(wallet, provider.neighbours(wallet), target);
+            }
+
+            @Override
+            public void hint(String wallet) {
+                if (!isBlocked(wallet)) {
+                    provider.hint(wallet);
+                }
+            }
+        };
+    }
+
+    private synchronized <E> List<E> recordStop(String wallet) {
+        supernodesHit.add(wallet);
+        stoppedAt++;
+        return Collections.emptyList();
+    }
+
+    /**
+     * Muestra de {@code k} aristas sin reemplazo, determinística por wallet
+     */
+    static <E> List<E> sample(String wallet, List<E> edges, int k) {
+        int n = edges.size();
+        int[] index = new int[n];
+        for (int i = 0; i < n; i++) {
+            index[i] = i;
+        }
+        SplittableRandom random = new SplittableRandom(wallet.hashCode() * 0x9E3779B97F4A7C15L);
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int tmp = index[i];
+            index[i] = index[j];
+            index[j] = tmp;
+        }
+        int[] chosen = Arrays.copyOf(index, k);
+        Arrays.sort(chosen);
+        List<E> sampled = new ArrayList<>(k);
+        for (int i : chosen) {
+            sampled.add(edges.get(i));
+        }
+        return sampled;
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    public int getSampleSize() {
+        return sampleSize;
+    }
+
+    /** true si la política descartó o cortó algo en este recorrido */
+    public synchronized boolean isTruncated() {
+        return skippedEdges > 0 || stoppedAt > 0 || droppedEdges > 0;
+    }
+
+    /**
+     * Lo que la política truncó en este recorrido, para los metadatos de la respuesta
+     */
+    public synchronized Map<String, Object> getReport() {
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode.name());
+        report.put("threshold", detector.getThreshold());
+        report.put("knownSupernodes", detector.size());
+        report.put("sampleSize", sampleSize);
+        report.put("supernodesHit", supernodesHit.size());
+        List<String> listed = new ArrayList<>(MAX_REPORTED_SUPERNODES);
+        for (String wallet : supernodesHit) {
+            if (listed.size() == MAX_REPORTED_SUPERNODES) {
+                break;
+            }
+            listed.add(wallet);
+        }
+        report.put("supernodes", listed);
+        report.put("skippedEdges", skippedEdges);
+        report.put("stoppedAt", stoppedAt);
+        report.put("sampledWallets", sampledWallets);
+        report.put("droppedEdges", droppedEdges);
+        report.put("excludedIntermediates", excludedIntermediates);
+        report.put("truncated", isTruncated());
+        return report;
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.algorithm;
+
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * DELTAS DE AGREGADOS POR WALLET Y POR PAR DE CONTRAPARTES
+ *
+ * <h2>Descripción</h2>
+ * Acumula los inputs y outputs de un lote de transacciones y los reduce a los
+ * incrementos que hay que sumar a los agregados materializados: por wallet
+ * (volumen recibido y enviado, transacciones, primera y última vez vista) y por
+ * par de contrapartes (emisor → receptor, con la misma semántica que FLOW).
+ *
+ * <h2>Pares</h2>
+ * Cada par se guarda una sola vez en orden canónico ({@code low < high} por
+ * dirección): {@code forward} es lo enviado de {@code low} a {@code high} y
+ * {@code backward} lo contrario. Así el número de contrapartes distintas de una
+ * wallet es el número de pares que la contienen, sin contar dos veces a quien
+ * envía y recibe.
+ *
+ * <h2>Cubetas</h2>
+ * Además, por wallet y por cubeta horaria y diaria de {@link ActivityRollup}, el
+ * volumen y las transacciones de esa franja; las transacciones sin fecha no
+ * entran en ninguna cubeta.
+ *
+ * <h2>Complejidad</h2>
+ * O(inputs × outputs) por transacción para los pares; O(inputs + outputs) para
+ * las wallets y las cubetas.
+ */
+public final class WalletAggregates {
+
+    private final Map<String, TransactionFlows> transactions = new LinkedHashMap<>();
+
+    /**
+     * Registra una transacción; {@code seenAt} puede ser null (sin confirmar)
+     */
+    public WalletAggregates addTransaction(String txHash, LocalDateTime seenAt) {
+        transactions.computeIfAbsent(txHash, k -> new TransactionFlows()).seenAt = seenAt;
+        return this;
+    }
+
+    /** {@code value} satoshis gastados por {@code address} en {@code txHash} */
+    public WalletAggregates addInput(String txHash, String address, long value) {
+        if (address != null) {
+            transactions.computeIfAbsent(txHash, k -> new TransactionFlows()).sent.merge(address, value, Long::sum);
+        }
+        return this;
+    }
+
+    /** {@code value} satoshis recibidos por {@code address} en {@code txHash} */
+    public WalletAggregates addOutput(String txHash, String address, long value) {
+        if (address != null) {
+            transactions.computeIfAbsent(txHash, k -> new TransactionFlows()).received.merge(address, value, Long::sum);
+        }
+        return this;
+    }
+
+    public Set<String> getTransactionHashes() {
+        return transactions.keySet();
+    }
+
+    public boolean isEmpty() {
+        return transactions.isEmpty();
+    }
+
+    /**
+     * Incrementos por wallet de las transacciones {@code hashes}
+     */
+    public List<WalletDelta> walletDeltas(Collection<String> hashes) {
+        Map<String, WalletDelta> deltas = new LinkedHashMap<>();
+        for (String hash : hashes) {
+            TransactionFlows tx = transactions.get(hash);
+            if (tx == null) {
+                continue;
+            }
+            Set<String> participants = new HashSet<>(tx.sent.keySet());
+            participants.addAll(tx.received.keySet());
+            for (String address : participants) {
+                WalletDelta delta = deltas.computeIfAbsent(address, WalletDelta::new);
+                delta.volumeIn += tx.received.getOrDefault(address, 0L);
+                delta.volumeOut += tx.sent.getOrDefault(address, 0L);
+                delta.txCount++;
+                delta.seen(tx.seenAt);
+            }
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    /**
+     * Incrementos por wallet y cubeta (horaria y diaria) de las transacciones
+     * {@code hashes}
+     */
+    public List<BucketDelta> bucketDeltas(Collection<String> hashes) {
+        Map<String, BucketDelta> deltas = new LinkedHashMap<>();
+        for (String hash : hashes) {
+            TransactionFlows tx = transactions.get(hash);
+            if (tx == null || tx.seenAt == null) {
+                continue;
+            }
+            long epochMillis = tx.seenAt.toInstant(ZoneOffset.UTC).toEpochMilli();
+            Set<String> participants = new HashSet<>(tx.sent.keySet());
+            participants.addAll(tx.received.keySet());
+            for (String address : participants) {
+                for (ActivityRollup.Granularity granularity : ActivityRollup.Granularity.values()) {
+                    long start = granularity.bucketStart(epochMillis);
+                    BucketDelta delta = deltas.computeIfAbsent(address + '\n' + granularity + '\n' + start,
+                            k -> new BucketDelta(address, granularity, start));
+                    delta.volumeIn += tx.received.getOrDefault(address, 0L);
+                    delta.volumeOut += tx.sent.getOrDefault(address, 0L);
+                    delta.txCount++;
+                }
+            }
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    /**
+     * Momento de una transacción registrada, o null si no tiene fecha
+     */
+    public LocalDateTime getSeenAt(String txHash) {
+        TransactionFlows tx = transactions.get(txHash);
+        return tx != null ? tx.seenAt : null;
+    }
+
+    /**
+     * Incrementos por par emisor → receptor de las transacciones {@code hashes}
+     */
+    public List<PairDelta> pairDeltas(Collection<String> hashes) {
+        Map<String, PairDelta> deltas = new LinkedHashMap<>();
+        for (String hash : hashes) {
+            TransactionFlows tx = transactions.get(hash);
+            if (tx == null) {
+                continue;
+            }
+            Set<String> pairsInTx = new HashSet<>();
+            for (String sender : tx.sent.keySet()) {
+                for (Map.Entry<String, Long> output : tx.received.entrySet()) {
+                    String recipient = output.getKey();
+                    if (sender.equals(recipient)) {
+                        continue;
+                    }
+                    boolean forward = sender.compareTo(recipient) < 0;
+                    String low = forward ? sender : recipient;
+                    String high = forward ? recipient : sender;
+                    String key = low + '\n' + high;
+                    PairDelta delta = deltas.computeIfAbsent(key, k -> new PairDelta(low, high));
+                    if (forward) {
+                        delta.forward += output.getValue();
+                    } else {
+                        delta.backward += output.getValue();
+                    }
+                    if (pairsInTx.add(key)) {
+                        delta.txCount++;
+                        delta.seen(tx.seenAt);
+                    }
+                }
+            }
+        }
+        return new ArrayList<>(deltas.values());
+    }
+
+    /**
+     * Instante ISO-8601 ({@code confirmed}) en UTC, o null si no se puede leer
+     */
+    public static LocalDateTime parseTimestamp(String timestamp) {
+        if (timestamp == null || timestamp.isEmpty()) {
+            return null;
+        }
+        try {
+            return OffsetDateTime.parse(timestamp).withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static final class TransactionFlows {
+        private LocalDateTime seenAt;
+        private final Map<String, Long> sent = new LinkedHashMap<>();
+        private final Map<String, Long> received = new LinkedHashMap<>();
+    }
+
+    /**
+     * Primera/última vez vista de un agregado
+     */
+    private abstract static class SeenRange {
+        protected LocalDateTime firstSeen;
+        protected LocalDateTime lastSeen;
+
+        void seen(LocalDateTime at) {
+            if (at == null) {
+                return;
+            }
+            if (firstSeen == null || at.isBefore(firstSeen)) {
+                firstSeen = at;
+            }
+            if (lastSeen == null || at.isAfter(lastSeen)) {
+                lastSeen = at;
+            }
+        }
+
+        public LocalDateTime getFirstSeen() {
+            return firstSeen;
+        }
+
+        public LocalDateTime getLastSeen() {
+            return lastSeen;
+        }
+    }
+
+    /**
+     * Incremento de los agregados de una wallet
+     */
+    public static final class WalletDelta extends SeenRange {
+        private final String address;
+        private long volumeIn;
+        private long volumeOut;
+        private int txCount;
+
+        private WalletDelta(String address) {
+            this.address = address;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public long getVolumeIn() {
+            return volumeIn;
+        }
+
+        public long getVolumeOut() {
+            return volumeOut;
+        }
+
+        public int getTxCount() {
+            return txCount;
+        }
+    }
+
+    /**
+     * Incremento de los agregados de un par (low, high) en orden canónico
+     */
+    public static final class PairDelta extends SeenRange {
+        private final String low;
+        private final String high;
+        private long forward;
+        private long backward;
+        private int txCount;
+
+        private PairDelta(String low, String high) {
+            this.low = low;
+            this.high = high;
+        }
+
+        public String getLow() {
+            return low;
+        }
+
+        public String getHigh() {
+            return high;
+        }
+
+        /** Enviado de low a high */
+        public long getForward() {
+            return forward;
+        }
+
+        /** Enviado de high a low */
+        public long getBackward() {
+            return backward;
+        }
+
+        public int getTxCount() {
+            return txCount;
+        }
+    }
+
+    /**
+     * Incremento de una cubeta de actividad de una wallet
+     */
+    public static final class BucketDelta {
+        private final String address;
+        private final ActivityRollup.Granularity granularity;
+        private final long start;
+        private long volumeIn;
+        private long volumeOut;
+        private int txCount;
+
+        private BucketDelta(String address, ActivityRollup.Granularity granularity, long start) {
+            this.address = address;
+            this.granularity = granularity;
+            this.start = start;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public ActivityRollup.Granularity getGranularity() {
+            return granularity;
+        }
+
+        /** Inicio de la cubeta en milisegundos epoch (UTC) */
+        public long getStart() {
+            return start;
+        }
+
+        public long getVolumeIn() {
+            return volumeIn;
+        }
+
+        public long getVolumeOut() {
+            return volumeOut;
+        }
+
+        public int getTxCount() {
+            return txCount;
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.example.algorithm;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * EMBEDDINGS DE WALLETS: vectores normalizados + búsqueda de vecinos por coseno
+ *
+ * <h2>Representación</h2>
+ * Un único {@code float[]} plano de V·d valores; el vector de la wallet v ocupa
+ * {@code [v·d, (v+1)·d)}. Los vectores se normalizan al construir, así que la
+ * similitud coseno es un producto punto.
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Vecinos más cercanos:</b> O(V · d) por consulta (exacto, secuencial sobre
+ *       memoria contigua) + O(V log k) para el top-k</li>
+ *   <li><b>Espacial:</b> 4 · V · d bytes</li>
+ * </ul>
+ *
+ * La instancia es inmutable y segura para consultas concurrentes.
+ */
+public final class WalletEmbeddings {
+
+    private final WalletGraph graph;
+    private final float[] vectors;
+    private final int dimensions;
+    private final long trainingTimeMs;
+
+    WalletEmbeddings(WalletGraph graph, float[] rawVectors, int dimensions, long trainingTimeMs) {
+        this.graph = graph;
+        this.vectors = rawVectors;
+        this.dimensions = dimensions;
+        this.trainingTimeMs = trainingTimeMs;
+        normalize();
+    }
+
+    /**
+     * k wallets más similares (coseno) a {@code address}
+     *
+     * @return lista vacía si la wallet no está en el snapshot
+     */
+    public List<Neighbour> nearest(String address, int k) {
+        int v = graph.idOf(address);
+        if (v < 0) {
+            return new ArrayList<>();
+        }
+        return nearest(v, k);
+    }
+
+    public List<Neighbour> nearest(int v, int k) {
+        int n = graph.size();
+        int limit = Math.min(k, n - 1);
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        // Top-k con arrays paralelos ordenados de mayor a menor (k es chico)
+        int[] bestIds = new int[limit];
+        float[] bestScores = new float[limit];
+        Arrays.fill(bestScores, Float.NEGATIVE_INFINITY);
+        int base = v * dimensions;
+
+        for (int u = 0; u < n; u++) {
+            if (u == v) {
+                continue;
+            }
+            float score = dot(base, u * dimensions);
+            if (score <= bestScores[limit - 1]) {
+                continue;
+            }
+            int position = limit - 1;
+            while (position > 0 && bestScores[position - 1] < score) {
+                bestScores[position] = bestScores[position - 1];
+                bestIds[position] = bestIds[position - 1];
+                position--;
+            }
+            bestScores[position] = score;
+            bestIds[position] = u;
+        }
+
+        List<Neighbour> neighbours = new ArrayList<>(limit);
+        for (int i = 0; i < limit; i++) {
+            if (bestScores[i] != Float.NEGATIVE_INFINITY) {
+                neighbours.add(new Neighbour(graph.addressOf(bestIds[i]), bestScores[i]));
+            }
+        }
+        return neighbours;
+    }
+
+    /**
+     * Similitud coseno entre dos wallets, o null si alguna no está en el snapshot
+     */
+    public Double similarity(String a, String b) {
+        int u = graph.idOf(a);
+        int v = graph.idOf(b);
+        if (u < 0 || v < 0) {
+            return null;
+        }
+        return (double) dot(u * dimensions, v * dimensions);
+    }
+
+    /** Copia del vector normalizado de la wallet, o null si no está en el snapshot */
+    public float[] vector(String address) {
+        int v = graph.idOf(address);
+        if (v < 0) {
+            return null;
+        }
+        return Arrays.copyOfRange(vectors, v * dimensions, (v + 1) * dimensions);
+    }
+
+    public WalletGraph getGraph() {
+        return graph;
+    }
+
+    public int getDimensions() {
+        return dimensions;
+    }
+
+    public long getTrainingTimeMs() {
+        return trainingTimeMs;
+    }
+
+    public long getMemoryBytes() {
+        return 4L * vectors.length;
+    }
+
+    // ========== AUXILIARES ==========
+
+    private float dot(int baseA, int baseB) {
+        float sum = 0f;
+        for (int k = 0; k < dimensions; k++) {
+            sum += vectors[baseA + k] * vectors[baseB + k];
+        }
+        return sum;
+    }
+
+    private void normalize() {
+        for (int base = 0; base < vectors.length; base += dimensions) {
+            double norm = 0.0;
+            for (int k = 0; k < dimensions; k++) {
+                norm += vectors[base + k] * vectors[base + k];
+            }
+            if (norm == 0.0) {
+                continue;
+            }
+            float inverse = (float) (1.0 / Math.sqrt(norm));
+            for (int k = 0; k < dimensions; k++) {
+                vectors[base + k] *= inverse;
+            }
+        }
+    }
+
+    /**
+     * Wallet vecina con su similitud coseno
+     */
+    public static final class Neighbour {
+        private final String address;
+        private final double similarity;
+
+        public Neighbour(String address, double similarity) {
+            this.address = address;
+            this.similarity = similarity;
+        }
+
+        public String getAddress() {
+            return address;
+        }
+
+        public double getSimilarity() {
+            return similarity;
+        }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.algorithm;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * GRAFO COMPACTO DE WALLETS (CSR - Compressed Sparse Row)
+ *
+ * <h2>Descripción</h2>
+ * Snapshot inmutable del grafo wallet→wallet en arrays primitivos. Cada wallet
+ * recibe un id entero denso [0, n) y las adyacencias se guardan en formato CSR:
+ * los vecinos de {@code v} son {@code targets[offsets[v] .. offsets[v+1])}.
+ *
+ * Las aristas paralelas entre el mismo par (from, to) se colapsan en una sola
+ * arista cuyo monto es la suma de los montos individuales.
+ *
+ * <h2>Vistas disponibles</h2>
+ * <ul>
+ *   <li><b>Salientes:</b> from → to, con monto agregado</li>
+ *   <li><b>Entrantes:</b> to ← from</li>
+ *   <li><b>No dirigida:</b> unión deduplicada de ambas (equivale a {@code -[]-} en Cypher)</li>
+ * </ul>
+ *
+ * <h2>Complejidad</h2>
+ * <ul>
+ *   <li><b>Construcción:</b> O(V + E log d) por el ordenamiento de cada lista</li>
+ *   <li><b>Espacial:</b> ~ 4·(3V + 4E) bytes + el diccionario de direcciones</li>
+ * </ul>
+ *
+ * Los arrays son package-private para que los motores del paquete los recorran
+ * sin indirecciones; desde fuera se usa la API pública.
+ */
+public final class WalletGraph {
+
+    private static final AtomicLong VERSIONS = new AtomicLong();
+
+    private final String[] addresses;
+    private final Map<String, Integer> idsByAddress;
+
+    final int[] outOffsets;
+    final int[] outTargets;
+    final double[] outAmounts;
+
+    final int[] inOffsets;
+    final int[] inSources;
+
+    final int[] undirectedOffsets;
+    final int[] undirectedTargets;
+
+    private final long version;
+    private final long builtAt;
+
+    private WalletGraph(String[] addresses,
+                        Map<String, Integer> idsByAddress,
+                        int[] outOffsets, int[] outTargets, double[] outAmounts,
+                        int[] inOffsets, int[] inSources,
+                        int[] undirectedOffsets, int[] undirectedTargets) {
+        this.addresses = addresses;
+        this.idsByAddress = idsByAddress;
+        this.outOffsets = outOffsets;
+        this.outTargets = outTargets;
+        this.outAmounts = outAmounts;
+        this.inOffsets = inOffsets;
+        this.inSources = inSources;
+        this.undirectedOffsets = undirectedOffsets;
+        this.undirectedTargets = undirectedTargets;
+        this.version = VERSIONS.incrementAndGet();
+        this.builtAt = System.currentTimeMillis();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // ========== API PÚBLICA ==========
+
+    /** Número de wallets */
+    public int size() {
+        return addresses.length;
+    }
+
+    /** Número de aristas dirigidas (ya colapsadas) */
+    public int edgeCount() {
+        return outTargets.length;
+    }
+
+    /** Id denso de la wallet o -1 si no está en el snapshot */
+    public int idOf(String address) {
+        Integer id = idsByAddress.get(address);
+        return id != null ? id : -1;
+    }
+
+    public String addressOf(int id) {
+        return addresses[id];
+    }
+
+    public int outDegree(int v) {
+        return outOffsets[v + 1] - outOffsets[v];
+    }
+
+    public int inDegree(int v) {
+        return inOffsets[v + 1] - inOffsets[v];
+    }
+
+    /** Grado en la vista no dirigida (vecinos distintos) */
+    public int degree(int v) {
+        return undirectedOffsets[v + 1] - undirectedOffsets[v];
+    }
+
+    /** Copia de los vecinos salientes de {@code v} */
+    public int[] outNeighbours(int v) {
+        return Arrays.copyOfRange(outTargets, outOffsets[v], outOffsets[v + 1]);
+    }
+
+    /** Copia de los vecinos (no dirigidos) de {@code v} */
+    public int[] neighbours(int v) {
+        return Arrays.copyOfRange(undirectedTargets, undirectedOffsets[v], undirectedOffsets[v + 1]);
+    }
+
+    /** Monto agregado from → to, o 0 si no hay arista (búsqueda binaria en la lista ordenada) */
+    public double amount(int from, int to) {
+        int slot = Arrays.binarySearch(outTargets, outOffsets[from], outOffsets[from + 1], to);
+        return slot >= 0 ? outAmounts[slot] : 0.0;
+    }
+
+    /** Identificador monótono del snapshot, útil para invalidar cachés derivadas */
+    public long getVersion() {
+        return version;
+    }
+
+    public long getBuiltAt() {
+        return builtAt;
+    }
+
+    /** Estimación de memoria de los arrays primitivos (sin el diccionario) */
+    public long estimatedMemoryBytes() {
+        return 4L * (outOffsets.length + outTargets.length + inOffsets.length + inSources.length
+                + undirectedOffsets.length + undirectedTargets.length)
+                + 8L * outAmounts.length;
+    }
+
+    // ========== CONSTRUCCIÓN ==========
+
+    /**
+     * Acumula aristas (from, to, monto) y produce el snapshot CSR.
+     * No es thread-safe: se usa desde un único hilo de carga.
+     */
+    public static final class Builder {
+
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] names = new String[1024];
+        private int nodeCount = 0;
+
+        private int[] froms = new int[4096];
+        private int[] tos = new int[4096];
+        private double[] amounts = new double[4096];
+        private int edgeCount = 0;
+
+        private Builder() {
+        }
+
+        /** Registra una wallet aunque no tenga aristas (queda aislada) */
+        public int addWallet(String address) {
+            Integer id = ids.get(address);
+            if (id != null) {
+                return id;
+            }
+            if (nodeCount == names.length) {
+                names = Arrays.copyOf(names, nodeCount * 2);
+            }
+            names[nodeCount] = address;
+            ids.put(address, nodeCount);
+            return nodeCount++;
+        }
+
+        /** Agrega una arista dirigida; los self-loops se ignoran */
+        public Builder addEdge(String from, String to, double amount) {
+            if (from == null || to == null || from.equals(to)) {
+                return this;
+            }
+            int u = addWallet(from);
+            int v = addWallet(to);
+            if (edgeCount == froms.length) {
+                int capacity = edgeCount * 2;
+                froms = Arrays.copyOf(froms, capacity);
+                tos = Arrays.copyOf(tos, capacity);
+                amounts = Arrays.copyOf(amounts, capacity);
+            }
+            froms[edgeCount] = u;
+            tos[edgeCount] = v;
+            amounts[edgeCount] = amount;
+            edgeCount++;
+            return this;
+        }
+
+        public WalletGraph build() {
+            int n = nodeCount;
+
+            // PASO 1: CSR saliente con aristas paralelas colapsadas
+            int[] rawOffsets = countingOffsets(froms, edgeCount, n);
+            int[] rawTargets = new int[edgeCount];
+            double[] rawAmounts = new double[edgeCount];
+            int[] cursor = Arrays.copyOf(rawOffsets, n);
+            for (int e = 0; e < edgeCount; e++) {
+                int slot = cursor[froms[e]]++;
+                rawTargets[slot] = tos[e];
+                rawAmounts[slot] = amounts[e];
+            }
+
+            int[] outOffsets = new int[n + 1];
+            int[] outTargets = new int[edgeCount];
+            double[] outAmounts = new double[edgeCount];
+            int written = 0;
+            for (int v = 0; v < n; v++) {
+                outOffsets[v] = written;
+                int start = rawOffsets[v];
+                int end = rawOffsets[v + 1];
+                sortByTarget(rawTargets, rawAmounts, start, end);
+                for (int i = start; i < end; i++) {
+                    if (written > outOffsets[v] && outTargets[written - 1] == rawTargets[i]) {
+                        outAmounts[written - 1] += rawAmounts[i];
+                    } else {
+                        outTargets[written] = rawTargets[i];
+                        outAmounts[written] = rawAmounts[i];
+                        written++;
+                    }
+                }
+            }
+            outOffsets[n] = written;
+            outTargets = Arrays.copyOf(outTargets, written);
+            outAmounts = Arrays.copyOf(outAmounts, written);
+
+            // PASO 2: CSR entrante (transpuesta)
+            int[] inOffsets = new int[n + 1];
+            for (int i = 0; i < written; i++) {
+                inOffsets[outTargets[i] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                inOffsets[v + 1] += inOffsets[v];
+            }
+            int[] inSources = new int[written];
+            int[] inCursor = Arrays.copyOf(inOffsets, n);
+            for (int u = 0; u < n; u++) {
+                for (int i = outOffsets[u]; i < outOffsets[u + 1]; i++) {
+                    inSources[inCursor[outTargets[i]]++] = u;
+                }
+            }
+
+            // PASO 3: vista no dirigida = merge de listas ordenadas (salientes ∪ entrantes)
+            int[] undirectedOffsets = new int[n + 1];
+            int[] undirectedTargets = new int[2 * written];
+            int u = 0;
+            for (int v = 0; v < n; v++) {
+                undirectedOffsets[v] = u;
+                int i = outOffsets[v], iEnd = outOffsets[v + 1];
+                int j = inOffsets[v], jEnd = inOffsets[v + 1];
+                while (i < iEnd || j < jEnd) {
+                    int next;
+                    if (j >= jEnd || (i < iEnd && outTargets[i] <= inSources[j])) {
+                        next = outTargets[i++];
+                    } else {
+                        next = inSources[j++];
+                    }
+                    if (u == undirectedOffsets[v] || undirectedTargets[u - 1] != next) {
+                        undirectedTargets[u++] = next;
+                    }
+                }
+            }
+            undirectedOffsets[n] = u;
+            undirectedTargets = Arrays.copyOf(undirectedTargets, u);
+
+            return new WalletGraph(
+                    Arrays.copyOf(names, n),
+                    Collections.unmodifiableMap(new HashMap<>(ids)),
+                    outOffsets, outTargets, outAmounts,
+                    inOffsets, inSources,
+                    undirectedOffsets, undirectedTargets);
+        }
+
+        private static int[] countingOffsets(int[] keys, int count, int n) {
+            int[] offsets = new int[n + 1];
+            for (int e = 0; e < count; e++) {
+                offsets[keys[e] + 1]++;
+            }
+            for (int v = 0; v < n; v++) {
+                offsets[v + 1] += offsets[v];
+            }
+            return offsets;
+        }
+
+        /** Insertion sort para listas cortas; las listas de wallets suelen ser pequeñas */
+        private static void sortByTarget(int[] targets, double[] values, int start, int end) {
+            if (end - start > 32) {
+                long[] packed = new long[end - start];
+                for (int i = start; i < end; i++) {
+                    packed[i - start] = ((long) targets[i] << 32) | (i - start);
+                }
+                Arrays.sort(packed);
+                double[] copy = Arrays.copyOfRange(values, start, end);
+                for (int k = 0; k < packed.length; k++) {
+                    targets[start + k] = (int) (packed[k] >>> 32);
+                    values[start + k] = copy[(int) packed[k]];
+                }
+                return;
+            }
+            for (int i = start + 1; i < end; i++) {
+                int t = targets[i];
+                double a = values[i];
+                int j = i - 1;
+                while (j >= start && targets[j] > t) {
+                    targets[j + 1] = targets[j];
+                    values[j + 1] = values[j];
+                    j--;
+                }
+                targets[j + 1] = t;
+                values[j + 1] = a;
+            }
+        }
+    }
+}
@@ -1,8 +1,14 @@
 package com.example.config;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.time.Duration;
 
 @Configuration
 public class WebClientConfig {
@@ -11,4 +17,28 @@ public class WebClientConfig {
     public WebClient.Builder webClientBuilder() {
         return WebClient.builder();
     }
+    
+    /**
+     * Cliente compartido para BlockCypher: pool de conexiones keep-alive en vez de
+     * un WebClient (y sus conexiones) por llamada
+     */
+    @Bean
+    public WebClient blockCypherWebClient(WebClient.Builder webClientBuilder,
+                                          @Value("${blockcypher.api.base-url:https://api.blockcypher.com/v1}") String baseUrl,
+                                          @Value("${blockcypher.http.max-connections:32}") int maxConnections,
+                                          @Value("${blockcypher.http.response-timeout-ms:30000}") long responseTimeoutMs) {
+        ConnectionProvider provider = ConnectionProvider.builder("blockcypher")
+                .maxConnections(maxConnections)
+                .pendingAcquireTimeout(Duration.ofSeconds(60))
+                .maxIdleTime(Duration.ofSeconds(30))
+                .build();
+        HttpClient httpClient = HttpClient.create(provider)
+                .compress(true)
+                .responseTimeout(Duration.ofMillis(responseTimeoutMs));
+        return webClientBuilder.clone()
+                .baseUrl(baseUrl)
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(32 * 1024 * 1024))
+                .build();
+    }
 }
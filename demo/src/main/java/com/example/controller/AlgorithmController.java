@@ -153,6 +153,7 @@ public class AlgorithmController {
             response.put("pathLength", result.getPathLength());
             response.put("path", result.getPath());
             response.put("foundPath", result.getFoundPath());
+            response.put("supernodes", result.getSupernodes());
 
             return ResponseEntity.ok(response);
 
@@ -286,6 +287,118 @@ public class AlgorithmController {
         }
     }
 
+    /**
+     * Endpoint auxiliar: Función de vecindario (HyperBall)
+     *
+     * GET /api/algorithms/graph/hyperball?maxHops=3&topN=20&direction=OUT
+     *
+     * Complejidad: O(k · (V + E))
+     * Descripción: reach@1..k y harmonic centrality estimados para todas las wallets
+     */
+    @GetMapping("/graph/hyperball")
+    public ResponseEntity<Map<String, Object>> calculateNeighbourhoodFunction(
+            @RequestParam(defaultValue = "3") Integer maxHops,
+            @RequestParam(defaultValue = "20") Integer topN,
+            @RequestParam(defaultValue = "OUT") String direction,
+            @RequestParam(required = false) Integer log2Registers) {
+
+        log.info("Received neighbourhood function request: k={}, direction={}", maxHops, direction);
+
+        try {
+            if (maxHops < 1 || maxHops > 16) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "maxHops must be between 1 and 16"));
+            }
+            if (topN < 1 || topN > 1000) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "topN must be between 1 and 1000"));
+            }
+            if (!List.of("OUT", "IN", "BOTH").contains(direction.toUpperCase())) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "direction must be OUT, IN or BOTH"));
+            }
+            if (log2Registers != null && (log2Registers < 4 || log2Registers > 12)) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "log2Registers must be between 4 and 12"));
+            }
+
+            List<CentralityResult> results = graphService.calculateNeighbourhoodFunction(
+                    maxHops, topN, direction, log2Registers);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("algorithm", "HYPERBALL");
+            response.put("complexity", "O(k·(V + E))");
+            response.put("results", results);
+            response.put("resultCount", results.size());
+            response.put("metadata", graphService.getNeighbourhoodMetadata());
+            response.put("timestamp", System.currentTimeMillis());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error in neighbourhood function", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Endpoint auxiliar: Descomposición k-core
+     *
+     * GET /api/algorithms/graph/k-core?minCore=3&limit=200&refresh=false
+     *
+     * Complejidad: O(V + E)
+     * Descripción: Core number por wallet y subgrafo del core máximo (o de minCore)
+     */
+    @GetMapping("/graph/k-core")
+    public ResponseEntity<Map<String, Object>> calculateKCore(
+            @RequestParam(required = false) Integer minCore,
+            @RequestParam(defaultValue = "200") Integer limit,
+            @RequestParam(defaultValue = "false") boolean refresh) {
+
+        log.info("Received k-core request: minCore={}, limit={}", minCore, limit);
+
+        try {
+            if (minCore != null && minCore < 0) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "minCore must be >= 0"));
+            }
+            if (limit < 1 || limit > 10000) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "limit must be between 1 and 10000"));
+            }
+
+            KCoreResult result = graphService.calculateKCore(minCore, limit, refresh);
+
+            Map<String, Object> response = new HashMap<>();
+            response.put("algorithm", "K_CORE_DECOMPOSITION");
+            response.put("complexity", "O(V + E)");
+            response.put("result", result);
+            response.put("timestamp", System.currentTimeMillis());
+
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            log.error("Error in k-core decomposition", e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Core number de una wallet
+     *
+     * GET /api/algorithms/graph/k-core/{address}
+     */
+    @GetMapping("/graph/k-core/{address}")
+    public ResponseEntity<Map<String, Object>> getCoreNumber(@PathVariable String address) {
+        Integer coreNumber = graphService.getCoreNumber(address);
+        if (coreNumber == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("address", address, "coreNumber", coreNumber));
+    }
+
     // ============== PATTERN MATCHING ==============
 
     /**
@@ -379,13 +492,16 @@ public class AlgorithmController {
      * Ejemplos:
      *   GET /api/forensic/backtrack/suspicious-chains/5?wallet=1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa
      *   GET /api/forensic/backtrack/suspicious-chains/4
+     *   GET /api/forensic/backtrack/suspicious-chains/7?wallet=...&parallel=true&maxResults=200
      */
     @GetMapping("/forensic/backtrack/suspicious-chains/{depth}")
     public ResponseEntity<Map<String, Object>> detectSuspiciousChainsBacktracking(
             @PathVariable Integer depth,
-            @RequestParam(required = false) String wallet) {
+            @RequestParam(required = false) String wallet,
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @RequestParam(defaultValue = "500") Integer maxResults) {
 
-        log.info("Received BACKTRACKING request: depth={}, wallet={}", depth, wallet);
+        log.info("Received BACKTRACKING request: depth={}, wallet={}, parallel={}", depth, wallet, parallel);
 
         try {
             // Validaciones
@@ -393,12 +509,16 @@ public class AlgorithmController {
                 return ResponseEntity.badRequest()
                         .body(Map.of("error", "Depth must be between 1 and 10 (recommended: 4-6)"));
             }
+            if (maxResults < 1 || maxResults > 10000) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "maxResults must be between 1 and 10000"));
+            }
 
             List<com.example.algorithm.BacktrackingAlgorithm.SuspiciousChain> chains;
 
             if (wallet != null && !wallet.isBlank()) {
                 // Búsqueda desde wallet específica
-                chains = backtrackingService.detectSuspiciousChains(wallet, depth);
+                chains = backtrackingService.detectSuspiciousChains(wallet, depth, parallel, maxResults);
             } else {
                 // Búsqueda global de ciclos
                 chains = backtrackingService.detectAllCycles(50);
@@ -417,6 +537,7 @@ public class AlgorithmController {
             response.put("description", "Exploración exhaustiva de caminos sospechosos");
             response.put("startWallet", wallet != null ? wallet : "GLOBAL_SEARCH");
             response.put("maxDepth", depth);
+            response.put("parallel", parallel);
             response.put("suspiciousChains", chains);
             response.put("totalChainsFound", chains.size());
             response.put("patternBreakdown", patternBreakdown);
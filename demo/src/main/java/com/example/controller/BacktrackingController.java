@@ -1,33 +1,73 @@
 package com.example.controller;
 
+import com.example.algorithm.BacktrackingAlgorithm.BacktrackingMetrics;
+import com.example.algorithm.BacktrackingAlgorithm.BacktrackingResult;
+import com.example.algorithm.BacktrackingAlgorithm.ExplorationStrategy;
+import com.example.algorithm.SupernodePolicy;
 import com.example.service.BacktrackingService;
+import com.example.service.SupernodeService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.*;
 
 @RestController
 @RequestMapping("/api/backtracking")
 @CrossOrigin(origins = "*")
 @RequiredArgsConstructor
+@Slf4j
 public class BacktrackingController {
 
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
     private final BacktrackingService backtrackingService;
+    private final SupernodeService supernodeService;
+    private final ObjectMapper objectMapper;
 
     @GetMapping("/suspicious-chains")
     public Map<String, Object> findSuspiciousChains(
             @RequestParam String sourceAddress,
-            @RequestParam(defaultValue = "5") int maxDepth) {
+            @RequestParam(defaultValue = "5") int maxDepth,
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @RequestParam(defaultValue = "500") int maxResults,
+            @RequestParam(defaultValue = "10000") long timeoutMs,
+            @RequestParam(defaultValue = "0") long maxNodes,
+            @RequestParam(defaultValue = "DEPTH_FIRST") ExplorationStrategy strategy,
+            @RequestParam(defaultValue = "64") int beamWidth,
+            @RequestParam(defaultValue = "STOP_AT") SupernodePolicy.Mode supernodePolicy,
+            @RequestParam(defaultValue = "50") int sampleSize,
+            @RequestParam(defaultValue = "false") boolean aggregateFlows) {
 
         long startTime = System.currentTimeMillis();
         Map<String, Object> response = new HashMap<>();
 
         try {
-            var chains = backtrackingService.detectSuspiciousChains(sourceAddress, maxDepth);
+            BacktrackingResult result = backtrackingService.searchSuspiciousChains(
+                    sourceAddress, maxDepth, parallel, Math.max(1, maxResults), timeoutMs, maxNodes,
+                    strategy, Math.max(1, beamWidth), supernodeService.policy(supernodePolicy, sampleSize),
+                    aggregateFlows);
 
             response.put("sourceAddress", sourceAddress);
             response.put("maxDepth", maxDepth);
-            response.put("chainsFound", chains.size());
-            response.put("chains", chains);
+            response.put("parallel", parallel);
+            response.put("strategy", strategy);
+            response.put("aggregateFlows", aggregateFlows);
+            response.put("maxResults", maxResults);
+            response.put("chainsFound", result.getChains().size());
+            response.put("chains", result.getChains());
+            response.put("complete", result.isComplete());
+            response.put("stopReason", result.getStopReason());
+            response.put("optimalityGap", result.getOptimalityGap());
+            response.put("nodesExpanded", result.getNodesExpanded());
+            response.put("supernodes", result.getSupernodeReport());
             response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
 
         } catch (Exception e) {
@@ -38,6 +78,78 @@ public class BacktrackingController {
         return response;
     }
 
+    /**
+     * Igual que /suspicious-chains pero escribe una línea JSON por cadena en cuanto
+     * entra al top-K, y una línea final con el resumen ({@code "done": true}, además de
+     * {@code complete} y {@code stopReason} si el presupuesto cortó la búsqueda)
+     */
+    @GetMapping(value = "/suspicious-chains/stream", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> streamSuspiciousChains(
+            @RequestParam String sourceAddress,
+            @RequestParam(defaultValue = "5") int maxDepth,
+            @RequestParam(defaultValue = "false") boolean parallel,
+            @RequestParam(defaultValue = "500") int maxResults,
+            @RequestParam(defaultValue = "10000") long timeoutMs,
+            @RequestParam(defaultValue = "0") long maxNodes,
+            @RequestParam(defaultValue = "DEPTH_FIRST") ExplorationStrategy strategy,
+            @RequestParam(defaultValue = "64") int beamWidth,
+            @RequestParam(defaultValue = "STOP_AT") SupernodePolicy.Mode supernodePolicy,
+            @RequestParam(defaultValue = "50") int sampleSize,
+            @RequestParam(defaultValue = "false") boolean aggregateFlows) {
+
+        log.info("REST: Streaming de cadenas sospechosas desde {}", sourceAddress);
+        int topK = Math.max(1, maxResults);
+
+        StreamingResponseBody body = out -> {
+            long startTime = System.currentTimeMillis();
+            int[] streamed = {0};
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("done", true);
+            summary.put("sourceAddress", sourceAddress);
+            summary.put("strategy", strategy);
+
+            try {
+                BacktrackingResult result = backtrackingService.streamSuspiciousChains(
+                        sourceAddress, maxDepth, parallel, topK, timeoutMs, maxNodes,
+                        strategy, Math.max(1, beamWidth), supernodeService.policy(supernodePolicy, sampleSize),
+                        aggregateFlows, chain -> {
+                            writeLine(out, chain);
+                            streamed[0]++;
+                        });
+                BacktrackingMetrics metrics = result.getMetrics();
+                summary.put("complete", result.isComplete());
+                summary.put("stopReason", result.getStopReason());
+                summary.put("optimalityGap", result.getOptimalityGap());
+                summary.put("pathsExplored", metrics.getPathsExplored());
+                summary.put("backtrackCount", metrics.getBacktrackCount());
+                summary.put("cyclesDetected", metrics.getCyclesDetected());
+                summary.put("beamPruned", metrics.getBeamPruned());
+                summary.put("supernodes", result.getSupernodeReport());
+            } catch (UncheckedIOException e) {
+                log.warn("Cliente desconectado durante el streaming: {}", e.getMessage());
+                return;
+            } catch (Exception e) {
+                summary.put("error", "Error ejecutando backtracking: " + e.getMessage());
+            }
+
+            summary.put("chainsStreamed", streamed[0]);
+            summary.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
+            writeLine(out, summary);
+        };
+
+        return ResponseEntity.ok().contentType(NDJSON).body(body);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     @GetMapping("/detect-cycles")
     public Map<String, Object> detectCycles(@RequestParam(defaultValue = "10") int maxCycles) {
         long startTime = System.currentTimeMillis();
@@ -57,5 +169,33 @@ public class BacktrackingController {
 
         return response;
     }
-}
 
+    @GetMapping("/cycles")
+    public Map<String, Object> getStoredCycles(
+            @RequestParam(required = false) String address,
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            var cycles = backtrackingService.getStoredCycles(address, Math.max(0, offset), Math.max(1, limit));
+
+            response.put("address", address);
+            response.put("offset", offset);
+            response.put("cyclesFound", cycles.size());
+            response.put("cycles", cycles);
+            response.put("store", backtrackingService.getCycleStats());
+
+        } catch (Exception e) {
+            response.put("error", "Error consultando ciclos: " + e.getMessage());
+        }
+
+        return response;
+    }
+
+    @GetMapping("/cycles/stats")
+    public Map<String, Object> getCycleStats() {
+        return backtrackingService.getCycleStats();
+    }
+}
@@ -1,11 +1,17 @@
 package com.example.controller;
 
 import com.example.model.Wallet;
+import com.example.service.BlockCypherClient;
 import com.example.service.BlockCypherService;
+import com.example.service.ResponseCache;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * Controller para operaciones con BlockCypher API
@@ -18,18 +24,69 @@ import org.springframework.web.bind.annotation.*;
 public class BlockCypherController {
     
     private final BlockCypherService blockCypherService;
+    private final BlockCypherClient blockCypherClient;
+    private final ResponseCache responseCache;
     
     /**
      * Fetch y guarda información de una wallet desde BlockCypher
      * POST /api/blockcypher/wallet/{address}?chain=BTC
      */
     @PostMapping("/wallet/{address}")
-    public ResponseEntity<Wallet> fetchWallet(
+    public Mono<ResponseEntity<Wallet>> fetchWallet(
             @PathVariable String address,
             @RequestParam(defaultValue = "BTC") String chain) {
         log.info("Fetching wallet {} from chain {}", address, chain);
-        Wallet wallet = blockCypherService.fetchAndSaveWallet(address, chain);
-        return ResponseEntity.ok(wallet);
+        return blockCypherService.ingestWallet(address, chain)
+                .map(ResponseEntity::ok);
+    }
+    
+    /**
+     * Fetch y guarda varias wallets con concurrencia acotada
+     * POST /api/blockcypher/wallets?chain=BTC  (body: ["addr1", "addr2", ...])
+     */
+    @PostMapping("/wallets")
+    public Mono<ResponseEntity<List<Wallet>>> fetchWallets(
+            @RequestBody List<String> addresses,
+            @RequestParam(defaultValue = "BTC") String chain) {
+        log.info("Fetching {} wallets from chain {}", addresses.size(), chain);
+        return blockCypherService.ingestWallets(addresses, chain)
+                .collectList()
+                .map(ResponseEntity::ok);
+    }
+    
+    /**
+     * Contadores del cliente HTTP (peticiones, reintentos, 429)
+     * GET /api/blockcypher/stats
+     */
+    @GetMapping("/stats")
+    public ResponseEntity<Map<String, Object>> stats() {
+        return ResponseEntity.ok(blockCypherClient.getStats());
+    }
+    
+    /**
+     * Estado de la caché de respuestas en disco
+     * GET /api/blockcypher/cache
+     */
+    @GetMapping("/cache")
+    public ResponseEntity<Map<String, Object>> cacheStats() {
+        return ResponseEntity.ok(responseCache.getStats());
+    }
+    
+    /**
+     * Reconstruye el grafo re-ingestando las wallets cacheadas, leyendo de disco
+     * POST /api/blockcypher/cache/rebuild?chain=BTC
+     */
+    @PostMapping("/cache/rebuild")
+    public Mono<ResponseEntity<Map<String, Object>>> rebuildFromCache(
+            @RequestParam(defaultValue = "BTC") String chain) {
+        long started = System.currentTimeMillis();
+        return blockCypherService.rebuildFromCache(chain)
+                .count()
+                .map(wallets -> ResponseEntity.ok(Map.<String, Object>of(
+                        "chain", chain,
+                        "wallets", wallets,
+                        "elapsedMs", System.currentTimeMillis() - started,
+                        "client", blockCypherClient.getStats())));
     }
     
     /**
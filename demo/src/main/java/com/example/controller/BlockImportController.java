@@ -0,0 +1,53 @@
+package com.example.controller;
+
+import com.example.dto.BlockImportRequest;
+import com.example.service.BlockFileImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Controller para la importación offline de archivos blk*.dat
+ */
+@RestController
+@RequestMapping("/api/import/blocks")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class BlockImportController {
+
+    private final BlockFileImportService blockFileImportService;
+
+    /**
+     * Inicia una importación en background
+     * POST /api/import/blocks  (body: {"directory": "/data/bitcoin/blocks", "mode": "CSV"})
+     */
+    @PostMapping
+    public ResponseEntity<Map<String, Object>> start(@RequestBody BlockImportRequest request) {
+        try {
+            log.info("Starting block import from {} ({})", request.getDirectory(), request.getMode());
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(blockFileImportService.start(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        } catch (IOException e) {
+            log.error("Error listing block files: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Estado de la última importación
+     * GET /api/import/blocks
+     */
+    @GetMapping
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(blockFileImportService.getStatus());
+    }
+}
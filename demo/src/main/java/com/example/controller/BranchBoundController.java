@@ -1,6 +1,8 @@
 package com.example.controller;
 
+import com.example.algorithm.SupernodePolicy;
 import com.example.service.BranchBoundService;
+import com.example.service.SupernodeService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
@@ -12,12 +14,17 @@ import java.util.*;
 public class BranchBoundController {
 
     private final BranchBoundService branchBoundService;
+    private final SupernodeService supernodeService;
 
     @GetMapping("/optimal-path")
     public Map<String, Object> findOptimalPath(
             @RequestParam String sourceAddress,
             @RequestParam String targetAddress,
-            @RequestParam(defaultValue = "5") int maxDepth) {
+            @RequestParam(defaultValue = "5") int maxDepth,
+            @RequestParam(defaultValue = "10000") long timeoutMs,
+            @RequestParam(defaultValue = "0") long maxNodes,
+            @RequestParam(defaultValue = "STOP_AT") SupernodePolicy.Mode supernodePolicy,
+            @RequestParam(defaultValue = "50") int sampleSize) {
 
         long startTime = System.currentTimeMillis();
         Map<String, Object> response = new HashMap<>();
@@ -27,7 +34,8 @@ public class BranchBoundController {
             double maxCost = maxDepth * 1000; // Example conversion
 
             var result = branchBoundService.findOptimalPathWithCostLimit(
-                sourceAddress, targetAddress, maxCost);
+                sourceAddress, targetAddress, maxCost, timeoutMs, maxNodes,
+                supernodeService.policy(supernodePolicy, sampleSize));
 
             response.put("sourceAddress", sourceAddress);
             response.put("targetAddress", targetAddress);
@@ -37,6 +45,11 @@ public class BranchBoundController {
             response.put("totalCost", result.getTotalCost());
             response.put("pathLength", result.getPathLength());
             response.put("nodesExplored", result.getNodesExplored());
+            response.put("complete", result.isComplete());
+            response.put("stopReason", result.getStopReason());
+            response.put("lowerBound", result.getLowerBound());
+            response.put("optimalityGap", result.getOptimalityGap());
+            response.put("supernodes", result.getSupernodeReport());
             response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
 
         } catch (Exception e) {
@@ -50,13 +63,18 @@ public class BranchBoundController {
     @GetMapping("/cheapest-path")
     public Map<String, Object> findCheapestPath(
             @RequestParam String sourceAddress,
-            @RequestParam String targetAddress) {
+            @RequestParam String targetAddress,
+            @RequestParam(defaultValue = "10000") long timeoutMs,
+            @RequestParam(defaultValue = "0") long maxNodes,
+            @RequestParam(defaultValue = "STOP_AT") SupernodePolicy.Mode supernodePolicy,
+            @RequestParam(defaultValue = "50") int sampleSize) {
 
         long startTime = System.currentTimeMillis();
         Map<String, Object> response = new HashMap<>();
 
         try {
-            var result = branchBoundService.findCheapestPath(sourceAddress, targetAddress);
+            var result = branchBoundService.findCheapestPath(sourceAddress, targetAddress, timeoutMs, maxNodes,
+                supernodeService.policy(supernodePolicy, sampleSize));
 
             response.put("sourceAddress", sourceAddress);
             response.put("targetAddress", targetAddress);
@@ -64,6 +82,10 @@ public class BranchBoundController {
             response.put("path", result.getPath());
             response.put("totalCost", result.getTotalCost());
             response.put("pathLength", result.getPathLength());
+            response.put("complete", result.isComplete());
+            response.put("stopReason", result.getStopReason());
+            response.put("optimalityGap", result.getOptimalityGap());
+            response.put("supernodes", result.getSupernodeReport());
             response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
 
         } catch (Exception e) {
@@ -0,0 +1,88 @@
+package com.example.controller;
+
+import com.example.dto.CrawlRequest;
+import com.example.service.CrawlerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Controller para crawls multi-hop de contrapartes
+ */
+@RestController
+@RequestMapping("/api/crawler")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class CrawlerController {
+
+    private final CrawlerService crawlerService;
+
+    /**
+     * Inicia un crawl en background
+     * POST /api/crawler/crawls  (body: {"seeds": [...], "maxHops": 2, "maxWallets": 500})
+     */
+    @PostMapping("/crawls")
+    public ResponseEntity<Map<String, Object>> start(@RequestBody CrawlRequest request) {
+        try {
+            log.info("Starting crawl from {} seeds", request.getSeeds() != null ? request.getSeeds().size() : 0);
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(crawlerService.start(request));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Estado de un crawl
+     * GET /api/crawler/crawls/{id}
+     */
+    @GetMapping("/crawls/{id}")
+    public ResponseEntity<Map<String, Object>> status(@PathVariable String id) {
+        Map<String, Object> status = crawlerService.status(id);
+        return status != null ? ResponseEntity.ok(status) : ResponseEntity.notFound().build();
+    }
+
+    /**
+     * Crawls recientes
+     * GET /api/crawler/crawls?limit=20
+     */
+    @GetMapping("/crawls")
+    public ResponseEntity<List<Map<String, Object>>> list(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(crawlerService.list(limit));
+    }
+
+    /**
+     * Reanuda un crawl interrumpido desde su último checkpoint
+     * POST /api/crawler/crawls/{id}/resume?parallelism=4
+     */
+    @PostMapping("/crawls/{id}/resume")
+    public ResponseEntity<Map<String, Object>> resume(
+            @PathVariable String id,
+            @RequestParam(required = false) Integer parallelism) {
+        try {
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(crawlerService.resume(id, parallelism));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("error", e.getMessage()));
+        }
+    }
+
+    /**
+     * Detiene un crawl en curso (queda INTERRUPTED y puede reanudarse)
+     * POST /api/crawler/crawls/{id}/cancel
+     */
+    @PostMapping("/crawls/{id}/cancel")
+    public ResponseEntity<Map<String, Object>> cancel(@PathVariable String id) {
+        if (!crawlerService.cancel(id)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of("error", "El crawl " + id + " no está en curso"));
+        }
+        return ResponseEntity.accepted().body(Map.of("id", id, "cancelling", true));
+    }
+}
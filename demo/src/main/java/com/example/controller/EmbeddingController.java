@@ -0,0 +1,135 @@
+package com.example.controller;
+
+import com.example.dto.EmbeddingNeighbourResult;
+import com.example.dto.EmbeddingTrainingRequest;
+import com.example.service.WalletEmbeddingService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Controlador REST para embeddings de wallets (random walks + skip-gram)
+ */
+@RestController
+@RequestMapping("/api/embeddings")
+@RequiredArgsConstructor
+@Slf4j
+@CrossOrigin(origins = "*")
+public class EmbeddingController {
+
+    private final WalletEmbeddingService walletEmbeddingService;
+
+    /**
+     * Entrena (o re-entrena) los embeddings en background
+     * POST /api/embeddings/train
+     * Body opcional: {"dimensions": 64, "walksPerWallet": 10, "walkLength": 40, "returnParameter": 1.0, "inOutParameter": 0.5}
+     */
+    @PostMapping("/train")
+    public ResponseEntity<Map<String, Object>> train(@RequestBody(required = false) EmbeddingTrainingRequest request) {
+        log.info("REST: Training wallet embeddings");
+
+        String error = validate(request);
+        if (error != null) {
+            return ResponseEntity.badRequest().body(Map.of("error", error));
+        }
+
+        boolean accepted = walletEmbeddingService.trainAsync(request);
+        Map<String, Object> response = new HashMap<>(walletEmbeddingService.getStatus());
+        response.put("accepted", accepted);
+        return ResponseEntity.accepted().body(response);
+    }
+
+    /**
+     * Wallets más cercanas en el espacio de embeddings
+     * GET /api/embeddings/nearest?address=ADDRESS&k=10
+     */
+    @GetMapping("/nearest")
+    public ResponseEntity<Map<String, Object>> nearest(
+            @RequestParam String address,
+            @RequestParam(defaultValue = "10") Integer k) {
+
+        log.info("REST: Nearest wallets to {} (k={})", address, k);
+
+        if (k < 1 || k > 1000) {
+            return ResponseEntity.badRequest().body(Map.of("error", "k must be between 1 and 1000"));
+        }
+
+        long startTime = System.nanoTime();
+        Optional<List<EmbeddingNeighbourResult>> neighbours = walletEmbeddingService.findNearest(address, k);
+        if (neighbours.isEmpty()) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", "No embedding model trained yet, POST /api/embeddings/train first"));
+        }
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("address", address);
+        response.put("neighbours", neighbours.get());
+        response.put("resultCount", neighbours.get().size());
+        response.put("queryTimeMicros", (System.nanoTime() - startTime) / 1000);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Vector de una wallet
+     * GET /api/embeddings/vector?address=ADDRESS
+     */
+    @GetMapping("/vector")
+    public ResponseEntity<Map<String, Object>> vector(@RequestParam String address) {
+        Optional<float[]> vector = walletEmbeddingService.getVector(address);
+        if (vector.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(Map.of("address", address, "vector", vector.get()));
+    }
+
+    /**
+     * Estado del modelo
+     * GET /api/embeddings/status
+     */
+    @GetMapping("/status")
+    public ResponseEntity<Map<String, Object>> status() {
+        return ResponseEntity.ok(walletEmbeddingService.getStatus());
+    }
+
+    private String validate(EmbeddingTrainingRequest request) {
+        if (request == null) {
+            return null;
+        }
+        if (request.getDimensions() != null && (request.getDimensions() < 2 || request.getDimensions() > 512)) {
+            return "dimensions must be between 2 and 512";
+        }
+        if (request.getWalkLength() != null && (request.getWalkLength() < 2 || request.getWalkLength() > 500)) {
+            return "walkLength must be between 2 and 500";
+        }
+        if (request.getWalksPerWallet() != null && (request.getWalksPerWallet() < 1 || request.getWalksPerWallet() > 100)) {
+            return "walksPerWallet must be between 1 and 100";
+        }
+        if (request.getWindowSize() != null && (request.getWindowSize() < 1 || request.getWindowSize() > 50)) {
+            return "windowSize must be between 1 and 50";
+        }
+        if (request.getNegativeSamples() != null
+                && (request.getNegativeSamples() < 1 || request.getNegativeSamples() > 50)) {
+            return "negativeSamples must be between 1 and 50";
+        }
+        if (request.getEpochs() != null && (request.getEpochs() < 1 || request.getEpochs() > 50)) {
+            return "epochs must be between 1 and 50";
+        }
+        if (request.getLearningRate() != null && !(request.getLearningRate() > 0 && request.getLearningRate() <= 1)) {
+            return "learningRate must be > 0 and <= 1";
+        }
+        if (request.getThreads() != null && (request.getThreads() < 1 || request.getThreads() > 64)) {
+            return "threads must be between 1 and 64";
+        }
+        if ((request.getReturnParameter() != null && !(request.getReturnParameter() > 0))
+                || (request.getInOutParameter() != null && !(request.getInOutParameter() > 0))) {
+            return "returnParameter and inOutParameter must be > 0";
+        }
+        return null;
+    }
+}
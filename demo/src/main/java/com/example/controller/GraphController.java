@@ -1,7 +1,10 @@
 package com.example.controller;
 
+import com.example.service.FlowGraphService;
 import com.example.service.GraphAlgorithmsService;
 import com.example.service.PathAnalysisService;
+import com.example.service.SpendLinkService;
+import com.example.service.WalletAggregateService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
@@ -14,6 +17,9 @@ public class GraphController {
 
     private final GraphAlgorithmsService graphAlgorithmsService;
     private final PathAnalysisService pathAnalysisService;
+    private final FlowGraphService flowGraphService;
+    private final SpendLinkService spendLinkService;
+    private final WalletAggregateService walletAggregateService;
 
     @GetMapping("/dijkstra")
     public Map<String, Object> dijkstra(
@@ -159,4 +165,94 @@ public class GraphController {
 
         return response;
     }
+
+    @PostMapping("/flows/backfill")
+    public Map<String, Object> backfillFlows(@RequestParam(defaultValue = "500") int batchSize) {
+        long startTime = System.currentTimeMillis();
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.putAll(flowGraphService.backfill(batchSize));
+            response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
+
+        } catch (Exception e) {
+            response.put("error", "Error materializando FLOW: " + e.getMessage());
+            response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
+        }
+
+        return response;
+    }
+
+    @GetMapping("/flows/stats")
+    public Map<String, Object> flowStats() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.putAll(flowGraphService.getStats());
+        } catch (Exception e) {
+            response.put("error", "Error consultando FLOW: " + e.getMessage());
+        }
+
+        return response;
+    }
+
+    @PostMapping("/spends/link")
+    public Map<String, Object> linkSpends(@RequestParam(defaultValue = "1000") int batchSize) {
+        long startTime = System.currentTimeMillis();
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.putAll(spendLinkService.link(batchSize));
+            response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
+
+        } catch (Exception e) {
+            response.put("error", "Error enlazando gastos: " + e.getMessage());
+            response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
+        }
+
+        return response;
+    }
+
+    @GetMapping("/spends/stats")
+    public Map<String, Object> spendStats() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.putAll(spendLinkService.getStats());
+        } catch (Exception e) {
+            response.put("error", "Error consultando SPENT_BY: " + e.getMessage());
+        }
+
+        return response;
+    }
+
+    @PostMapping("/aggregates/backfill")
+    public Map<String, Object> backfillAggregates(@RequestParam(defaultValue = "1000") int batchSize) {
+        long startTime = System.currentTimeMillis();
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.putAll(walletAggregateService.backfill(batchSize));
+            response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
+
+        } catch (Exception e) {
+            response.put("error", "Error agregando wallets: " + e.getMessage());
+            response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
+        }
+
+        return response;
+    }
+
+    @GetMapping("/aggregates/stats")
+    public Map<String, Object> aggregateStats() {
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            response.putAll(walletAggregateService.getStats());
+        } catch (Exception e) {
+            response.put("error", "Error consultando agregados: " + e.getMessage());
+        }
+
+        return response;
+    }
 }
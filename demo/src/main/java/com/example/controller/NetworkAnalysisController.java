@@ -1,6 +1,8 @@
 package com.example.controller;
 
+import com.example.algorithm.GraphSampler;
 import com.example.dto.NetworkAnalysisResult;
+import com.example.service.GraphSamplingService;
 import com.example.service.NetworkAnalysisService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,6 +23,7 @@ import java.util.Map;
 public class NetworkAnalysisController {
     
     private final NetworkAnalysisService networkAnalysisService;
+    private final GraphSamplingService graphSamplingService;
     
     /**
      * Analiza la red completa de una wallet
@@ -75,4 +78,30 @@ public class NetworkAnalysisController {
             return ResponseEntity.internalServerError().build();
         }
     }
+    
+    /**
+     * Estadísticas globales aproximadas por muestreo, con intervalos de confianza
+     * GET /api/network/sampled-stats?method=RANDOM_NODE&sampleSize=2000&confidence=0.95
+     */
+    @GetMapping("/sampled-stats")
+    public ResponseEntity<Map<String, Object>> getSampledStatistics(
+            @RequestParam(defaultValue = "RANDOM_NODE") GraphSampler.Method method,
+            @RequestParam(defaultValue = "2000") int sampleSize,
+            @RequestParam(defaultValue = "0.95") double confidence,
+            @RequestParam(defaultValue = "64") int pathSources,
+            @RequestParam(defaultValue = "5000") long timeoutMs,
+            @RequestParam(required = false) Long seed) {
+        
+        log.info("REST: Sampled statistics with method {} and sample size {}", method, sampleSize);
+        
+        try {
+            return ResponseEntity.ok(graphSamplingService.estimate(
+                    method, sampleSize, confidence, pathSources, timeoutMs, seed));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("error", e.getMessage()));
+        } catch (Exception e) {
+            log.error("Error estimating sampled statistics: {}", e.getMessage());
+            return ResponseEntity.internalServerError().body(Map.of("error", e.getMessage()));
+        }
+    }
 }
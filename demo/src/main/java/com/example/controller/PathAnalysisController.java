@@ -1,14 +1,20 @@
 package com.example.controller;
 
+import com.example.dto.HopDistanceResult;
+import com.example.dto.HopFilterRequest;
 import com.example.dto.PathResult;
+import com.example.service.DistanceIndexService;
 import com.example.service.PathAnalysisService;
+import com.example.service.SupernodeService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 /**
  * Controller para análisis de caminos entre wallets
@@ -21,6 +27,8 @@ import java.util.Map;
 public class PathAnalysisController {
     
     private final PathAnalysisService pathAnalysisService;
+    private final DistanceIndexService distanceIndexService;
+    private final SupernodeService supernodeService;
     
     /**
      * Encuentra el camino más corto entre dos wallets
@@ -102,4 +110,100 @@ public class PathAnalysisController {
             return ResponseEntity.internalServerError().build();
         }
     }
+    
+    /**
+     * Distancia en saltos entre dos wallets usando el índice de distancias
+     * GET /api/path/distance?from=ADDRESS1&to=ADDRESS2
+     */
+    @GetMapping("/distance")
+    public ResponseEntity<HopDistanceResult> findHopDistance(
+            @RequestParam String from,
+            @RequestParam String to) {
+        
+        log.info("REST: Hop distance from {} to {}", from, to);
+        
+        try {
+            return ResponseEntity.ok(pathAnalysisService.findHopDistance(from, to));
+        } catch (Exception e) {
+            log.error("Error computing hop distance: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+    
+    /**
+     * Filtro masivo "¿conectado en <= k saltos?"
+     * POST /api/path/within-hops
+     * Body: {"source": "ADDRESS", "targets": ["A", "B", ...], "maxHops": 3}
+     */
+    @PostMapping("/within-hops")
+    public ResponseEntity<Map<String, Object>> filterWithinHops(@RequestBody HopFilterRequest request) {
+        if (request.getSource() == null || request.getSource().isBlank()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "source is required"));
+        }
+        if (request.getTargets() == null || request.getTargets().isEmpty()) {
+            return ResponseEntity.badRequest().body(Map.of("error", "targets must not be empty"));
+        }
+        int maxHops = request.getMaxHops() != null ? request.getMaxHops() : 3;
+        if (maxHops < 0) {
+            return ResponseEntity.badRequest().body(Map.of("error", "maxHops must be >= 0"));
+        }
+        
+        log.info("REST: Filtering {} targets within {} hops of {}",
+                request.getTargets().size(), maxHops, request.getSource());
+        
+        Optional<List<String>> reachable = pathAnalysisService.filterWalletsWithinHops(
+                request.getSource(), request.getTargets(), maxHops);
+        
+        if (reachable.isEmpty()) {
+            return ResponseEntity.status(503)
+                    .body(Map.of("error", "Distance index is being built, retry shortly"));
+        }
+        
+        Map<String, Object> response = new HashMap<>();
+        response.put("source", request.getSource());
+        response.put("maxHops", maxHops);
+        response.put("targetsChecked", request.getTargets().size());
+        response.put("reachable", reachable.get());
+        response.put("reachableCount", reachable.get().size());
+        response.put("indexVersion", distanceIndexService.getIndexVersion());
+        return ResponseEntity.ok(response);
+    }
+    
+    /**
+     * Reconstruye el índice de distancias en background (swap atómico al terminar)
+     * POST /api/path/distance-index/rebuild
+     */
+    @PostMapping("/distance-index/rebuild")
+    public ResponseEntity<Map<String, Object>> rebuildDistanceIndex() {
+        log.info("REST: Rebuilding distance index");
+        boolean accepted = distanceIndexService.rebuildAsync();
+        Map<String, Object> response = new HashMap<>(distanceIndexService.getStatus());
+        response.put("accepted", accepted);
+        return ResponseEntity.accepted().body(response);
+    }
+    
+    /**
+     * Estado del índice de distancias
+     * GET /api/path/distance-index/status
+     */
+    @GetMapping("/distance-index/status")
+    public ResponseEntity<Map<String, Object>> getDistanceIndexStatus() {
+        return ResponseEntity.ok(distanceIndexService.getStatus());
+    }
+    
+    /**
+     * Supernodos detectados (no se atraviesan en las búsquedas de caminos)
+     * GET /api/path/supernodes?limit=50
+     */
+    @GetMapping("/supernodes")
+    public ResponseEntity<Map<String, Object>> getSupernodes(
+            @RequestParam(defaultValue = "50") int limit) {
+        
+        try {
+            return ResponseEntity.ok(supernodeService.listSupernodes(limit));
+        } catch (Exception e) {
+            log.error("Error listing supernodes: {}", e.getMessage());
+            return ResponseEntity.internalServerError().build();
+        }
+    }
 }
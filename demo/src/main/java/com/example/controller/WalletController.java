@@ -1,6 +1,11 @@
 package com.example.controller;
 
+import com.example.algorithm.ActivityRollup;
+import com.example.dto.SimilarWalletResult;
 import com.example.repository.WalletRepository;
+import com.example.service.WalletActivityService;
+import com.example.service.WalletAggregateService;
+import com.example.service.WalletSimilarityService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.web.bind.annotation.*;
 import java.util.*;
@@ -12,6 +17,9 @@ import java.util.*;
 public class WalletController {
 
     private final WalletRepository walletRepository;
+    private final WalletSimilarityService walletSimilarityService;
+    private final WalletAggregateService walletAggregateService;
+    private final WalletActivityService walletActivityService;
 
     @GetMapping("/analyze")
     public Map<String, Object> analyzeWallet(@RequestParam String address) {
@@ -21,7 +29,9 @@ public class WalletController {
         try {
             // Obtener datos reales de la wallet desde Neo4j
             List<Map<String, Object>> recentTxsRaw = walletRepository.findRecentTransactions(address, 50);
-            List<Map<String, Object>> connectionsRaw = walletRepository.findConnectedWallets(address);
+            List<Map<String, Object>> connectionsRaw = walletAggregateService.isMaterialised()
+                ? walletAggregateService.findCounterparties(address, 50)
+                : walletRepository.findConnectedWallets(address);
 
             // Extraer los objetos "result" de los wrappers
             List<Map<String, Object>> recentTxs = new ArrayList<>();
@@ -151,6 +161,95 @@ public class WalletController {
         return response;
     }
 
+    /**
+     * Actividad de una wallet en un rango (ISO-8601; por defecto los últimos 30 días)
+     * desde las cubetas horarias/diarias: totales y serie para gráficas
+     * GET /api/wallet/activity?address=ADDRESS&from=2024-01-01T00:00:00Z&to=2024-02-01T00:00:00Z&granularity=DAY
+     */
+    @GetMapping("/activity")
+    public Map<String, Object> getActivity(
+            @RequestParam String address,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "DAY") String granularity) {
+        long startTime = System.currentTimeMillis();
+        Map<String, Object> response = new HashMap<>();
+
+        Long toMillis = to != null ? ActivityRollup.parseEpochMillis(to) : Long.valueOf(startTime);
+        Long fromMillis = from != null ? ActivityRollup.parseEpochMillis(from)
+                : (toMillis != null ? Long.valueOf(toMillis - 30L * ActivityRollup.Granularity.DAY.getMillis()) : null);
+        if (fromMillis == null || toMillis == null || fromMillis >= toMillis) {
+            response.put("error", "Rango inválido: from y to deben ser instantes ISO-8601 con from < to");
+            return response;
+        }
+        ActivityRollup.Granularity seriesGranularity;
+        try {
+            seriesGranularity = ActivityRollup.Granularity.valueOf(granularity.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.put("error", "Granularidad inválida: " + granularity + " (HOUR o DAY)");
+            return response;
+        }
+
+        try {
+            response.putAll(walletActivityService.getActivity(address, fromMillis, toMillis));
+            response.put("granularity", seriesGranularity.name());
+            response.put("series", walletActivityService.getSeries(address, fromMillis, toMillis, seriesGranularity));
+        } catch (Exception e) {
+            response.put("error", "Error consultando actividad: " + e.getMessage());
+        }
+        response.put("executionTime", (System.currentTimeMillis() - startTime) + "ms");
+        return response;
+    }
+
+    /**
+     * Wallets que comparten la mayor parte de las contrapartes de {@code address}
+     * GET /api/wallet/similar?address=ADDRESS&minSimilarity=0.5&limit=20
+     */
+    @GetMapping("/similar")
+    public Map<String, Object> findSimilarWallets(
+            @RequestParam String address,
+            @RequestParam(defaultValue = "0.5") double minSimilarity,
+            @RequestParam(defaultValue = "20") int limit) {
+        long startTime = System.nanoTime();
+        Map<String, Object> response = new HashMap<>();
+
+        double threshold = Math.max(0.0, Math.min(1.0, minSimilarity));
+        int maxResults = Math.max(1, Math.min(500, limit));
+        List<SimilarWalletResult> similar = walletSimilarityService.findSimilarWallets(address, threshold, maxResults);
+
+        response.put("address", address);
+        response.put("minSimilarity", threshold);
+        response.put("similarWallets", similar);
+        response.put("resultCount", similar.size());
+        response.put("queryTimeMicros", (System.nanoTime() - startTime) / 1000);
+        return response;
+    }
+
+    /**
+     * Reconstruye el índice de similitud desde Neo4j
+     * POST /api/wallet/similar/rebuild
+     */
+    @PostMapping("/similar/rebuild")
+    public Map<String, Object> rebuildSimilarityIndex() {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            response.put("indexedWallets", walletSimilarityService.rebuildFromGraph());
+        } catch (Exception e) {
+            response.put("error", e.getMessage());
+        }
+        response.putAll(walletSimilarityService.getStatus());
+        return response;
+    }
+
+    /**
+     * Estado del índice de similitud
+     * GET /api/wallet/similar/status
+     */
+    @GetMapping("/similar/status")
+    public Map<String, Object> getSimilarityIndexStatus() {
+        return walletSimilarityService.getStatus();
+    }
+
     private double calculateRiskScore(int connections, long volume, double avgAmount) {
         double score = 0.0;
 
@@ -0,0 +1,115 @@
+package com.example.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Página de {@code /addrs/{address}/full} de BlockCypher, decodificada directamente
+ * desde el stream HTTP (sin pasar por {@code Map})
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class BlockCypherAddress {
+
+    private String address;
+    private Long balance;
+
+    @JsonProperty("total_received")
+    private Long totalReceived;
+
+    @JsonProperty("total_sent")
+    private Long totalSent;
+
+    @JsonProperty("n_tx")
+    private Integer nTx;
+
+    /** true si hay más transacciones anteriores a la última de esta página */
+    private Boolean hasMore;
+
+    @Builder.Default
+    private List<Tx> txs = new ArrayList<>();
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Tx {
+        private String hash;
+
+        @JsonProperty("block_height")
+        private Long blockHeight;
+
+        @JsonProperty("block_hash")
+        private String blockHash;
+
+        /** ISO-8601, tal como lo entrega la API */
+        private String confirmed;
+
+        /** Suma de los outputs */
+        private Long total;
+
+        private Long fees;
+        private Integer confirmations;
+
+        @JsonProperty("double_spend")
+        private Boolean doubleSpend;
+
+        @Builder.Default
+        private List<Input> inputs = new ArrayList<>();
+
+        @Builder.Default
+        private List<Output> outputs = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Input {
+        @JsonProperty("prev_hash")
+        private String prevHash;
+
+        @JsonProperty("output_index")
+        private Integer outputIndex;
+
+        @JsonProperty("output_value")
+        private Long outputValue;
+
+        private String script;
+
+        @JsonProperty("script_type")
+        private String scriptType;
+
+        private List<String> addresses;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Output {
+        private Long value;
+        private String script;
+
+        @JsonProperty("script_type")
+        private String scriptType;
+
+        private List<String> addresses;
+
+        @JsonProperty("spent_by")
+        private String spentBy;
+    }
+}
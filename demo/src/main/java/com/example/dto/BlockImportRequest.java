@@ -0,0 +1,25 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Parámetros de una importación offline de archivos blk*.dat. Los campos nulos
+ * toman los valores por defecto del servicio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BlockImportRequest {
+
+    private String directory;          // carpeta blocks/ de Bitcoin Core
+    private String mode;               // CSV (neo4j-admin database import) o DIRECT (lotes UNWIND)
+    private String outputDirectory;    // destino de los CSV
+    private String network;            // MAINNET o TESTNET
+    private String chain;              // etiqueta chain de wallets y transacciones
+    private Integer parallelism;       // archivos procesados a la vez
+    private Integer maxFiles;          // primeros N archivos (pruebas)
+}
@@ -5,6 +5,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 /**
  * Resultado de análisis de Centralidad
  */
@@ -22,5 +24,10 @@ public class CentralityResult {
     private Integer bridgeConnections;
     private Long totalTransactionVolume;
     private String riskLevel;
+
+    // Función de vecindario (HyperBall): estimaciones, no conteos exactos
+    private Long reachWithinK;
+    private List<Long> reachByHop;
+    private Double harmonicCentrality;
 }
 
@@ -0,0 +1,25 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Parámetros de un crawl de contrapartes. Los campos nulos toman los valores por
+ * defecto del servicio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CrawlRequest {
+
+    private List<String> seeds;
+    private String chain;
+    private Integer maxHops;        // niveles BFS desde las semillas
+    private Integer maxWallets;     // wallets distintas descubiertas (semillas incluidas)
+    private Integer parallelism;    // wallets ingeridas en paralelo
+}
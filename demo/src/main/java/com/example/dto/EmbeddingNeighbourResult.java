@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Wallet cercana en el espacio de embeddings
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmbeddingNeighbourResult {
+
+    private String address;
+    private Double cosineSimilarity;
+    private Integer rank;
+}
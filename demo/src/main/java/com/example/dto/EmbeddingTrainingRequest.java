@@ -0,0 +1,33 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Parámetros para entrenar embeddings de wallets (random walks + skip-gram).
+ * Los campos nulos toman los valores por defecto del servicio.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class EmbeddingTrainingRequest {
+
+    // Random walks
+    private Integer walksPerWallet;
+    private Integer walkLength;
+    private Double returnParameter;   // p de node2vec
+    private Double inOutParameter;    // q de node2vec
+    private Boolean weightedByAmount;
+
+    // Skip-gram
+    private Integer dimensions;
+    private Integer windowSize;
+    private Integer negativeSamples;
+    private Integer epochs;
+    private Float learningRate;
+    private Integer threads;
+    private Long seed;
+}
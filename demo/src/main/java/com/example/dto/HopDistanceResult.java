@@ -0,0 +1,30 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de una consulta de distancia en saltos entre dos wallets
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HopDistanceResult {
+
+    private String fromAddress;
+
+    private String toAddress;
+
+    private Boolean connected;
+
+    private Integer hops; // null si no hay conexión
+
+    private String source; // INDEX, NEO4J
+
+    private Long indexVersion;
+
+    private Long queryTimeMicros;
+}
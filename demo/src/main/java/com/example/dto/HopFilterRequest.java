@@ -0,0 +1,24 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request para el filtro masivo "¿conectado en <= k saltos?"
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class HopFilterRequest {
+
+    private String source;
+
+    private List<String> targets;
+
+    private Integer maxHops;
+}
@@ -0,0 +1,50 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resultado de la descomposición k-core
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class KCoreResult {
+
+    private Integer maxCore;
+    private Integer requestedCore;
+    private Integer totalWallets;
+    private Map<Integer, Long> coreHistogram;
+    private List<WalletCore> coreWallets;
+    private List<CoreEdge> coreEdges;
+    private Boolean truncated;
+    private Long snapshotVersion;
+    private Long executionTimeMs;
+    private String riskLevel;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class WalletCore {
+        private String address;
+        private Integer coreNumber;
+        private Integer degree;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class CoreEdge {
+        private String fromWallet;
+        private String toWallet;
+        private Double amount;
+    }
+}
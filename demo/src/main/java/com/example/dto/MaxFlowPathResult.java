@@ -7,6 +7,7 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Resultado de análisis Dynamic Programming - Max Flow Path
@@ -24,6 +25,9 @@ public class MaxFlowPathResult {
     private List<PathStep> path;
     private Boolean foundPath;
     
+    /** Lo que la política de supernodos excluyó o truncó al construir el grafo */
+    private Map<String, Object> supernodes;
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Resultado del análisis de camino entre dos wallets
@@ -28,6 +29,9 @@ public class PathResult {
     
     private Long totalAmountTransferred;
     
+    /** Política de supernodos aplicada a la búsqueda (supernodos excluidos como intermedios) */
+    private Map<String, Object> supernodes;
+    
     @Data
     @NoArgsConstructor
     @AllArgsConstructor
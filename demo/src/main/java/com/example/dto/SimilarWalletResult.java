@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Wallet con conjunto de contrapartes similar a la consultada (MinHash/LSH)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class SimilarWalletResult {
+
+    private String address;
+    private Double estimatedJaccard;
+    private Integer rank;
+}
@@ -0,0 +1,26 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Proyección escalar de una Transaction, sin sus relaciones INPUT/OUTPUT
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TransactionSummary {
+
+    private String hash;
+    private String chain;
+    private Long blockHeight;
+    private String confirmed;
+    private Long totalInput;
+    private Long totalOutput;
+    private Long fees;
+    private Integer confirmations;
+    private Boolean doubleSpend;
+}
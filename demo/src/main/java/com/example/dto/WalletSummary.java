@@ -0,0 +1,35 @@
+package com.example.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Proyección escalar de una Wallet: sólo propiedades del nodo, sin hidratar sus
+ * relaciones INPUT/OUTPUT (que en wallets de exchanges son cientos de miles)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class WalletSummary {
+
+    private String address;
+    private String chain;
+    private Long balance;
+    private Long totalReceived;
+    private Long totalSent;
+    private Integer txCount;
+    private String riskLevel;
+    private List<String> tags;
+    private Long volumeIn;
+    private Long volumeOut;
+    private Integer observedTxCount;
+    private Integer counterparties;
+    private LocalDateTime firstSeen;
+    private LocalDateTime lastSeen;
+}
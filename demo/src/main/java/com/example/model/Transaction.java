@@ -29,6 +29,8 @@ public class Transaction {
     
     private String confirmed; // Cambiado de LocalDateTime a String para evitar problemas de conversión
 
+    private Long confirmedAt; // confirmed en milisegundos epoch (UTC), para rangos de tiempo indexados
+
     private Long totalInput;
     
     private Long totalOutput;
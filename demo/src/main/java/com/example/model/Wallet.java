@@ -36,6 +36,15 @@ public class Wallet {
     
     private LocalDateTime lastSeen;
     
+    // Agregados incrementales de la ingesta (WalletAggregateService)
+    private Long volumeIn;
+    
+    private Long volumeOut;
+    
+    private Integer observedTxCount;
+    
+    private Integer counterparties;
+    
     // Relaciones salientes (como INPUT de transacciones)
     @Relationship(type = "INPUT", direction = Relationship.Direction.OUTGOING)
     @Builder.Default
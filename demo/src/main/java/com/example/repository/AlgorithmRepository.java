@@ -66,18 +66,21 @@ public interface AlgorithmRepository extends Neo4jRepository<Wallet, String> {
 
     /**
      * Encuentra caminos entre dos wallets con valores de transacciones
-     * Usado para DP: maxFlowPath
+     * Usado para DP: maxFlowPath. Las wallets de {@code excluded} (supernodos) no pueden
+     * ser nodos intermedios del camino.
      */
     @Query("""
         MATCH path = (source:Wallet {address: $sourceWallet})-[*1..$maxHops]->(target:Wallet {address: $targetWallet})
         WHERE ALL(rel IN relationships(path) WHERE type(rel) IN ['INPUT', 'OUTPUT'])
+          AND all(n IN nodes(path) WHERE n = source OR n = target OR NOT coalesce(n.address, '') IN $excluded)
         UNWIND relationships(path) as rel
         WITH startNode(rel).address as from, endNode(rel).address as to,
              rel.amount as amount, rel.txHash as txHash, rel.timestamp as timestamp
         RETURN from, to, amount, txHash, timestamp
         LIMIT 1000
         """)
-    List<Map<String, Object>> findPathsWithValues(String sourceWallet, String targetWallet, Integer maxHops);
+    List<Map<String, Object>> findPathsWithValues(String sourceWallet, String targetWallet, Integer maxHops,
+                                                  List<String> excluded);
 
     // ============== GRAPH ALGORITHMS QUERIES ==============
 
@@ -188,38 +191,6 @@ public interface AlgorithmRepository extends Neo4jRepository<Wallet, String> {
         """)
     List<Map<String, Object>> detectCycles(Integer maxDepth);
 
-    /**
-     * Detecta transacciones rápidas (múltiples en corto tiempo)
-     */
-    @Query("""
-        MATCH (t:Transaction)
-        WHERE t.confirmed IS NOT NULL
-        WITH t.confirmed as timeWindow, COLLECT(t.hash) as transactions,
-             COUNT(t) as txCount, 
-             max(t.confirmed) - min(t.confirmed) as timeSpan
-        WHERE txCount >= 3
-        RETURN 
-            transactions[0] as representative,
-            txCount as transactionCount,
-            CASE WHEN timeSpan IS NULL THEN 0 ELSE timeSpan END as timeSpan
-        ORDER BY txCount DESC
-        LIMIT 50
-        """)
-    List<Map<String, Object>> detectRapidTransactions(Long timeWindowSeconds);
-
-    /**
-     * Obtiene montos de transacciones para análisis de outliers
-     */
-    @Query("""
-        MATCH (w:Wallet)-[output:OUTPUT]->(t:Transaction)
-        RETURN 
-            w.address as wallet,
-            output.amount as amount,
-            t.hash as txHash
-        LIMIT 10000
-        """)
-    List<Map<String, Object>> getTransactionAmounts();
-
     // ============== BFS/DFS QUERIES ==============
 
     /**
@@ -236,26 +207,6 @@ public interface AlgorithmRepository extends Neo4jRepository<Wallet, String> {
         """)
     List<Map<String, Object>> getGraphEdges(String startWallet, Integer maxDepth);
 
-    // ============== DIJKSTRA/PRIM/KRUSKAL QUERIES ==============
-
-    /**
-     * Obtiene grafo con pesos (cantidad de transacciones) para Dijkstra/Prim/Kruskal
-     */
-    @Query("""
-        MATCH (w1:Wallet)-[r]->(t:Transaction)-[r2]->(w2:Wallet)
-        WHERE w1.address = $startWallet OR w1.address IN 
-              [(w1)-[*1..$maxNodes]-(connected) | connected.address]
-        WITH w1.address as from, w2.address as to, 
-             COALESCE(r.amount, r2.amount, 1) as weight
-        WHERE weight > 0
-        RETURN DISTINCT
-            from,
-            to,
-            toFloat(weight) as weight
-        LIMIT 5000
-        """)
-    List<Map<String, Object>> getWeightedGraphEdges(String startWallet, Integer maxNodes);
-
     // ============== DIVIDE & CONQUER QUERIES ==============
 
     /**
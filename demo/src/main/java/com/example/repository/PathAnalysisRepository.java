@@ -20,10 +20,14 @@ public interface PathAnalysisRepository extends Neo4jRepository<Wallet, String>
      * Query 3: Encuentra el camino más corto entre dos wallets
      * Usa el algoritmo shortestPath de Neo4j
      * Modelo: Wallet -[:INPUT]-> Transaction -[:OUTPUT]-> Wallet
+     * Las wallets de {@code excluded} (supernodos) no pueden ser nodos intermedios; el
+     * filtro cubre todos los nodos (admitiendo los extremos) para que Neo4j lo aplique
+     * durante la búsqueda.
      */
     @Query("MATCH (w1:Wallet {address: $address1}), (w2:Wallet {address: $address2}) " +
             "MATCH path = shortestPath((w1)-[:INPUT|OUTPUT*..20]-(w2)) " +
             "WHERE length(path) > 0 AND length(path) % 2 = 0 " +
+            "  AND all(n IN nodes(path) WHERE n = w1 OR n = w2 OR NOT coalesce(n.address, '') IN $excluded) " +
             "RETURN { " +
             "  pathLength: length(path), " +
             "  nodes: [i in range(0, size(nodes(path))-1) | " +
@@ -37,16 +41,19 @@ public interface PathAnalysisRepository extends Neo4jRepository<Wallet, String>
             "} as result")
     List<Map<String, Object>> findShortestPathRaw(
             @Param("address1") String address1,
-            @Param("address2") String address2
+            @Param("address2") String address2,
+            @Param("excluded") List<String> excluded
     );
     
     /**
      * Encuentra todos los caminos cortos entre dos wallets (hasta cierta longitud)
      * Longitud debe ser par (Wallet -> INPUT -> Tx -> OUTPUT -> Wallet = 2 relaciones por salto)
+     * Las wallets de {@code excluded} (supernodos) no pueden ser nodos intermedios.
      */
     @Query("MATCH (w1:Wallet {address: $address1}), (w2:Wallet {address: $address2}) " +
            "MATCH path = allShortestPaths((w1)-[:INPUT|OUTPUT*..20]-(w2)) " +
            "WHERE length(path) <= ($maxLength * 2) AND length(path) % 2 = 0 AND length(path) > 0 " +
+           "  AND all(n IN nodes(path) WHERE n = w1 OR n = w2 OR NOT coalesce(n.address, '') IN $excluded) " +
            "WITH path, " +
            "     length(path) as pathLength, " +
            "     nodes(path) as pathNodes, " +
@@ -65,27 +72,25 @@ public interface PathAnalysisRepository extends Neo4jRepository<Wallet, String>
     List<Map<String, Object>> findAllShortPaths(
             @Param("address1") String address1,
             @Param("address2") String address2,
-            @Param("maxLength") int maxLength
+            @Param("maxLength") int maxLength,
+            @Param("excluded") List<String> excluded
     );
     
     /**
-     * Encuentra wallets dentro de N saltos de una wallet dada
-     * hops se multiplica por 2 porque cada salto real son 2 relaciones (INPUT -> Transaction -> OUTPUT)
+     * Un nivel de la expansión por saltos: wallets a un salto (Wallet - Transaction -
+     * Wallet, en cualquier sentido) de alguna wallet de {@code frontier}
+     * El llamador descarta las ya visitadas, así que {@code limit} debe cubrirlas.
      */
-    @Query("MATCH (w:Wallet {address: $address})-[:INPUT|OUTPUT*..20]-(connected:Wallet) " +
-           "WHERE w.address <> connected.address " +
-           "WITH DISTINCT connected, " +
-           "     shortestPath((w)-[:INPUT|OUTPUT*]-(connected)) as path " +
-           "WHERE length(path) <= ($hops * 2) AND length(path) % 2 = 0 " +
-           "RETURN {address: connected.address, " +
-           "        balance: connected.balance, " +
-           "        txCount: connected.txCount, " +
-           "        hops: length(path) / 2} as result " +
-           "ORDER BY length(path) ASC " +
-           "LIMIT 100")
-    List<Map<String, Object>> findWalletsWithinHops(
-            @Param("address") String address,
-            @Param("hops") int hops
+    @Query("UNWIND $frontier AS address " +
+           "MATCH (:Wallet {address: address})-[:INPUT|OUTPUT]-(:Transaction)-[:INPUT|OUTPUT]-(next:Wallet) " +
+           "WITH DISTINCT next " +
+           "RETURN {address: next.address, " +
+           "        balance: next.balance, " +
+           "        txCount: next.txCount} as result " +
+           "LIMIT $limit")
+    List<Map<String, Object>> findWalletNeighbours(
+            @Param("frontier") List<String> frontier,
+            @Param("limit") int limit
     );
     
     /**
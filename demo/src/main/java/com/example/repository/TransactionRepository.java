@@ -30,32 +30,6 @@ public interface TransactionRepository extends Neo4jRepository<Transaction, Stri
            "LIMIT 100")
     List<Map<String, Object>> detectPeelChains();
     
-    /**
-     * Variante mejorada con información adicional de peel chain
-     */
-    @Query("MATCH (w:Wallet)-[in:INPUT]->(t:Transaction) " +
-           "MATCH (t)-[out:OUTPUT]->(receiver:Wallet) " +
-           "WITH t, w.address as wallet_addr, " +
-           "     SUM(in.amount) as total_input, " +
-           "     SUM(out.amount) as total_output, " +
-           "     COLLECT(DISTINCT receiver.address)[0..2] as recipients, " +
-           "     COLLECT(DISTINCT out.amount)[0..2] as amounts " +
-           "WHERE total_output > total_input * $threshold AND total_input > 0 " +
-           "RETURN wallet_addr as wallet, " +
-           "       t.hash as transaction, " +
-           "       total_input as inputAmount, " +
-           "       total_output as outputsTotal, " +
-           "       recipients[0] as mainRecipient, " +
-           "       amounts[0] as mainRecipientAmount, " +
-           "       CASE WHEN size(recipients) > 1 THEN recipients[1] ELSE null END as changeAddress, " +
-           "       CASE WHEN size(amounts) > 1 THEN amounts[1] ELSE null END as changeAmount " +
-           "ORDER BY total_input DESC " +
-           "LIMIT $limit")
-    List<Map<String, Object>> detectPeelChainsDetailed(
-            @Param("threshold") double threshold,
-            @Param("limit") int limit
-    );
-    
     /**
      * Buscar transacciones por rango de montos
      */
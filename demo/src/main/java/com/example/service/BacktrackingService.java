@@ -1,16 +1,39 @@
 package com.example.service;
 
 import com.example.algorithm.BacktrackingAlgorithm;
+import com.example.algorithm.BacktrackingAlgorithm.BacktrackingMetrics;
+import com.example.algorithm.BacktrackingAlgorithm.BacktrackingResult;
 import com.example.algorithm.BacktrackingAlgorithm.Edge;
+import com.example.algorithm.BacktrackingAlgorithm.ExplorationStrategy;
 import com.example.algorithm.BacktrackingAlgorithm.SuspiciousChain;
+import com.example.algorithm.ChainCollector;
+import com.example.algorithm.CycleStore;
+import com.example.algorithm.CycleStore.StoredCycle;
+import com.example.algorithm.FlowGraph;
+import com.example.algorithm.FlowGraph.FlowEdge;
+import com.example.algorithm.SearchBudget;
+import com.example.algorithm.SupernodePolicy;
 import com.example.repository.TransactionRepository;
+import com.example.service.GraphStreamService.EdgeRow;
+import com.example.service.GraphStreamService.FlowRow;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.neo4j.core.Neo4jClient;
 import org.springframework.stereotype.Service;
 
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio que implementa BACKTRACKING para análisis forense
@@ -23,48 +46,255 @@ import java.util.stream.Collectors;
 public class BacktrackingService {
 
     private final TransactionRepository transactionRepository;
-    private final Neo4jClient neo4jClient;
+    private final SupernodeService supernodeService;
+    private final FlowGraphService flowGraphService;
+    private final GraphStreamService graphStreamService;
     private final BacktrackingAlgorithm backtrackingAlgorithm = new BacktrackingAlgorithm();
 
+    /** Ciclos distintos (forma canónica) encontrados por todas las búsquedas */
+    private final CycleStore cycleStore = new CycleStore(MAX_STORED_CYCLES);
+
+    /** Búsquedas en streaming: un hilo por request, que entrega por una cola */
+    private final ExecutorService streamExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "chain-stream-search");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private static final int MAX_STORED_CYCLES = 1_000_000;
+
+    /** Wallets de la frontera por consulta de aristas */
+    private static final int FRONTIER_CHUNK = 500;
+
+    /** Tope de aristas del grafo en memoria (el recorrido ya no está truncado por LIMIT) */
+    private static final long MAX_GRAPH_EDGES = 500_000;
+
+    /** Memoria estimada máxima de una búsqueda (cadenas retenidas + ciclos + estado) */
+    private static final long MAX_SEARCH_MEMORY_BYTES = 256L * 1024 * 1024;
+
+    /** Espera máxima del hilo de streaming por una cadena antes de mirar si la búsqueda terminó */
+    private static final long STREAM_POLL_MS = 50;
+
     /**
-     * Detecta cadenas sospechosas desde una wallet específica
+     * Detecta las {@link BacktrackingAlgorithm#DEFAULT_TOP_K} cadenas más sospechosas
+     * desde una wallet específica
      *
      * @param startWallet Wallet desde donde iniciar la búsqueda
      * @param depth Profundidad máxima de exploración (recomendado: 4-6)
      * @return Lista de cadenas sospechosas ordenadas por nivel de sospecha
      */
     public List<SuspiciousChain> detectSuspiciousChains(String startWallet, int depth) {
-        log.info("Detectando cadenas sospechosas desde wallet: {} con depth: {}", startWallet, depth);
+        return detectTopSuspiciousChains(startWallet, depth, BacktrackingAlgorithm.DEFAULT_TOP_K);
+    }
 
-        // PASO 1: Construir grafo desde Neo4j
-        Map<String, List<Edge>> graph = buildGraphFromNeo4j(startWallet, depth + 2);
+    /**
+     * Detecta cadenas sospechosas con backtracking PARALELO (fork-join)
+     *
+     * @param startWallet Wallet desde donde iniciar la búsqueda
+     * @param depth Profundidad máxima de exploración (con paralelismo: 6+ es viable)
+     * @param maxResults Cadenas tras las cuales se detienen todos los workers
+     * @return Lista de cadenas sospechosas ordenadas por nivel de sospecha
+     */
+    public List<SuspiciousChain> detectSuspiciousChains(String startWallet, int depth, boolean parallel, int maxResults) {
+        if (!parallel) {
+            return detectTopSuspiciousChains(startWallet, depth, maxResults);
+        }
+        return searchSuspiciousChains(startWallet, depth, true, maxResults, 0, 0,
+                ExplorationStrategy.DEPTH_FIRST, BacktrackingAlgorithm.DEFAULT_BEAM_WIDTH).getChains();
+    }
+
+    /**
+     * Búsqueda ANYTIME acotada por tiempo y nodos: si el presupuesto se agota devuelve
+     * las mejores cadenas encontradas con {@code complete=false} y la brecha de optimalidad
+     *
+     * @param startWallet Wallet desde donde iniciar la búsqueda
+     * @param depth Profundidad máxima de exploración
+     * @param parallel true para usar fork-join (además se detiene al admitir maxResults)
+     * @param maxResults Tamaño del top-K
+     * @param timeoutMs Tiempo máximo de búsqueda (0 = sin límite)
+     * @param maxNodes Nodos expandidos máximos (0 = sin límite)
+     * @param strategy Orden de exploración (DEPTH_FIRST, BEST_FIRST o BEAM)
+     * @param beamWidth Caminos parciales retenidos por nivel (sólo BEAM)
+     * @return Cadenas, métricas y estado del presupuesto
+     */
+    public BacktrackingResult searchSuspiciousChains(String startWallet, int depth, boolean parallel,
+                                                     int maxResults, long timeoutMs, long maxNodes,
+                                                     ExplorationStrategy strategy, int beamWidth) {
+        return searchSuspiciousChains(startWallet, depth, parallel, maxResults, timeoutMs, maxNodes,
+                strategy, beamWidth, supernodeService.defaultPolicy(), false);
+    }
+
+    /**
+     * Búsqueda ANYTIME con una política de supernodos explícita
+     *
+     * @param policy Tratamiento de supernodos; su reporte se adjunta al resultado
+     * @param aggregateFlows true para buscar sobre la vista de flujos (una arista por par
+     *                       de wallets en vez de una por transacción)
+     */
+    public BacktrackingResult searchSuspiciousChains(String startWallet, int depth, boolean parallel,
+                                                     int maxResults, long timeoutMs, long maxNodes,
+                                                     ExplorationStrategy strategy, int beamWidth,
+                                                     SupernodePolicy policy, boolean aggregateFlows) {
+        log.info("Detectando cadenas sospechosas desde wallet: {} con depth: {}, maxResults: {}, parallel: {}, strategy: {}, timeout: {}ms, maxNodes: {}",
+                startWallet, depth, maxResults, parallel, strategy, timeoutMs, maxNodes);
+
+        SearchBudget budget = budget(parallel, maxResults, timeoutMs, maxNodes);
+        policy.protect(startWallet);
+        Map<String, List<Edge>> graph = buildGraphFromNeo4j(startWallet, depth, policy, aggregateFlows);
 
         if (graph.isEmpty()) {
             log.warn("No se encontraron transacciones para wallet: {}", startWallet);
-            return Collections.emptyList();
+            return BacktrackingResult.builder()
+                .chains(Collections.emptyList())
+                .metrics(new BacktrackingMetrics())
+                .complete(true)
+                .stopReason(SearchBudget.StopReason.NONE.name())
+                .supernodeReport(policy.getReport())
+                .build();
         }
 
-        log.info("Grafo construido: {} wallets, {} aristas totales",
-                graph.size(),
-                graph.values().stream().mapToInt(List::size).sum());
+        BacktrackingResult result = backtrackingAlgorithm.searchSuspiciousChains(
+            graph, startWallet, depth, ChainCollector.topK(maxResults), cycleStore, budget, parallel,
+            strategy, beamWidth);
+        result.setSupernodeReport(policy.getReport());
 
-        // PASO 2: Ejecutar BACKTRACKING
-        List<SuspiciousChain> chains = backtrackingAlgorithm.findSuspiciousChains(
-            graph,
-            startWallet,
-            depth
-        );
+        log.info("Backtracking completado: {} cadenas retenidas (complete: {}, stop: {}, gap: {})",
+                result.getChains().size(), result.isComplete(), result.getStopReason(), result.getOptimalityGap());
 
-        log.info("Backtracking completado: {} cadenas sospechosas detectadas", chains.size());
+        return result;
+    }
+
+    /**
+     * Presupuesto de una búsqueda: en modo paralelo los workers se detienen además
+     * al admitir {@code maxResults} cadenas (comportamiento previo)
+     */
+    private SearchBudget budget(boolean parallel, int maxResults, long timeoutMs, long maxNodes) {
+        return SearchBudget.of(timeoutMs, maxNodes, MAX_SEARCH_MEMORY_BYTES, parallel ? maxResults : 0);
+    }
+
+    /**
+     * Detecta las {@code topK} cadenas más sospechosas sin acumular la lista completa
+     *
+     * @param startWallet Wallet desde donde iniciar la búsqueda
+     * @param depth Profundidad máxima de exploración
+     * @param topK Cadenas a retener (min-heap por nivel de sospecha)
+     * @return Lista de cadenas sospechosas ordenadas por nivel de sospecha
+     */
+    public List<SuspiciousChain> detectTopSuspiciousChains(String startWallet, int depth, int topK) {
+        log.info("Detectando top-{} cadenas sospechosas desde wallet: {} con depth: {}", topK, startWallet, depth);
+
+        Map<String, List<Edge>> graph = buildGraphFromNeo4j(startWallet, depth,
+                supernodeService.defaultPolicy().protect(startWallet), false);
+
+        if (graph.isEmpty()) {
+            log.warn("No se encontraron transacciones para wallet: {}", startWallet);
+            return Collections.emptyList();
+        }
+
+        ChainCollector collector = ChainCollector.topK(topK);
+        backtrackingAlgorithm.collectSuspiciousChains(graph, startWallet, depth, collector, cycleStore);
+        List<SuspiciousChain> chains = collector.toSortedList();
+
+        log.info("Backtracking top-K completado: {} cadenas retenidas", chains.size());
 
         return chains;
     }
 
+    /**
+     * Ejecuta el backtracking entregando a {@code sink} cada cadena que entra al top-K
+     * en cuanto se encuentra (memoria O(K + profundidad))
+     *
+     * La búsqueda corre en un hilo aparte y deja las cadenas en una cola; el hilo que
+     * llama las saca y llama a {@code sink}. Un cliente lento no frena a los workers ni
+     * les impide ver el presupuesto, y si {@code sink} lanza la búsqueda se cancela.
+     *
+     * @param startWallet Wallet desde donde iniciar la búsqueda
+     * @param depth Profundidad máxima de exploración
+     * @param parallel true para usar fork-join
+     * @param maxResults Tamaño del top-K (y límite de parada en modo paralelo)
+     * @param timeoutMs Tiempo máximo de búsqueda (0 = sin límite)
+     * @param maxNodes Nodos expandidos máximos (0 = sin límite)
+     * @param strategy Orden de exploración (BEST_FIRST/BEAM entregan antes las cadenas valiosas)
+     * @param beamWidth Caminos parciales retenidos por nivel (sólo BEAM)
+     * @param policy Tratamiento de supernodos; su reporte se adjunta al resultado
+     * @param aggregateFlows true para buscar sobre la vista de flujos
+     * @param sink Destino de las cadenas (p. ej. la respuesta HTTP)
+     * @return Métricas de la exploración y estado del presupuesto
+     */
+    public BacktrackingResult streamSuspiciousChains(String startWallet, int depth, boolean parallel,
+                                                     int maxResults, long timeoutMs, long maxNodes,
+                                                     ExplorationStrategy strategy, int beamWidth,
+                                                     SupernodePolicy policy, boolean aggregateFlows,
+                                                     Consumer<SuspiciousChain> sink) {
+        log.info("Streaming de cadenas sospechosas desde wallet: {} con depth: {}, maxResults: {}, parallel: {}",
+                startWallet, depth, maxResults, parallel);
+
+        SearchBudget budget = budget(parallel, maxResults, timeoutMs, maxNodes);
+        policy.protect(startWallet);
+        Map<String, List<Edge>> graph = buildGraphFromNeo4j(startWallet, depth, policy, aggregateFlows);
+
+        if (graph.isEmpty()) {
+            log.warn("No se encontraron transacciones para wallet: {}", startWallet);
+            return BacktrackingResult.builder()
+                .chains(Collections.emptyList())
+                .metrics(new BacktrackingMetrics())
+                .complete(true)
+                .stopReason(SearchBudget.StopReason.NONE.name())
+                .supernodeReport(policy.getReport())
+                .build();
+        }
+
+        BlockingQueue<SuspiciousChain> handoff = new LinkedBlockingQueue<>();
+        ChainCollector collector = ChainCollector.streaming(maxResults, handoff::add);
+        CompletableFuture<BacktrackingResult> search = CompletableFuture.supplyAsync(
+                () -> backtrackingAlgorithm.searchSuspiciousChains(
+                        graph, startWallet, depth, collector, cycleStore, budget, parallel, strategy, beamWidth),
+                streamExecutor);
+
+        try {
+            while (true) {
+                SuspiciousChain chain = handoff.poll(STREAM_POLL_MS, TimeUnit.MILLISECONDS);
+                if (chain != null) {
+                    sink.accept(chain);
+                } else if (search.isDone()) {
+                    while ((chain = handoff.poll()) != null) {
+                        sink.accept(chain);
+                    }
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            budget.cancel();
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Streaming interrumpido", e);
+        } catch (RuntimeException e) {
+            budget.cancel();
+            throw e;
+        }
+
+        BacktrackingResult result;
+        try {
+            result = search.join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        }
+        result.setSupernodeReport(policy.getReport());
+        return result;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        streamExecutor.shutdownNow();
+    }
+
     /**
      * Detecta TODOS los ciclos en la red (útil para análisis global)
      *
+     * Cada búsqueda registra sus ciclos en el almacén compartido en forma canónica, así
+     * que un ciclo visto desde varias wallets (o en varias rotaciones) se cuenta una vez.
+     *
      * @param maxCycles Número máximo de ciclos a retornar
-     * @return Lista de ciclos detectados
+     * @return Lista de ciclos distintos que pasan por las wallets analizadas
      */
     public List<SuspiciousChain> detectAllCycles(int maxCycles) {
         log.info("Detectando ciclos en toda la red (max: {})", maxCycles);
@@ -72,85 +302,217 @@ public class BacktrackingService {
         // Obtener wallets más activas para buscar ciclos
         List<Map<String, Object>> activeWallets = transactionRepository.findMostActiveWallets(50);
 
-        List<SuspiciousChain> allCycles = new ArrayList<>();
+        Map<Integer, SuspiciousChain> allCycles = new LinkedHashMap<>();
 
         for (Map<String, Object> walletData : activeWallets) {
             String wallet = (String) walletData.get("wallet");
 
             // Construir grafo local
-            Map<String, List<Edge>> graph = buildGraphFromNeo4j(wallet, 5);
+            Map<String, List<Edge>> graph = buildGraphFromNeo4j(wallet, 4,
+                    supernodeService.defaultPolicy().protect(wallet), false);
 
-            // Buscar ciclos con backtracking
-            List<SuspiciousChain> chains = backtrackingAlgorithm.findSuspiciousChains(
-                graph,
-                wallet,
-                4
-            );
+            // Buscar ciclos con backtracking; sólo interesa lo que queda en el almacén
+            backtrackingAlgorithm.collectSuspiciousChains(
+                graph, wallet, 4, ChainCollector.topK(1), cycleStore);
 
-            // Filtrar solo ciclos
-            chains.stream()
-                .filter(chain -> chain.getType() == BacktrackingAlgorithm.ChainType.CYCLE)
-                .forEach(allCycles::add);
+            for (StoredCycle cycle : cycleStore.cyclesThrough(wallet, maxCycles)) {
+                allCycles.putIfAbsent(cycle.getId(), toChain(cycle));
+            }
 
             if (allCycles.size() >= maxCycles) {
                 break;
             }
         }
 
-        log.info("Detección de ciclos completada: {} ciclos encontrados", allCycles.size());
+        log.info("Detección de ciclos completada: {} ciclos distintos encontrados ({} en el almacén)",
+                allCycles.size(), cycleStore.size());
 
-        return allCycles.stream()
+        return allCycles.values().stream()
             .limit(maxCycles)
             .collect(Collectors.toList());
     }
 
+    /**
+     * Consulta el almacén de ciclos: por wallet si se indica, o en orden de descubrimiento
+     */
+    public List<SuspiciousChain> getStoredCycles(String address, int offset, int limit) {
+        List<StoredCycle> cycles;
+        if (address == null || address.isBlank()) {
+            cycles = cycleStore.list(offset, limit);
+        } else {
+            List<StoredCycle> through = cycleStore.cyclesThrough(address, offset + limit);
+            cycles = through.subList(Math.min(offset, through.size()), through.size());
+        }
+        return cycles.stream().map(this::toChain).collect(Collectors.toList());
+    }
+
+    /**
+     * Estadísticas del almacén de ciclos
+     */
+    public Map<String, Object> getCycleStats() {
+        return cycleStore.getStats();
+    }
+
+    private SuspiciousChain toChain(StoredCycle cycle) {
+        return SuspiciousChain.builder()
+            .path(cycle.getPath())
+            .type(BacktrackingAlgorithm.ChainType.CYCLE)
+            .suspicionLevel(0.95)
+            .totalAmount(cycle.getTotalAmount())
+            .depth(cycle.getLength())
+            .description("Ciclo detectado: fondos retornan al origen (visto " + cycle.getObservations() + " veces)")
+            .build();
+    }
+
     /**
      * Construye el grafo de transacciones desde Neo4j
      *
+     * Los supernodos no pueden ser nodos intermedios de la expansión (la consulta no
+     * los atraviesa); la política se aplica después sobre la lista de adyacencia.
+     *
+     * Con {@code aggregateFlows} las transacciones paralelas entre un par se colapsan en
+     * una arista de flujo (monto total, última fecha): si la vista FLOW está
+     * materializada se expande directamente sobre ella, si no se colapsa en memoria.
+     *
      * @param startWallet Wallet inicial
-     * @param maxHops Número máximo de saltos
+     * @param depth Niveles wallet → wallet a expandir (la profundidad de la búsqueda)
+     * @param policy Tratamiento de supernodos del recorrido
+     * @param aggregateFlows true para buscar sobre la vista de flujos
      * @return Grafo como adjacency list
      */
-    private Map<String, List<Edge>> buildGraphFromNeo4j(String startWallet, int maxHops) {
+    private Map<String, List<Edge>> buildGraphFromNeo4j(String startWallet, int depth, SupernodePolicy policy,
+                                                        boolean aggregateFlows) {
+        if (aggregateFlows && flowGraphService.isMaterialised()) {
+            return policy.apply(buildFlowGraphFromNeo4j(startWallet, depth, policy), Edge::getTo);
+        }
+
         Map<String, List<Edge>> graph = new HashMap<>();
+        FlowGraph flows = new FlowGraph();
+        Set<String> excluded = new HashSet<>(policy.excludedAddresses());
 
+        // Expansión por niveles (wallet → transacción → wallet) leyendo las aristas de
+        // cada frontera en streaming: sin LIMIT fijo que trunque el vecindario
         try {
-            String cypherQuery = String.format("""
-                MATCH (start:Wallet {address: $wallet})
-                MATCH path = (start)-[r:INPUT|OUTPUT*1..%d]-(other:Wallet)
-                WHERE start <> other
-                UNWIND relationships(path) as rel
-                WITH startNode(rel) as from, endNode(rel) as to, rel
-                WHERE from:Wallet AND to:Wallet
-                RETURN DISTINCT
-                    from.address as fromWallet,
-                    to.address as toWallet,
-                    COALESCE(rel.amount, rel.value, rel.outputValue, 0) as amount,
-                    COALESCE(rel.txHash, 'unknown') as txHash,
-                    COALESCE(rel.timestamp, 0) as timestamp
-                LIMIT 1000
-                """, maxHops);
-
-            Collection<Map<String, Object>> rows = neo4jClient.query(cypherQuery)
-                    .bindAll(Map.of("wallet", startWallet))
-                    .fetch()
-                    .all();
-
-            for (Map<String, Object> edge : rows) {
-                String from = (String) edge.get("fromWallet");
-                String to = (String) edge.get("toWallet");
-                double amount = ((Number) edge.getOrDefault("amount", 0)).doubleValue();
-                String txHash = (String) edge.getOrDefault("txHash", "unknown");
-                long timestamp = ((Number) edge.getOrDefault("timestamp", 0L)).longValue();
-
-                graph.computeIfAbsent(from, k -> new ArrayList<>())
-                        .add(new Edge(to, amount, txHash, timestamp));
+            Set<String> visited = new HashSet<>(List.of(startWallet));
+            List<String> frontier = List.of(startWallet);
+            long edges = 0;
+            for (int hop = 0; hop < depth && !frontier.isEmpty(); hop++) {
+                List<String> next = new ArrayList<>();
+                for (int from = 0; from < frontier.size(); from += FRONTIER_CHUNK) {
+                    List<String> chunk = frontier.subList(from, Math.min(frontier.size(), from + FRONTIER_CHUNK));
+                    try (Stream<EdgeRow> rows = graphStreamService.streamEdges(chunk)) {
+                        Iterator<EdgeRow> iterator = rows.iterator();
+                        while (iterator.hasNext() && edges < MAX_GRAPH_EDGES) {
+                            EdgeRow edge = iterator.next();
+                            long timestamp = epochMillis(edge.getConfirmed());
+                            if (aggregateFlows) {
+                                flows.add(edge.getFrom(), edge.getTo(), edge.getAmount(), 0.0, timestamp,
+                                        edge.getTxHash());
+                            } else {
+                                graph.computeIfAbsent(edge.getFrom(), k -> new ArrayList<>())
+                                        .add(new Edge(edge.getTo(), edge.getAmount(), edge.getTxHash(), timestamp));
+                            }
+                            edges++;
+                            // Los supernodos no son nodos intermedios: no se expanden
+                            for (String wallet : List.of(edge.getFrom(), edge.getTo())) {
+                                if (visited.add(wallet) && !excluded.contains(wallet)) {
+                                    next.add(wallet);
+                                }
+                            }
+                        }
+                    }
+                }
+                if (edges >= MAX_GRAPH_EDGES) {
+                    log.warn("Grafo desde {} cortado en {} aristas (salto {})", startWallet, edges, hop + 1);
+                    break;
+                }
+                frontier = next;
             }
 
         } catch (Exception e) {
             log.error("Error construyendo grafo desde Neo4j", e);
         }
 
-        return graph;
+        if (aggregateFlows) {
+            log.debug("Aristas paralelas colapsadas: {}", flows.getStats());
+            graph = flows.map(BacktrackingService::toEdge);
+        }
+        return policy.apply(graph, Edge::getTo);
+    }
+
+    /**
+     * Expande sobre la relación materializada FLOW: cada salto wallet→wallet es una
+     * relación (en vez de INPUT + OUTPUT)
+     *
+     * Misma expansión por niveles que {@link #buildGraphFromNeo4j}: las relaciones de
+     * cada frontera se leen en streaming por lotes y el total se corta en
+     * {@link #MAX_GRAPH_EDGES}.
+     */
+    private Map<String, List<Edge>> buildFlowGraphFromNeo4j(String startWallet, int depth, SupernodePolicy policy) {
+        FlowGraph flows = new FlowGraph();
+        Set<String> excluded = new HashSet<>(policy.excludedAddresses());
+
+        try {
+            Set<String> visited = new HashSet<>(List.of(startWallet));
+            List<String> frontier = List.of(startWallet);
+            long edges = 0;
+            for (int hop = 0; hop < depth && !frontier.isEmpty(); hop++) {
+                List<String> next = new ArrayList<>();
+                for (int from = 0; from < frontier.size(); from += FRONTIER_CHUNK) {
+                    List<String> chunk = frontier.subList(from, Math.min(frontier.size(), from + FRONTIER_CHUNK));
+                    try (Stream<FlowRow> rows = graphStreamService.streamFlows(chunk)) {
+                        Iterator<FlowRow> iterator = rows.iterator();
+                        while (iterator.hasNext() && edges < MAX_GRAPH_EDGES) {
+                            FlowRow flow = iterator.next();
+                            flows.addFlow(FlowEdge.builder()
+                                    .from(flow.getFrom())
+                                    .to(flow.getTo())
+                                    .totalAmount(flow.getTotalAmount())
+                                    .txCount(flow.getTxCount())
+                                    .minFee(flow.getMinFee())
+                                    .maxFee(flow.getMaxFee())
+                                    .lastTimestamp(epochMillis(flow.getLastSeen()))
+                                    .minFeeTxHash(flow.getMinFeeTxHash())
+                                    .build());
+                            edges++;
+                            // Los supernodos no son nodos intermedios: no se expanden
+                            for (String wallet : List.of(flow.getFrom(), flow.getTo())) {
+                                if (visited.add(wallet) && !excluded.contains(wallet)) {
+                                    next.add(wallet);
+                                }
+                            }
+                        }
+                    }
+                }
+                if (edges >= MAX_GRAPH_EDGES) {
+                    log.warn("Grafo de flujos desde {} cortado en {} aristas (salto {})", startWallet, edges, hop + 1);
+                    break;
+                }
+                frontier = next;
+            }
+
+        } catch (Exception e) {
+            log.error("Error construyendo grafo de flujos desde Neo4j", e);
+        }
+
+        log.debug("Grafo de flujos: {}", flows.getStats());
+        return flows.map(BacktrackingService::toEdge);
+    }
+
+    /** {@code confirmed} ISO-8601 a epoch ms; 0 si falta o no se puede leer */
+    private static long epochMillis(String confirmed) {
+        if (confirmed == null || confirmed.isEmpty()) {
+            return 0L;
+        }
+        try {
+            return OffsetDateTime.parse(confirmed).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0L;
+        }
+    }
+
+    private static Edge toEdge(FlowEdge flow) {
+        long timestamp = flow.getLastTimestamp() != Long.MIN_VALUE ? flow.getLastTimestamp() : 0L;
+        return new Edge(flow.getTo(), flow.getTotalAmount(), flow.getMinFeeTxHash(), timestamp);
     }
 }
@@ -0,0 +1,282 @@
+package com.example.service;
+
+import com.example.dto.BlockCypherAddress;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Cliente reactivo de la API de BlockCypher
+ *
+ * Usa el {@link WebClient} compartido (pool de conexiones) y decodifica las
+ * respuestas a {@link BlockCypherAddress}. Cada petición pasa por un limitador de
+ * tasa (token bucket no bloqueante) y se reintenta con backoff exponencial con
+ * jitter ante 429, 5xx y errores de red. Un 429 con {@code Retry-After} pausa el
+ * limitador para todas las peticiones, no sólo la rechazada.
+ *
+ * El JSON crudo de cada página pasa por {@link ResponseCache}: re-ingestar una
+ * wallet lee de disco en vez de consumir cuota de la API.
+ */
+@Service
+@Slf4j
+public class BlockCypherClient {
+
+    private final WebClient webClient;
+    private final ResponseCache responseCache;
+    private final ObjectMapper objectMapper;
+    private final String apiToken;
+    private final RateLimiter rateLimiter;
+    private final int maxRetries;
+    private final Duration minBackoff;
+    private final int pageSize;
+    private final Duration headTtl;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong notModified = new AtomicLong();
+
+    public BlockCypherClient(WebClient blockCypherWebClient,
+                             ResponseCache responseCache,
+                             ObjectMapper objectMapper,
+                             @Value("${blockcypher.api.token:}") String apiToken,
+                             @Value("${blockcypher.client.requests-per-second:3}") double requestsPerSecond,
+                             @Value("${blockcypher.client.max-retries:5}") int maxRetries,
+                             @Value("${blockcypher.client.min-backoff-ms:500}") long minBackoffMs,
+                             @Value("${blockcypher.client.page-size:50}") int pageSize,
+                             @Value("${blockcypher.cache.head-ttl-seconds:300}") long headTtlSeconds) {
+        this.webClient = blockCypherWebClient;
+        this.responseCache = responseCache;
+        this.objectMapper = objectMapper;
+        this.apiToken = apiToken;
+        this.rateLimiter = new RateLimiter(requestsPerSecond);
+        this.maxRetries = maxRetries;
+        this.minBackoff = Duration.ofMillis(minBackoffMs);
+        this.pageSize = pageSize;
+        this.headTtl = Duration.ofSeconds(headTtlSeconds);
+    }
+
+    /**
+     * Todas las páginas de transacciones de una dirección, de la más reciente a la
+     * más antigua; cada página se pide sólo cuando el consumidor la demanda
+     *
+     * @param maxPages Páginas máximas (0 = hasta agotar {@code hasMore})
+     */
+    public Flux<BlockCypherAddress> fetchAddress(String chain, String address, int maxPages) {
+        return fetchAddress(chain, address, maxPages, false);
+    }
+
+    /**
+     * @param preferCache true para servir cualquier página cacheada sin revalidarla
+     *                    (reconstrucción local del grafo); la API sólo se usa en fallos
+     */
+    public Flux<BlockCypherAddress> fetchAddress(String chain, String address, int maxPages, boolean preferCache) {
+        AtomicLong pages = new AtomicLong(1);
+        return fetchAddressPage(chain, address, null, preferCache)
+                .expand(page -> {
+                    Long before = oldestBlockHeight(page);
+                    if (!Boolean.TRUE.equals(page.getHasMore()) || before == null
+                            || (maxPages > 0 && pages.getAndIncrement() >= maxPages)) {
+                        return Mono.empty();
+                    }
+                    return fetchAddressPage(chain, address, before, preferCache);
+                });
+    }
+
+    /**
+     * Una página de {@code /addrs/{address}/full}
+     *
+     * @param beforeHeight Sólo transacciones anteriores a esta altura (null = las más recientes)
+     */
+    public Mono<BlockCypherAddress> fetchAddressPage(String chain, String address, Long beforeHeight) {
+        return fetchAddressPage(chain, address, beforeHeight, false);
+    }
+
+    /**
+     * Una página, desde la caché en disco si es posible. Las páginas con
+     * {@code before} cubren bloques ya minados y no cambian, así que se sirven sin
+     * más; la página más reciente se sirve mientras tenga menos de
+     * {@code head-ttl-seconds} y después se revalida con {@code If-None-Match}.
+     */
+    public Mono<BlockCypherAddress> fetchAddressPage(String chain, String address, Long beforeHeight,
+                                                     boolean preferCache) {
+        String page = ResponseCache.page(beforeHeight);
+        return Mono.fromCallable(() -> Optional.ofNullable(responseCache.lookup(chain, address, page)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(cached -> {
+                    ResponseCache.Entry entry = cached.orElse(null);
+                    if (entry != null && (preferCache || beforeHeight != null || isFresh(entry))) {
+                        byte[] body = responseCache.read(entry);
+                        if (body != null) {
+                            cacheHits.incrementAndGet();
+                            return Mono.just(body);
+                        }
+                        entry = null;
+                    }
+                    return download(chain, address, beforeHeight, entry);
+                })
+                .flatMap(body -> Mono.fromCallable(() -> objectMapper.readValue(body, BlockCypherAddress.class)));
+    }
+
+    /**
+     * Pide la página a la API y cachea el JSON crudo
+     *
+     * @param revalidate Entrada cacheada a revalidar con su ETag (null = petición normal)
+     */
+    private Mono<byte[]> download(String chain, String address, Long beforeHeight, ResponseCache.Entry revalidate) {
+        String etag = revalidate != null ? revalidate.getEtag() : null;
+        return Mono.defer(() -> Mono.delay(rateLimiter.reserve())
+                        .then(webClient.get()
+                                .uri(builder -> {
+                                    builder.path("/{chain}/main/addrs/{address}/full")
+                                            .queryParam("limit", pageSize);
+                                    if (beforeHeight != null) {
+                                        builder.queryParam("before", beforeHeight);
+                                    }
+                                    if (apiToken != null && !apiToken.isEmpty()) {
+                                        builder.queryParam("token", apiToken);
+                                    }
+                                    return builder.build(chain.toLowerCase(), address);
+                                })
+                                .headers(headers -> {
+                                    if (etag != null) {
+                                        headers.setIfNoneMatch(etag);
+                                    }
+                                })
+                                .retrieve()
+                                .onStatus(status -> status.value() == HttpStatus.TOO_MANY_REQUESTS.value(),
+                                        response -> {
+                                            throttled.incrementAndGet();
+                                            rateLimiter.pause(retryAfter(response.headers().asHttpHeaders().getFirst("Retry-After")));
+                                            return response.createException();
+                                        })
+                                .toEntity(byte[].class))
+                        .doOnSubscribe(subscription -> requests.incrementAndGet()))
+                .retryWhen(Retry.backoff(maxRetries, minBackoff)
+                        .maxBackoff(Duration.ofSeconds(30))
+                        .jitter(0.5)
+                        .filter(BlockCypherClient::isRetryable)
+                        .doBeforeRetry(signal -> {
+                            retries.incrementAndGet();
+                            log.debug("Reintento {} de {}: {}", signal.totalRetries() + 1, address,
+                                    signal.failure().getMessage());
+                        })
+                        .onRetryExhaustedThrow((spec, signal) -> signal.failure()))
+                .doOnError(e -> failures.incrementAndGet())
+                .publishOn(Schedulers.boundedElastic())
+                .flatMap(response -> {
+                    if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value() && revalidate != null) {
+                        responseCache.touch(revalidate);
+                        byte[] body = responseCache.read(revalidate);
+                        if (body != null) {
+                            notModified.incrementAndGet();
+                            return Mono.just(body);
+                        }
+                        // El blob se desalojó entre la consulta y la respuesta
+                        return download(chain, address, beforeHeight, null);
+                    }
+                    byte[] body = response.getBody();
+                    if (body == null || body.length == 0) {
+                        return Mono.error(new IllegalStateException("Respuesta vacía de BlockCypher para " + address));
+                    }
+                    responseCache.put(chain, address, ResponseCache.page(beforeHeight), body,
+                            response.getHeaders().getETag());
+                    return Mono.just(body);
+                });
+    }
+
+    private boolean isFresh(ResponseCache.Entry entry) {
+        return System.currentTimeMillis() - entry.getFetchedAt() < headTtl.toMillis();
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("requests", requests.get());
+        stats.put("retries", retries.get());
+        stats.put("throttled", throttled.get());
+        stats.put("failures", failures.get());
+        stats.put("cacheHits", cacheHits.get());
+        stats.put("notModified", notModified.get());
+        stats.put("requestsPerSecond", rateLimiter.getRequestsPerSecond());
+        return stats;
+    }
+
+    /** 429, 5xx, timeouts y errores de conexión; el resto de 4xx no mejora reintentando */
+    static boolean isRetryable(Throwable error) {
+        if (error instanceof WebClientResponseException response) {
+            return response.getStatusCode().value() == HttpStatus.TOO_MANY_REQUESTS.value()
+                    || response.getStatusCode().is5xxServerError();
+        }
+        return error instanceof WebClientRequestException || error instanceof TimeoutException;
+    }
+
+    private static Long oldestBlockHeight(BlockCypherAddress page) {
+        Long oldest = null;
+        for (BlockCypherAddress.Tx tx : page.getTxs()) {
+            if (tx.getBlockHeight() != null && tx.getBlockHeight() > 0
+                    && (oldest == null || tx.getBlockHeight() < oldest)) {
+                oldest = tx.getBlockHeight();
+            }
+        }
+        return oldest;
+    }
+
+    /** Segundos de {@code Retry-After}; 1s si falta o no es numérico */
+    private static Duration retryAfter(String header) {
+        try {
+            return header != null ? Duration.ofSeconds(Long.parseLong(header.trim())) : Duration.ofSeconds(1);
+        } catch (NumberFormatException e) {
+            return Duration.ofSeconds(1);
+        }
+    }
+
+    /**
+     * Token bucket de capacidad 1: cada reserva devuelve cuánto esperar para
+     * respetar el intervalo mínimo entre peticiones, sin bloquear hilos
+     */
+    static final class RateLimiter {
+
+        private final double requestsPerSecond;
+        private final long intervalNanos;
+        private long nextFreeNanos = System.nanoTime();
+
+        RateLimiter(double requestsPerSecond) {
+            this.requestsPerSecond = requestsPerSecond;
+            this.intervalNanos = requestsPerSecond > 0 ? (long) (1_000_000_000L / requestsPerSecond) : 0;
+        }
+
+        synchronized Duration reserve() {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextFreeNanos);
+            nextFreeNanos = start + intervalNanos;
+            return Duration.ofNanos(start - now);
+        }
+
+        /** Ninguna reserva empieza antes de {@code duration} desde ahora */
+        synchronized void pause(Duration duration) {
+            nextFreeNanos = Math.max(nextFreeNanos, System.nanoTime() + duration.toNanos());
+        }
+
+        double getRequestsPerSecond() {
+            return requestsPerSecond;
+        }
+    }
+}
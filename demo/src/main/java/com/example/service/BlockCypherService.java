@@ -1,236 +1,244 @@
 package com.example.service;
 
+import com.example.dto.BlockCypherAddress;
 import com.example.model.Transaction;
 import com.example.model.TransactionInput;
 import com.example.model.TransactionOutput;
 import com.example.model.Wallet;
-import com.example.repository.TransactionRepository;
-import com.example.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
-import java.time.Instant;
-import java.time.LocalDateTime;
-import java.time.ZoneId;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class BlockCypherService {
     
-    private final WalletRepository walletRepository;
-    private final TransactionRepository transactionRepository;
-    private final WebClient.Builder webClientBuilder;
+    private final TransactionBatchWriter transactionBatchWriter;
+    private final BlockCypherClient blockCypherClient;
+    private final ResponseCache responseCache;
+    private final WalletSimilarityService walletSimilarityService;
+    private final FlowGraphService flowGraphService;
+    private final SpendLinkService spendLinkService;
     
-    @Value("${blockcypher.api.base-url:https://api.blockcypher.com/v1}")
-    private String baseUrl;
+    /** Wallets ingeridas en paralelo por {@link #ingestWallets} */
+    @Value("${blockcypher.client.concurrency:4}")
+    private int concurrency;
     
-    @Value("${blockcypher.api.token:}")
-    private String apiToken;
+    /** Páginas de transacciones por wallet (0 = todas) */
+    @Value("${blockcypher.client.max-pages:20}")
+    private int maxPages;
     
     /**
-     * Fetch y guarda información de una wallet desde BlockCypher
+     * Fetch y guarda información de una wallet desde BlockCypher (bloqueante, para
+     * llamadores síncronos); lanza la excepción de la ingesta si falla
      */
     public Wallet fetchAndSaveWallet(String address, String chain) {
+        return ingestWallet(address, chain).block();
+    }
+    
+    /**
+     * Ingesta reactiva de una wallet: las páginas de la API se decodifican a
+     * {@link BlockCypherAddress}, las transacciones se agrupan en lotes del escritor
+     * y cada lote se escribe antes de pedir más (backpressure hasta Neo4j). Si falla
+     * una página el Mono termina con error; la wallet sólo se escribe al final.
+     */
+    public Mono<Wallet> ingestWallet(String address, String chain) {
+        return ingestWallet(address, chain, false);
+    }
+    
+    /**
+     * @param preferCache true para leer de la caché de respuestas sin revalidar
+     */
+    public Mono<Wallet> ingestWallet(String address, String chain, boolean preferCache) {
         log.info("Fetching wallet {} from BlockCypher", address);
+        AtomicReference<Wallet> wallet = new AtomicReference<>();
         
-        try {
-            String url = String.format("%s/%s/main/addrs/%s/full", baseUrl, chain.toLowerCase(), address);
-            if (!apiToken.isEmpty()) {
-                url += "?token=" + apiToken;
-            }
-            
-            WebClient webClient = webClientBuilder.build();
-            Map<String, Object> response = webClient.get()
-                    .uri(url)
-                    .retrieve()
-                    .bodyToMono(Map.class)
-                    .block();
-            
-            if (response == null) {
-                throw new RuntimeException("No data received from BlockCypher");
-            }
-            
-            return processAndSaveWalletData(response, chain);
-            
-        } catch (Exception e) {
-            log.error("Error fetching wallet from BlockCypher: {}", e.getMessage());
-            // Retornar wallet con datos mínimos
-            return createMinimalWallet(address, chain);
-        }
+        return blockCypherClient.fetchAddress(chain, address, maxPages, preferCache)
+                .doOnNext(page -> wallet.compareAndSet(null, toWallet(page, address, chain)))
+                .concatMapIterable(page -> page.getTxs() != null ? page.getTxs() : List.<BlockCypherAddress.Tx>of())
+                .buffer(transactionBatchWriter.getBatchSize())
+                .concatMap(txs -> Mono.fromCallable(() -> processTransactions(txs, chain))
+                        .subscribeOn(Schedulers.boundedElastic()), 1)
+                .reduce(0L, (total, saved) -> total + saved)
+                .flatMap(saved -> Mono.fromCallable(() -> {
+                            Wallet fetched = wallet.get();
+                            if (fetched == null) {
+                                throw new IllegalStateException("No data received from BlockCypher");
+                            }
+                            transactionBatchWriter.write(transactionBatchWriter.newBatch().addWallet(fetched));
+                            log.info("Wallet {} ingested with {} new transactions", address, saved);
+                            return fetched;
+                        })
+                        .subscribeOn(Schedulers.boundedElastic()))
+                // Los lotes anteriores al fallo ya están escritos: no se guarda una wallet
+                // "mínima" encima (borraría sus INPUT/OUTPUT), el error llega al llamador
+                .doOnError(e -> log.error("Error fetching wallet {} from BlockCypher: {}", address, e.getMessage()));
     }
     
     /**
-     * Procesa los datos de BlockCypher y guarda la wallet con sus transacciones
+     * Ingesta de varias wallets con concurrencia acotada; el limitador de tasa del
+     * cliente es compartido entre todas. Las wallets que fallan se omiten del
+     * resultado sin cortar las demás.
      */
-    @SuppressWarnings("unchecked")
-    private Wallet processAndSaveWalletData(Map<String, Object> data, String chain) {
-        String address = (String) data.get("address");
-        
-        // Crear la wallet
-        Wallet wallet = Wallet.builder()
-                .address(address)
+    public Flux<Wallet> ingestWallets(Collection<String> addresses, String chain) {
+        return ingestWallets(addresses, chain, false);
+    }
+    
+    /**
+     * Re-ingesta todas las wallets presentes en la caché de respuestas: reconstruye
+     * el grafo desde disco, sin consumir cuota de la API salvo por páginas que falten
+     */
+    public Flux<Wallet> rebuildFromCache(String chain) {
+        Set<String> addresses = responseCache.addresses(chain);
+        log.info("Rebuilding {} {} wallets from the response cache", addresses.size(), chain);
+        return ingestWallets(addresses, chain, true);
+    }
+    
+    private Flux<Wallet> ingestWallets(Collection<String> addresses, String chain, boolean preferCache) {
+        return Flux.fromIterable(new LinkedHashSet<>(addresses))
+                .flatMap(address -> ingestWallet(address, chain, preferCache)
+                        .onErrorResume(e -> Mono.empty()), Math.max(1, concurrency));
+    }
+    
+    private Wallet toWallet(BlockCypherAddress page, String address, String chain) {
+        return Wallet.builder()
+                .address(page.getAddress() != null ? page.getAddress() : address)
                 .chain(chain)
-                .balance(getLongValue(data, "balance"))
-                .totalReceived(getLongValue(data, "total_received"))
-                .totalSent(getLongValue(data, "total_sent"))
-                .txCount(getIntValue(data, "n_tx"))
+                .balance(orZero(page.getBalance()))
+                .totalReceived(orZero(page.getTotalReceived()))
+                .totalSent(orZero(page.getTotalSent()))
+                .txCount(page.getNTx() != null ? page.getNTx() : 0)
                 .riskLevel("LOW")
                 .tags(new ArrayList<>())
                 .inputs(new ArrayList<>())
                 .outputs(new ArrayList<>())
                 .build();
-        
-        // Procesar transacciones
-        List<Map<String, Object>> txs = (List<Map<String, Object>>) data.get("txs");
-        if (txs != null && !txs.isEmpty()) {
-            processTransactions(wallet, txs, chain);
-        }
-        
-        // Guardar wallet
-        return walletRepository.save(wallet);
     }
     
     /**
-     * Procesa y guarda las transacciones de una wallet
+     * Escribe un lote de transacciones de una wallet (sólo las nuevas)
+     *
+     * @return Transacciones nuevas guardadas
      */
-    @SuppressWarnings("unchecked")
-    private void processTransactions(Wallet wallet, List<Map<String, Object>> txsData, String chain) {
-        for (Map<String, Object> txData : txsData) {
-            try {
-                String txHash = (String) txData.get("hash");
-                
-                // Verificar si ya existe
-                if (transactionRepository.existsById(txHash)) {
-                    continue;
-                }
-                
-                Transaction transaction = Transaction.builder()
-                        .hash(txHash)
-                        .chain(chain)
-                        .blockHeight(getLongValue(txData, "block_height"))
-                        .blockHash((String) txData.get("block_hash"))
-                        .confirmed(parseTimestamp(txData.get("confirmed")))
-                        .totalInput(getLongValue(txData, "total"))
-                        .totalOutput(getLongValue(txData, "total"))
-                        .fees(getLongValue(txData, "fees"))
-                        .confirmations(getIntValue(txData, "confirmations"))
-                        .doubleSpend((Boolean) txData.getOrDefault("double_spend", false))
-                        .inputs(new ArrayList<>())
-                        .outputs(new ArrayList<>())
-                        .build();
+    private long processTransactions(List<BlockCypherAddress.Tx> txs, String chain) {
+        // Una sola consulta para descartar las ya ingestadas
+        List<String> hashes = new ArrayList<>();
+        for (BlockCypherAddress.Tx tx : txs) {
+            if (tx.getHash() != null) {
+                hashes.add(tx.getHash());
+            }
+        }
+        Set<String> existing = transactionBatchWriter.existingHashes(hashes);
+        
+        TransactionBatchWriter.Batch batch = transactionBatchWriter.newBatch();
+        // Direcciones de ambos lados por transacción, para el índice de similitud
+        Map<String, Set<String>> inputAddressesByTx = new LinkedHashMap<>();
+        Map<String, Set<String>> outputAddressesByTx = new LinkedHashMap<>();
+        
+        for (BlockCypherAddress.Tx tx : txs) {
+            String txHash = tx.getHash();
+            if (txHash == null || existing.contains(txHash) || inputAddressesByTx.containsKey(txHash)) {
+                continue;
+            }
+            
+            // "total" es la suma de outputs; los inputs la cubren más el fee
+            long totalOutput = orZero(tx.getTotal());
+            long fees = orZero(tx.getFees());
+            Transaction transaction = Transaction.builder()
+                    .hash(txHash)
+                    .chain(chain)
+                    .blockHeight(orZero(tx.getBlockHeight()))
+                    .blockHash(tx.getBlockHash())
+                    .confirmed(tx.getConfirmed())
+                    .totalInput(totalOutput + fees)
+                    .totalOutput(totalOutput)
+                    .fees(fees)
+                    .confirmations(tx.getConfirmations() != null ? tx.getConfirmations() : 0)
+                    .doubleSpend(Boolean.TRUE.equals(tx.getDoubleSpend()))
+                    .build();
+            
+            Set<String> inputAddresses = new LinkedHashSet<>();
+            Set<String> outputAddresses = new LinkedHashSet<>();
+            inputAddressesByTx.put(txHash, inputAddresses);
+            outputAddressesByTx.put(txHash, outputAddresses);
+            batch.addTransaction(transaction);
+            
+            // Procesar inputs: cada input referencia el output previo (prev_hash, output_index)
+            List<BlockCypherAddress.Input> inputs = tx.getInputs() != null ? tx.getInputs() : List.of();
+            for (BlockCypherAddress.Input input : inputs) {
+                List<String> addresses = input.getAddresses();
                 
-                // Procesar inputs
-                List<Map<String, Object>> inputs = (List<Map<String, Object>>) txData.get("inputs");
-                if (inputs != null) {
-                    for (int i = 0; i < inputs.size(); i++) {
-                        Map<String, Object> input = inputs.get(i);
-                        List<String> addresses = (List<String>) input.get("addresses");
-                        
-                        if (addresses != null && !addresses.isEmpty()) {
-                            TransactionInput txInput = TransactionInput.builder()
-                                    .transaction(transaction)
-                                    .outputValue(getLongValue(input, "output_value"))
-                                    .outputIndex(i)
-                                    .script((String) input.get("script"))
-                                    .prevHash((String) input.get("prev_hash"))
-                                    .build();
-                            
-                            transaction.getInputs().add(txInput);
-                        }
+                if (addresses != null && !addresses.isEmpty()) {
+                    inputAddresses.addAll(addresses);
+                    TransactionInput txInput = TransactionInput.builder()
+                            .outputValue(orZero(input.getOutputValue()))
+                            .outputIndex(input.getOutputIndex() != null ? input.getOutputIndex() : 0)
+                            .script(input.getScript())
+                            .prevHash(input.getPrevHash())
+                            .build();
+                    
+                    for (String inputAddress : addresses) {
+                        batch.addInput(txHash, inputAddress, chain, txInput);
                     }
                 }
+            }
+            
+            // Procesar outputs: cada output va a sus propias direcciones
+            List<BlockCypherAddress.Output> outputs = tx.getOutputs() != null ? tx.getOutputs() : List.of();
+            for (int i = 0; i < outputs.size(); i++) {
+                BlockCypherAddress.Output output = outputs.get(i);
+                List<String> addresses = output.getAddresses();
                 
-                // Procesar outputs
-                List<Map<String, Object>> outputs = (List<Map<String, Object>>) txData.get("outputs");
-                if (outputs != null) {
-                    for (int i = 0; i < outputs.size(); i++) {
-                        Map<String, Object> output = outputs.get(i);
-                        List<String> addresses = (List<String>) output.get("addresses");
-                        
-                        if (addresses != null && !addresses.isEmpty()) {
-                            TransactionOutput txOutput = TransactionOutput.builder()
-                                    .wallet(wallet)
-                                    .value(getLongValue(output, "value"))
-                                    .outputIndex(i)
-                                    .script((String) output.get("script"))
-                                    .scriptType((String) output.get("script_type"))
-                                    .spent(false)
-                                    .build();
-                            
-                            transaction.getOutputs().add(txOutput);
-                        }
+                if (addresses != null && !addresses.isEmpty()) {
+                    outputAddresses.addAll(addresses);
+                    TransactionOutput txOutput = TransactionOutput.builder()
+                            .value(orZero(output.getValue()))
+                            .outputIndex(i)
+                            .script(output.getScript())
+                            .scriptType(output.getScriptType())
+                            .spent(output.getSpentBy() != null)
+                            .spentBy(output.getSpentBy())
+                            .build();
+                    
+                    for (String outputAddress : addresses) {
+                        batch.addOutput(txHash, outputAddress, chain, txOutput);
                     }
                 }
-                
-                // Guardar transacción
-                transactionRepository.save(transaction);
-                
-            } catch (Exception e) {
-                log.error("Error processing transaction: {}", e.getMessage());
             }
         }
-    }
-    
-    /**
-     * Crea una wallet con datos mínimos cuando no se puede fetch de la API
-     */
-    private Wallet createMinimalWallet(String address, String chain) {
-        return walletRepository.save(Wallet.builder()
-                .address(address)
-                .chain(chain)
-                .balance(0L)
-                .totalReceived(0L)
-                .totalSent(0L)
-                .txCount(0)
-                .riskLevel("UNKNOWN")
-                .tags(new ArrayList<>())
-                .inputs(new ArrayList<>())
-                .outputs(new ArrayList<>())
-                .build());
-    }
-    
-    /**
-     * Helpers para parsear datos
-     */
-    private Long getLongValue(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        if (value == null) return 0L;
-        if (value instanceof Number) {
-            return ((Number) value).longValue();
+        
+        if (batch.isEmpty()) {
+            return 0;
         }
-        return 0L;
-    }
-    
-    private Integer getIntValue(Map<String, Object> data, String key) {
-        Object value = data.get(key);
-        if (value == null) return 0;
-        if (value instanceof Number) {
-            return ((Number) value).intValue();
+        
+        // Guardar en lotes UNWIND dentro de transacciones explícitas
+        List<String> savedHashes = transactionBatchWriter.write(batch);
+        for (String txHash : savedHashes) {
+            walletSimilarityService.recordTransaction(inputAddressesByTx.get(txHash), outputAddressesByTx.get(txHash));
         }
-        return 0;
+        
+        // Mantener la vista agregada FLOW de los pares tocados
+        flowGraphService.refreshFlows(savedHashes);
+        // Enlazar outputs con las transacciones que los gastan (SPENT_BY)
+        spendLinkService.linkTransactions(savedHashes);
+        return savedHashes.size();
     }
     
-    private String parseTimestamp(Object timestamp) {
-        if (timestamp == null) return null;
-        try {
-            if (timestamp instanceof String) {
-                return (String) timestamp;
-            } else if (timestamp instanceof Long) {
-                return LocalDateTime.ofInstant(
-                        Instant.ofEpochSecond((Long) timestamp),
-                        ZoneId.systemDefault()
-                ).toString();
-            }
-        } catch (Exception e) {
-            log.warn("Could not parse timestamp: {}", timestamp);
-        }
-        return null;
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
     }
 }
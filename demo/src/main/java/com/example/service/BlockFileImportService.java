@@ -0,0 +1,431 @@
+package com.example.service;
+
+import com.example.algorithm.BitcoinScript;
+import com.example.algorithm.BlockFileImporter;
+import com.example.algorithm.BlockFileImporter.BlockContext;
+import com.example.algorithm.BlockFileImporter.ResolvedInput;
+import com.example.algorithm.BlockFileParser.Output;
+import com.example.algorithm.BlockFileParser.Tx;
+import com.example.dto.BlockImportRequest;
+import com.example.model.Transaction;
+import com.example.model.TransactionInput;
+import com.example.model.TransactionOutput;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * Servicio de importación offline de los archivos de bloques de Bitcoin Core
+ *
+ * Lee {@code blk*.dat} con {@link BlockFileImporter} (sin API ni rate limit) y
+ * vuelca las transacciones de la cadena principal con la misma forma que la
+ * ingesta de BlockCypher ({@code INPUT}/{@code OUTPUT} con prevHash, outputIndex,
+ * valores y scripts) de una de dos maneras:
+ * <ul>
+ *   <li><b>CSV:</b> archivos por blk para {@code neo4j-admin database import full}
+ *       más un {@code import.sh}; es lo más rápido para una base vacía</li>
+ *   <li><b>DIRECT:</b> lotes UNWIND de {@link TransactionBatchWriter} sobre la base
+ *       en marcha (idempotente, para rangos acotados)</li>
+ * </ul>
+ * Se ejecuta una importación a la vez, en background.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BlockFileImportService {
+
+    public static final String DEFAULT_OUTPUT_DIRECTORY = "data/block-import";
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    private static final String WALLETS_HEADER = "address:ID(Wallet),chain";
+    private static final String TRANSACTIONS_HEADER = "hash:ID(Transaction),chain,blockHeight:long,blockHash,"
+            + "confirmed,confirmedAt:long,totalInput:long,totalOutput:long,fees:long,confirmations:int,doubleSpend:boolean";
+    private static final String INPUTS_HEADER =
+            ":START_ID(Wallet),:END_ID(Transaction),prevHash,outputIndex:int,outputValue:long,script";
+    private static final String OUTPUTS_HEADER =
+            ":START_ID(Transaction),:END_ID(Wallet),outputIndex:int,value:long,script,scriptType";
+    private static final String SPENDS_HEADER = ":START_ID(Transaction),:END_ID(Transaction),outputIndex:int,value:long";
+
+    private static final String IMPORT_SCRIPT = """
+        #!/bin/sh
+        # Importa los CSV en una base vacía y detenida: ./import.sh [database]
+        # Después: POST /api/graph/flows/backfill (FLOW), POST /api/graph/spends/link (spent/spentBy)
+        # y POST /api/graph/aggregates/backfill (agregados por wallet, COUNTERPARTY y ActivityBucket)
+        cd "$(dirname "$0")"
+        exec neo4j-admin database import full "${1:-neo4j}" \\
+          --skip-duplicate-nodes=true \\
+          --nodes=Wallet="wallets-header.csv,wallets-blk.*" \\
+          --nodes=Transaction="transactions-header.csv,transactions-blk.*" \\
+          --relationships=INPUT="inputs-header.csv,inputs-blk.*" \\
+          --relationships=OUTPUT="outputs-header.csv,outputs-blk.*" \\
+          --relationships=SPENT_BY="spends-header.csv,spends-blk.*"
+        """;
+
+    public enum Mode { CSV, DIRECT }
+
+    private final TransactionBatchWriter transactionBatchWriter;
+    private final FlowGraphService flowGraphService;
+    private final SpendLinkService spendLinkService;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicReference<Map<String, Object>> lastStatus = new AtomicReference<>(Map.of("status", "IDLE"));
+    /** Las escrituras directas se serializan: MERGE concurrentes sobre las mismas wallets se bloquean */
+    private final Object writeLock = new Object();
+
+    private final ExecutorService importExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "block-import");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Inicia una importación en background
+     *
+     * @return Estado inicial con los archivos seleccionados
+     */
+    public Map<String, Object> start(BlockImportRequest request) throws IOException {
+        if (request.getDirectory() == null || request.getDirectory().isBlank()) {
+            throw new IllegalArgumentException("directory es obligatorio");
+        }
+        Path directory = Paths.get(request.getDirectory());
+        if (!Files.isDirectory(directory)) {
+            throw new IllegalArgumentException("No existe el directorio: " + directory);
+        }
+        checkNotObfuscated(directory);
+        Mode mode = parse(Mode.class, request.getMode(), Mode.CSV);
+        BitcoinScript.Network network = parse(BitcoinScript.Network.class, request.getNetwork(),
+                BitcoinScript.Network.MAINNET);
+        String chain = request.getChain() != null ? request.getChain() : "BTC";
+        int parallelism = request.getParallelism() != null ? request.getParallelism() : DEFAULT_PARALLELISM;
+        Path output = Paths.get(request.getOutputDirectory() != null
+                ? request.getOutputDirectory() : DEFAULT_OUTPUT_DIRECTORY);
+
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(file -> file.getFileName().toString().matches("blk\\d+\\.dat"))
+                    .sorted()
+                    .limit(request.getMaxFiles() != null ? request.getMaxFiles() : Long.MAX_VALUE)
+                    .toList();
+        }
+        if (files.isEmpty()) {
+            throw new IllegalArgumentException("No hay archivos blk*.dat en " + directory);
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Ya hay una importación en curso");
+        }
+
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("status", "RUNNING");
+        status.put("mode", mode.name());
+        status.put("network", network.name());
+        status.put("directory", directory.toString());
+        status.put("files", files.size());
+        if (mode == Mode.CSV) {
+            status.put("outputDirectory", output.toAbsolutePath().toString());
+        }
+        status.put("startedAt", Instant.now().toString());
+        lastStatus.set(status);
+
+        importExecutor.submit(() -> {
+            try {
+                BlockFileImporter importer = new BlockFileImporter(network, parallelism);
+                BlockFileImporter.Report report = mode == Mode.CSV
+                        ? importer.run(files, prepareCsv(output, chain))
+                        : importer.run(files, file -> new DirectSink(chain));
+                finish(status, "COMPLETED", report, null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                finish(status, "INTERRUPTED", null, null);
+            } catch (Exception e) {
+                log.error("Importación de bloques fallida: {}", e.getMessage(), e);
+                finish(status, "FAILED", null, e.getMessage());
+            } finally {
+                running.set(false);
+            }
+        });
+        return status;
+    }
+
+    public Map<String, Object> getStatus() {
+        return lastStatus.get();
+    }
+
+    private void finish(Map<String, Object> started, String state, BlockFileImporter.Report report, String error) {
+        Map<String, Object> status = new LinkedHashMap<>(started);
+        status.put("status", state);
+        status.put("finishedAt", Instant.now().toString());
+        if (report != null) {
+            status.put("blocks", report.getBlocks());
+            status.put("mainChainBlocks", report.getMainChainBlocks());
+            status.put("staleBlocks", report.getStaleBlocks());
+            status.put("tipHeight", report.getTipHeight());
+            status.put("genesisFound", report.isGenesisFound());
+            status.put("transactions", report.getTransactions());
+            status.put("outputs", report.getOutputs());
+            status.put("inputs", report.getInputs());
+            status.put("unresolvedInputs", report.getUnresolvedInputs());
+            status.put("offHeapBytes", report.getOffHeapBytes());
+            status.put("elapsedMs", report.getElapsedMs());
+        }
+        if (error != null) {
+            status.put("error", error);
+        }
+        lastStatus.set(status);
+        log.info("Importación de bloques {}: {}", state, status);
+    }
+
+    /**
+     * Bitcoin Core 28+ ofusca los blk*.dat con la clave de xor.dat; no se soporta
+     */
+    private static void checkNotObfuscated(Path directory) throws IOException {
+        Path xor = directory.resolve("xor.dat");
+        if (Files.exists(xor)) {
+            for (byte b : Files.readAllBytes(xor)) {
+                if (b != 0) {
+                    throw new IllegalArgumentException(
+                            "Los archivos están ofuscados (xor.dat); arranca bitcoind con -blocksxor=0 y reindexa");
+                }
+            }
+        }
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, E defaultValue) {
+        if (value == null || value.isBlank()) {
+            return defaultValue;
+        }
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Valor no válido para " + type.getSimpleName() + ": " + value);
+        }
+    }
+
+    // ---- Modo CSV ----
+
+    private BlockFileImporter.SinkFactory prepareCsv(Path output, String chain) throws IOException {
+        Files.createDirectories(output);
+        Files.writeString(output.resolve("wallets-header.csv"), WALLETS_HEADER + "\n");
+        Files.writeString(output.resolve("transactions-header.csv"), TRANSACTIONS_HEADER + "\n");
+        Files.writeString(output.resolve("inputs-header.csv"), INPUTS_HEADER + "\n");
+        Files.writeString(output.resolve("outputs-header.csv"), OUTPUTS_HEADER + "\n");
+        Files.writeString(output.resolve("spends-header.csv"), SPENDS_HEADER + "\n");
+        Path script = output.resolve("import.sh");
+        Files.writeString(script, IMPORT_SCRIPT);
+        script.toFile().setExecutable(true);
+        return file -> new CsvSink(output, file.getFileName().toString().replace(".dat", ".csv"), chain);
+    }
+
+    /**
+     * CSV de un blk: las wallets se deduplican dentro del archivo y
+     * {@code --skip-duplicate-nodes} descarta las repetidas entre archivos
+     */
+    private static final class CsvSink implements BlockFileImporter.Sink {
+        private final String chain;
+        private final BufferedWriter wallets;
+        private final BufferedWriter transactions;
+        private final BufferedWriter inputs;
+        private final BufferedWriter outputs;
+        private final BufferedWriter spends;
+        private final Set<String> seenWallets = new HashSet<>();
+
+        CsvSink(Path directory, String suffix, String chain) throws IOException {
+            this.chain = chain;
+            this.wallets = Files.newBufferedWriter(directory.resolve("wallets-" + suffix), StandardCharsets.UTF_8);
+            this.transactions = Files.newBufferedWriter(directory.resolve("transactions-" + suffix),
+                    StandardCharsets.UTF_8);
+            this.inputs = Files.newBufferedWriter(directory.resolve("inputs-" + suffix), StandardCharsets.UTF_8);
+            this.outputs = Files.newBufferedWriter(directory.resolve("outputs-" + suffix), StandardCharsets.UTF_8);
+            this.spends = Files.newBufferedWriter(directory.resolve("spends-" + suffix), StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public void accept(BlockContext block, Tx tx, List<ResolvedInput> resolved) throws IOException {
+            String hash = tx.getHashHex();
+            Totals totals = Totals.of(tx, resolved);
+            transactions.write(String.join(",", hash, chain, Long.toString(block.getHeight()), block.getHash(),
+                    Instant.ofEpochSecond(block.getTime()).toString(), Long.toString(block.getTime() * 1000L),
+                    Long.toString(totals.input),
+                    Long.toString(totals.output), Long.toString(totals.fees),
+                    Integer.toString(block.getConfirmations()), "false"));
+            transactions.newLine();
+
+            for (ResolvedInput input : resolved) {
+                if (input.isResolved()) {
+                    // El output gastado está en la cadena importada: SPENT_BY directo
+                    spends.write(String.join(",", BitcoinScript.reversedHex(input.getInput().getPrevTxid()), hash,
+                            Integer.toString(input.getInput().getPrevIndex()), Long.toString(input.getValue())));
+                    spends.newLine();
+                }
+                if (input.getAddress() != null) {
+                    wallet(input.getAddress());
+                    inputs.write(String.join(",", input.getAddress(), hash,
+                            BitcoinScript.reversedHex(input.getInput().getPrevTxid()),
+                            Integer.toString(input.getInput().getPrevIndex()), Long.toString(input.getValue()),
+                            nullToEmpty(input.getInput().getScript())));
+                    inputs.newLine();
+                }
+            }
+            for (Output output : tx.getOutputs()) {
+                if (output.getAddress() != null) {
+                    wallet(output.getAddress());
+                    outputs.write(String.join(",", hash, output.getAddress(), Integer.toString(output.getIndex()),
+                            Long.toString(output.getValue()), nullToEmpty(output.getScript()),
+                            output.getScriptType()));
+                    outputs.newLine();
+                }
+            }
+        }
+
+        private void wallet(String address) throws IOException {
+            if (seenWallets.add(address)) {
+                wallets.write(address + "," + chain);
+                wallets.newLine();
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            try (wallets; transactions; inputs; outputs; spends) {
+                seenWallets.clear();
+            }
+        }
+
+        private static String nullToEmpty(String value) {
+            return value != null ? value : "";
+        }
+    }
+
+    // ---- Modo directo ----
+
+    /**
+     * Acumula las transacciones de un blk y las escribe en lotes de
+     * {@code ingest.batch.size}
+     */
+    private final class DirectSink implements BlockFileImporter.Sink {
+        private final String chain;
+        private TransactionBatchWriter.Batch batch = transactionBatchWriter.newBatch();
+
+        DirectSink(String chain) {
+            this.chain = chain;
+        }
+
+        @Override
+        public void accept(BlockContext block, Tx tx, List<ResolvedInput> resolved) {
+            String hash = tx.getHashHex();
+            Totals totals = Totals.of(tx, resolved);
+            batch.addTransaction(Transaction.builder()
+                    .hash(hash)
+                    .chain(chain)
+                    .blockHeight((long) block.getHeight())
+                    .blockHash(block.getHash())
+                    .confirmed(Instant.ofEpochSecond(block.getTime()).toString())
+                    .confirmedAt(block.getTime() * 1000L)
+                    .totalInput(totals.input)
+                    .totalOutput(totals.output)
+                    .fees(totals.fees)
+                    .confirmations(block.getConfirmations())
+                    .doubleSpend(false)
+                    .build());
+
+            for (ResolvedInput input : resolved) {
+                if (input.getAddress() != null) {
+                    batch.addInput(hash, input.getAddress(), chain, TransactionInput.builder()
+                            .prevHash(BitcoinScript.reversedHex(input.getInput().getPrevTxid()))
+                            .outputIndex(input.getInput().getPrevIndex())
+                            .outputValue(input.getValue())
+                            .script(input.getInput().getScript())
+                            .build());
+                }
+            }
+            for (Output output : tx.getOutputs()) {
+                if (output.getAddress() != null) {
+                    batch.addOutput(hash, output.getAddress(), chain, TransactionOutput.builder()
+                            .outputIndex(output.getIndex())
+                            .value(output.getValue())
+                            .script(output.getScript())
+                            .scriptType(output.getScriptType())
+                            .build());
+                }
+            }
+            if (batch.transactionCount() >= transactionBatchWriter.getBatchSize()) {
+                flush();
+            }
+        }
+
+        @Override
+        public void close() {
+            flush();
+        }
+
+        private void flush() {
+            if (batch.isEmpty()) {
+                return;
+            }
+            synchronized (writeLock) {
+                List<String> written = transactionBatchWriter.write(batch);
+                flowGraphService.refreshFlows(written);
+                spendLinkService.linkTransactions(written);
+            }
+            batch = transactionBatchWriter.newBatch();
+        }
+    }
+
+    /**
+     * Totales de una transacción; la comisión sólo se conoce si se resolvieron
+     * todos los inputs (la coinbase no tiene)
+     */
+    private static final class Totals {
+        private final long input;
+        private final long output;
+        private final long fees;
+
+        private Totals(long input, long output, long fees) {
+            this.input = input;
+            this.output = output;
+            this.fees = fees;
+        }
+
+        static Totals of(Tx tx, List<ResolvedInput> resolved) {
+            long input = 0;
+            boolean complete = true;
+            for (ResolvedInput in : resolved) {
+                if (in.isResolved()) {
+                    input += in.getValue();
+                } else {
+                    complete = false;
+                }
+            }
+            long output = 0;
+            for (Output out : tx.getOutputs()) {
+                output += out.getValue();
+            }
+            long fees = !tx.isCoinbase() && complete ? input - output : 0L;
+            return new Totals(input, output, fees);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        importExecutor.shutdownNow();
+    }
+}
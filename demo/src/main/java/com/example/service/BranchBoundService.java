@@ -3,6 +3,12 @@ package com.example.service;
 import com.example.algorithm.BranchAndBoundAlgorithm;
 import com.example.algorithm.BranchAndBoundAlgorithm.Edge;
 import com.example.algorithm.BranchAndBoundAlgorithm.OptimalPathResult;
+import com.example.algorithm.FlowGraph;
+import com.example.algorithm.FlowGraph.FlowEdge;
+import com.example.algorithm.LazyAdjacency;
+import com.example.algorithm.AdjacencyProvider;
+import com.example.algorithm.SearchBudget;
+import com.example.algorithm.SupernodePolicy;
 import com.example.repository.TransactionRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -23,8 +29,56 @@ public class BranchBoundService {
 
     private final TransactionRepository transactionRepository;
     private final Neo4jClient neo4jClient;
+    private final SupernodeService supernodeService;
+    private final FlowGraphService flowGraphService;
     private final BranchAndBoundAlgorithm branchBoundAlgorithm = new BranchAndBoundAlgorithm();
 
+    /** Memoria estimada máxima de la cola de prioridad de una búsqueda */
+    private static final long MAX_SEARCH_MEMORY_BYTES = 256L * 1024 * 1024;
+
+    /** Aristas por wallet y sentido que se cargan en cada bloque de adyacencia */
+    private static final int MAX_EDGES_PER_WALLET = 1000;
+
+    /**
+     * Adyacencia por transacción (se colapsa en memoria). El costo usa la misma
+     * expresión de fee que {@link FlowGraphService} al materializar minFee, así ambas
+     * rutas dan el mismo camino óptimo.
+     */
+    private static final String TRANSACTION_ADJACENCY_QUERY = """
+        UNWIND $ids AS id
+        MATCH (w:Wallet {address: id})
+        OPTIONAL MATCH (w)-[:INPUT]->(t:Transaction)-[out:OUTPUT]->(o:Wallet)
+        WHERE o.address <> id
+        WITH id, w, collect(DISTINCT {
+            neighbour: o.address, txHash: t.hash, cost: COALESCE(t.fees, t.fee, 0),
+            amount: COALESCE(out.value, out.amount, 0)
+        })[..$limit] AS sent
+        OPTIONAL MATCH (i:Wallet)-[:INPUT]->(t2:Transaction)-[out2:OUTPUT]->(w)
+        WHERE i.address <> id
+        WITH id, sent, collect(DISTINCT {
+            neighbour: i.address, txHash: t2.hash, cost: COALESCE(t2.fees, t2.fee, 0),
+            amount: COALESCE(out2.value, out2.amount, 0)
+        })[..$limit] AS received
+        RETURN id AS wallet, sent + received AS edges
+        """;
+
+    /** Adyacencia sobre la vista materializada FLOW (una arista por contraparte) */
+    private static final String FLOW_ADJACENCY_QUERY = """
+        UNWIND $ids AS id
+        MATCH (w:Wallet {address: id})
+        OPTIONAL MATCH (w)-[f:FLOW]->(o:Wallet)
+        WITH id, w, collect({
+            neighbour: o.address, txHash: f.minFeeTx, cost: COALESCE(f.minFee, 0),
+            amount: f.totalAmount, txCount: f.txCount
+        })[..$limit] AS sent
+        OPTIONAL MATCH (i:Wallet)-[f2:FLOW]->(w)
+        WITH id, sent, collect({
+            neighbour: i.address, txHash: f2.minFeeTx, cost: COALESCE(f2.minFee, 0),
+            amount: f2.totalAmount, txCount: f2.txCount
+        })[..$limit] AS received
+        RETURN id AS wallet, sent + received AS edges
+        """;
+
     /**
      * Encuentra el camino óptimo entre dos wallets con restricción de costo
      *
@@ -38,31 +92,83 @@ public class BranchBoundService {
             String targetWallet,
             double maxCost) {
 
-        log.info("Buscando camino óptimo de {} a {} con maxCost: {}",
-                sourceWallet, targetWallet, maxCost);
+        return findOptimalPathWithCostLimit(sourceWallet, targetWallet, maxCost, 0, 0);
+    }
+
+    /**
+     * Igual que {@link #findOptimalPathWithCostLimit(String, String, double)} pero ANYTIME:
+     * si el presupuesto se agota devuelve el mejor camino hasta el momento con
+     * {@code complete=false} y la brecha de optimalidad
+     *
+     * @param timeoutMs Tiempo máximo de búsqueda (0 = sin límite)
+     * @param maxNodes Nodos expandidos máximos (0 = sin límite)
+     */
+    public OptimalPathResult findOptimalPathWithCostLimit(
+            String sourceWallet,
+            String targetWallet,
+            double maxCost,
+            long timeoutMs,
+            long maxNodes) {
+
+        return findOptimalPathWithCostLimit(sourceWallet, targetWallet, maxCost, timeoutMs, maxNodes,
+                supernodeService.defaultPolicy());
+    }
+
+    /**
+     * Búsqueda ANYTIME con una política de supernodos explícita: los supernodos
+     * intermedios se omiten, se cortan o se muestrean sin cargar su adyacencia completa
+     *
+     * @param policy Tratamiento de supernodos; su reporte se adjunta al resultado
+     */
+    public OptimalPathResult findOptimalPathWithCostLimit(
+            String sourceWallet,
+            String targetWallet,
+            double maxCost,
+            long timeoutMs,
+            long maxNodes,
+            SupernodePolicy policy) {
+
+        log.info("Buscando camino óptimo de {} a {} con maxCost: {}, timeout: {}ms, maxNodes: {}",
+                sourceWallet, targetWallet, maxCost, timeoutMs, maxNodes);
 
-        // PASO 1: Construir grafo con costos desde Neo4j
-        Map<String, List<Edge>> graph = buildGraphWithCosts(sourceWallet, targetWallet, 10);
+        // El reloj incluye la construcción del grafo
+        SearchBudget budget = SearchBudget.of(timeoutMs, maxNodes, MAX_SEARCH_MEMORY_BYTES, 0);
 
-        if (graph.isEmpty()) {
+        // PASO 1: Vista perezosa del grafo con costos (se carga a medida que se expande)
+        LazyAdjacency<Edge> lazy = lazyGraphWithCosts();
+        AdjacencyProvider<Edge> graph = policy.protect(sourceWallet, targetWallet).wrap(lazy, Edge::getTo);
+
+        if (graph.neighbours(sourceWallet).isEmpty()) {
             log.warn("No se encontró conexión entre {} y {}", sourceWallet, targetWallet);
             return OptimalPathResult.builder()
                 .sourceWallet(sourceWallet)
                 .targetWallet(targetWallet)
                 .pathFound(false)
+                .complete(true)
+                .stopReason(SearchBudget.StopReason.NONE.name())
+                .supernodeReport(policy.getReport())
                 .build();
         }
 
-        log.info("Grafo construido: {} wallets en el rango de búsqueda", graph.size());
 
         // PASO 2: Ejecutar BRANCH & BOUND
         OptimalPathResult result = branchBoundAlgorithm.findOptimalPath(
             graph,
             sourceWallet,
             targetWallet,
-            maxCost
+            maxCost,
+            budget
         );
 
+        result.setSupernodeReport(policy.getReport());
+        log.info("Adyacencia cargada bajo demanda: {}", lazy.getStats());
+
+        if (!result.isComplete()) {
+            log.warn("⏱ Búsqueda cortada por {}: mejor costo = {}, brecha = {}",
+                    result.getStopReason(), result.isPathFound() ? result.getTotalCost() : null,
+                    result.getOptimalityGap());
+        }
+
         if (result.isPathFound()) {
             log.info("✅ Camino óptimo encontrado: {} hops, costo total: {}",
                     result.getPathLength(), result.getTotalCost());
@@ -87,9 +193,12 @@ public class BranchBoundService {
 
         log.info("Buscando múltiples caminos óptimos entre {} y {}", sourceWallet, targetWallet);
 
-        Map<String, List<Edge>> graph = buildGraphWithCosts(sourceWallet, targetWallet, 10);
+        // Una sola vista para todos los límites: los bloques ya cargados se reutilizan
+        AdjacencyProvider<Edge> graph = supernodeService.defaultPolicy()
+            .protect(sourceWallet, targetWallet)
+            .wrap(lazyGraphWithCosts(), Edge::getTo);
 
-        if (graph.isEmpty()) {
+        if (graph.neighbours(sourceWallet).isEmpty()) {
             return Collections.emptyMap();
         }
 
@@ -102,7 +211,8 @@ public class BranchBoundService {
                 graph,
                 sourceWallet,
                 targetWallet,
-                maxCost
+                maxCost,
+                SearchBudget.unlimited()
             );
 
             results.put("maxCost_" + (int)maxCost, result);
@@ -125,116 +235,92 @@ public class BranchBoundService {
      * @return Camino con menor costo posible
      */
     public OptimalPathResult findCheapestPath(String sourceWallet, String targetWallet) {
+        return findCheapestPath(sourceWallet, targetWallet, 0, 0);
+    }
+
+    /**
+     * Camino más barato acotado por tiempo y nodos (ver
+     * {@link #findOptimalPathWithCostLimit(String, String, double, long, long)})
+     */
+    public OptimalPathResult findCheapestPath(String sourceWallet, String targetWallet,
+                                              long timeoutMs, long maxNodes) {
+        return findCheapestPath(sourceWallet, targetWallet, timeoutMs, maxNodes, supernodeService.defaultPolicy());
+    }
+
+    /**
+     * Camino más barato con una política de supernodos explícita
+     */
+    public OptimalPathResult findCheapestPath(String sourceWallet, String targetWallet,
+                                              long timeoutMs, long maxNodes, SupernodePolicy policy) {
         log.info("Buscando camino más barato entre {} y {}", sourceWallet, targetWallet);
 
         // Usar un límite muy alto para encontrar el camino más barato
-        return findOptimalPathWithCostLimit(sourceWallet, targetWallet, Double.MAX_VALUE);
+        return findOptimalPathWithCostLimit(sourceWallet, targetWallet, Double.MAX_VALUE, timeoutMs, maxNodes,
+                policy);
     }
 
     /**
-     * Construye el grafo con COSTOS (fees) desde Neo4j
-     *
-     * @param sourceWallet Wallet origen
-     * @param targetWallet Wallet destino
-     * @param maxHops Número máximo de saltos a explorar
-     * @return Grafo como adjacency list con costos
+     * Vista del grafo con COSTOS (fees) que carga la adyacencia desde Neo4j bajo demanda
      */
-    private Map<String, List<Edge>> buildGraphWithCosts(
-            String sourceWallet,
-            String targetWallet,
-            int maxHops) {
+    private LazyAdjacency<Edge> lazyGraphWithCosts() {
+        return new LazyAdjacency<>(this::fetchAdjacencyWithCosts);
+    }
 
-        Map<String, List<Edge>> graph = new HashMap<>();
+    /**
+     * Carga en UNA consulta la adyacencia de un lote de wallets. El grafo es
+     * bidireccional (como antes): se incluyen los pagos recibidos además de los enviados.
+     *
+     * Las transacciones paralelas entre el mismo par se colapsan en una arista de flujo
+     * con el fee mínimo: el camino más barato sólo puede usar esa, así que el resultado
+     * no cambia y el factor de ramificación baja a un vecino por contraparte. Si la
+     * vista FLOW está materializada se lee directamente.
+     *
+     * @param wallets Wallets de la frontera a expandir
+     * @return Aristas por wallet (las wallets sin aristas no aparecen)
+     */
+    private Map<String, List<Edge>> fetchAdjacencyWithCosts(Collection<String> wallets) {
+        FlowGraph flows = new FlowGraph();
+        boolean materialised = flowGraphService.isMaterialised();
 
         try {
-            // Query simplificada: obtener todas las conexiones desde la wallet origen
-            String cypherQuery = """
-                MATCH (w1:Wallet)-[:INPUT]->(t:Transaction)-[:OUTPUT]->(w2:Wallet)
-                WHERE w1.address = $source AND w1.address <> w2.address
-                RETURN DISTINCT 
-                    w1.address as fromWallet,
-                    w2.address as toWallet,
-                    t.hash as txHash,
-                    COALESCE(t.fee, 0.0001) as cost
-                LIMIT 1000
-                """;
-
-            Collection<Map<String, Object>> edges = neo4jClient.query(cypherQuery)
-                .bindAll(Map.of("source", sourceWallet))
-                .fetch()
-                .all();
-
-            log.info("Encontradas {} aristas desde {}", edges.size(), sourceWallet);
-
-            // Obtener también las conexiones desde el destino
-            String targetQuery = """
-                MATCH (w1:Wallet)-[:INPUT]->(t:Transaction)-[:OUTPUT]->(w2:Wallet)
-                WHERE w1.address = $target AND w1.address <> w2.address
-                RETURN DISTINCT 
-                    w1.address as fromWallet,
-                    w2.address as toWallet,
-                    t.hash as txHash,
-                    COALESCE(t.fee, 0.0001) as cost
-                LIMIT 1000
-                """;
-
-            Collection<Map<String, Object>> targetEdges = neo4jClient.query(targetQuery)
-                .bindAll(Map.of("target", targetWallet))
+            Collection<Map<String, Object>> rows = neo4jClient.query(
+                    materialised ? FLOW_ADJACENCY_QUERY : TRANSACTION_ADJACENCY_QUERY)
+                .bindAll(Map.of("ids", new ArrayList<>(wallets), "limit", MAX_EDGES_PER_WALLET))
                 .fetch()
                 .all();
 
-            List<Map<String, Object>> allEdges = new ArrayList<>();
-            allEdges.addAll(edges);
-            allEdges.addAll(targetEdges);
-            log.info("Total de aristas: {}", allEdges.size());
-
-            // Si aún no tenemos suficientes datos, intentar una búsqueda más amplia
-            if (allEdges.size() < 5) {
-                String broadQuery = """
-                    MATCH (w1:Wallet)-[:INPUT]->(t:Transaction)-[:OUTPUT]->(w2:Wallet)
-                    WHERE w1.address <> w2.address
-                    RETURN DISTINCT 
-                        w1.address as fromWallet,
-                        w2.address as toWallet,
-                        t.hash as txHash,
-                        COALESCE(t.fee, 0.0001) as cost
-                    LIMIT 500
-                    """;
-
-                Collection<Map<String, Object>> broadEdges = neo4jClient.query(broadQuery)
-                    .fetch()
-                    .all();
-
-                allEdges.addAll(broadEdges);
-                log.info("Después de búsqueda amplia: {} aristas", allEdges.size());
-            }
-
-            // Construir adjacency list
-            for (Map<String, Object> edge : allEdges) {
-                String from = (String) edge.get("fromWallet");
-                String to = (String) edge.get("toWallet");
-
-                if (from == null || to == null) continue;
-
-                double cost = ((Number) edge.getOrDefault("cost", 0.0001)).doubleValue();
-                String txHash = (String) edge.getOrDefault("txHash", "unknown");
-
-                // Agregar arista
-                graph.computeIfAbsent(from, k -> new ArrayList<>())
-                    .add(new Edge(to, 1.0, cost, txHash, 0L));
-
-                // Grafo bidireccional
-                graph.computeIfAbsent(to, k -> new ArrayList<>())
-                    .add(new Edge(from, 1.0, cost, txHash, 0L));
+            for (Map<String, Object> row : rows) {
+                String wallet = (String) row.get("wallet");
+                for (Object value : (Collection<?>) row.getOrDefault("edges", Collections.emptyList())) {
+                    Map<?, ?> edge = (Map<?, ?>) value;
+                    String neighbour = (String) edge.get("neighbour");
+                    if (neighbour == null) continue; // OPTIONAL MATCH sin coincidencias
+
+                    double cost = edge.get("cost") instanceof Number n ? n.doubleValue() : 0.0;
+                    double amount = edge.get("amount") instanceof Number n ? n.doubleValue() : 0.0;
+                    String txHash = edge.get("txHash") != null ? edge.get("txHash").toString() : "unknown";
+                    if (materialised) {
+                        long txCount = edge.get("txCount") instanceof Number n ? n.longValue() : 1L;
+                        flows.addFlow(FlowEdge.builder()
+                            .from(wallet).to(neighbour)
+                            .txCount(txCount).totalAmount(amount)
+                            .minFee(cost).maxFee(cost).minFeeTxHash(txHash)
+                            .build());
+                    } else {
+                        flows.add(wallet, neighbour, amount, cost, 0L, txHash);
+                    }
+                }
             }
 
-            log.info("Grafo construido con {} nodos", graph.size());
+            log.debug("Ronda de adyacencia ({}): {} wallets pedidas, {}",
+                materialised ? "FLOW" : "transacciones", wallets.size(), flows.getStats());
 
         } catch (Exception e) {
-            log.error("Error construyendo grafo con costos desde Neo4j: {}", e.getMessage(), e);
+            log.error("Error cargando adyacencia con costos desde Neo4j: {}", e.getMessage(), e);
         }
 
-        return graph;
+        return flows.map(flow -> new Edge(
+            flow.getTo(), flow.getTotalAmount(), flow.getMinFee(), flow.getMinFeeTxHash(), 0L));
     }
 
     /**
@@ -0,0 +1,406 @@
+package com.example.service;
+
+import com.example.algorithm.BloomFilter;
+import com.example.algorithm.CounterpartyCrawler;
+import com.example.algorithm.CounterpartyCrawler.State;
+import com.example.dto.CrawlRequest;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio de crawl multi-hop de contrapartes sobre BlockCypher
+ *
+ * Cada crawl corre en background con {@link CounterpartyCrawler}. Las wallets ya
+ * ingeridas (con {@code txCount}) no se vuelven a pedir a la API: un filtro de Bloom
+ * en memoria descarta rápido las que seguro no están y los positivos se confirman
+ * con una consulta exacta por lote. El progreso se guarda en un nodo
+ * {@code (:CrawlJob {id})}, así que un crawl cortado (cancelado o por reinicio de la
+ * aplicación) puede reanudarse.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CrawlerService {
+
+    public static final int DEFAULT_MAX_HOPS = 2;
+    public static final int DEFAULT_MAX_WALLETS = 500;
+    public static final int DEFAULT_PARALLELISM = 4;
+
+    /** Contrapartes leídas por wallet al expandir (acota el abanico de los hubs) */
+    private static final int MAX_COUNTERPARTIES_PER_WALLET = 500;
+
+    private static final double BLOOM_FALSE_POSITIVE_RATE = 0.01;
+    private static final int BLOOM_LOAD_BATCH = 10_000;
+
+    private static final String COUNT_INGESTED_QUERY = """
+        MATCH (w:Wallet)
+        WHERE w.txCount IS NOT NULL
+        RETURN COUNT(w) AS wallets
+        """;
+
+    private static final String NEXT_INGESTED_QUERY = """
+        MATCH (w:Wallet)
+        WHERE w.address > $after AND w.txCount IS NOT NULL
+        RETURN w.address AS address
+        ORDER BY w.address
+        LIMIT $limit
+        """;
+
+    private static final String CONFIRM_INGESTED_QUERY = """
+        UNWIND $addresses AS address
+        MATCH (w:Wallet {address: address})
+        WHERE w.txCount IS NOT NULL
+        RETURN w.address AS address
+        """;
+
+    private static final String COUNTERPARTIES_QUERY = """
+        MATCH (w:Wallet {address: $address})
+        CALL {
+            WITH w
+            MATCH (w)-[:INPUT]->(:Transaction)-[:OUTPUT]->(c:Wallet)
+            RETURN c
+            UNION
+            WITH w
+            MATCH (c:Wallet)-[:INPUT]->(:Transaction)-[:OUTPUT]->(w)
+            RETURN c
+        }
+        WITH DISTINCT w, c
+        WHERE c <> w
+        RETURN c.address AS address
+        LIMIT $limit
+        """;
+
+    private static final String SAVE_JOB_QUERY = """
+        MERGE (c:CrawlJob {id: $id})
+        SET c += $props
+        """;
+
+    private static final String LOAD_JOB_QUERY = """
+        MATCH (c:CrawlJob {id: $id})
+        RETURN c {.*} AS job
+        """;
+
+    private static final String LIST_JOBS_QUERY = """
+        MATCH (c:CrawlJob)
+        RETURN c {.*} AS job
+        ORDER BY c.startedAt DESC
+        LIMIT $limit
+        """;
+
+    private final Neo4jClient neo4jClient;
+    private final BlockCypherService blockCypherService;
+
+    /** Crawls en curso en esta instancia → bandera de cancelación */
+    private final Map<String, AtomicBoolean> active = new ConcurrentHashMap<>();
+    private final AtomicReference<BloomFilter> ingested = new AtomicReference<>();
+
+    private final ExecutorService crawlExecutor = Executors.newCachedThreadPool(runnable -> {
+        Thread thread = new Thread(runnable, "crawl-job");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Inicia un crawl en background
+     *
+     * @return Estado inicial (incluye el id para consultar / reanudar)
+     */
+    public Map<String, Object> start(CrawlRequest request) {
+        List<String> seeds = request.getSeeds();
+        if (seeds == null || seeds.isEmpty()) {
+            throw new IllegalArgumentException("seeds no puede estar vacío");
+        }
+        int maxHops = request.getMaxHops() != null ? request.getMaxHops() : DEFAULT_MAX_HOPS;
+        int maxWallets = request.getMaxWallets() != null ? request.getMaxWallets() : DEFAULT_MAX_WALLETS;
+        if (maxHops < 0 || maxWallets < 1) {
+            throw new IllegalArgumentException("maxHops debe ser >= 0 y maxWallets >= 1");
+        }
+        String chain = request.getChain() != null ? request.getChain() : "BTC";
+        int parallelism = request.getParallelism() != null ? request.getParallelism() : DEFAULT_PARALLELISM;
+
+        State state = State.start(UUID.randomUUID().toString(), seeds, chain, maxHops, maxWallets);
+        save(state);
+        launch(state, parallelism);
+        return describe(state);
+    }
+
+    /**
+     * Reanuda un crawl interrumpido desde su último checkpoint
+     */
+    public Map<String, Object> resume(String id, Integer parallelism) {
+        if (active.containsKey(id)) {
+            throw new IllegalStateException("El crawl " + id + " ya está en curso");
+        }
+        State state = load(id);
+        if (state == null) {
+            throw new IllegalArgumentException("Crawl no encontrado: " + id);
+        }
+        if (state.getStatus() == CounterpartyCrawler.Status.COMPLETED) {
+            return describe(state);
+        }
+        launch(state, parallelism != null ? parallelism : DEFAULT_PARALLELISM);
+        return describe(state);
+    }
+
+    /**
+     * Pide detener un crawl en curso; termina tras las wallets en vuelo
+     */
+    public boolean cancel(String id) {
+        AtomicBoolean cancelled = active.get(id);
+        if (cancelled == null) {
+            return false;
+        }
+        cancelled.set(true);
+        return true;
+    }
+
+    public Map<String, Object> status(String id) {
+        State state = load(id);
+        return state != null ? describe(state) : null;
+    }
+
+    public List<Map<String, Object>> list(int limit) {
+        List<Map<String, Object>> jobs = new ArrayList<>();
+        for (Map<String, Object> row : neo4jClient.query(LIST_JOBS_QUERY)
+                .bindAll(Map.of("limit", limit))
+                .fetch()
+                .all()) {
+            jobs.add(describe(toState(row.get("job"))));
+        }
+        return jobs;
+    }
+
+    private void launch(State state, int parallelism) {
+        AtomicBoolean cancelled = new AtomicBoolean(false);
+        if (active.putIfAbsent(state.getId(), cancelled) != null) {
+            throw new IllegalStateException("El crawl " + state.getId() + " ya está en curso");
+        }
+        String chain = state.getChain();
+        CounterpartyCrawler crawler = new CounterpartyCrawler(
+                (address, fetch) -> expand(address, fetch, chain),
+                this::alreadyIngested,
+                this::save,
+                parallelism,
+                CounterpartyCrawler.DEFAULT_CHECKPOINT_EVERY);
+
+        crawlExecutor.execute(() -> {
+            try {
+                log.info("Crawl {} iniciado: nivel {}, {} wallets en la frontera",
+                        state.getId(), state.getHop(), state.getFrontier().size());
+                crawler.run(state, cancelled::get);
+                log.info("Crawl {} terminó con estado {}: {} wallets pedidas, {} reutilizadas, {} fallidas",
+                        state.getId(), state.getStatus(), state.getFetched(), state.getReused(), state.getFailed());
+            } catch (Exception e) {
+                log.error("Error en el crawl {}", state.getId(), e);
+                state.setStatus(CounterpartyCrawler.Status.FAILED);
+                state.setLastError(e.getMessage());
+                save(state);
+            } finally {
+                active.remove(state.getId());
+            }
+        });
+    }
+
+    /**
+     * Ingesta la wallet (si hace falta) y lee sus contrapartes del grafo
+     */
+    private List<String> expand(String address, boolean fetch, String chain) {
+        if (fetch) {
+            blockCypherService.fetchAndSaveWallet(address, chain);
+            bloom().put(address);
+        }
+        List<String> counterparties = new ArrayList<>();
+        for (Map<String, Object> row : neo4jClient.query(COUNTERPARTIES_QUERY)
+                .bindAll(Map.of("address", address, "limit", MAX_COUNTERPARTIES_PER_WALLET))
+                .fetch()
+                .all()) {
+            counterparties.add((String) row.get("address"));
+        }
+        return counterparties;
+    }
+
+    /**
+     * Wallets ya ingeridas: el filtro de Bloom descarta sin ir a la base y los
+     * positivos (posibles falsos) se confirman con una sola consulta
+     */
+    private Set<String> alreadyIngested(Collection<String> addresses) {
+        BloomFilter filter = bloom();
+        List<String> candidates = new ArrayList<>();
+        for (String address : addresses) {
+            if (filter.mightContain(address)) {
+                candidates.add(address);
+            }
+        }
+        Set<String> confirmed = new HashSet<>();
+        if (candidates.isEmpty()) {
+            return confirmed;
+        }
+        for (Map<String, Object> row : neo4jClient.query(CONFIRM_INGESTED_QUERY)
+                .bindAll(Map.of("addresses", candidates))
+                .fetch()
+                .all()) {
+            confirmed.add((String) row.get("address"));
+        }
+        return confirmed;
+    }
+
+    /**
+     * Filtro de las wallets ingeridas, cargado una vez por paginación por clave
+     */
+    private BloomFilter bloom() {
+        BloomFilter filter = ingested.get();
+        if (filter != null) {
+            return filter;
+        }
+        synchronized (ingested) {
+            if (ingested.get() != null) {
+                return ingested.get();
+            }
+            long count = 0;
+            for (Map<String, Object> row : neo4jClient.query(COUNT_INGESTED_QUERY).fetch().all()) {
+                count = ((Number) row.get("wallets")).longValue();
+            }
+            // Holgura para las wallets que agreguen los crawls sin degradar la fpp
+            filter = BloomFilter.create(Math.max(100_000, count * 2), BLOOM_FALSE_POSITIVE_RATE);
+            String after = "";
+            while (true) {
+                List<String> page = new ArrayList<>();
+                for (Map<String, Object> row : neo4jClient.query(NEXT_INGESTED_QUERY)
+                        .bindAll(Map.of("after", after, "limit", BLOOM_LOAD_BATCH))
+                        .fetch()
+                        .all()) {
+                    page.add((String) row.get("address"));
+                }
+                page.forEach(filter::put);
+                if (page.size() < BLOOM_LOAD_BATCH) {
+                    break;
+                }
+                after = page.get(page.size() - 1);
+            }
+            log.info("Filtro de Bloom de wallets ingeridas: {} wallets, {} bits, k={}",
+                    count, filter.getNumBits(), filter.getNumHashes());
+            ingested.set(filter);
+            return filter;
+        }
+    }
+
+    private void save(State state) {
+        Map<String, Object> props = new HashMap<>();
+        props.put("chain", state.getChain());
+        props.put("maxHops", state.getMaxHops());
+        props.put("maxWallets", state.getMaxWallets());
+        props.put("hop", state.getHop());
+        props.put("frontier", state.getFrontier());
+        props.put("done", state.getDone());
+        props.put("next", state.getNext());
+        props.put("visited", state.getVisited());
+        props.put("fetched", state.getFetched());
+        props.put("reused", state.getReused());
+        props.put("failed", state.getFailed());
+        props.put("status", state.getStatus().name());
+        props.put("lastError", state.getLastError());
+        props.put("startedAt", state.getStartedAt());
+        props.put("updatedAt", state.getUpdatedAt());
+        neo4jClient.query(SAVE_JOB_QUERY)
+                .bindAll(Map.of("id", state.getId(), "props", props))
+                .run();
+    }
+
+    private State load(String id) {
+        for (Map<String, Object> row : neo4jClient.query(LOAD_JOB_QUERY)
+                .bindAll(Map.of("id", id))
+                .fetch()
+                .all()) {
+            return toState(row.get("job"));
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private State toState(Object value) {
+        Map<String, Object> job = (Map<String, Object>) value;
+        return State.builder()
+                .id((String) job.get("id"))
+                .chain((String) job.get("chain"))
+                .maxHops(asInt(job.get("maxHops")))
+                .maxWallets(asInt(job.get("maxWallets")))
+                .hop(asInt(job.get("hop")))
+                .frontier(asList(job.get("frontier")))
+                .done(asList(job.get("done")))
+                .next(asList(job.get("next")))
+                .visited(asList(job.get("visited")))
+                .fetched(asLong(job.get("fetched")))
+                .reused(asLong(job.get("reused")))
+                .failed(asLong(job.get("failed")))
+                .status(CounterpartyCrawler.Status.valueOf((String) job.get("status")))
+                .lastError((String) job.get("lastError"))
+                .startedAt(asLong(job.get("startedAt")))
+                .updatedAt(asLong(job.get("updatedAt")))
+                .build();
+    }
+
+    private Map<String, Object> describe(State state) {
+        boolean running = active.containsKey(state.getId());
+        CounterpartyCrawler.Status status = state.getStatus();
+        // RUNNING guardado pero sin hilo en esta instancia: la aplicación se cortó a mitad
+        if (status == CounterpartyCrawler.Status.RUNNING && !running) {
+            status = CounterpartyCrawler.Status.INTERRUPTED;
+        }
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", state.getId());
+        result.put("chain", state.getChain());
+        result.put("status", status.name());
+        result.put("active", running);
+        result.put("hop", state.getHop());
+        result.put("maxHops", state.getMaxHops());
+        result.put("maxWallets", state.getMaxWallets());
+        result.put("frontier", state.getFrontier().size());
+        result.put("doneInHop", state.getDone().size());
+        result.put("discovered", state.getVisited().size());
+        result.put("fetched", state.getFetched());
+        result.put("reused", state.getReused());
+        result.put("failed", state.getFailed());
+        result.put("lastError", state.getLastError());
+        result.put("startedAt", state.getStartedAt());
+        result.put("updatedAt", state.getUpdatedAt());
+        return result;
+    }
+
+    private static int asInt(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : 0;
+    }
+
+    private static long asLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> asList(Object value) {
+        return value instanceof List ? new ArrayList<>((List<String>) value) : new ArrayList<>();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        // Los crawls quedan INTERRUPTED con su último checkpoint y pueden reanudarse
+        active.values().forEach(cancelled -> cancelled.set(true));
+        crawlExecutor.shutdown();
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.service;
+
+import com.example.algorithm.PrunedLandmarkLabeling;
+import com.example.algorithm.WalletGraph;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio que mantiene el índice de distancias (Pruned Landmark Labeling)
+ *
+ * El índice se construye fuera del camino de las requests, en un hilo dedicado,
+ * y se publica con un swap atómico: las consultas siempre ven un índice completo
+ * (el anterior o el nuevo), nunca uno a medio construir.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DistanceIndexService {
+
+    private final WalletGraphService walletGraphService;
+
+    private final AtomicReference<PrunedLandmarkLabeling> index = new AtomicReference<>();
+    private final AtomicBoolean rebuilding = new AtomicBoolean(false);
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "distance-index-rebuild");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Lanza la reconstrucción en background
+     *
+     * @return false si ya había una reconstrucción en curso
+     */
+    public boolean rebuildAsync() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            log.info("Reconstrucción del índice de distancias ya en curso");
+            return false;
+        }
+
+        rebuildExecutor.execute(() -> {
+            try {
+                WalletGraph graph = walletGraphService.reload();
+                PrunedLandmarkLabeling built = PrunedLandmarkLabeling.build(graph);
+                index.set(built);
+                lastError.set(null);
+                log.info("Índice de distancias publicado (snapshot versión {})", graph.getVersion());
+            } catch (Exception e) {
+                lastError.set(e.getMessage());
+                log.error("Error reconstruyendo el índice de distancias", e);
+            } finally {
+                rebuilding.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Distancia en saltos usando el índice.
+     * Si el índice todavía no existe se dispara su construcción y se retorna vacío.
+     *
+     * @return Optional vacío si el índice no está listo o alguna wallet no está indexada
+     */
+    public Optional<Integer> hopDistance(String fromAddress, String toAddress) {
+        PrunedLandmarkLabeling current = currentOrTriggerBuild();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(current.distance(fromAddress, toAddress));
+    }
+
+    /**
+     * Filtro masivo: wallets de {@code targets} a <= maxHops saltos de {@code source}
+     *
+     * @return Optional vacío si el índice no está listo
+     */
+    public Optional<List<String>> filterWithinHops(String source, Collection<String> targets, int maxHops) {
+        PrunedLandmarkLabeling current = currentOrTriggerBuild();
+        if (current == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.filterWithinHops(source, targets, maxHops));
+    }
+
+    public boolean isReady() {
+        return index.get() != null;
+    }
+
+    /** Versión del snapshot sobre el que se construyó el índice activo, o null */
+    public Long getIndexVersion() {
+        PrunedLandmarkLabeling current = index.get();
+        return current != null ? current.getGraph().getVersion() : null;
+    }
+
+    /**
+     * Estado del índice para monitoreo
+     */
+    public Map<String, Object> getStatus() {
+        PrunedLandmarkLabeling current = index.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", current != null);
+        status.put("rebuilding", rebuilding.get());
+        status.put("lastError", lastError.get());
+
+        if (current != null) {
+            WalletGraph graph = current.getGraph();
+            status.put("version", graph.getVersion());
+            status.put("builtAt", graph.getBuiltAt());
+            status.put("wallets", graph.size());
+            status.put("edges", graph.edgeCount());
+            status.put("labelEntries", current.getLabelEntries());
+            status.put("averageLabelSize", current.getAverageLabelSize());
+            status.put("memoryBytes", current.getMemoryBytes());
+            status.put("buildTimeMs", current.getBuildTimeMs());
+        }
+        return status;
+    }
+
+    private PrunedLandmarkLabeling currentOrTriggerBuild() {
+        PrunedLandmarkLabeling current = index.get();
+        if (current == null) {
+            rebuildAsync();
+        }
+        return current;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.service;
 
+import com.example.algorithm.SupernodePolicy;
 import com.example.dto.MaxFlowPathResult;
 import com.example.repository.AlgorithmRepository;
 import lombok.RequiredArgsConstructor;
@@ -20,6 +21,7 @@ import java.util.stream.Collectors;
 public class DynamicProgrammingService {
 
     private final AlgorithmRepository algorithmRepository;
+    private final SupernodeService supernodeService;
 
     /**
      * ALGORITMO DYNAMIC PROGRAMMING: Encontrar camino con máximo valor
@@ -67,9 +69,11 @@ public class DynamicProgrammingService {
                         .build();
             }
 
-            // Obtener transacciones entre wallets desde Neo4j
+            // Obtener transacciones entre wallets desde Neo4j (sin atravesar supernodos)
+            SupernodePolicy policy = supernodeService.defaultPolicy().protect(sourceWallet, targetWallet);
             List<Map<String, Object>> pathData = algorithmRepository
-                    .findPathsWithValues(sourceWallet, targetWallet, maxHops != null ? maxHops : 10);
+                    .findPathsWithValues(sourceWallet, targetWallet, maxHops != null ? maxHops : 10,
+                            policy.excludedAddresses());
 
             if (pathData.isEmpty()) {
                 log.info("No paths found between {} and {}", sourceWallet, targetWallet);
@@ -80,11 +84,12 @@ public class DynamicProgrammingService {
                         .pathLength(0)
                         .foundPath(false)
                         .path(Collections.emptyList())
+                        .supernodes(policy.getReport())
                         .build();
             }
 
             // FASE 1: Construir grafo de transacciones
-            Map<String, List<Edge>> graph = buildTransactionGraph(pathData);
+            Map<String, List<Edge>> graph = policy.apply(buildTransactionGraph(pathData), edge -> edge.to);
 
             // FASE 2: Aplicar DP para encontrar máximo flujo
             DPResult dpResult = computeMaxFlowDP(graph, sourceWallet, targetWallet);
@@ -105,6 +110,7 @@ public class DynamicProgrammingService {
                     .pathLength(reconstructedPath.size())
                     .path(reconstructedPath)
                     .foundPath(dpResult.maxValue > 0)
+                    .supernodes(policy.getReport())
                     .build();
 
         } catch (Exception e) {
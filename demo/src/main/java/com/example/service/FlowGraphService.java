@@ -0,0 +1,234 @@
+package com.example.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio que mantiene la relación materializada {@code (:Wallet)-[:FLOW]->(:Wallet)}
+ *
+ * Cada FLOW agrega todas las transacciones entre un par de wallets (txCount,
+ * totalAmount, minFee, maxFee, firstSeen, lastSeen). Se actualiza en la ingesta para
+ * los pares que tocan las transacciones nuevas y puede reconstruirse completa con
+ * {@link #backfill(int)}. Los agregados se recalculan desde las transacciones, de modo
+ * que reingestar o repetir el backfill es idempotente.
+ *
+ * Las búsquedas sólo leen FLOW cuando un backfill terminó (marcador {@code :FlowIndex}):
+ * antes de eso la vista cubre únicamente los pares ingestados desde que existe.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FlowGraphService {
+
+    /** Wallets por lote del backfill */
+    public static final int DEFAULT_BACKFILL_BATCH = 500;
+
+    /**
+     * Recalcula el FLOW de los pares de wallets unidos por las transacciones dadas
+     */
+    private static final String REFRESH_PAIRS_QUERY = """
+        UNWIND $hashes AS hash
+        MATCH (a:Wallet)-[:INPUT]->(:Transaction {hash: hash})-[:OUTPUT]->(b:Wallet)
+        WHERE a <> b
+        WITH DISTINCT a, b
+        """;
+
+    /**
+     * Recalcula el FLOW saliente de un lote de wallets
+     */
+    private static final String REFRESH_SOURCES_QUERY = """
+        UNWIND $addresses AS address
+        MATCH (a:Wallet {address: address})-[:INPUT]->(:Transaction)-[:OUTPUT]->(b:Wallet)
+        WHERE a <> b
+        WITH DISTINCT a, b
+        """;
+
+    /** Agregación y MERGE por par; espera {@code a, b} en el scope */
+    private static final String AGGREGATE_AND_MERGE = """
+        CALL {
+            WITH a, b
+            MATCH (a)-[:INPUT]->(t:Transaction)-[o:OUTPUT]->(b)
+            WITH t, SUM(COALESCE(o.value, o.amount, 0)) AS amount
+            WITH t, amount, COALESCE(t.fees, t.fee, 0) AS fee
+            ORDER BY fee ASC
+            RETURN COUNT(t) AS txCount,
+                   SUM(amount) AS totalAmount,
+                   MIN(fee) AS minFee,
+                   MAX(fee) AS maxFee,
+                   HEAD(COLLECT(t.hash)) AS minFeeTx,
+                   MIN(t.confirmed) AS firstSeen,
+                   MAX(t.confirmed) AS lastSeen
+        }
+        MERGE (a)-[f:FLOW]->(b)
+        SET f.txCount = txCount,
+            f.totalAmount = totalAmount,
+            f.minFee = minFee,
+            f.maxFee = maxFee,
+            f.minFeeTx = minFeeTx,
+            f.firstSeen = firstSeen,
+            f.lastSeen = lastSeen
+        RETURN COUNT(f) AS flows
+        """;
+
+    private static final String NEXT_WALLETS_QUERY = """
+        MATCH (w:Wallet)
+        WHERE w.address > $after
+        RETURN w.address AS address
+        ORDER BY w.address
+        LIMIT $limit
+        """;
+
+    private static final String MARK_COMPLETE_QUERY = """
+        MERGE (m:FlowIndex {name: 'FLOW'})
+        SET m.complete = true, m.completedAt = timestamp()
+        """;
+
+    private static final String IS_COMPLETE_QUERY = """
+        MATCH (m:FlowIndex {name: 'FLOW', complete: true})
+        RETURN m.completedAt AS completedAt
+        """;
+
+    /** Intervalo entre consultas del marcador mientras la vista no está completa */
+    private static final long MATERIALISED_RECHECK_MS = 60_000;
+
+    private static final String STATS_QUERY = """
+        MATCH ()-[f:FLOW]->()
+        RETURN COUNT(f) AS flows, SUM(f.txCount) AS transactions
+        """;
+
+    private final Neo4jClient neo4jClient;
+
+    /** Una vez completo el backfill no se vuelve a consultar */
+    private volatile boolean materialised = false;
+    private volatile long lastMaterialisedCheck = 0;
+
+    /**
+     * Actualiza los FLOW afectados por transacciones recién ingestadas
+     *
+     * @param txHashes Transacciones guardadas
+     * @return Pares (FLOW) actualizados
+     */
+    public long refreshFlows(Collection<String> txHashes) {
+        if (txHashes == null || txHashes.isEmpty()) {
+            return 0;
+        }
+        try {
+            long flows = firstLong(neo4jClient.query(REFRESH_PAIRS_QUERY + AGGREGATE_AND_MERGE)
+                    .bindAll(Map.of("hashes", new ArrayList<>(txHashes)))
+                    .fetch()
+                    .all(), "flows");
+            log.debug("FLOW actualizados: {} pares para {} transacciones", flows, txHashes.size());
+            return flows;
+        } catch (Exception e) {
+            // La ingesta no debe fallar por la vista agregada; el backfill la repara
+            log.warn("No se pudieron actualizar los FLOW de {} transacciones: {}", txHashes.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Reconstruye todos los FLOW recorriendo las wallets por lotes (paginación por
+     * clave sobre {@code address}, sin SKIP)
+     *
+     * @param batchSize Wallets por lote
+     * @return Estadísticas del backfill
+     */
+    public Map<String, Object> backfill(int batchSize) {
+        long startTime = System.currentTimeMillis();
+        int limit = batchSize > 0 ? batchSize : DEFAULT_BACKFILL_BATCH;
+        String after = "";
+        long wallets = 0;
+        long flows = 0;
+        int batches = 0;
+
+        while (true) {
+            List<String> addresses = new ArrayList<>();
+            for (Map<String, Object> row : neo4jClient.query(NEXT_WALLETS_QUERY)
+                    .bindAll(Map.of("after", after, "limit", limit))
+                    .fetch()
+                    .all()) {
+                addresses.add((String) row.get("address"));
+            }
+            if (addresses.isEmpty()) {
+                break;
+            }
+
+            flows += firstLong(neo4jClient.query(REFRESH_SOURCES_QUERY + AGGREGATE_AND_MERGE)
+                    .bindAll(Map.of("addresses", addresses))
+                    .fetch()
+                    .all(), "flows");
+
+            wallets += addresses.size();
+            batches++;
+            after = addresses.get(addresses.size() - 1);
+            log.debug("Backfill FLOW: lote {} ({} wallets, {} flujos)", batches, wallets, flows);
+
+            if (addresses.size() < limit) {
+                break;
+            }
+        }
+
+        neo4jClient.query(MARK_COMPLETE_QUERY).run();
+        materialised = true;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("walletsScanned", wallets);
+        result.put("flowsWritten", flows);
+        result.put("batches", batches);
+        result.put("executionTimeMs", System.currentTimeMillis() - startTime);
+        log.info("Backfill FLOW completado: {}", result);
+        return result;
+    }
+
+    /**
+     * true si la vista FLOW está completa (las búsquedas pueden leerla en vez de
+     * expandir transacción por transacción)
+     */
+    public boolean isMaterialised() {
+        long now = System.currentTimeMillis();
+        if (!materialised && now - lastMaterialisedCheck >= MATERIALISED_RECHECK_MS) {
+            lastMaterialisedCheck = now;
+            try {
+                materialised = !neo4jClient.query(IS_COMPLETE_QUERY)
+                        .fetch()
+                        .all()
+                        .isEmpty();
+            } catch (Exception e) {
+                log.debug("No se pudo consultar FLOW: {}", e.getMessage());
+            }
+        }
+        return materialised;
+    }
+
+    /**
+     * Tamaño de la vista agregada
+     */
+    public Map<String, Object> getStats() {
+        Collection<Map<String, Object>> rows = neo4jClient.query(STATS_QUERY).fetch().all();
+        long flows = firstLong(rows, "flows");
+        long transactions = firstLong(rows, "transactions");
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("flows", flows);
+        stats.put("aggregatedTransactions", transactions);
+        stats.put("compressionRatio", flows > 0 ? (double) transactions / flows : 1.0);
+        stats.put("materialised", isMaterialised());
+        return stats;
+    }
+
+    private long firstLong(Collection<Map<String, Object>> rows, String key) {
+        for (Map<String, Object> row : rows) {
+            Object value = row.get(key);
+            return value instanceof Number ? ((Number) value).longValue() : 0L;
+        }
+        return 0L;
+    }
+}
@@ -2,13 +2,19 @@ package com.example.service;
 
 import com.example.dto.PeelChainResult;
 import com.example.repository.TransactionRepository;
+import com.example.service.GraphStreamService.TransactionFlowRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.PriorityQueue;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -16,6 +22,8 @@ import java.util.stream.Collectors;
 public class ForensicAnalysisService {
     
     private final TransactionRepository transactionRepository;
+    private final GraphProjectionService graphProjectionService;
+    private final GraphStreamService graphStreamService;
     
     /**
      * Detecta transacciones Peel Chain (patrones de lavado de dinero)
@@ -33,53 +41,65 @@ public class ForensicAnalysisService {
     
     /**
      * Detecta peel chains con información detallada
+     *
+     * Recorre todas las transacciones en streaming y conserva las {@code limit} de
+     * mayor input en un montículo: memoria O(limit) sin truncar el recorrido.
      */
     public List<PeelChainResult> detectPeelChainsDetailed(double threshold, int limit) {
         log.info("Detecting detailed peel chains with threshold: {}", threshold);
-        
-        List<Map<String, Object>> results = transactionRepository.detectPeelChainsDetailed(threshold, limit);
-        
-        return results.stream()
-                .map(this::mapToDetailedPeelChainResult)
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        PriorityQueue<TransactionFlowRow> top = new PriorityQueue<>(
+                Comparator.comparingLong(TransactionFlowRow::getTotalInput));
+        long scanned = 0;
+        try (Stream<TransactionFlowRow> flows = graphStreamService.streamTransactionFlows()) {
+            Iterator<TransactionFlowRow> iterator = flows.iterator();
+            while (iterator.hasNext()) {
+                TransactionFlowRow flow = iterator.next();
+                scanned++;
+                if (flow.getTotalInput() > 0 && flow.getTotalOutput() > flow.getTotalInput() * threshold) {
+                    top.add(flow);
+                    if (top.size() > limit) {
+                        top.poll();
+                    }
+                }
+            }
+        }
+        log.debug("Peel chains: {} transacciones recorridas, {} retenidas", scanned, top.size());
+
+        return top.stream()
+                .sorted(Comparator.comparingLong(TransactionFlowRow::getTotalInput).reversed())
+                .map(this::toPeelChainResult)
                 .collect(Collectors.toList());
     }
-    
-    /**
-     * Mapea los datos de Neo4j a PeelChainResult
-     */
-    private PeelChainResult mapToPeelChainResult(Map<String, Object> data) {
+
+    private PeelChainResult toPeelChainResult(TransactionFlowRow flow) {
         PeelChainResult result = PeelChainResult.builder()
-                .wallet((String) data.get("wallet"))
-                .transaction((String) data.get("transaction"))
-                .inputAmount(((Number) data.get("inputAmount")).longValue())
-                .outputsTotal(((Number) data.get("outputsTotal")).longValue())
+                .wallet(flow.getSpender())
+                .transaction(flow.getTxHash())
+                .inputAmount(flow.getTotalInput())
+                .outputsTotal(flow.getTotalOutput())
+                .mainRecipient(flow.getMainRecipient())
+                .mainRecipientAmount(flow.getMainAmount() >= 0 ? flow.getMainAmount() : null)
+                .changeAddress(flow.getChangeRecipient())
+                .changeAmount(flow.getChangeAmount() >= 0 ? flow.getChangeAmount() : null)
                 .build();
-        
+
         result.calculatePeelPercentage();
         return result;
     }
     
     /**
-     * Mapea los datos detallados de peel chain
+     * Mapea los datos de Neo4j a PeelChainResult
      */
-    private PeelChainResult mapToDetailedPeelChainResult(Map<String, Object> data) {
+    private PeelChainResult mapToPeelChainResult(Map<String, Object> data) {
         PeelChainResult result = PeelChainResult.builder()
                 .wallet((String) data.get("wallet"))
                 .transaction((String) data.get("transaction"))
                 .inputAmount(((Number) data.get("inputAmount")).longValue())
                 .outputsTotal(((Number) data.get("outputsTotal")).longValue())
-                .mainRecipient((String) data.get("mainRecipient"))
-                .mainRecipientAmount(
-                        data.get("mainRecipientAmount") != null 
-                                ? ((Number) data.get("mainRecipientAmount")).longValue() 
-                                : null
-                )
-                .changeAddress((String) data.get("changeAddress"))
-                .changeAmount(
-                        data.get("changeAmount") != null 
-                                ? ((Number) data.get("changeAmount")).longValue() 
-                                : null
-                )
                 .build();
         
         result.calculatePeelPercentage();
@@ -96,7 +116,7 @@ public class ForensicAnalysisService {
         List<PeelChainResult> peelChains = detectPeelChains();
         
         // Detectar double spends
-        var doubleSpends = transactionRepository.findDoubleSpendTransactions();
+        var doubleSpends = graphProjectionService.findDoubleSpends(50);
         
         return Map.of(
                 "peelChains", peelChains.size(),
@@ -1,13 +1,18 @@
 package com.example.service;
 
+import com.example.algorithm.HyperBall;
+import com.example.algorithm.KCoreDecomposition;
+import com.example.algorithm.WalletGraph;
 import com.example.dto.CentralityResult;
 import com.example.dto.CommunityResult;
+import com.example.dto.KCoreResult;
 import com.example.repository.AlgorithmRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -20,6 +25,13 @@ import java.util.stream.Collectors;
 public class GraphAlgorithmsService {
 
     private final AlgorithmRepository algorithmRepository;
+    private final WalletGraphService walletGraphService;
+
+    // Última función de vecindario calculada; se reutiliza mientras el snapshot no cambie
+    private final AtomicReference<HyperBall.Result> lastNeighbourhood = new AtomicReference<>();
+
+    // Última descomposición k-core; se recalcula sólo cuando cambia el snapshot
+    private final AtomicReference<KCoreDecomposition.Result> lastKCore = new AtomicReference<>();
 
     /**
      * ALGORITMO: Betweenness Centrality
@@ -68,6 +80,8 @@ public class GraphAlgorithmsService {
                 results.get(i).setRank(i + 1);
             }
 
+            attachNeighbourhood(results);
+
             long executionTime = System.currentTimeMillis() - startTime;
             log.info("Centrality calculation completed in {}ms, found {} central wallets",
                     executionTime, results.size());
@@ -184,6 +198,8 @@ public class GraphAlgorithmsService {
                 results.get(i).setRank(i + 1);
             }
 
+            attachNeighbourhood(results);
+
             long executionTime = System.currentTimeMillis() - startTime;
             log.info("Node importance analysis completed in {}ms", executionTime);
 
@@ -195,6 +211,259 @@ public class GraphAlgorithmsService {
         }
     }
 
+    /**
+     * ALGORITMO: Función de vecindario (HyperBall)
+     *
+     * Concepto: Para TODAS las wallets estima cuántas wallets distintas son alcanzables
+     * en 1..k saltos (reach@k) y su harmonic centrality Σ 1/d(v, u), sin lanzar un
+     * {@code [*..k]} de Cypher por wallet.
+     *
+     * Estrategia: un contador HyperLogLog por wallet sobre el snapshot en memoria;
+     * k rondas de unión con los vecinos, en paralelo.
+     *
+     * Complejidad: O(k · (V + E) · m), casi lineal en el tamaño del grafo
+     * Interpretación: Reach alto con pocos saltos = wallet con gran alcance de dispersión
+     */
+    public List<CentralityResult> calculateNeighbourhoodFunction(Integer maxHops,
+                                                                 Integer topN,
+                                                                 String direction,
+                                                                 Integer log2Registers) {
+        long startTime = System.currentTimeMillis();
+        log.info("Calculating neighbourhood function: k={}, direction={}, topN={}", maxHops, direction, topN);
+
+        try {
+            HyperBall.Result result = neighbourhoodFunction(maxHops,
+                    HyperBall.Direction.valueOf(direction.toUpperCase()),
+                    log2Registers != null ? log2Registers : HyperBall.DEFAULT_LOG2_REGISTERS);
+            WalletGraph graph = result.getGraph();
+
+            // Top-N por harmonic centrality sin ordenar todas las wallets
+            int limit = Math.min(topN, graph.size());
+            PriorityQueue<Integer> top = new PriorityQueue<>(
+                    Comparator.comparingDouble(result::harmonicCentrality));
+            for (int v = 0; v < graph.size(); v++) {
+                if (top.size() < limit) {
+                    top.add(v);
+                } else if (result.harmonicCentrality(v) > result.harmonicCentrality(top.peek())) {
+                    top.poll();
+                    top.add(v);
+                }
+            }
+
+            List<CentralityResult> results = new ArrayList<>(top.size());
+            for (int v : top) {
+                results.add(buildNeighbourhoodResult(result, v));
+            }
+            results.sort(Comparator.comparingDouble(CentralityResult::getHarmonicCentrality).reversed());
+            for (int i = 0; i < results.size(); i++) {
+                results.get(i).setRank(i + 1);
+            }
+
+            long executionTime = System.currentTimeMillis() - startTime;
+            log.info("Neighbourhood function completed in {}ms for {} wallets",
+                    executionTime, graph.size());
+
+            return results;
+
+        } catch (Exception e) {
+            log.error("Error calculating neighbourhood function", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Metadatos de la última función de vecindario calculada
+     */
+    public Map<String, Object> getNeighbourhoodMetadata() {
+        HyperBall.Result result = lastNeighbourhood.get();
+        if (result == null) {
+            return Map.of();
+        }
+        Map<String, Object> metadata = new HashMap<>();
+        metadata.put("wallets", result.getGraph().size());
+        metadata.put("snapshotVersion", result.getGraph().getVersion());
+        metadata.put("stale", result.getGraph().getVersion() != walletGraphService.getSnapshot().getVersion());
+        metadata.put("maxHops", result.getMaxHops());
+        metadata.put("effectiveRounds", result.getEffectiveRounds());
+        metadata.put("direction", result.getDirection().name());
+        metadata.put("registersPerCounter", result.getRegistersPerCounter());
+        metadata.put("relativeStandardError", result.getRelativeStandardError());
+        metadata.put("executionTimeMs", result.getExecutionTimeMs());
+        return metadata;
+    }
+
+    private HyperBall.Result neighbourhoodFunction(int maxHops, HyperBall.Direction direction, int log2Registers) {
+        WalletGraph graph = walletGraphService.getSnapshot();
+        HyperBall.Result cached = lastNeighbourhood.get();
+        if (cached != null
+                && cached.getGraph().getVersion() == graph.getVersion()
+                && cached.getMaxHops() == maxHops
+                && cached.getDirection() == direction
+                && cached.getRegistersPerCounter() == (1 << log2Registers)) {
+            return cached;
+        }
+        HyperBall.Result result = HyperBall.compute(graph, maxHops, log2Registers, direction);
+        lastNeighbourhood.set(result);
+        return result;
+    }
+
+    /**
+     * Completa reach@k y harmonic centrality si hay una función de vecindario
+     * calculada sobre el snapshot vigente (no la recalcula)
+     */
+    private void attachNeighbourhood(List<CentralityResult> results) {
+        HyperBall.Result result = lastNeighbourhood.get();
+        if (result == null || results.isEmpty()) {
+            return;
+        }
+        WalletGraph graph = result.getGraph();
+        long currentVersion = walletGraphService.getSnapshot().getVersion();
+        if (graph.getVersion() != currentVersion) {
+            log.debug("Función de vecindario del snapshot {} descartada (vigente: {})",
+                    graph.getVersion(), currentVersion);
+            return;
+        }
+        for (CentralityResult centrality : results) {
+            int v = graph.idOf(centrality.getWallet());
+            if (v >= 0) {
+                long[] profile = result.reachProfile(v);
+                centrality.setReachByHop(Arrays.stream(profile).boxed().collect(Collectors.toList()));
+                centrality.setReachWithinK(profile[profile.length - 1]);
+                centrality.setHarmonicCentrality(result.harmonicCentrality(v));
+            }
+        }
+    }
+
+    private CentralityResult buildNeighbourhoodResult(HyperBall.Result result, int v) {
+        long[] profile = result.reachProfile(v);
+        long reachWithinK = profile[profile.length - 1];
+        return CentralityResult.builder()
+                .wallet(result.getGraph().addressOf(v))
+                .degreeCentrality((double) result.getGraph().degree(v))
+                .reachWithinK(reachWithinK)
+                .reachByHop(Arrays.stream(profile).boxed().collect(Collectors.toList()))
+                .harmonicCentrality(result.harmonicCentrality(v))
+                .riskLevel(calculateRiskLevelByReach(reachWithinK))
+                .build();
+    }
+
+    /**
+     * ALGORITMO: Descomposición k-core
+     *
+     * Concepto: Encuentra los núcleos DENSOS de wallets que transaccionan entre sí.
+     * Toda wallet del k-core tiene al menos k contrapartes dentro del mismo core;
+     * el core máximo suele ser el corazón de un anillo de lavado.
+     *
+     * Estrategia: peeling paralelo por niveles sobre el snapshot en memoria.
+     * El resultado se cachea por versión de snapshot, así que basta con recargar el
+     * snapshot tras una ingesta masiva para obtener cores actualizados.
+     *
+     * Complejidad: O(V + E)
+     *
+     * @param minCore Core mínimo a devolver (null = core máximo)
+     * @param limit Máximo de wallets y aristas en la respuesta
+     * @param refresh true para recargar el snapshot desde Neo4j antes de calcular
+     */
+    public KCoreResult calculateKCore(Integer minCore, Integer limit, boolean refresh) {
+        long startTime = System.currentTimeMillis();
+        log.info("Calculating k-core decomposition (minCore={}, limit={}, refresh={})", minCore, limit, refresh);
+
+        try {
+            KCoreDecomposition.Result result = kCoreDecomposition(refresh);
+            WalletGraph graph = result.getGraph();
+            int k = minCore != null ? Math.min(minCore, result.getMaxCore()) : result.getMaxCore();
+
+            int[] members = result.walletsInCore(k);
+            Integer[] ordered = Arrays.stream(members).boxed().toArray(Integer[]::new);
+            Arrays.sort(ordered, Comparator
+                    .comparingInt((Integer v) -> result.coreNumber(v)).reversed()
+                    .thenComparing(Comparator.comparingInt((Integer v) -> graph.degree(v)).reversed()));
+
+            List<KCoreResult.WalletCore> coreWallets = new ArrayList<>();
+            for (int i = 0; i < ordered.length && i < limit; i++) {
+                int v = ordered[i];
+                coreWallets.add(KCoreResult.WalletCore.builder()
+                        .address(graph.addressOf(v))
+                        .coreNumber(result.coreNumber(v))
+                        .degree(graph.degree(v))
+                        .build());
+            }
+
+            // Subgrafo inducido del core: aristas con ambos extremos dentro
+            List<KCoreResult.CoreEdge> coreEdges = new ArrayList<>();
+            for (int v : members) {
+                for (int w : graph.outNeighbours(v)) {
+                    if (result.coreNumber(w) >= k) {
+                        if (coreEdges.size() >= limit) {
+                            break;
+                        }
+                        coreEdges.add(KCoreResult.CoreEdge.builder()
+                                .fromWallet(graph.addressOf(v))
+                                .toWallet(graph.addressOf(w))
+                                .amount(graph.amount(v, w))
+                                .build());
+                    }
+                }
+            }
+
+            long[] histogram = result.histogram();
+            Map<Integer, Long> coreHistogram = new TreeMap<>();
+            for (int c = 0; c < histogram.length; c++) {
+                if (histogram[c] > 0) {
+                    coreHistogram.put(c, histogram[c]);
+                }
+            }
+
+            long executionTime = System.currentTimeMillis() - startTime;
+            log.info("K-core completed in {}ms: max core {}, {} wallets in {}-core",
+                    executionTime, result.getMaxCore(), members.length, k);
+
+            return KCoreResult.builder()
+                    .maxCore(result.getMaxCore())
+                    .requestedCore(k)
+                    .totalWallets(graph.size())
+                    .coreHistogram(coreHistogram)
+                    .coreWallets(coreWallets)
+                    .coreEdges(coreEdges)
+                    .truncated(members.length > limit || coreEdges.size() >= limit)
+                    .snapshotVersion(graph.getVersion())
+                    .executionTimeMs(executionTime)
+                    .riskLevel(calculateCoreRiskLevel(k, members.length))
+                    .build();
+
+        } catch (Exception e) {
+            log.error("Error calculating k-core decomposition", e);
+            return KCoreResult.builder()
+                    .maxCore(0)
+                    .coreWallets(Collections.emptyList())
+                    .coreEdges(Collections.emptyList())
+                    .build();
+        }
+    }
+
+    /**
+     * Core number de una wallet, o null si no está en el snapshot
+     */
+    public Integer getCoreNumber(String address) {
+        try {
+            return kCoreDecomposition(false).coreNumber(address);
+        } catch (Exception e) {
+            log.error("Error getting core number for {}", address, e);
+            return null;
+        }
+    }
+
+    private KCoreDecomposition.Result kCoreDecomposition(boolean refresh) {
+        WalletGraph graph = refresh ? walletGraphService.reload() : walletGraphService.getSnapshot();
+        KCoreDecomposition.Result cached = lastKCore.get();
+        if (cached != null && cached.getGraph().getVersion() == graph.getVersion()) {
+            return cached;
+        }
+        KCoreDecomposition.Result result = KCoreDecomposition.compute(graph);
+        lastKCore.set(result);
+        return result;
+    }
+
     /**
      * Calcular nivel de riesgo basado en número de conexiones puente
      */
@@ -205,6 +474,26 @@ public class GraphAlgorithmsService {
         return "LOW";
     }
 
+    /**
+     * Calcular nivel de riesgo basado en el alcance estimado
+     */
+    private String calculateRiskLevelByReach(long reach) {
+        if (reach >= 10000) return "CRITICAL";
+        if (reach >= 1000) return "HIGH";
+        if (reach >= 100) return "MEDIUM";
+        return "LOW";
+    }
+
+    /**
+     * Calcular nivel de riesgo de un core según su profundidad y tamaño
+     */
+    private String calculateCoreRiskLevel(int core, int size) {
+        if (core >= 10 && size >= 10) return "CRITICAL";
+        if (core >= 5 && size >= 6) return "HIGH";
+        if (core >= 3) return "MEDIUM";
+        return "LOW";
+    }
+
     /**
      * Calcular nivel de sospecha de comunidad basado en densidad
      */
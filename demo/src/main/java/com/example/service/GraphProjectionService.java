@@ -0,0 +1,194 @@
+package com.example.service;
+
+import com.example.dto.TransactionSummary;
+import com.example.dto.WalletSummary;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Lecturas por proyección de wallets y transacciones
+ *
+ * {@code Wallet} y {@code Transaction} mapean sus INPUT/OUTPUT como listas de
+ * {@code @Relationship}, así que {@code findById}/{@code findAll} del repositorio
+ * hidratan en cascada todo el subgrafo alcanzable. Las rutas de lectura que sólo
+ * necesitan propiedades del nodo usan estas consultas, que devuelven columnas
+ * escalares mapeadas a {@link WalletSummary}/{@link TransactionSummary}. La
+ * hidratación completa queda para quien la pida explícitamente al repositorio.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GraphProjectionService {
+
+    private static final String WALLET_COLUMNS = """
+        RETURN w.address AS address,
+               w.chain AS chain,
+               w.balance AS balance,
+               w.totalReceived AS totalReceived,
+               w.totalSent AS totalSent,
+               w.txCount AS txCount,
+               w.riskLevel AS riskLevel,
+               w.tags AS tags,
+               w.volumeIn AS volumeIn,
+               w.volumeOut AS volumeOut,
+               w.observedTxCount AS observedTxCount,
+               w.counterparties AS counterparties,
+               w.firstSeen AS firstSeen,
+               w.lastSeen AS lastSeen
+        """;
+
+    private static final String TRANSACTION_COLUMNS = """
+        RETURN t.hash AS hash,
+               t.chain AS chain,
+               t.blockHeight AS blockHeight,
+               t.confirmed AS confirmed,
+               t.totalInput AS totalInput,
+               t.totalOutput AS totalOutput,
+               t.fees AS fees,
+               t.confirmations AS confirmations,
+               t.doubleSpend AS doubleSpend
+        """;
+
+    private static final String WALLET_QUERY = """
+        MATCH (w:Wallet {address: $address})
+        """ + WALLET_COLUMNS;
+
+    private static final String WALLETS_QUERY = """
+        UNWIND $addresses AS address
+        MATCH (w:Wallet {address: address})
+        """ + WALLET_COLUMNS;
+
+    private static final String RECENT_TRANSACTIONS_QUERY = """
+        MATCH (t:Transaction)
+        WITH t ORDER BY t.confirmed DESC LIMIT $limit
+        """ + TRANSACTION_COLUMNS;
+
+    private static final String DOUBLE_SPENDS_QUERY = """
+        MATCH (t:Transaction)
+        WHERE t.doubleSpend = true
+        WITH t ORDER BY t.confirmed DESC LIMIT $limit
+        """ + TRANSACTION_COLUMNS;
+
+    private final Neo4jClient neo4jClient;
+
+    /**
+     * Propiedades de una wallet, o vacío si no está en el grafo
+     */
+    public Optional<WalletSummary> findWallet(String address) {
+        for (Map<String, Object> row : neo4jClient.query(WALLET_QUERY)
+                .bindAll(Map.of("address", address))
+                .fetch()
+                .all()) {
+            return Optional.of(toWallet(row));
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Propiedades de varias wallets en una consulta
+     *
+     * @return address → resumen (sólo las que existen)
+     */
+    public Map<String, WalletSummary> findWallets(Collection<String> addresses) {
+        Map<String, WalletSummary> wallets = new LinkedHashMap<>();
+        if (addresses == null || addresses.isEmpty()) {
+            return wallets;
+        }
+        for (Map<String, Object> row : neo4jClient.query(WALLETS_QUERY)
+                .bindAll(Map.of("addresses", new ArrayList<>(addresses)))
+                .fetch()
+                .all()) {
+            WalletSummary wallet = toWallet(row);
+            wallets.put(wallet.getAddress(), wallet);
+        }
+        return wallets;
+    }
+
+    /**
+     * Transacciones más recientes por {@code confirmed}
+     */
+    public List<TransactionSummary> findRecentTransactions(int limit) {
+        return transactions(RECENT_TRANSACTIONS_QUERY, limit);
+    }
+
+    /**
+     * Transacciones marcadas como double spend, las más recientes primero
+     */
+    public List<TransactionSummary> findDoubleSpends(int limit) {
+        return transactions(DOUBLE_SPENDS_QUERY, limit);
+    }
+
+    private List<TransactionSummary> transactions(String query, int limit) {
+        List<TransactionSummary> transactions = new ArrayList<>();
+        for (Map<String, Object> row : neo4jClient.query(query)
+                .bindAll(Map.of("limit", Math.max(0, limit)))
+                .fetch()
+                .all()) {
+            transactions.add(toTransaction(row));
+        }
+        return transactions;
+    }
+
+    static WalletSummary toWallet(Map<String, Object> row) {
+        return WalletSummary.builder()
+                .address((String) row.get("address"))
+                .chain((String) row.get("chain"))
+                .balance(toLong(row.get("balance")))
+                .totalReceived(toLong(row.get("totalReceived")))
+                .totalSent(toLong(row.get("totalSent")))
+                .txCount(toInteger(row.get("txCount")))
+                .riskLevel((String) row.get("riskLevel"))
+                .tags(toStrings(row.get("tags")))
+                .volumeIn(toLong(row.get("volumeIn")))
+                .volumeOut(toLong(row.get("volumeOut")))
+                .observedTxCount(toInteger(row.get("observedTxCount")))
+                .counterparties(toInteger(row.get("counterparties")))
+                .firstSeen(row.get("firstSeen") instanceof LocalDateTime first ? first : null)
+                .lastSeen(row.get("lastSeen") instanceof LocalDateTime last ? last : null)
+                .build();
+    }
+
+    static TransactionSummary toTransaction(Map<String, Object> row) {
+        return TransactionSummary.builder()
+                .hash((String) row.get("hash"))
+                .chain((String) row.get("chain"))
+                .blockHeight(toLong(row.get("blockHeight")))
+                .confirmed(row.get("confirmed") != null ? row.get("confirmed").toString() : null)
+                .totalInput(toLong(row.get("totalInput")))
+                .totalOutput(toLong(row.get("totalOutput")))
+                .fees(toLong(row.get("fees")))
+                .confirmations(toInteger(row.get("confirmations")))
+                .doubleSpend(row.get("doubleSpend") instanceof Boolean b ? b : null)
+                .build();
+    }
+
+    private static Long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : null;
+    }
+
+    private static Integer toInteger(Object value) {
+        return value instanceof Number ? ((Number) value).intValue() : null;
+    }
+
+    private static List<String> toStrings(Object value) {
+        List<String> strings = new ArrayList<>();
+        if (value instanceof Collection<?> values) {
+            for (Object item : values) {
+                if (item != null) {
+                    strings.add(item.toString());
+                }
+            }
+        }
+        return strings;
+    }
+}
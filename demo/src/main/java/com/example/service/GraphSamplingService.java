@@ -0,0 +1,87 @@
+package com.example.service;
+
+import com.example.algorithm.GraphSampler;
+import com.example.algorithm.SampleEstimator;
+import com.example.algorithm.SearchBudget;
+import com.example.algorithm.WalletGraph;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Servicio de analítica global aproximada por muestreo del snapshot de wallets
+ *
+ * Estima grado medio, clustering, distribución de grados y longitud media de camino
+ * sobre una muestra en lugar de recorrer el grafo completo; cada valor se devuelve
+ * con su error estándar e intervalo de confianza.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GraphSamplingService {
+
+    public static final int DEFAULT_SAMPLE_SIZE = 2_000;
+    public static final int DEFAULT_PATH_SOURCES = 64;
+
+    private final WalletGraphService walletGraphService;
+
+    /**
+     * Estadísticas globales estimadas
+     *
+     * @param method Muestreador
+     * @param sampleSize Wallets (o pasos de caminata) de la muestra
+     * @param confidence Nivel del intervalo, p. ej. 0.95
+     * @param pathSources Fuentes BFS para la longitud media de camino
+     * @param timeoutMs Tiempo máximo para los BFS (0 = sin límite)
+     * @param seed Semilla; null para una muestra distinta en cada llamada
+     */
+    public Map<String, Object> estimate(GraphSampler.Method method,
+                                        int sampleSize,
+                                        double confidence,
+                                        int pathSources,
+                                        long timeoutMs,
+                                        Long seed) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize debe ser positivo");
+        }
+        if (confidence <= 0.5 || confidence >= 1.0) {
+            throw new IllegalArgumentException("confidence debe estar en (0.5, 1)");
+        }
+        long startTime = System.currentTimeMillis();
+        WalletGraph graph = walletGraphService.getSnapshot();
+        long effectiveSeed = seed != null ? seed : System.nanoTime();
+        log.info("Estimating global statistics: method={}, sampleSize={}, wallets={}",
+                method, sampleSize, graph.size());
+
+        GraphSampler.Sample sample = new GraphSampler(graph, effectiveSeed).sample(method, sampleSize);
+        long samplingTime = System.currentTimeMillis() - startTime;
+
+        Map<String, Object> estimates = new LinkedHashMap<>();
+        estimates.put("meanDegree", SampleEstimator.meanDegree(graph, sample, confidence));
+        estimates.put("clusteringCoefficient", SampleEstimator.clusteringCoefficient(graph, sample,
+                confidence, SampleEstimator.DEFAULT_MAX_WEDGES));
+        estimates.put("averagePathLength", SampleEstimator.averagePathLength(graph, sample, confidence,
+                pathSources > 0 ? pathSources : DEFAULT_PATH_SOURCES,
+                SearchBudget.of(timeoutMs, 0, 0, 0)));
+        estimates.put("degreeDistribution", SampleEstimator.degreeDistribution(graph, sample, confidence));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("method", method.name());
+        result.put("unbiased", sample.isUnbiased());
+        result.put("sampleSize", sample.size());
+        result.put("distinctWallets", sample.distinctNodes());
+        result.put("confidence", confidence);
+        result.put("seed", effectiveSeed);
+        result.put("wallets", graph.size());
+        result.put("edges", graph.edgeCount());
+        result.put("snapshotVersion", graph.getVersion());
+        result.put("estimates", estimates);
+        result.put("samplingTimeMs", samplingTime);
+        result.put("executionTimeMs", System.currentTimeMillis() - startTime);
+        log.info("Sampled statistics completed in {}ms", result.get("executionTimeMs"));
+        return result;
+    }
+}
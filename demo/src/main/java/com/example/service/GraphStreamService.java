@@ -0,0 +1,429 @@
+package com.example.service;
+
+import com.example.algorithm.KeysetPager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Lecturas en streaming de todo el grafo con paginación por clave
+ *
+ * Sustituye a las consultas de repositorio que devolvían
+ * {@code List<Map<String, Object>>} con un {@code LIMIT 1000/5000/10000} fijo para
+ * acotar el heap (y truncaban el análisis en silencio). Cada método devuelve un
+ * {@link Stream} perezoso sobre {@link KeysetPager}: las páginas se piden por
+ * {@code t.hash > $cursor ORDER BY t.hash LIMIT $page} a medida que se consumen y
+ * cada registro se decodifica a una fila tipada con campos primitivos. Cada página
+ * devuelve además {@code lastKey}/{@code scanned} (última transacción recorrida y
+ * cuántas), y expande con {@code OPTIONAL MATCH}: una transacción sin filas
+ * (coinbase, autotransferencia) no acorta la página ni corta el recorrido. Los
+ * streams deben consumirse en el hilo que los abre.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class GraphStreamService {
+
+    public static final int DEFAULT_PAGE_SIZE = 2_000;
+
+    /**
+     * Recoge la página de {@code t} ya ordenada y limitada, expone la última clave y
+     * el número de claves recorridas, y vuelve a una fila por {@code t}
+     */
+    private static final String PAGE_KEYS = """
+        WITH COLLECT(t) AS page
+        WITH page, page[-1].hash AS lastKey, size(page) AS scanned
+        UNWIND page AS t
+        """;
+
+    /** Un output por fila: (transacción, wallet receptora, satoshis) */
+    private static final String OUTPUT_AMOUNTS_PAGE = """
+        MATCH (t:Transaction)
+        WHERE t.hash > $cursor
+        WITH t ORDER BY t.hash LIMIT $limit
+        """ + PAGE_KEYS + """
+        OPTIONAL MATCH (t)-[o:OUTPUT]->(w:Wallet)
+        RETURN lastKey, scanned,
+               t.hash AS txHash,
+               w.address AS wallet,
+               COALESCE(o.value, o.amount, 0) AS amount
+        ORDER BY txHash
+        """;
+
+    /**
+     * Una fila por transacción con sus totales y los dos mayores receptores
+     * (pago principal y cambio en un peel chain)
+     */
+    private static final String TRANSACTION_FLOWS_PAGE = """
+        MATCH (t:Transaction)
+        WHERE t.hash > $cursor
+        WITH t ORDER BY t.hash LIMIT $limit
+        """ + PAGE_KEYS + """
+        CALL {
+            WITH t
+            OPTIONAL MATCH (w:Wallet)-[i:INPUT]->(t)
+            RETURN SUM(COALESCE(i.outputValue, i.amount, 0)) AS totalInput,
+                   HEAD(COLLECT(w.address)) AS spender
+        }
+        CALL {
+            WITH t
+            OPTIONAL MATCH (t)-[o:OUTPUT]->(r:Wallet)
+            WITH r, COALESCE(o.value, o.amount, 0) AS amount
+            ORDER BY amount DESC
+            RETURN SUM(amount) AS totalOutput,
+                   COLLECT(r.address)[0..2] AS recipients,
+                   COLLECT(amount)[0..2] AS amounts
+        }
+        RETURN lastKey, scanned, t.hash AS txHash, spender, totalInput, totalOutput, recipients, amounts
+        ORDER BY txHash
+        """;
+
+    /**
+     * Aristas wallet → wallet de las transacciones que tocan un lote de wallets
+     * (INPUT de {@code from}, OUTPUT a {@code to})
+     */
+    private static final String WALLET_EDGES_PAGE = """
+        UNWIND $addresses AS address
+        MATCH (:Wallet {address: address})-[:INPUT|OUTPUT]-(t:Transaction)
+        WHERE t.hash > $cursor
+        WITH DISTINCT t ORDER BY t.hash LIMIT $limit
+        """ + PAGE_KEYS + """
+        OPTIONAL MATCH (from:Wallet)-[:INPUT]->(t)-[o:OUTPUT]->(to:Wallet)
+        WHERE from <> to
+        RETURN lastKey, scanned,
+               t.hash AS txHash,
+               from.address AS fromWallet,
+               to.address AS toWallet,
+               SUM(COALESCE(o.value, o.amount, 0)) AS amount,
+               t.confirmed AS confirmed
+        ORDER BY txHash
+        """;
+
+    /**
+     * Relaciones FLOW (en ambos sentidos) de un lote de wallets; la clave de página
+     * es el par {@code from>to}, único por relación
+     */
+    private static final String WALLET_FLOWS_PAGE = """
+        UNWIND $addresses AS address
+        MATCH (:Wallet {address: address})-[f:FLOW]-(:Wallet)
+        WITH DISTINCT f
+        WITH f, startNode(f).address + '>' + endNode(f).address AS flowKey
+        WHERE flowKey > $cursor
+        WITH f, flowKey ORDER BY flowKey LIMIT $limit
+        WITH COLLECT({f: f, key: flowKey}) AS page
+        WITH page, page[-1].key AS lastKey, size(page) AS scanned
+        UNWIND page AS entry
+        WITH lastKey, scanned, entry.f AS f, entry.key AS flowKey
+        RETURN lastKey, scanned, flowKey,
+               startNode(f).address AS fromWallet,
+               endNode(f).address AS toWallet,
+               COALESCE(f.totalAmount, 0) AS amount,
+               COALESCE(f.txCount, 1) AS txCount,
+               COALESCE(f.minFee, 0) AS minFee,
+               COALESCE(f.maxFee, 0) AS maxFee,
+               COALESCE(f.minFeeTx, 'unknown') AS minFeeTx,
+               f.lastSeen AS lastSeen
+        ORDER BY flowKey
+        """;
+
+    private final Neo4jClient neo4jClient;
+
+    @Value("${stream.page-size:2000}")
+    private int pageSize = DEFAULT_PAGE_SIZE;
+
+    /**
+     * Todos los outputs del grafo
+     */
+    public Stream<OutputAmountRow> streamOutputAmounts() {
+        return stream(OUTPUT_AMOUNTS_PAGE, Map.of(), row -> row.get("wallet") == null ? null : new OutputAmountRow(
+                (String) row.get("txHash"),
+                (String) row.get("wallet"),
+                toLong(row.get("amount"))), OutputAmountRow::getTxHash);
+    }
+
+    /**
+     * Totales por transacción de todo el grafo
+     */
+    public Stream<TransactionFlowRow> streamTransactionFlows() {
+        return stream(TRANSACTION_FLOWS_PAGE, Map.of(), row -> {
+            List<?> recipients = row.get("recipients") instanceof List<?> list ? list : List.of();
+            List<?> amounts = row.get("amounts") instanceof List<?> list ? list : List.of();
+            return new TransactionFlowRow(
+                    (String) row.get("txHash"),
+                    (String) row.get("spender"),
+                    toLong(row.get("totalInput")),
+                    toLong(row.get("totalOutput")),
+                    recipients.size() > 0 ? (String) recipients.get(0) : null,
+                    amounts.size() > 0 ? toLong(amounts.get(0)) : -1L,
+                    recipients.size() > 1 ? (String) recipients.get(1) : null,
+                    amounts.size() > 1 ? toLong(amounts.get(1)) : -1L);
+        }, TransactionFlowRow::getTxHash);
+    }
+
+    /**
+     * Aristas de las transacciones en las que participa alguna de {@code addresses}
+     */
+    public Stream<EdgeRow> streamEdges(Collection<String> addresses) {
+        if (addresses.isEmpty()) {
+            return Stream.empty();
+        }
+        return stream(WALLET_EDGES_PAGE, Map.of("addresses", new ArrayList<>(addresses)),
+                row -> row.get("fromWallet") == null ? null : new EdgeRow(
+                (String) row.get("txHash"),
+                (String) row.get("fromWallet"),
+                (String) row.get("toWallet"),
+                toLong(row.get("amount")),
+                row.get("confirmed") != null ? row.get("confirmed").toString() : null), EdgeRow::getTxHash);
+    }
+
+    /**
+     * Relaciones FLOW que tocan alguna de {@code addresses}
+     */
+    public Stream<FlowRow> streamFlows(Collection<String> addresses) {
+        if (addresses.isEmpty()) {
+            return Stream.empty();
+        }
+        return stream(WALLET_FLOWS_PAGE, Map.of("addresses", new ArrayList<>(addresses)), row -> new FlowRow(
+                (String) row.get("flowKey"),
+                (String) row.get("fromWallet"),
+                (String) row.get("toWallet"),
+                toLong(row.get("amount")),
+                toLong(row.get("txCount")),
+                toDouble(row.get("minFee")),
+                toDouble(row.get("maxFee")),
+                (String) row.get("minFeeTx"),
+                row.get("lastSeen") != null ? row.get("lastSeen").toString() : null), FlowRow::getKey);
+    }
+
+    /**
+     * @param decoder Fila tipada, o null para las filas de relleno de una
+     *                transacción sin resultados
+     */
+    private <R> Stream<R> stream(String query, Map<String, Object> params, Function<Map<String, Object>, R> decoder,
+                                 Function<R, String> keyOf) {
+        return KeysetPager.stream((cursor, limit) -> {
+            Map<String, Object> bound = new HashMap<>(params);
+            bound.put("cursor", cursor);
+            bound.put("limit", limit);
+            List<R> rows = new ArrayList<>();
+            String lastKey = null;
+            int scanned = 0;
+            for (Map<String, Object> row : neo4jClient.query(query).bindAll(bound).fetch().all()) {
+                lastKey = (String) row.get("lastKey");
+                scanned = (int) toLong(row.get("scanned"));
+                R decoded = decoder.apply(row);
+                if (decoded != null) {
+                    rows.add(decoded);
+                }
+            }
+            return new KeysetPager.Page<>(rows, lastKey, scanned);
+        }, keyOf, "", Math.max(1, pageSize));
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+
+    /**
+     * Output de una transacción
+     */
+    public static final class OutputAmountRow {
+        private final String txHash;
+        private final String wallet;
+        private final long amount;
+
+        public OutputAmountRow(String txHash, String wallet, long amount) {
+            this.txHash = txHash;
+            this.wallet = wallet;
+            this.amount = amount;
+        }
+
+        public String getTxHash() {
+            return txHash;
+        }
+
+        public String getWallet() {
+            return wallet;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+    }
+
+    /**
+     * Totales de una transacción y sus dos mayores receptores (-1 si no hay)
+     */
+    public static final class TransactionFlowRow {
+        private final String txHash;
+        private final String spender;
+        private final long totalInput;
+        private final long totalOutput;
+        private final String mainRecipient;
+        private final long mainAmount;
+        private final String changeRecipient;
+        private final long changeAmount;
+
+        public TransactionFlowRow(String txHash, String spender, long totalInput, long totalOutput,
+                                  String mainRecipient, long mainAmount, String changeRecipient, long changeAmount) {
+            this.txHash = txHash;
+            this.spender = spender;
+            this.totalInput = totalInput;
+            this.totalOutput = totalOutput;
+            this.mainRecipient = mainRecipient;
+            this.mainAmount = mainAmount;
+            this.changeRecipient = changeRecipient;
+            this.changeAmount = changeAmount;
+        }
+
+        public String getTxHash() {
+            return txHash;
+        }
+
+        public String getSpender() {
+            return spender;
+        }
+
+        public long getTotalInput() {
+            return totalInput;
+        }
+
+        public long getTotalOutput() {
+            return totalOutput;
+        }
+
+        public String getMainRecipient() {
+            return mainRecipient;
+        }
+
+        public long getMainAmount() {
+            return mainAmount;
+        }
+
+        public String getChangeRecipient() {
+            return changeRecipient;
+        }
+
+        public long getChangeAmount() {
+            return changeAmount;
+        }
+    }
+
+    /**
+     * Arista wallet → wallet a través de una transacción (montos sumados por par)
+     */
+    public static final class EdgeRow {
+        private final String txHash;
+        private final String from;
+        private final String to;
+        private final long amount;
+        private final String confirmed;
+
+        public EdgeRow(String txHash, String from, String to, long amount, String confirmed) {
+            this.txHash = txHash;
+            this.from = from;
+            this.to = to;
+            this.amount = amount;
+            this.confirmed = confirmed;
+        }
+
+        public String getTxHash() {
+            return txHash;
+        }
+
+        public String getFrom() {
+            return from;
+        }
+
+        public String getTo() {
+            return to;
+        }
+
+        public long getAmount() {
+            return amount;
+        }
+
+        public String getConfirmed() {
+            return confirmed;
+        }
+    }
+
+    /**
+     * Relación FLOW materializada entre dos wallets
+     */
+    public static final class FlowRow {
+        private final String key;
+        private final String from;
+        private final String to;
+        private final long totalAmount;
+        private final long txCount;
+        private final double minFee;
+        private final double maxFee;
+        private final String minFeeTxHash;
+        private final String lastSeen;
+
+        public FlowRow(String key, String from, String to, long totalAmount, long txCount, double minFee,
+                       double maxFee, String minFeeTxHash, String lastSeen) {
+            this.key = key;
+            this.from = from;
+            this.to = to;
+            this.totalAmount = totalAmount;
+            this.txCount = txCount;
+            this.minFee = minFee;
+            this.maxFee = maxFee;
+            this.minFeeTxHash = minFeeTxHash;
+            this.lastSeen = lastSeen;
+        }
+
+        /** Clave de paginación {@code from>to} */
+        public String getKey() {
+            return key;
+        }
+
+        public String getFrom() {
+            return from;
+        }
+
+        public String getTo() {
+            return to;
+        }
+
+        public long getTotalAmount() {
+            return totalAmount;
+        }
+
+        public long getTxCount() {
+            return txCount;
+        }
+
+        public double getMinFee() {
+            return minFee;
+        }
+
+        public double getMaxFee() {
+            return maxFee;
+        }
+
+        public String getMinFeeTxHash() {
+            return minFeeTxHash;
+        }
+
+        public String getLastSeen() {
+            return lastSeen;
+        }
+    }
+}
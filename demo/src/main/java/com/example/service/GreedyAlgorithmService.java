@@ -1,8 +1,7 @@
 package com.example.service;
 
 import com.example.dto.PeelChainGreedyResult;
-import com.example.model.Transaction;
-import com.example.repository.TransactionRepository;
+import com.example.dto.TransactionSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -19,7 +18,7 @@ import java.util.stream.Collectors;
 @Slf4j
 public class GreedyAlgorithmService {
 
-    private final TransactionRepository transactionRepository;
+    private final GraphProjectionService graphProjectionService;
 
     /**
      * Analiza peel chains usando algoritmo greedy
@@ -28,11 +27,12 @@ public class GreedyAlgorithmService {
     public List<PeelChainGreedyResult> analyzePeelChainsGreedy(Double threshold, Integer limit) {
         log.info("Analyzing peel chains with threshold: {}, limit: {}", threshold, limit);
 
-        List<Transaction> transactions = transactionRepository.findAll();
+        // Proyección acotada: findAll() hidrataba todas las transacciones con sus relaciones
+        List<TransactionSummary> transactions = graphProjectionService.findRecentTransactions(limit);
         List<PeelChainGreedyResult> results = new ArrayList<>();
 
         // Análisis greedy simple
-        for (Transaction tx : transactions) {
+        for (TransactionSummary tx : transactions) {
             if (results.size() >= limit) {
                 break;
             }
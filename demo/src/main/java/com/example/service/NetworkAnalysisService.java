@@ -1,13 +1,14 @@
 package com.example.service;
 
 import com.example.dto.NetworkAnalysisResult;
-import com.example.model.Wallet;
+import com.example.dto.WalletSummary;
 import com.example.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -17,9 +18,14 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @Slf4j
 public class NetworkAnalysisService {
+
+    /** Contrapartes devueltas, como el LIMIT de {@code findConnectedWallets} */
+    private static final int MAX_CONNECTED_WALLETS = 50;
     
     private final WalletRepository walletRepository;
     private final BlockCypherService blockCypherService;
+    private final GraphProjectionService graphProjectionService;
+    private final WalletAggregateService walletAggregateService;
     
     /**
      * Analiza la red completa de una wallet
@@ -28,8 +34,8 @@ public class NetworkAnalysisService {
         log.info("Analyzing network for wallet: {}", address);
         
         try {
-            // 1. Buscar la wallet en la base de datos
-            Optional<Wallet> walletOpt = walletRepository.findById(address);
+            // 1. Buscar la wallet en la base de datos (sólo propiedades, sin hidratar relaciones)
+            Optional<WalletSummary> walletOpt = graphProjectionService.findWallet(address);
 
             if (walletOpt.isEmpty()) {
                 log.warn("Wallet not found in database: {}", address);
@@ -48,10 +54,10 @@ public class NetworkAnalysisService {
                         .build();
             }
 
-            Wallet wallet = walletOpt.get();
+            WalletSummary wallet = walletOpt.get();
 
             // 2. Obtener información detallada de conexiones
-            List<Map<String, Object>> connectedWalletsDataRaw = walletRepository.findConnectedWallets(address);
+            List<Map<String, Object>> connectedWalletsDataRaw = findConnectedWallets(address);
 
             // Extraer los objetos "result" de los wrappers
             List<Map<String, Object>> connectedWalletsData = new ArrayList<>();
@@ -99,12 +105,13 @@ public class NetworkAnalysisService {
     /**
      * Asegura que la wallet existe en la base de datos, si no la fetch de BlockCypher
      */
-    private Wallet ensureWalletExists(String address) {
-        return walletRepository.findById(address)
+    private WalletSummary ensureWalletExists(String address) {
+        return graphProjectionService.findWallet(address)
                 .orElseGet(() -> {
                     log.info("Wallet {} not found, fetching from BlockCypher", address);
                     try {
-                        return blockCypherService.fetchAndSaveWallet(address, "BTC");
+                        blockCypherService.fetchAndSaveWallet(address, "BTC");
+                        return graphProjectionService.findWallet(address).orElse(null);
                     } catch (Exception e) {
                         log.error("Error fetching wallet from BlockCypher: " + address, e);
                         return null;
@@ -112,11 +119,22 @@ public class NetworkAnalysisService {
                 });
     }
     
+    /**
+     * Contrapartes desde los pares materializados; mientras el backfill de agregados
+     * no ha terminado se recalculan desde las transacciones
+     */
+    private List<Map<String, Object>> findConnectedWallets(String address) {
+        if (walletAggregateService.isMaterialised()) {
+            return walletAggregateService.findCounterparties(address, MAX_CONNECTED_WALLETS);
+        }
+        return walletRepository.findConnectedWallets(address);
+    }
+
     /**
      * Construye el resultado del análisis de red
      */
     private NetworkAnalysisResult buildNetworkAnalysisResult(
-            Wallet wallet, 
+            WalletSummary wallet, 
             List<Map<String, Object>> connectedWalletsData,
             List<Map<String, Object>> recentTxsData) {
 
@@ -169,19 +187,27 @@ public class NetworkAnalysisService {
      * Obtiene estadísticas generales de una wallet
      */
     public Map<String, Object> getWalletStatistics(String address) {
-        Wallet wallet = walletRepository.findById(address)
+        WalletSummary wallet = graphProjectionService.findWallet(address)
                 .orElseThrow(() -> new RuntimeException("Wallet not found: " + address));
-        
-        List<Map<String, Object>> connections = walletRepository.findConnectedWallets(address);
-        
-        return Map.of(
-                "address", wallet.getAddress(),
-                "balance", wallet.getBalance(),
-                "totalReceived", wallet.getTotalReceived(),
-                "totalSent", wallet.getTotalSent(),
-                "transactionCount", wallet.getTxCount(),
-                "directConnections", connections.size(),
-                "riskLevel", wallet.getRiskLevel() != null ? wallet.getRiskLevel() : "UNKNOWN"
-        );
+
+        // Con los agregados completos todo sale del propio nodo
+        int directConnections = walletAggregateService.isMaterialised()
+                ? (wallet.getCounterparties() != null ? wallet.getCounterparties() : 0)
+                : walletRepository.findConnectedWallets(address).size();
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("address", wallet.getAddress());
+        stats.put("balance", wallet.getBalance());
+        stats.put("totalReceived", wallet.getTotalReceived());
+        stats.put("totalSent", wallet.getTotalSent());
+        stats.put("transactionCount", wallet.getTxCount());
+        stats.put("directConnections", directConnections);
+        stats.put("riskLevel", wallet.getRiskLevel() != null ? wallet.getRiskLevel() : "UNKNOWN");
+        stats.put("volumeIn", wallet.getVolumeIn() != null ? wallet.getVolumeIn() : 0L);
+        stats.put("volumeOut", wallet.getVolumeOut() != null ? wallet.getVolumeOut() : 0L);
+        stats.put("observedTransactions", wallet.getObservedTxCount() != null ? wallet.getObservedTxCount() : 0);
+        stats.put("firstSeen", wallet.getFirstSeen() != null ? wallet.getFirstSeen().toString() : "");
+        stats.put("lastSeen", wallet.getLastSeen() != null ? wallet.getLastSeen().toString() : "");
+        return stats;
     }
 }
@@ -1,34 +1,65 @@
 package com.example.service;
 
+import com.example.algorithm.SupernodePolicy;
+import com.example.dto.HopDistanceResult;
 import com.example.dto.PathQueryResult;
 import com.example.dto.PathResult;
 import com.example.repository.PathAnalysisRepository;
+import com.example.service.GraphStreamService.EdgeRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class PathAnalysisService {
     
+    /** Saltos wallet → wallet máximos del respaldo (shortestPath usaba *..20 relaciones) */
+    private static final int MAX_FALLBACK_HOPS = 10;
+
+    /** Wallets de la frontera por consulta */
+    private static final int FRONTIER_CHUNK = 500;
+
+    /** Aristas leídas como máximo por el respaldo antes de rendirse */
+    private static final long MAX_FALLBACK_EDGES = 500_000;
+
+    /** Wallets devueltas como máximo por {@link #findWalletsWithinHops} */
+    private static final int MAX_WITHIN_HOPS_RESULTS = 100;
+
     private final PathAnalysisRepository pathAnalysisRepository;
+    private final DistanceIndexService distanceIndexService;
+    private final SupernodeService supernodeService;
+    private final GraphStreamService graphStreamService;
     
     /**
      * Encuentra el camino más corto entre dos wallets
+     *
+     * Los supernodos no pueden ser intermedios: un camino "a través de un exchange" no es
+     * evidencia de conexión y expandirlo hace que shortestPath recorra millones de aristas.
      */
     public PathResult findConnectionPath(String fromAddress, String toAddress) {
         log.info("Finding path from {} to {}", fromAddress, toAddress);
         
+        SupernodePolicy policy = supernodeService.defaultPolicy().protect(fromAddress, toAddress);
         try {
-            List<Map<String, Object>> results = pathAnalysisRepository.findShortestPathRaw(fromAddress, toAddress);
+            List<Map<String, Object>> results = pathAnalysisRepository.findShortestPathRaw(
+                    fromAddress, toAddress, policy.excludedAddresses());
 
             if (results == null || results.isEmpty()) {
-                return buildNoConnectionResult(fromAddress, toAddress);
+                return withSupernodes(buildNoConnectionResult(fromAddress, toAddress), policy);
             }
             
             // Extraer el objeto "result" del primer elemento
@@ -39,10 +70,10 @@ public class PathAnalysisService {
                 : firstResult;
 
             if (pathData == null) {
-                return buildNoConnectionResult(fromAddress, toAddress);
+                return withSupernodes(buildNoConnectionResult(fromAddress, toAddress), policy);
             }
 
-            return buildPathResultFromMap(fromAddress, toAddress, pathData);
+            return withSupernodes(buildPathResultFromMap(fromAddress, toAddress, pathData), policy);
 
         } catch (Exception e) {
             log.error("Error finding path: {}", e.getMessage(), e);
@@ -50,14 +81,130 @@ public class PathAnalysisService {
         }
     }
     
+    /**
+     * Distancia en saltos entre dos wallets
+     *
+     * Usa el índice de distancias (microsegundos) y sólo cae a Neo4j si el índice aún
+     * no está listo o alguna wallet no está indexada. El respaldo mide lo mismo que el
+     * índice: saltos wallet → wallet por INPUT → OUTPUT, sin dirección y sin excluir
+     * supernodos.
+     */
+    public HopDistanceResult findHopDistance(String fromAddress, String toAddress) {
+        long startTime = System.nanoTime();
+        Optional<Integer> indexed = distanceIndexService.hopDistance(fromAddress, toAddress);
+
+        if (indexed.isPresent()) {
+            int hops = indexed.get();
+            boolean connected = hops >= 0;
+            return HopDistanceResult.builder()
+                    .fromAddress(fromAddress)
+                    .toAddress(toAddress)
+                    .connected(connected)
+                    .hops(connected ? hops : null)
+                    .source("INDEX")
+                    .indexVersion(distanceIndexService.getIndexVersion())
+                    .queryTimeMicros((System.nanoTime() - startTime) / 1000)
+                    .build();
+        }
+
+        log.debug("Índice de distancias no disponible para {} → {}, usando Neo4j", fromAddress, toAddress);
+        Integer hops = streamedHopDistance(fromAddress, toAddress);
+
+        return HopDistanceResult.builder()
+                .fromAddress(fromAddress)
+                .toAddress(toAddress)
+                .connected(hops == null ? null : hops >= 0)
+                .hops(hops != null && hops >= 0 ? hops : null)
+                .source("NEO4J")
+                .queryTimeMicros((System.nanoTime() - startTime) / 1000)
+                .build();
+    }
+
+    /**
+     * BFS bidireccional por niveles sobre las aristas wallet → wallet de Neo4j (vista no
+     * dirigida, como el índice): en cada nivel se expande el lado con menos wallets
+     *
+     * @return saltos, -1 si no hay conexión en {@link #MAX_FALLBACK_HOPS}, o null si se
+     *         agotó {@link #MAX_FALLBACK_EDGES}
+     */
+    Integer streamedHopDistance(String fromAddress, String toAddress) {
+        if (fromAddress.equals(toAddress)) {
+            return 0;
+        }
+        Map<String, Integer> forward = new HashMap<>(Map.of(fromAddress, 0));
+        Map<String, Integer> backward = new HashMap<>(Map.of(toAddress, 0));
+        List<String> forwardFrontier = List.of(fromAddress);
+        List<String> backwardFrontier = List.of(toAddress);
+        long edges = 0;
+
+        for (int hops = 0; hops < MAX_FALLBACK_HOPS && !forwardFrontier.isEmpty() && !backwardFrontier.isEmpty();
+             hops++) {
+            boolean expandForward = forwardFrontier.size() <= backwardFrontier.size();
+            Map<String, Integer> own = expandForward ? forward : backward;
+            Map<String, Integer> other = expandForward ? backward : forward;
+            List<String> frontier = expandForward ? forwardFrontier : backwardFrontier;
+            Set<String> frontierSet = new HashSet<>(frontier);
+            List<String> next = new ArrayList<>();
+            int best = Integer.MAX_VALUE;
+
+            for (int from = 0; from < frontier.size(); from += FRONTIER_CHUNK) {
+                List<String> chunk = frontier.subList(from, Math.min(frontier.size(), from + FRONTIER_CHUNK));
+                try (Stream<EdgeRow> rows = graphStreamService.streamEdges(chunk)) {
+                    Iterator<EdgeRow> iterator = rows.iterator();
+                    while (iterator.hasNext()) {
+                        if (++edges > MAX_FALLBACK_EDGES) {
+                            log.warn("Distancia {} → {} sin resolver tras {} aristas", fromAddress, toAddress, edges);
+                            return null;
+                        }
+                        EdgeRow edge = iterator.next();
+                        for (String[] step : List.of(new String[]{edge.getFrom(), edge.getTo()},
+                                new String[]{edge.getTo(), edge.getFrom()})) {
+                            if (!frontierSet.contains(step[0]) || own.containsKey(step[1])) {
+                                continue;
+                            }
+                            int distance = own.get(step[0]) + 1;
+                            own.put(step[1], distance);
+                            next.add(step[1]);
+                            Integer remaining = other.get(step[1]);
+                            if (remaining != null) {
+                                best = Math.min(best, distance + remaining);
+                            }
+                        }
+                    }
+                }
+            }
+            // Tras completar un nivel, el menor punto de encuentro es el camino mínimo
+            if (best != Integer.MAX_VALUE) {
+                return best;
+            }
+            if (expandForward) {
+                forwardFrontier = next;
+            } else {
+                backwardFrontier = next;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Filtro masivo: de {@code targets}, cuáles están a <= maxHops saltos de {@code source}
+     *
+     * @return Optional vacío si el índice de distancias todavía se está construyendo
+     */
+    public Optional<List<String>> filterWalletsWithinHops(String source, Collection<String> targets, int maxHops) {
+        log.info("Filtering {} wallets within {} hops of {}", targets.size(), maxHops, source);
+        return distanceIndexService.filterWithinHops(source, targets, maxHops);
+    }
+
     /**
      * Encuentra múltiples caminos cortos entre dos wallets
      */
     public List<PathResult> findAllShortPaths(String fromAddress, String toAddress, int maxLength) {
         log.info("Finding all paths from {} to {} with max length {}", fromAddress, toAddress, maxLength);
         
+        SupernodePolicy policy = supernodeService.defaultPolicy().protect(fromAddress, toAddress);
         List<Map<String, Object>> pathsData = pathAnalysisRepository.findAllShortPaths(
-                fromAddress, toAddress, maxLength);
+                fromAddress, toAddress, maxLength, policy.excludedAddresses());
         
         List<PathResult> results = new ArrayList<>();
         for (Map<String, Object> pathDataWrapper : pathsData) {
@@ -67,7 +214,7 @@ public class PathAnalysisService {
                 ? (Map<String, Object>) pathDataWrapper.get("result")
                 : pathDataWrapper;
 
-            results.add(buildPathResultFromMap(fromAddress, toAddress, pathData));
+            results.add(withSupernodes(buildPathResultFromMap(fromAddress, toAddress, pathData), policy));
         }
         
         return results;
@@ -75,24 +222,53 @@ public class PathAnalysisService {
     
     /**
      * Encuentra wallets dentro de N saltos de una wallet dada
+     *
+     * Expansión por niveles: cada salto es una consulta sobre la frontera anterior, así
+     * que nunca se recorre más de {@code hops} niveles y se para en cuanto hay
+     * {@link #MAX_WITHIN_HOPS_RESULTS} wallets (la frontera no supera ese tamaño).
+     * Las wallets salen en orden de saltos; los supernodos alcanzados se listan pero no
+     * se expanden.
      */
     public List<Map<String, Object>> findWalletsWithinHops(String address, int hops) {
         log.info("Finding wallets within {} hops of {}", hops, address);
-        List<Map<String, Object>> results = pathAnalysisRepository.findWalletsWithinHops(address, hops);
-
-        // Extraer el objeto "result" de cada mapa
-        List<Map<String, Object>> processedResults = new ArrayList<>();
-        for (Map<String, Object> result : results) {
-            if (result.containsKey("result")) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> innerResult = (Map<String, Object>) result.get("result");
-                processedResults.add(innerResult);
-            } else {
-                processedResults.add(result);
+        SupernodePolicy policy = supernodeService.defaultPolicy().protect(address);
+        Set<String> visited = new HashSet<>(Set.of(address));
+        List<String> frontier = List.of(address);
+        List<Map<String, Object>> results = new ArrayList<>();
+
+        for (int hop = 1; hop <= hops && results.size() < MAX_WITHIN_HOPS_RESULTS; hop++) {
+            List<String> expandable = new ArrayList<>();
+            for (String wallet : frontier) {
+                if (!policy.isBlocked(wallet)) {
+                    expandable.add(wallet);
+                }
+            }
+            if (expandable.isEmpty()) {
+                break;
+            }
+
+            List<String> next = new ArrayList<>();
+            for (Map<String, Object> row : pathAnalysisRepository.findWalletNeighbours(
+                    expandable, MAX_WITHIN_HOPS_RESULTS + visited.size())) {
+                Map<String, Object> wallet = unwrapResult(row);
+                String neighbour = (String) wallet.get("address");
+                if (neighbour == null || results.size() >= MAX_WITHIN_HOPS_RESULTS || !visited.add(neighbour)) {
+                    continue;
+                }
+                Map<String, Object> result = new LinkedHashMap<>(wallet);
+                result.put("hops", hop);
+                results.add(result);
+                next.add(neighbour);
             }
+            frontier = next;
         }
 
-        return processedResults;
+        return results;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> unwrapResult(Map<String, Object> row) {
+        return row.containsKey("result") ? (Map<String, Object>) row.get("result") : row;
     }
     
     /**
@@ -103,6 +279,11 @@ public class PathAnalysisService {
         return pathAnalysisRepository.findMostConnectedWallets(minConnections, limit);
     }
     
+    private PathResult withSupernodes(PathResult result, SupernodePolicy policy) {
+        result.setSupernodes(policy.getReport());
+        return result;
+    }
+
     /**
      * Construye el resultado cuando no hay conexión
      */
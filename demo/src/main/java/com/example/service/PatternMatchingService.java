@@ -1,13 +1,17 @@
 package com.example.service;
 
+import com.example.algorithm.ActivityRollup.Granularity;
+import com.example.algorithm.RunningStats;
 import com.example.dto.PatternDetectionResult;
 import com.example.repository.AlgorithmRepository;
+import com.example.service.GraphStreamService.OutputAmountRow;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Servicio implementando detección de patrones de lavado de dinero
@@ -19,16 +23,26 @@ import java.util.stream.Collectors;
 public class PatternMatchingService {
 
     private final AlgorithmRepository algorithmRepository;
+    private final GraphStreamService graphStreamService;
+    private final WalletActivityService walletActivityService;
+    private final WalletAggregateService walletAggregateService;
 
     private static final double CONFIDENCE_THRESHOLD = 0.7;
 
+    /** Outliers devueltos como máximo (los de mayor Z-score) */
+    private static final int MAX_ANOMALIES = 1_000;
+
+    /** Transacciones en una misma hora a partir de las que una wallet es RAPID */
+    private static final int RAPID_MIN_TX_PER_HOUR = 3;
+    private static final int MAX_RAPID = 50;
+
     /**
      * Detectar múltiples patrones de lavado de dinero
      *
      * Patrones soportados:
      * 1. MIXING: Una wallet envía a múltiples direcciones que convergen
      * 2. CYCLICAL: Transacciones cíclicas (A→B→C→A) ocultando origen
-     * 3. RAPID: Múltiples transacciones en corto tiempo (mismo bloque)
+     * 3. RAPID: Múltiples transacciones de una wallet en corto tiempo (misma hora)
      * 4. ANOMALY: Saltos significativos en montos (detección outliers)
      */
     public List<PatternDetectionResult> detectAnomalyPatterns(
@@ -158,21 +172,32 @@ public class PatternMatchingService {
     /**
      * PATRÓN 3: RAPID REDISTRIBUTION
      *
-     * Característica: Múltiples transacciones en muy corto tiempo (mismo bloque)
+     * Característica: Múltiples transacciones de una misma wallet en muy corto tiempo
      * Indicador: Redistribución rápida para evitar rastreo
      *
-     * Complejidad: O(n log n) para agrupar por timestamp
+     * Sólo se consideran las horas de los últimos {@code timeWindowDays} días (todas si
+     * es null o no positivo).
+     *
+     * Complejidad: O(cubetas horarias de la ventana) sobre los rollups de actividad; si
+     * el backfill de agregados no terminó, O(transacciones de la ventana)
      */
     private List<PatternDetectionResult> detectRapidRedistributionPatterns(Integer timeWindowDays) {
         log.debug("Detecting RAPID patterns with timeWindow: {} days", timeWindowDays);
 
-        long timeWindowSeconds = (long) timeWindowDays * 24 * 60 * 60;
-        List<Map<String, Object>> rapidData = algorithmRepository.detectRapidTransactions(timeWindowSeconds);
+        long timeWindowSeconds = Granularity.HOUR.getMillis() / 1000;
+        long since = timeWindowDays != null && timeWindowDays > 0
+                ? System.currentTimeMillis() - timeWindowDays * Granularity.DAY.getMillis()
+                : 0L;
+        List<Map<String, Object>> bursts = walletAggregateService.isMaterialised()
+                ? walletActivityService.findBursts(Granularity.HOUR, RAPID_MIN_TX_PER_HOUR, since, MAX_RAPID)
+                : walletActivityService.findBurstsFromTransactions(
+                        Granularity.HOUR, RAPID_MIN_TX_PER_HOUR, since, MAX_RAPID);
 
-        return rapidData.stream()
+        return bursts.stream()
                 .map(data -> {
-                    Integer txCount = ((Number) data.get("transactionCount")).intValue();
-                    Long timeWindow = ((Number) data.get("timeSpan")).longValue();
+                    Integer txCount = ((Number) data.get("txCount")).intValue();
+                    long volume = ((Number) data.get("volumeIn")).longValue()
+                            + ((Number) data.get("volumeOut")).longValue();
 
                     // Confianza: mayor cuantas más transacciones en menor tiempo
                     Double confidence = Math.min(0.99, 0.5 + (txCount / 10.0));
@@ -180,10 +205,13 @@ public class PatternMatchingService {
                     return PatternDetectionResult.builder()
                             .patternType("RAPID")
                             .confidence(confidence)
-                            .description(String.format("%d transactions in %d seconds", txCount, timeWindow))
+                            .affectedWallets(List.of((String) data.get("address")))
+                            .description(String.format("%d transactions in %d seconds", txCount, timeWindowSeconds))
                             .severity(confidence >= 0.9 ? "CRITICAL" : confidence >= 0.8 ? "HIGH" : "MEDIUM")
+                            .totalAmount(volume)
                             .transactionCount(txCount)
-                            .timeWindowSeconds(timeWindow)
+                            .timeWindowSeconds(timeWindowSeconds)
+                            .patternDetails(Map.of("windowStart", data.get("start")))
                             .detectedAt(System.currentTimeMillis())
                             .build();
                 })
@@ -199,41 +227,50 @@ public class PatternMatchingService {
      * Fórmula Z-score: z = (x - μ) / σ
      * Si |z| > threshold → es outlier
      *
-     * Complejidad: O(n) para calcular media y desviación estándar
+     * Complejidad: O(n) en dos pasadas en streaming sobre todos los outputs (media y
+     * desviación con Welford, luego Z-score); memoria O(MAX_ANOMALIES)
      */
     private List<PatternDetectionResult> detectAmountAnomalies(Double stdDeviationThreshold) {
         log.debug("Detecting ANOMALY patterns with threshold: {} std devs", stdDeviationThreshold);
 
-        List<Map<String, Object>> transactionData = algorithmRepository.getTransactionAmounts();
+        // Pasada 1: media y desviación de todos los outputs del grafo (Welford, memoria O(1))
+        RunningStats stats = new RunningStats();
+        try (Stream<OutputAmountRow> outputs = graphStreamService.streamOutputAmounts()) {
+            outputs.forEach(output -> stats.add(output.getAmount()));
+        }
 
-        if (transactionData.isEmpty()) {
+        if (stats.getCount() == 0) {
             return Collections.emptyList();
         }
 
-        // Calcular estadísticas: media y desviación estándar
-        List<Double> amounts = transactionData.stream()
-                .map(data -> ((Number) data.get("amount")).doubleValue())
-                .collect(Collectors.toList());
-
-        double mean = amounts.stream().mapToDouble(Double::doubleValue).average().orElse(0);
-        double variance = amounts.stream()
-                .mapToDouble(x -> Math.pow(x - mean, 2))
-                .average()
-                .orElse(0);
-        double stdDev = Math.sqrt(variance);
-
         final double finalThreshold = stdDeviationThreshold != null ? stdDeviationThreshold : 2.5;
 
-        // Detectar outliers usando Z-score
-        return transactionData.stream()
-                .filter(data -> {
-                    double amount = ((Number) data.get("amount")).doubleValue();
-                    double zScore = Math.abs((amount - mean) / (stdDev + 1e-10)); // Evitar div by 0
-                    return zScore > finalThreshold;
-                })
-                .map(data -> {
-                    double amount = ((Number) data.get("amount")).doubleValue();
-                    double zScore = Math.abs((amount - mean) / (stdDev + 1e-10));
+        // Pasada 2: outliers por Z-score; se conservan los MAX_ANOMALIES más extremos
+        PriorityQueue<OutputAmountRow> outliers = new PriorityQueue<>(
+                Comparator.comparingDouble((OutputAmountRow output) -> stats.zScore(output.getAmount())));
+        long outlierCount = 0;
+        try (Stream<OutputAmountRow> outputs = graphStreamService.streamOutputAmounts()) {
+            Iterator<OutputAmountRow> iterator = outputs.iterator();
+            while (iterator.hasNext()) {
+                OutputAmountRow output = iterator.next();
+                if (stats.zScore(output.getAmount()) > finalThreshold) {
+                    outlierCount++;
+                    outliers.add(output);
+                    if (outliers.size() > MAX_ANOMALIES) {
+                        outliers.poll();
+                    }
+                }
+            }
+        }
+        log.debug("ANOMALY: {} outputs, media {}, desviación {}, {} outliers",
+                stats.getCount(), stats.getMean(), stats.getStdDev(), outlierCount);
+
+        return outliers.stream()
+                .sorted(Comparator.comparingDouble((OutputAmountRow output) -> stats.zScore(output.getAmount()))
+                        .reversed())
+                .map(output -> {
+                    double amount = output.getAmount();
+                    double zScore = stats.zScore(amount);
 
                     // Confianza aumenta con el Z-score
                     Double confidence = Math.min(0.99, 0.7 + (zScore / 10.0));
@@ -241,13 +278,13 @@ public class PatternMatchingService {
                     return PatternDetectionResult.builder()
                             .patternType("ANOMALY")
                             .confidence(confidence)
-                            .affectedWallets(List.of((String) data.get("wallet")))
+                            .affectedWallets(List.of(output.getWallet()))
                             .description(String.format("Unusual transaction amount: %.2f BTC (%.2f std devs from mean)",
                                     amount, zScore))
                             .severity(zScore >= 5.0 ? "CRITICAL" : zScore >= 3.5 ? "HIGH" : "MEDIUM")
                             .anomalyScore(zScore)
                             .standardDeviations(zScore)
-                            .totalAmount(((Number) data.get("amount")).longValue())
+                            .totalAmount(output.getAmount())
                             .detectedAt(System.currentTimeMillis())
                             .build();
                 })
@@ -0,0 +1,514 @@
+package com.example.service;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caché en disco de respuestas crudas de la API de BlockCypher
+ *
+ * Cada respuesta se guarda como JSON comprimido con gzip en
+ * {@code blobs/<sha256>.json.gz}, direccionado por el SHA-256 del contenido: dos
+ * páginas idénticas comparten un único archivo y el nombre sirve para verificar
+ * la integridad al leer. La clave (chain, address, page) se guarda aparte en
+ * {@code index/<sha256(clave)>.properties} junto al blob, el ETag y la fecha de
+ * descarga.
+ *
+ * Las lecturas mapean el blob en memoria ({@link FileChannel#map}) y lo
+ * descomprimen sin copias intermedias. El tamaño total de los blobs se acota con
+ * desalojo LRU; el orden de acceso sobrevive a reinicios a través de la fecha de
+ * modificación de los archivos de índice.
+ */
+@Service
+@Slf4j
+public class ResponseCache {
+
+    /** Página más reciente de una dirección (sin cursor {@code before}) */
+    public static final String HEAD_PAGE = "head";
+
+    private static final String BLOB_SUFFIX = ".json.gz";
+    private static final String INDEX_SUFFIX = ".properties";
+
+    private final boolean enabled;
+    private final Path blobDir;
+    private final Path indexDir;
+    private final long maxBytes;
+
+    /** Clave → entrada, en orden de acceso (el primero es el menos usado) */
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    /** Blob → entradas que lo referencian */
+    private final Map<String, Integer> blobRefs = new HashMap<>();
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong dedupedWrites = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+    private final AtomicLong corrupted = new AtomicLong();
+
+    @Autowired
+    public ResponseCache(@Value("${blockcypher.cache.dir:data/blockcypher-cache}") String directory,
+                         @Value("${blockcypher.cache.max-size-mb:1024}") long maxSizeMb,
+                         @Value("${blockcypher.cache.enabled:true}") boolean enabled) {
+        this(Paths.get(directory), maxSizeMb * 1024 * 1024, enabled);
+    }
+
+    ResponseCache(Path root, long maxBytes, boolean enabled) {
+        this.enabled = enabled;
+        this.blobDir = root.resolve("blobs");
+        this.indexDir = root.resolve("index");
+        this.maxBytes = maxBytes;
+        if (enabled) {
+            try {
+                Files.createDirectories(blobDir);
+                Files.createDirectories(indexDir);
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo crear la caché en " + root, e);
+            }
+            load();
+        }
+    }
+
+    /**
+     * Nombre de página para un cursor de paginación
+     */
+    public static String page(Long beforeHeight) {
+        return beforeHeight != null ? "before-" + beforeHeight : HEAD_PAGE;
+    }
+
+    /**
+     * Entrada cacheada (y la marca como usada recientemente)
+     *
+     * @return null si no está cacheada
+     */
+    public Entry lookup(String chain, String address, String page) {
+        if (!enabled) {
+            return null;
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(key(chain, address, page));
+        }
+        if (entry == null) {
+            misses.incrementAndGet();
+            return null;
+        }
+        try {
+            Files.setLastModifiedTime(indexFile(entry), FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            // Sólo afecta al orden LRU tras un reinicio
+        }
+        return entry;
+    }
+
+    /**
+     * JSON crudo de una entrada, leído con mmap y verificado contra su hash
+     *
+     * @return null si el blob desapareció (desalojo concurrente) o está corrupto;
+     *         en el segundo caso la entrada se descarta
+     */
+    public byte[] read(Entry entry) {
+        if (!enabled) {
+            return null;
+        }
+        Path blob = blobFile(entry.getBlob());
+        byte[] json;
+        try (FileChannel channel = FileChannel.open(blob, StandardOpenOption.READ)) {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            try (InputStream in = new GZIPInputStream(new ByteBufferInputStream(mapped))) {
+                json = in.readAllBytes();
+            }
+        } catch (IOException e) {
+            misses.incrementAndGet();
+            if (Files.exists(blob)) {
+                discard(entry, e.getMessage());
+            }
+            return null;
+        }
+        if (!sha256(json).equals(entry.getBlob())) {
+            misses.incrementAndGet();
+            discard(entry, "hash no coincide");
+            return null;
+        }
+        hits.incrementAndGet();
+        return json;
+    }
+
+    /**
+     * Guarda (o reemplaza) la respuesta de una página
+     */
+    public Entry put(String chain, String address, String page, byte[] json, String etag) {
+        if (!enabled) {
+            return null;
+        }
+        String blob = sha256(json);
+        byte[] compressed = gzip(json);
+        Entry entry = Entry.builder()
+                .chain(chain)
+                .address(address)
+                .page(page)
+                .blob(blob)
+                .etag(etag)
+                .fetchedAt(System.currentTimeMillis())
+                .compressedSize(compressed.length)
+                .build();
+
+        synchronized (this) {
+            try {
+                Path blobFile = blobFile(blob);
+                if (blobRefs.containsKey(blob) || Files.exists(blobFile)) {
+                    dedupedWrites.incrementAndGet();
+                } else {
+                    Path tmp = Files.createTempFile(blobDir, "put-", ".tmp");
+                    Files.write(tmp, compressed);
+                    move(tmp, blobFile);
+                }
+                if (!blobRefs.containsKey(blob)) {
+                    totalBytes += compressed.length;
+                }
+                blobRefs.merge(blob, 1, Integer::sum);
+
+                Entry previous = entries.put(key(chain, address, page), entry);
+                if (previous != null) {
+                    release(previous.getBlob(), previous.getCompressedSize());
+                }
+                writeIndex(entry);
+            } catch (IOException e) {
+                log.warn("No se pudo cachear {} {}: {}", address, page, e.getMessage());
+                return null;
+            }
+            writes.incrementAndGet();
+            evict();
+        }
+        return entry;
+    }
+
+    /**
+     * Renueva la fecha de descarga tras una revalidación (304 Not Modified)
+     */
+    public void touch(Entry entry) {
+        if (!enabled) {
+            return;
+        }
+        synchronized (this) {
+            entry.setFetchedAt(System.currentTimeMillis());
+            if (entries.get(key(entry.getChain(), entry.getAddress(), entry.getPage())) == entry) {
+                try {
+                    writeIndex(entry);
+                } catch (IOException e) {
+                    log.debug("No se pudo actualizar el índice de {}: {}", entry.getAddress(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    /**
+     * Direcciones con su página más reciente cacheada, de la menos a la más usada
+     */
+    public synchronized Set<String> addresses(String chain) {
+        Set<String> addresses = new LinkedHashSet<>();
+        for (Entry entry : entries.values()) {
+            if (entry.getChain().equalsIgnoreCase(chain) && HEAD_PAGE.equals(entry.getPage())) {
+                addresses.add(entry.getAddress());
+            }
+        }
+        return addresses;
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("entries", entries.size());
+        stats.put("blobs", blobRefs.size());
+        stats.put("bytes", totalBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("writes", writes.get());
+        stats.put("dedupedWrites", dedupedWrites.get());
+        stats.put("evictions", evictions.get());
+        stats.put("corrupted", corrupted.get());
+        return stats;
+    }
+
+    /**
+     * Reconstruye el índice en memoria desde disco (orden LRU por fecha de
+     * modificación) y borra los blobs huérfanos de escrituras interrumpidas
+     */
+    private synchronized void load() {
+        List<Path> indexFiles;
+        try (Stream<Path> files = Files.list(indexDir)) {
+            indexFiles = new ArrayList<>(files.filter(p -> p.toString().endsWith(INDEX_SUFFIX)).toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        indexFiles.sort(Comparator.comparingLong(ResponseCache::lastModified));
+
+        for (Path file : indexFiles) {
+            try {
+                Entry entry = readIndex(file);
+                if (entry == null || !Files.exists(blobFile(entry.getBlob()))) {
+                    Files.deleteIfExists(file);
+                    continue;
+                }
+                if (!blobRefs.containsKey(entry.getBlob())) {
+                    totalBytes += entry.getCompressedSize();
+                }
+                blobRefs.merge(entry.getBlob(), 1, Integer::sum);
+                entries.put(key(entry.getChain(), entry.getAddress(), entry.getPage()), entry);
+            } catch (IOException | RuntimeException e) {
+                log.warn("Entrada de caché ilegible {}: {}", file, e.getMessage());
+            }
+        }
+
+        try (Stream<Path> files = Files.list(blobDir)) {
+            for (Path blob : files.toList()) {
+                String name = blob.getFileName().toString();
+                if (!name.endsWith(BLOB_SUFFIX)
+                        || !blobRefs.containsKey(name.substring(0, name.length() - BLOB_SUFFIX.length()))) {
+                    Files.deleteIfExists(blob);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        evict();
+        log.info("Caché de BlockCypher: {} entradas, {} blobs, {} bytes", entries.size(), blobRefs.size(), totalBytes);
+    }
+
+    /** Desaloja las entradas menos usadas hasta volver bajo el límite (conserva la última) */
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (totalBytes > maxBytes && entries.size() > 1 && eldest.hasNext()) {
+            Entry entry = eldest.next();
+            eldest.remove();
+            deleteIndex(entry);
+            release(entry.getBlob(), entry.getCompressedSize());
+            evictions.incrementAndGet();
+        }
+    }
+
+    private synchronized void discard(Entry entry, String reason) {
+        log.warn("Blob de caché corrupto para {} {}: {}", entry.getAddress(), entry.getPage(), reason);
+        corrupted.incrementAndGet();
+        if (entries.remove(key(entry.getChain(), entry.getAddress(), entry.getPage()), entry)) {
+            deleteIndex(entry);
+            Integer refs = blobRefs.remove(entry.getBlob());
+            if (refs != null) {
+                totalBytes -= entry.getCompressedSize();
+            }
+            // El blob no es confiable: se descartan también las otras claves que lo usan
+            entries.values().removeIf(other -> {
+                if (other.getBlob().equals(entry.getBlob())) {
+                    deleteIndex(other);
+                    return true;
+                }
+                return false;
+            });
+        }
+        try {
+            Files.deleteIfExists(blobFile(entry.getBlob()));
+        } catch (IOException e) {
+            log.debug("No se pudo borrar el blob {}: {}", entry.getBlob(), e.getMessage());
+        }
+    }
+
+    /** Suelta una referencia al blob y lo borra al quedar sin referencias */
+    private void release(String blob, long size) {
+        Integer refs = blobRefs.get(blob);
+        if (refs == null) {
+            return;
+        }
+        if (refs > 1) {
+            blobRefs.put(blob, refs - 1);
+            return;
+        }
+        blobRefs.remove(blob);
+        totalBytes -= size;
+        try {
+            Files.deleteIfExists(blobFile(blob));
+        } catch (IOException e) {
+            log.debug("No se pudo borrar el blob {}: {}", blob, e.getMessage());
+        }
+    }
+
+    private void writeIndex(Entry entry) throws IOException {
+        Properties props = new Properties();
+        props.setProperty("chain", entry.getChain());
+        props.setProperty("address", entry.getAddress());
+        props.setProperty("page", entry.getPage());
+        props.setProperty("blob", entry.getBlob());
+        props.setProperty("fetchedAt", Long.toString(entry.getFetchedAt()));
+        props.setProperty("compressedSize", Long.toString(entry.getCompressedSize()));
+        if (entry.getEtag() != null) {
+            props.setProperty("etag", entry.getEtag());
+        }
+        Path tmp = Files.createTempFile(indexDir, "idx-", ".tmp");
+        try (OutputStream out = Files.newOutputStream(tmp)) {
+            props.store(out, null);
+        }
+        move(tmp, indexFile(entry));
+    }
+
+    private static Entry readIndex(Path file) throws IOException {
+        Properties props = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            props.load(in);
+        }
+        if (props.getProperty("blob") == null || props.getProperty("address") == null) {
+            return null;
+        }
+        return Entry.builder()
+                .chain(props.getProperty("chain"))
+                .address(props.getProperty("address"))
+                .page(props.getProperty("page"))
+                .blob(props.getProperty("blob"))
+                .etag(props.getProperty("etag"))
+                .fetchedAt(Long.parseLong(props.getProperty("fetchedAt", "0")))
+                .compressedSize(Long.parseLong(props.getProperty("compressedSize", "0")))
+                .build();
+    }
+
+    private void deleteIndex(Entry entry) {
+        try {
+            Files.deleteIfExists(indexFile(entry));
+        } catch (IOException e) {
+            log.debug("No se pudo borrar el índice de {}: {}", entry.getAddress(), e.getMessage());
+        }
+    }
+
+    private Path blobFile(String blob) {
+        return blobDir.resolve(blob + BLOB_SUFFIX);
+    }
+
+    private Path indexFile(Entry entry) {
+        return indexDir.resolve(sha256(key(entry.getChain(), entry.getAddress(), entry.getPage())
+                .getBytes(StandardCharsets.UTF_8)) + INDEX_SUFFIX);
+    }
+
+    private static String key(String chain, String address, String page) {
+        return chain.toUpperCase() + '/' + address + '/' + page;
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(data));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+        try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+            out.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Respuesta cacheada de una página
+     */
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private String chain;
+        private String address;
+        private String page;
+        /** SHA-256 del JSON sin comprimir */
+        private String blob;
+        private String etag;
+        /** Última descarga o revalidación (epoch ms) */
+        private long fetchedAt;
+        private long compressedSize;
+    }
+
+    /** InputStream sobre un buffer (mapeado) sin copiarlo al heap */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
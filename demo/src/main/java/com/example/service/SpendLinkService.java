@@ -0,0 +1,276 @@
+package com.example.service;
+
+import com.example.algorithm.BitcoinScript;
+import com.example.algorithm.OutpointIndex;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Servicio que enlaza cada output con la transacción que lo gasta
+ *
+ * Rellena {@code spent}/{@code spentBy} en las relaciones OUTPUT y crea
+ * {@code (:Transaction)-[:SPENT_BY {outputIndex, value}]->(:Transaction)}, de modo
+ * que seguir un output hasta su gasto es un único salto en vez de un join por
+ * dirección. El enlace completo ({@link #link(int)}) carga todos los outputs del
+ * grafo en un {@link OutpointIndex} fuera del heap y resuelve contra él el
+ * {@code prevHash}/{@code outputIndex} de cada INPUT; las escrituras van por lotes
+ * UNWIND. Tras cada ingesta, {@link #linkTransactions} enlaza sólo lo tocado.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SpendLinkService {
+
+    /** Transacciones leídas por página en el enlace completo */
+    public static final int DEFAULT_LINK_BATCH = 1_000;
+
+    private static final Pattern TX_HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private static final String COUNT_TRANSACTIONS_QUERY = """
+        MATCH (t:Transaction)
+        RETURN COUNT(t) AS transactions
+        """;
+
+    private static final String NEXT_OUTPUTS_QUERY = """
+        MATCH (t:Transaction)
+        WHERE t.hash > $after
+        WITH t ORDER BY t.hash LIMIT $limit
+        RETURN t.hash AS hash,
+               [(t)-[o:OUTPUT]->() | [o.outputIndex, o.value]] AS outputs
+        """;
+
+    private static final String NEXT_INPUTS_QUERY = """
+        MATCH (t:Transaction)
+        WHERE t.hash > $after
+        WITH t ORDER BY t.hash LIMIT $limit
+        RETURN t.hash AS hash,
+               [()-[i:INPUT]->(t) | [i.prevHash, i.outputIndex]] AS inputs
+        """;
+
+    /** Filas {prevHash, outputIndex, spentBy, value}; los outputs multifirma tienen una relación por dirección */
+    private static final String LINK_SPENDS_QUERY = """
+        UNWIND $rows AS row
+        MATCH (p:Transaction {hash: row.prevHash})-[o:OUTPUT {outputIndex: row.outputIndex}]->()
+        SET o.spent = true,
+            o.spentBy = row.spentBy
+        WITH DISTINCT row, p
+        MATCH (s:Transaction {hash: row.spentBy})
+        MERGE (p)-[r:SPENT_BY {outputIndex: row.outputIndex}]->(s)
+        SET r.value = row.value
+        RETURN COUNT(r) AS links
+        """;
+
+    /** Inputs de las transacciones nuevas que gastan outputs ya presentes */
+    private static final String LINK_INPUTS_OF_QUERY = """
+        UNWIND $hashes AS hash
+        MATCH ()-[i:INPUT]->(s:Transaction {hash: hash})
+        WITH DISTINCT s, i.prevHash AS prevHash, i.outputIndex AS outputIndex
+        MATCH (p:Transaction {hash: prevHash})-[o:OUTPUT {outputIndex: outputIndex}]->()
+        SET o.spent = true,
+            o.spentBy = s.hash
+        WITH DISTINCT p, s, outputIndex, o.value AS value
+        MERGE (p)-[r:SPENT_BY {outputIndex: outputIndex}]->(s)
+        SET r.value = value
+        RETURN COUNT(r) AS links
+        """;
+
+    /** Outputs de las transacciones nuevas cuyo gastador (spentBy de la API) ya está */
+    private static final String LINK_OUTPUTS_OF_QUERY = """
+        UNWIND $hashes AS hash
+        MATCH (p:Transaction {hash: hash})-[o:OUTPUT]->()
+        WHERE o.spentBy IS NOT NULL
+        WITH DISTINCT p, o.outputIndex AS outputIndex, o.value AS value, o.spentBy AS spentBy
+        MATCH (s:Transaction {hash: spentBy})
+        MERGE (p)-[r:SPENT_BY {outputIndex: outputIndex}]->(s)
+        SET r.value = value
+        RETURN COUNT(r) AS links
+        """;
+
+    private static final String STATS_QUERY = """
+        MATCH ()-[r:SPENT_BY]->()
+        RETURN COUNT(r) AS links, SUM(r.value) AS spentValue
+        """;
+
+    private final Neo4jClient neo4jClient;
+
+    /**
+     * Enlaza gastos de transacciones recién ingeridas en ambos sentidos
+     *
+     * @param txHashes Transacciones guardadas
+     * @return Relaciones SPENT_BY escritas
+     */
+    public long linkTransactions(Collection<String> txHashes) {
+        if (txHashes == null || txHashes.isEmpty()) {
+            return 0;
+        }
+        try {
+            Map<String, Object> params = Map.of("hashes", new ArrayList<>(txHashes));
+            long links = firstLong(neo4jClient.query(LINK_INPUTS_OF_QUERY).bindAll(params).fetch().all(), "links")
+                    + firstLong(neo4jClient.query(LINK_OUTPUTS_OF_QUERY).bindAll(params).fetch().all(), "links");
+            log.debug("SPENT_BY enlazados: {} para {} transacciones", links, txHashes.size());
+            return links;
+        } catch (Exception e) {
+            // Como FLOW: la ingesta no falla por el enlace; el enlace completo lo repara
+            log.warn("No se pudieron enlazar los gastos de {} transacciones: {}", txHashes.size(), e.getMessage());
+            return 0;
+        }
+    }
+
+    /**
+     * Enlace completo: índice de outpoints de todo el grafo y resolución de todos
+     * los inputs (paginación por clave sobre {@code hash}, sin SKIP)
+     *
+     * @param batchSize Transacciones por página y filas por escritura
+     * @return Estadísticas del enlace
+     */
+    public Map<String, Object> link(int batchSize) {
+        long startTime = System.currentTimeMillis();
+        int limit = batchSize > 0 ? batchSize : DEFAULT_LINK_BATCH;
+        long transactions = firstLong(neo4jClient.query(COUNT_TRANSACTIONS_QUERY).fetch().all(), "transactions");
+
+        long inputs = 0;
+        long resolved = 0;
+        long skipped = 0;
+        long links = 0;
+        long indexed;
+        long offHeapBytes;
+        // ~2.5 outputs por transacción en Bitcoin
+        try (OutpointIndex index = new OutpointIndex(Math.max(1_024, transactions * 5 / 2))) {
+            // 1. Índice (txHash, outputIndex) → valor
+            String after = "";
+            while (true) {
+                List<Map<String, Object>> page = page(NEXT_OUTPUTS_QUERY, after, limit);
+                for (Map<String, Object> row : page) {
+                    String hash = (String) row.get("hash");
+                    if (!TX_HASH.matcher(hash).matches()) {
+                        skipped++;
+                        continue;
+                    }
+                    byte[] txid = BitcoinScript.fromReversedHex(hash);
+                    for (Object output : (List<?>) row.get("outputs")) {
+                        List<?> pair = (List<?>) output;
+                        if (pair.get(0) instanceof Number outputIndex) {
+                            index.put(txid, outputIndex.intValue(), toLong(pair.get(1)), null);
+                        }
+                    }
+                }
+                if (page.size() < limit) {
+                    break;
+                }
+                after = (String) page.get(page.size() - 1).get("hash");
+            }
+            indexed = index.size();
+            offHeapBytes = index.offHeapBytes();
+            log.info("Enlace de gastos: {} outpoints indexados ({} MB fuera del heap)",
+                    indexed, offHeapBytes / (1024 * 1024));
+
+            // 2. Resolución de inputs y escritura por lotes
+            List<Map<String, Object>> rows = new ArrayList<>(limit);
+            after = "";
+            while (true) {
+                List<Map<String, Object>> page = page(NEXT_INPUTS_QUERY, after, limit);
+                for (Map<String, Object> row : page) {
+                    String spentBy = (String) row.get("hash");
+                    Set<String> seen = new HashSet<>();
+                    for (Object input : (List<?>) row.get("inputs")) {
+                        List<?> pair = (List<?>) input;
+                        if (!(pair.get(0) instanceof String prevHash) || !(pair.get(1) instanceof Number outputIndex)
+                                || !seen.add(prevHash + ":" + outputIndex)) {
+                            continue;
+                        }
+                        inputs++;
+                        if (!TX_HASH.matcher(prevHash).matches()) {
+                            continue;
+                        }
+                        OutpointIndex.Output output = index.get(BitcoinScript.fromReversedHex(prevHash),
+                                outputIndex.intValue());
+                        if (output == null) {
+                            continue;  // gasta un output que no está en el grafo
+                        }
+                        resolved++;
+                        Map<String, Object> link = new LinkedHashMap<>();
+                        link.put("prevHash", prevHash);
+                        link.put("outputIndex", outputIndex.longValue());
+                        link.put("spentBy", spentBy);
+                        link.put("value", output.getValue());
+                        rows.add(link);
+                        if (rows.size() >= limit) {
+                            links += write(rows);
+                        }
+                    }
+                }
+                if (page.size() < limit) {
+                    break;
+                }
+                after = (String) page.get(page.size() - 1).get("hash");
+            }
+            links += write(rows);
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("transactionsScanned", transactions);
+        result.put("outpointsIndexed", indexed);
+        result.put("offHeapBytes", offHeapBytes);
+        result.put("inputsScanned", inputs);
+        result.put("inputsResolved", resolved);
+        result.put("spentByWritten", links);
+        result.put("nonBitcoinHashesSkipped", skipped);
+        result.put("executionTimeMs", System.currentTimeMillis() - startTime);
+        log.info("Enlace de gastos completado: {}", result);
+        return result;
+    }
+
+    /**
+     * Número de enlaces SPENT_BY y valor total gastado
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        for (Map<String, Object> row : neo4jClient.query(STATS_QUERY).fetch().all()) {
+            stats.put("links", toLong(row.get("links")));
+            stats.put("spentValue", toLong(row.get("spentValue")));
+        }
+        return stats;
+    }
+
+    private List<Map<String, Object>> page(String query, String after, int limit) {
+        return new ArrayList<>(neo4jClient.query(query)
+                .bindAll(Map.of("after", after, "limit", limit))
+                .fetch()
+                .all());
+    }
+
+    /** Escribe y vacía las filas pendientes */
+    private long write(List<Map<String, Object>> rows) {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        long links = firstLong(neo4jClient.query(LINK_SPENDS_QUERY)
+                .bindAll(Map.of("rows", new ArrayList<>(rows)))
+                .fetch()
+                .all(), "links");
+        rows.clear();
+        return links;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static long firstLong(Collection<Map<String, Object>> rows, String key) {
+        for (Map<String, Object> row : rows) {
+            return toLong(row.get(key));
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.service;
+
+import com.example.algorithm.SupernodeDetector;
+import com.example.algorithm.SupernodePolicy;
+import com.example.algorithm.SupernodePolicy.Mode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio de supernodos (exchanges, pools, servicios custodios)
+ *
+ * Deriva el umbral de grado de una agregación en Neo4j y entrega a cada búsqueda una
+ * {@link SupernodePolicy} nueva, para que todos los recorridos del grafo tengan una
+ * latencia acotada aunque crucen una wallet con millones de aristas.
+ *
+ * El grado de una wallet es el número de relaciones INPUT/OUTPUT, que Neo4j lee de
+ * su contador por nodo sin recorrerlas, así que no hace falta cargar el snapshot de
+ * {@link WalletGraphService}. El detector se recalcula cada {@link #REFRESH_MS} para
+ * ver los supernodos que aparecen con la ingesta; si la consulta falla se conserva el
+ * anterior y no se reintenta hasta pasado {@link #FAILURE_BACKOFF_MS}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SupernodeService {
+
+    /** Política por defecto de las búsquedas */
+    public static final Mode DEFAULT_MODE = Mode.STOP_AT;
+
+    /** Antigüedad máxima del detector */
+    static final long REFRESH_MS = 10 * 60_000L;
+
+    /** Espera tras un fallo antes de volver a consultar */
+    static final long FAILURE_BACKOFF_MS = 60_000L;
+
+    /** Supernodos que se cargan como máximo (los de mayor grado) */
+    private static final int MAX_SUPERNODES = 10_000;
+
+    private static final String DEGREE_STATS_QUERY = """
+        MATCH (w:Wallet)
+        WITH COUNT { (w)-[:INPUT|OUTPUT]-() } AS degree
+        RETURN COUNT(*) AS wallets,
+               AVG(degree) AS meanDegree,
+               stDevP(degree) AS stddevDegree,
+               percentileDisc(degree, $quantile) AS quantileDegree,
+               MAX(degree) AS maxDegree
+        """;
+
+    private static final String SUPERNODES_QUERY = """
+        MATCH (w:Wallet)
+        WITH w, COUNT { (w)-[:INPUT|OUTPUT]-() } AS degree
+        WHERE degree >= $threshold
+        RETURN w.address AS address, degree
+        ORDER BY degree DESC
+        LIMIT $limit
+        """;
+
+    private final Neo4jClient neo4jClient;
+
+    private final AtomicReference<SupernodeDetector> detector = new AtomicReference<>();
+    private final AtomicBoolean refreshing = new AtomicBoolean(false);
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+    private volatile long nextRefreshAt = 0;
+    private volatile long refreshedAt = 0;
+
+    /**
+     * Detector vigente; lo recalcula un solo llamador cuando vence, el resto sigue
+     * usando el anterior (o uno vacío si todavía no hay ninguno)
+     */
+    public SupernodeDetector getDetector() {
+        SupernodeDetector current = detector.get();
+        if (System.currentTimeMillis() >= nextRefreshAt && refreshing.compareAndSet(false, true)) {
+            try {
+                current = refresh();
+            } finally {
+                refreshing.set(false);
+            }
+        }
+        return current != null ? current : SupernodeDetector.empty();
+    }
+
+    private SupernodeDetector refresh() {
+        long startTime = System.currentTimeMillis();
+        try {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            for (Map<String, Object> row : neo4jClient.query(DEGREE_STATS_QUERY)
+                    .bindAll(Map.of("quantile", SupernodeDetector.DEFAULT_QUANTILE))
+                    .fetch()
+                    .all()) {
+                stats.put("wallets", toLong(row.get("wallets")));
+                stats.put("meanDegree", toDouble(row.get("meanDegree")));
+                stats.put("stddevDegree", toDouble(row.get("stddevDegree")));
+                stats.put("quantile", SupernodeDetector.DEFAULT_QUANTILE);
+                stats.put("quantileDegree", (int) toLong(row.get("quantileDegree")));
+                stats.put("maxDegree", (int) toLong(row.get("maxDegree")));
+            }
+            int threshold = SupernodeDetector.threshold(
+                toDouble(stats.get("meanDegree")), toDouble(stats.get("stddevDegree")),
+                stats.get("quantileDegree") instanceof Integer q ? q : 0, SupernodeDetector.DEFAULT_MIN_DEGREE);
+
+            Map<String, Integer> supernodes = new HashMap<>();
+            for (Map<String, Object> row : neo4jClient.query(SUPERNODES_QUERY)
+                    .bindAll(Map.of("threshold", threshold, "limit", MAX_SUPERNODES))
+                    .fetch()
+                    .all()) {
+                supernodes.put((String) row.get("address"), (int) toLong(row.get("degree")));
+            }
+
+            SupernodeDetector refreshed = SupernodeDetector.fromDegrees(supernodes, threshold, stats);
+            detector.set(refreshed);
+            lastError.set(null);
+            refreshedAt = System.currentTimeMillis();
+            nextRefreshAt = refreshedAt + REFRESH_MS;
+            log.info("Supernodos detectados: {} (umbral de grado {}) en {}ms",
+                refreshed.size(), threshold, refreshedAt - startTime);
+            return refreshed;
+        } catch (Exception e) {
+            lastError.set(e.getMessage());
+            nextRefreshAt = System.currentTimeMillis() + FAILURE_BACKOFF_MS;
+            log.warn("No se pudieron detectar supernodos (reintento en {}s): {}",
+                FAILURE_BACKOFF_MS / 1000, e.getMessage());
+            return detector.get();
+        }
+    }
+
+    /**
+     * Política nueva para un recorrido
+     *
+     * @param mode Tratamiento de supernodos (null = {@link #DEFAULT_MODE})
+     * @param sampleSize Aristas a conservar en modo SAMPLE
+     */
+    public SupernodePolicy policy(Mode mode, int sampleSize) {
+        return new SupernodePolicy(getDetector(), mode != null ? mode : DEFAULT_MODE, sampleSize);
+    }
+
+    public SupernodePolicy defaultPolicy() {
+        return policy(DEFAULT_MODE, SupernodePolicy.DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Supernodos de mayor grado junto con las estadísticas del umbral
+     */
+    public Map<String, Object> listSupernodes(int limit) {
+        SupernodeDetector current = getDetector();
+        List<Map<String, Object>> top = current.top(limit);
+        Map<String, Object> stats = current.getStats();
+        stats.put("refreshedAt", refreshedAt > 0 ? refreshedAt : null);
+        stats.put("lastError", lastError.get());
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("stats", stats);
+        result.put("supernodes", top);
+        return result;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private static double toDouble(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : 0.0;
+    }
+}
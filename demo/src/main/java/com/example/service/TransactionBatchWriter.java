@@ -0,0 +1,317 @@
+package com.example.service;
+
+import com.example.algorithm.ActivityRollup;
+import com.example.algorithm.WalletAggregates;
+import com.example.model.Transaction;
+import com.example.model.TransactionInput;
+import com.example.model.TransactionOutput;
+import com.example.model.Wallet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Escritor masivo de la ingesta: acumula wallets, transacciones, inputs y outputs
+ * como filas y las escribe con sentencias {@code UNWIND $rows MERGE ...}
+ *
+ * Cada lote de {@code ingest.batch.size} transacciones (con sus inputs y outputs)
+ * se escribe en una única transacción explícita: cuatro sentencias por lote en vez
+ * de un {@code existsById} + {@code save} del mapeador de objetos por transacción.
+ * Todas las sentencias usan MERGE, así que reescribir un lote es idempotente. Los
+ * agregados por wallet y por par de contrapartes se suman en la misma transacción
+ * (ver {@link WalletAggregateService}).
+ */
+@Service
+@Slf4j
+public class TransactionBatchWriter {
+
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+
+    private static final List<String> CONSTRAINTS = List.of(
+        "CREATE CONSTRAINT wallet_address IF NOT EXISTS FOR (w:Wallet) REQUIRE w.address IS UNIQUE",
+        "CREATE CONSTRAINT transaction_hash IF NOT EXISTS FOR (t:Transaction) REQUIRE t.hash IS UNIQUE",
+        "CREATE INDEX activity_bucket IF NOT EXISTS FOR (b:ActivityBucket) ON (b.address, b.granularity, b.start)",
+        "CREATE INDEX transaction_confirmed_at IF NOT EXISTS FOR (t:Transaction) ON (t.confirmedAt)"
+    );
+
+    private static final String EXISTING_HASHES_QUERY = """
+        UNWIND $hashes AS hash
+        MATCH (t:Transaction {hash: hash})
+        RETURN t.hash AS hash
+        """;
+
+    /** La clasificación de riesgo y los tags asignados por analistas se conservan */
+    private static final String MERGE_WALLETS_QUERY = """
+        UNWIND $rows AS row
+        MERGE (w:Wallet {address: row.address})
+        SET w.chain = row.chain,
+            w.balance = row.balance,
+            w.totalReceived = row.totalReceived,
+            w.totalSent = row.totalSent,
+            w.txCount = row.txCount,
+            w.riskLevel = COALESCE(w.riskLevel, row.riskLevel),
+            w.tags = COALESCE(w.tags, row.tags)
+        """;
+
+    private static final String MERGE_TRANSACTIONS_QUERY = """
+        UNWIND $rows AS row
+        MERGE (t:Transaction {hash: row.hash})
+        SET t += row
+        """;
+
+    private static final String MERGE_INPUTS_QUERY = """
+        UNWIND $rows AS row
+        MATCH (t:Transaction {hash: row.txHash})
+        MERGE (w:Wallet {address: row.address})
+          ON CREATE SET w.chain = row.chain
+        MERGE (w)-[i:INPUT {prevHash: row.prevHash, outputIndex: row.outputIndex}]->(t)
+        SET i.outputValue = row.outputValue,
+            i.script = row.script
+        """;
+
+    private static final String MERGE_OUTPUTS_QUERY = """
+        UNWIND $rows AS row
+        MATCH (t:Transaction {hash: row.txHash})
+        MERGE (w:Wallet {address: row.address})
+          ON CREATE SET w.chain = row.chain
+        MERGE (t)-[o:OUTPUT {outputIndex: row.outputIndex}]->(w)
+        SET o.value = row.value,
+            o.script = row.script,
+            o.scriptType = row.scriptType,
+            o.spent = row.spent,
+            o.spentBy = row.spentBy
+        """;
+
+    private final Neo4jClient neo4jClient;
+    private final WalletAggregateService walletAggregateService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+
+    private volatile boolean constraintsChecked = false;
+
+    public TransactionBatchWriter(Neo4jClient neo4jClient,
+                                  WalletAggregateService walletAggregateService,
+                                  PlatformTransactionManager transactionManager,
+                                  @Value("${ingest.batch.size:1000}") int batchSize) {
+        this.neo4jClient = neo4jClient;
+        this.walletAggregateService = walletAggregateService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize > 0 ? batchSize : DEFAULT_BATCH_SIZE;
+    }
+
+    /** Transacciones por sentencia / transacción explícita */
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public Batch newBatch() {
+        return new Batch();
+    }
+
+    /**
+     * Hashes ya presentes en el grafo (una consulta por lote en vez de un
+     * {@code existsById} por transacción)
+     */
+    public Set<String> existingHashes(Collection<String> hashes) {
+        Set<String> existing = new HashSet<>();
+        List<String> all = new ArrayList<>(hashes);
+        for (int from = 0; from < all.size(); from += batchSize) {
+            List<String> chunk = all.subList(from, Math.min(all.size(), from + batchSize));
+            for (Map<String, Object> row : neo4jClient.query(EXISTING_HASHES_QUERY)
+                    .bindAll(Map.of("hashes", new ArrayList<>(chunk)))
+                    .fetch()
+                    .all()) {
+                existing.add((String) row.get("hash"));
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Escribe el lote en bloques de {@code batchSize} transacciones, cada bloque en
+     * su propia transacción explícita
+     *
+     * @return Hashes de las transacciones escritas
+     */
+    public List<String> write(Batch batch) {
+        ensureConstraints();
+        long startTime = System.currentTimeMillis();
+        List<String> written = new ArrayList<>(batch.transactions.size());
+        List<String> hashes = new ArrayList<>(batch.transactions.keySet());
+
+        if (!batch.wallets.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> run(MERGE_WALLETS_QUERY, batch.wallets));
+        }
+
+        for (int from = 0; from < hashes.size(); from += batchSize) {
+            List<String> chunk = hashes.subList(from, Math.min(hashes.size(), from + batchSize));
+            List<Map<String, Object>> transactions = new ArrayList<>(chunk.size());
+            List<Map<String, Object>> inputs = new ArrayList<>();
+            List<Map<String, Object>> outputs = new ArrayList<>();
+            for (String hash : chunk) {
+                transactions.add(batch.transactions.get(hash));
+                inputs.addAll(batch.inputs.getOrDefault(hash, List.of()));
+                outputs.addAll(batch.outputs.getOrDefault(hash, List.of()));
+            }
+            WalletAggregates aggregates = aggregates(transactions, inputs, outputs);
+
+            transactionTemplate.executeWithoutResult(status -> {
+                run(MERGE_TRANSACTIONS_QUERY, transactions);
+                run(MERGE_INPUTS_QUERY, inputs);
+                run(MERGE_OUTPUTS_QUERY, outputs);
+                walletAggregateService.apply(aggregates);
+            });
+            written.addAll(chunk);
+            log.debug("Lote de ingesta escrito: {} transacciones, {} inputs, {} outputs",
+                    chunk.size(), inputs.size(), outputs.size());
+        }
+
+        long elapsed = System.currentTimeMillis() - startTime;
+        log.info("Ingesta masiva: {} transacciones en {}ms ({} tx/s)", written.size(), elapsed,
+                elapsed > 0 ? written.size() * 1000L / elapsed : written.size());
+        return written;
+    }
+
+    private static WalletAggregates aggregates(List<Map<String, Object>> transactions,
+                                               List<Map<String, Object>> inputs,
+                                               List<Map<String, Object>> outputs) {
+        WalletAggregates aggregates = new WalletAggregates();
+        for (Map<String, Object> row : transactions) {
+            aggregates.addTransaction((String) row.get("hash"),
+                    WalletAggregates.parseTimestamp((String) row.get("confirmed")));
+        }
+        for (Map<String, Object> row : inputs) {
+            aggregates.addInput((String) row.get("txHash"), (String) row.get("address"), toLong(row.get("outputValue")));
+        }
+        for (Map<String, Object> row : outputs) {
+            aggregates.addOutput((String) row.get("txHash"), (String) row.get("address"), toLong(row.get("value")));
+        }
+        return aggregates;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private void run(String query, List<Map<String, Object>> rows) {
+        if (!rows.isEmpty()) {
+            neo4jClient.query(query).bindAll(Map.of("rows", rows)).run();
+        }
+    }
+
+    /**
+     * Los MERGE por address/hash (y por cubeta de actividad) necesitan índice; se
+     * crean una vez (idempotente)
+     */
+    private void ensureConstraints() {
+        if (constraintsChecked) {
+            return;
+        }
+        for (String constraint : CONSTRAINTS) {
+            try {
+                neo4jClient.query(constraint).run();
+            } catch (Exception e) {
+                log.warn("No se pudo crear el índice o la restricción: {}", e.getMessage());
+            }
+        }
+        constraintsChecked = true;
+    }
+
+    /**
+     * Filas pendientes de una ingesta, agrupadas por transacción
+     */
+    public static final class Batch {
+
+        private final List<Map<String, Object>> wallets = new ArrayList<>();
+        private final Map<String, Map<String, Object>> transactions = new LinkedHashMap<>();
+        private final Map<String, List<Map<String, Object>>> inputs = new HashMap<>();
+        private final Map<String, List<Map<String, Object>>> outputs = new HashMap<>();
+
+        private Batch() {
+        }
+
+        public Batch addWallet(Wallet wallet) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("address", wallet.getAddress());
+            row.put("chain", wallet.getChain());
+            row.put("balance", wallet.getBalance());
+            row.put("totalReceived", wallet.getTotalReceived());
+            row.put("totalSent", wallet.getTotalSent());
+            row.put("txCount", wallet.getTxCount());
+            row.put("riskLevel", wallet.getRiskLevel());
+            row.put("tags", wallet.getTags() != null ? wallet.getTags() : List.of());
+            wallets.add(row);
+            return this;
+        }
+
+        public Batch addTransaction(Transaction transaction) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("hash", transaction.getHash());
+            row.put("chain", transaction.getChain());
+            row.put("blockHeight", transaction.getBlockHeight());
+            row.put("blockHash", transaction.getBlockHash());
+            row.put("confirmed", transaction.getConfirmed());
+            row.put("confirmedAt", transaction.getConfirmedAt() != null
+                    ? transaction.getConfirmedAt()
+                    : ActivityRollup.parseEpochMillis(transaction.getConfirmed()));
+            row.put("totalInput", transaction.getTotalInput());
+            row.put("totalOutput", transaction.getTotalOutput());
+            row.put("fees", transaction.getFees());
+            row.put("confirmations", transaction.getConfirmations());
+            row.put("doubleSpend", transaction.getDoubleSpend());
+            transactions.put(transaction.getHash(), row);
+            return this;
+        }
+
+        /**
+         * Input gastado por {@code address}; una fila por dirección en inputs multifirma
+         */
+        public Batch addInput(String txHash, String address, String chain, TransactionInput input) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("txHash", txHash);
+            row.put("address", address);
+            row.put("chain", chain);
+            row.put("prevHash", input.getPrevHash() != null ? input.getPrevHash() : "");
+            row.put("outputIndex", input.getOutputIndex() != null ? input.getOutputIndex() : -1);
+            row.put("outputValue", input.getOutputValue());
+            row.put("script", input.getScript());
+            inputs.computeIfAbsent(txHash, k -> new ArrayList<>()).add(row);
+            return this;
+        }
+
+        public Batch addOutput(String txHash, String address, String chain, TransactionOutput output) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("txHash", txHash);
+            row.put("address", address);
+            row.put("chain", chain);
+            row.put("outputIndex", output.getOutputIndex());
+            row.put("value", output.getValue());
+            row.put("script", output.getScript());
+            row.put("scriptType", output.getScriptType());
+            row.put("spent", output.getSpent());
+            row.put("spentBy", output.getSpentBy());
+            outputs.computeIfAbsent(txHash, k -> new ArrayList<>()).add(row);
+            return this;
+        }
+
+        public int transactionCount() {
+            return transactions.size();
+        }
+
+        public boolean isEmpty() {
+            return wallets.isEmpty() && transactions.isEmpty();
+        }
+    }
+}
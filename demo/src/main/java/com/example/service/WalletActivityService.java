@@ -0,0 +1,199 @@
+package com.example.service;
+
+import com.example.algorithm.ActivityRollup;
+import com.example.algorithm.ActivityRollup.Granularity;
+import com.example.algorithm.ActivityRollup.Span;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Series temporales de actividad por wallet sobre las cubetas {@code :ActivityBucket}
+ *
+ * Las cubetas horarias y diarias las mantiene {@link WalletAggregateService} en la
+ * ingesta. Un total de rango suma como mucho tres tramos de cubetas
+ * ({@link ActivityRollup#cover(long, long)}) en vez de recorrer las transacciones de
+ * la wallet; una serie devuelve las cubetas no vacías de la granularidad pedida.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletActivityService {
+
+    /** Cubetas máximas de una serie (≈ 1 año horario) */
+    public static final int MAX_SERIES_BUCKETS = 10_000;
+
+    private static final String RANGE_TOTALS_QUERY = """
+        UNWIND $spans AS span
+        MATCH (b:ActivityBucket {address: $address, granularity: span.granularity})
+        WHERE b.start >= span.from AND b.start < span.to
+        RETURN SUM(b.volumeIn) AS volumeIn,
+               SUM(b.volumeOut) AS volumeOut,
+               SUM(b.txCount) AS txCount,
+               COUNT(b) AS buckets
+        """;
+
+    private static final String SERIES_QUERY = """
+        MATCH (b:ActivityBucket {address: $address, granularity: $granularity})
+        WHERE b.start >= $from AND b.start < $to
+        RETURN b.start AS start, b.volumeIn AS volumeIn, b.volumeOut AS volumeOut, b.txCount AS txCount
+        ORDER BY start
+        LIMIT $limit
+        """;
+
+    /** Cubetas con más transacciones (ráfagas de actividad de una wallet) */
+    private static final String BURSTS_QUERY = """
+        MATCH (b:ActivityBucket {granularity: $granularity})
+        WHERE b.txCount >= $minTxCount AND b.start >= $since
+        RETURN b.address AS address, b.start AS start, b.volumeIn AS volumeIn, b.volumeOut AS volumeOut,
+               b.txCount AS txCount
+        ORDER BY txCount DESC, start DESC
+        LIMIT $limit
+        """;
+
+    /**
+     * Las mismas ráfagas calculadas desde las transacciones (antes de que el backfill
+     * de agregados complete las cubetas). Sólo cuenta transacciones con
+     * {@code confirmedAt}, que está indexado y acota el recorrido a la ventana.
+     */
+    private static final String TRANSACTION_BURSTS_QUERY = """
+        MATCH (t:Transaction)
+        WHERE t.confirmedAt >= $since
+        WITH t, t.confirmedAt - t.confirmedAt % $bucketMillis AS start
+        CALL {
+            WITH t
+            MATCH (w:Wallet)-[i:INPUT]->(t)
+            RETURN w.address AS address, 0 AS received, COALESCE(i.outputValue, i.amount, 0) AS sent
+            UNION ALL
+            WITH t
+            MATCH (t)-[o:OUTPUT]->(r:Wallet)
+            RETURN r.address AS address, COALESCE(o.value, o.amount, 0) AS received, 0 AS sent
+        }
+        WITH address, start, t, SUM(received) AS received, SUM(sent) AS sent
+        WITH address, start, SUM(received) AS volumeIn, SUM(sent) AS volumeOut, COUNT(t) AS txCount
+        WHERE txCount >= $minTxCount
+        RETURN address, start, volumeIn, volumeOut, txCount
+        ORDER BY txCount DESC, start DESC
+        LIMIT $limit
+        """;
+
+    private final Neo4jClient neo4jClient;
+
+    /**
+     * Volumen y transacciones de una wallet en {@code [from, to)} (milisegundos
+     * epoch, redondeado a horas)
+     */
+    public Map<String, Object> getActivity(String address, long from, long to) {
+        List<Span> spans = ActivityRollup.cover(from, to);
+        List<Map<String, Object>> spanRows = new ArrayList<>(spans.size());
+        for (Span span : spans) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("granularity", span.getGranularity().name());
+            row.put("from", span.getFrom());
+            row.put("to", span.getTo());
+            spanRows.add(row);
+        }
+
+        Map<String, Object> totals = Map.of();
+        if (!spanRows.isEmpty()) {
+            for (Map<String, Object> row : neo4jClient.query(RANGE_TOTALS_QUERY)
+                    .bindAll(Map.of("address", address, "spans", spanRows))
+                    .fetch()
+                    .all()) {
+                totals = row;
+            }
+        }
+
+        Map<String, Object> activity = new LinkedHashMap<>();
+        activity.put("address", address);
+        activity.put("from", spans.isEmpty() ? from : spans.get(0).getFrom());
+        activity.put("to", spans.isEmpty() ? to : spans.get(spans.size() - 1).getTo());
+        activity.put("volumeIn", toLong(totals.get("volumeIn")));
+        activity.put("volumeOut", toLong(totals.get("volumeOut")));
+        activity.put("txCount", toLong(totals.get("txCount")));
+        activity.put("bucketsRead", toLong(totals.get("buckets")));
+        return activity;
+    }
+
+    /**
+     * Cubetas no vacías de una wallet en {@code [from, to)}, en orden temporal
+     */
+    public List<Map<String, Object>> getSeries(String address, long from, long to, Granularity granularity) {
+        Collection<Map<String, Object>> rows = neo4jClient.query(SERIES_QUERY)
+                .bindAll(Map.of(
+                        "address", address,
+                        "granularity", granularity.name(),
+                        "from", granularity.bucketStart(from),
+                        "to", to,
+                        "limit", MAX_SERIES_BUCKETS))
+                .fetch()
+                .all();
+        List<Map<String, Object>> series = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("start", toLong(row.get("start")));
+            bucket.put("volumeIn", toLong(row.get("volumeIn")));
+            bucket.put("volumeOut", toLong(row.get("volumeOut")));
+            bucket.put("txCount", toLong(row.get("txCount")));
+            series.add(bucket);
+        }
+        return series;
+    }
+
+    /**
+     * Cubetas de cualquier wallet con al menos {@code minTxCount} transacciones desde
+     * la que contiene {@code since} (milisegundos epoch), las más activas primero
+     */
+    public List<Map<String, Object>> findBursts(Granularity granularity, int minTxCount, long since, int limit) {
+        return toBursts(neo4jClient.query(BURSTS_QUERY)
+                .bindAll(Map.of(
+                        "granularity", granularity.name(),
+                        "minTxCount", minTxCount,
+                        "since", granularity.bucketStart(since),
+                        "limit", Math.max(0, limit)))
+                .fetch()
+                .all());
+    }
+
+    /**
+     * Como {@link #findBursts(Granularity, int, long, int)} pero agrupando las
+     * transacciones de la ventana, para cuando las cubetas aún no están materializadas
+     */
+    public List<Map<String, Object>> findBurstsFromTransactions(Granularity granularity, int minTxCount,
+                                                                long since, int limit) {
+        return toBursts(neo4jClient.query(TRANSACTION_BURSTS_QUERY)
+                .bindAll(Map.of(
+                        "bucketMillis", granularity.getMillis(),
+                        "minTxCount", minTxCount,
+                        "since", granularity.bucketStart(since),
+                        "limit", Math.max(0, limit)))
+                .fetch()
+                .all());
+    }
+
+    private static List<Map<String, Object>> toBursts(Collection<Map<String, Object>> rows) {
+        List<Map<String, Object>> bursts = new ArrayList<>(rows.size());
+        for (Map<String, Object> row : rows) {
+            Map<String, Object> bucket = new LinkedHashMap<>();
+            bucket.put("address", row.get("address"));
+            bucket.put("start", toLong(row.get("start")));
+            bucket.put("volumeIn", toLong(row.get("volumeIn")));
+            bucket.put("volumeOut", toLong(row.get("volumeOut")));
+            bucket.put("txCount", toLong(row.get("txCount")));
+            bursts.add(bucket);
+        }
+        return bursts;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+}
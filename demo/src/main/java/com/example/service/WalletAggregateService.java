@@ -0,0 +1,385 @@
+package com.example.service;
+
+import com.example.algorithm.WalletAggregates;
+import com.example.algorithm.WalletAggregates.BucketDelta;
+import com.example.algorithm.WalletAggregates.PairDelta;
+import com.example.algorithm.WalletAggregates.WalletDelta;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servicio que mantiene los agregados materializados por wallet y por par de
+ * contrapartes
+ *
+ * En cada wallet: {@code volumeIn}, {@code volumeOut}, {@code observedTxCount},
+ * {@code firstSeen}, {@code lastSeen} y {@code counterparties}; en cada par
+ * {@code (low:Wallet)-[:COUNTERPARTY]->(high:Wallet)} (orden canónico por dirección):
+ * {@code txCount}, {@code forwardVolume} (low → high), {@code backwardVolume},
+ * {@code firstSeen} y {@code lastSeen}; y por wallet y hora/día, una
+ * {@code (:ActivityBucket)} con volumen y transacciones. A diferencia de FLOW, que
+ * se recalcula desde las transacciones, aquí se suman incrementos:
+ * {@link TransactionBatchWriter} llama a {@link #apply(WalletAggregates)} dentro de
+ * la misma transacción explícita que escribe cada lote. Cada transacción se marca con {@code aggregatedAt} al sumarse,
+ * así que reescribir un lote no la cuenta dos veces.
+ *
+ * Las lecturas de estadísticas y contrapartes pasan a ser búsquedas sobre un nodo;
+ * hasta que {@link #backfill(int)} agrega el histórico (marcador
+ * {@code :AggregateIndex}) los llamadores deben seguir recalculando.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletAggregateService {
+
+    /** Transacciones por lote del backfill */
+    public static final int DEFAULT_BACKFILL_BATCH = 1_000;
+
+    /**
+     * Marca las transacciones aún no agregadas y devuelve sus hashes; de paso
+     * completa {@code confirmedAt} en las ingestadas antes de que existiera
+     */
+    private static final String CLAIM_QUERY = """
+        UNWIND $rows AS row
+        MATCH (t:Transaction {hash: row.hash})
+        WHERE t.aggregatedAt IS NULL
+        SET t.aggregatedAt = timestamp(),
+            t.confirmedAt = COALESCE(t.confirmedAt, row.confirmedAt)
+        RETURN t.hash AS hash
+        """;
+
+    private static final String APPLY_WALLETS_QUERY = """
+        UNWIND $rows AS row
+        MATCH (w:Wallet {address: row.address})
+        SET w.volumeIn = COALESCE(w.volumeIn, 0) + row.volumeIn,
+            w.volumeOut = COALESCE(w.volumeOut, 0) + row.volumeOut,
+            w.observedTxCount = COALESCE(w.observedTxCount, 0) + row.txCount,
+            w.firstSeen = CASE WHEN w.firstSeen IS NULL OR row.firstSeen < w.firstSeen
+                               THEN COALESCE(row.firstSeen, w.firstSeen) ELSE w.firstSeen END,
+            w.lastSeen = CASE WHEN w.lastSeen IS NULL OR row.lastSeen > w.lastSeen
+                              THEN COALESCE(row.lastSeen, w.lastSeen) ELSE w.lastSeen END
+        """;
+
+    /** Un par nuevo suma una contraparte distinta a cada extremo */
+    private static final String APPLY_PAIRS_QUERY = """
+        UNWIND $rows AS row
+        MATCH (a:Wallet {address: row.low})
+        MATCH (b:Wallet {address: row.high})
+        MERGE (a)-[c:COUNTERPARTY]->(b)
+          ON CREATE SET c.txCount = 0,
+                        c.forwardVolume = 0,
+                        c.backwardVolume = 0,
+                        a.counterparties = COALESCE(a.counterparties, 0) + 1,
+                        b.counterparties = COALESCE(b.counterparties, 0) + 1
+        SET c.txCount = c.txCount + row.txCount,
+            c.forwardVolume = c.forwardVolume + row.forward,
+            c.backwardVolume = c.backwardVolume + row.backward,
+            c.firstSeen = CASE WHEN c.firstSeen IS NULL OR row.firstSeen < c.firstSeen
+                               THEN COALESCE(row.firstSeen, c.firstSeen) ELSE c.firstSeen END,
+            c.lastSeen = CASE WHEN c.lastSeen IS NULL OR row.lastSeen > c.lastSeen
+                              THEN COALESCE(row.lastSeen, c.lastSeen) ELSE c.lastSeen END
+        """;
+
+    /** Cubetas de actividad por (address, granularity, start), ver {@link WalletActivityService} */
+    private static final String APPLY_BUCKETS_QUERY = """
+        UNWIND $rows AS row
+        MERGE (b:ActivityBucket {address: row.address, granularity: row.granularity, start: row.start})
+          ON CREATE SET b.volumeIn = 0, b.volumeOut = 0, b.txCount = 0
+        SET b.volumeIn = b.volumeIn + row.volumeIn,
+            b.volumeOut = b.volumeOut + row.volumeOut,
+            b.txCount = b.txCount + row.txCount
+        """;
+
+    /** Transacciones pendientes de agregar, con sus inputs y outputs */
+    private static final String PENDING_PAGE_QUERY = """
+        MATCH (t:Transaction)
+        WHERE t.hash > $cursor AND t.aggregatedAt IS NULL
+        WITH t ORDER BY t.hash LIMIT $limit
+        CALL {
+            WITH t
+            OPTIONAL MATCH (w:Wallet)-[i:INPUT]->(t)
+            RETURN COLLECT({address: w.address, value: COALESCE(i.outputValue, i.amount, 0)}) AS inputs
+        }
+        CALL {
+            WITH t
+            OPTIONAL MATCH (t)-[o:OUTPUT]->(r:Wallet)
+            RETURN COLLECT({address: r.address, value: COALESCE(o.value, o.amount, 0)}) AS outputs
+        }
+        RETURN t.hash AS hash, t.confirmed AS confirmed, inputs, outputs
+        ORDER BY hash
+        """;
+
+    private static final String COUNTERPARTIES_QUERY = """
+        MATCH (w:Wallet {address: $address})-[c:COUNTERPARTY]-(other:Wallet)
+        WITH other, c, startNode(c) = w AS outgoing
+        WITH other.address AS address,
+             c.txCount AS txCount,
+             CASE WHEN outgoing THEN c.backwardVolume ELSE c.forwardVolume END AS received,
+             CASE WHEN outgoing THEN c.forwardVolume ELSE c.backwardVolume END AS sent
+        RETURN address, received, sent, txCount,
+               CASE
+                 WHEN received > 0 AND sent > 0 THEN 'BOTH'
+                 WHEN received > 0 THEN 'RECEIVED'
+                 ELSE 'SENT'
+               END AS direction
+        ORDER BY received + sent DESC
+        LIMIT $limit
+        """;
+
+    private static final String MARK_COMPLETE_QUERY = """
+        MERGE (m:AggregateIndex {name: 'WALLET'})
+        SET m.complete = true, m.completedAt = timestamp()
+        """;
+
+    private static final String IS_COMPLETE_QUERY = """
+        MATCH (m:AggregateIndex {name: 'WALLET', complete: true})
+        RETURN m.completedAt AS completedAt
+        """;
+
+    /** Intervalo entre consultas del marcador mientras los agregados no están completos */
+    private static final long MATERIALISED_RECHECK_MS = 60_000;
+
+    private static final String STATS_QUERY = """
+        MATCH (t:Transaction)
+        RETURN COUNT(t) AS transactions, COUNT(t.aggregatedAt) AS aggregated
+        """;
+
+    private static final String PAIRS_STATS_QUERY = """
+        MATCH ()-[c:COUNTERPARTY]->()
+        RETURN COUNT(c) AS pairs
+        """;
+
+    private final Neo4jClient neo4jClient;
+    private final PlatformTransactionManager transactionManager;
+
+    /** Una vez completo el backfill no se vuelve a consultar */
+    private volatile boolean materialised = false;
+    private volatile long lastMaterialisedCheck = 0;
+
+    /**
+     * Suma los incrementos de las transacciones aún no agregadas. Debe llamarse
+     * dentro de la transacción que escribe el lote, después de los MERGE de inputs y
+     * outputs, para que agregados y transacciones se confirmen juntos.
+     *
+     * @return Transacciones agregadas (las ya agregadas se ignoran)
+     */
+    public int apply(WalletAggregates aggregates) {
+        if (aggregates.isEmpty()) {
+            return 0;
+        }
+        List<Map<String, Object>> candidates = new ArrayList<>();
+        for (String hash : aggregates.getTransactionHashes()) {
+            LocalDateTime seenAt = aggregates.getSeenAt(hash);
+            Map<String, Object> row = new HashMap<>();
+            row.put("hash", hash);
+            row.put("confirmedAt", seenAt != null ? seenAt.toInstant(ZoneOffset.UTC).toEpochMilli() : null);
+            candidates.add(row);
+        }
+        List<String> claimed = new ArrayList<>();
+        for (Map<String, Object> row : neo4jClient.query(CLAIM_QUERY)
+                .bindAll(Map.of("rows", candidates))
+                .fetch()
+                .all()) {
+            claimed.add((String) row.get("hash"));
+        }
+        if (claimed.isEmpty()) {
+            return 0;
+        }
+
+        List<Map<String, Object>> wallets = new ArrayList<>();
+        for (WalletDelta delta : aggregates.walletDeltas(claimed)) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("address", delta.getAddress());
+            row.put("volumeIn", delta.getVolumeIn());
+            row.put("volumeOut", delta.getVolumeOut());
+            row.put("txCount", delta.getTxCount());
+            row.put("firstSeen", delta.getFirstSeen());
+            row.put("lastSeen", delta.getLastSeen());
+            wallets.add(row);
+        }
+        List<Map<String, Object>> pairs = new ArrayList<>();
+        for (PairDelta delta : aggregates.pairDeltas(claimed)) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("low", delta.getLow());
+            row.put("high", delta.getHigh());
+            row.put("forward", delta.getForward());
+            row.put("backward", delta.getBackward());
+            row.put("txCount", delta.getTxCount());
+            row.put("firstSeen", delta.getFirstSeen());
+            row.put("lastSeen", delta.getLastSeen());
+            pairs.add(row);
+        }
+
+        List<Map<String, Object>> buckets = new ArrayList<>();
+        for (BucketDelta delta : aggregates.bucketDeltas(claimed)) {
+            Map<String, Object> row = new HashMap<>();
+            row.put("address", delta.getAddress());
+            row.put("granularity", delta.getGranularity().name());
+            row.put("start", delta.getStart());
+            row.put("volumeIn", delta.getVolumeIn());
+            row.put("volumeOut", delta.getVolumeOut());
+            row.put("txCount", delta.getTxCount());
+            buckets.add(row);
+        }
+
+        run(APPLY_WALLETS_QUERY, wallets);
+        run(APPLY_PAIRS_QUERY, pairs);
+        run(APPLY_BUCKETS_QUERY, buckets);
+        log.debug("Agregados actualizados: {} transacciones, {} wallets, {} pares, {} cubetas",
+                claimed.size(), wallets.size(), pairs.size(), buckets.size());
+        return claimed.size();
+    }
+
+    /**
+     * Agrega las transacciones que aún no lo están (ingestas anteriores a los
+     * agregados o importaciones CSV), por lotes con paginación por clave sobre
+     * {@code hash}; cada lote en su propia transacción explícita
+     *
+     * @param batchSize Transacciones por lote
+     * @return Estadísticas del backfill
+     */
+    public Map<String, Object> backfill(int batchSize) {
+        long startTime = System.currentTimeMillis();
+        int limit = batchSize > 0 ? batchSize : DEFAULT_BACKFILL_BATCH;
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        String cursor = "";
+        long scanned = 0;
+        long aggregated = 0;
+        int batches = 0;
+
+        while (true) {
+            WalletAggregates aggregates = new WalletAggregates();
+            String last = null;
+            for (Map<String, Object> row : neo4jClient.query(PENDING_PAGE_QUERY)
+                    .bindAll(Map.of("cursor", cursor, "limit", limit))
+                    .fetch()
+                    .all()) {
+                String hash = (String) row.get("hash");
+                aggregates.addTransaction(hash, WalletAggregates.parseTimestamp(
+                        row.get("confirmed") != null ? row.get("confirmed").toString() : null));
+                for (Map<?, ?> input : maps(row.get("inputs"))) {
+                    aggregates.addInput(hash, (String) input.get("address"), toLong(input.get("value")));
+                }
+                for (Map<?, ?> output : maps(row.get("outputs"))) {
+                    aggregates.addOutput(hash, (String) output.get("address"), toLong(output.get("value")));
+                }
+                last = hash;
+            }
+            if (last == null) {
+                break;
+            }
+
+            Integer applied = transactionTemplate.execute(status -> apply(aggregates));
+            int pageSize = aggregates.getTransactionHashes().size();
+            scanned += pageSize;
+            aggregated += applied != null ? applied : 0;
+            batches++;
+            cursor = last;
+            log.debug("Backfill de agregados: lote {} ({} transacciones)", batches, scanned);
+
+            if (pageSize < limit) {
+                break;
+            }
+        }
+
+        neo4jClient.query(MARK_COMPLETE_QUERY).run();
+        materialised = true;
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("transactionsScanned", scanned);
+        result.put("transactionsAggregated", aggregated);
+        result.put("batches", batches);
+        result.put("executionTimeMs", System.currentTimeMillis() - startTime);
+        log.info("Backfill de agregados completado: {}", result);
+        return result;
+    }
+
+    /**
+     * true si los agregados cubren todo el grafo (las lecturas pueden usarlos en vez
+     * de recalcular desde las transacciones)
+     */
+    public boolean isMaterialised() {
+        long now = System.currentTimeMillis();
+        if (!materialised && now - lastMaterialisedCheck >= MATERIALISED_RECHECK_MS) {
+            lastMaterialisedCheck = now;
+            try {
+                materialised = !neo4jClient.query(IS_COMPLETE_QUERY)
+                        .fetch()
+                        .all()
+                        .isEmpty();
+            } catch (Exception e) {
+                log.debug("No se pudo consultar los agregados: {}", e.getMessage());
+            }
+        }
+        return materialised;
+    }
+
+    /**
+     * Contrapartes de una wallet desde los pares materializados, con las mismas
+     * columnas que {@code WalletRepository.findConnectedWallets}
+     */
+    public List<Map<String, Object>> findCounterparties(String address, int limit) {
+        return new ArrayList<>(neo4jClient.query(COUNTERPARTIES_QUERY)
+                .bindAll(Map.of("address", address, "limit", Math.max(0, limit)))
+                .fetch()
+                .all());
+    }
+
+    /**
+     * Cobertura de los agregados
+     */
+    public Map<String, Object> getStats() {
+        Collection<Map<String, Object>> rows = neo4jClient.query(STATS_QUERY).fetch().all();
+        long transactions = firstLong(rows, "transactions");
+        long aggregated = firstLong(rows, "aggregated");
+
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("transactions", transactions);
+        stats.put("aggregatedTransactions", aggregated);
+        stats.put("counterpartyPairs", firstLong(neo4jClient.query(PAIRS_STATS_QUERY).fetch().all(), "pairs"));
+        stats.put("materialised", isMaterialised());
+        return stats;
+    }
+
+    private void run(String query, List<Map<String, Object>> rows) {
+        if (!rows.isEmpty()) {
+            neo4jClient.query(query).bindAll(Map.of("rows", rows)).run();
+        }
+    }
+
+    private static List<Map<?, ?>> maps(Object value) {
+        List<Map<?, ?>> maps = new ArrayList<>();
+        if (value instanceof Collection<?> values) {
+            for (Object item : values) {
+                if (item instanceof Map<?, ?> map) {
+                    maps.add(map);
+                }
+            }
+        }
+        return maps;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number ? ((Number) value).longValue() : 0L;
+    }
+
+    private long firstLong(Collection<Map<String, Object>> rows, String key) {
+        for (Map<String, Object> row : rows) {
+            Object value = row.get(key);
+            return value instanceof Number ? ((Number) value).longValue() : 0L;
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,176 @@
+package com.example.service;
+
+import com.example.algorithm.RandomWalkGenerator;
+import com.example.algorithm.SkipGramTrainer;
+import com.example.algorithm.WalletEmbeddings;
+import com.example.algorithm.WalletGraph;
+import com.example.dto.EmbeddingNeighbourResult;
+import com.example.dto.EmbeddingTrainingRequest;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio de embeddings de wallets (DeepWalk / node2vec)
+ *
+ * El entrenamiento corre en un hilo dedicado sobre el snapshot en memoria y el modelo
+ * se publica con un swap atómico al terminar; mientras tanto las consultas usan el
+ * modelo anterior.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletEmbeddingService {
+
+    private static final int DEFAULT_WALKS_PER_WALLET = 10;
+    private static final int DEFAULT_WALK_LENGTH = 40;
+
+    private final WalletGraphService walletGraphService;
+
+    private final AtomicReference<WalletEmbeddings> model = new AtomicReference<>();
+    private final AtomicBoolean training = new AtomicBoolean(false);
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+    private final AtomicReference<EmbeddingTrainingRequest> lastRequest = new AtomicReference<>();
+
+    private final ExecutorService trainingExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "embedding-training");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Lanza el entrenamiento en background
+     *
+     * @return false si ya había un entrenamiento en curso
+     */
+    public boolean trainAsync(EmbeddingTrainingRequest request) {
+        if (!training.compareAndSet(false, true)) {
+            log.info("Entrenamiento de embeddings ya en curso");
+            return false;
+        }
+        EmbeddingTrainingRequest effective = withDefaults(request);
+        lastRequest.set(effective);
+
+        trainingExecutor.execute(() -> {
+            try {
+                WalletGraph graph = walletGraphService.reload();
+                int walkLength = effective.getWalkLength();
+
+                int[] walks = new RandomWalkGenerator(graph, effective.getWeightedByAmount(),
+                        RandomWalkGenerator.DEFAULT_ALIAS_THRESHOLD)
+                        .generate(effective.getWalksPerWallet(), walkLength,
+                                effective.getReturnParameter(), effective.getInOutParameter(),
+                                effective.getSeed());
+
+                WalletEmbeddings trained = SkipGramTrainer.train(graph, walks, walkLength,
+                        SkipGramTrainer.TrainingConfig.builder()
+                                .dimensions(effective.getDimensions())
+                                .windowSize(effective.getWindowSize())
+                                .negativeSamples(effective.getNegativeSamples())
+                                .epochs(effective.getEpochs())
+                                .learningRate(effective.getLearningRate())
+                                .threads(effective.getThreads())
+                                .seed(effective.getSeed())
+                                .build());
+
+                model.set(trained);
+                lastError.set(null);
+                log.info("Embeddings publicados: {} wallets, d={} (snapshot versión {})",
+                        graph.size(), trained.getDimensions(), graph.getVersion());
+            } catch (Exception e) {
+                lastError.set(e.getMessage());
+                log.error("Error entrenando embeddings", e);
+            } finally {
+                training.set(false);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Vecinos más cercanos por similitud coseno
+     *
+     * @return Optional vacío si todavía no hay un modelo entrenado
+     */
+    public Optional<List<EmbeddingNeighbourResult>> findNearest(String address, int k) {
+        WalletEmbeddings current = model.get();
+        if (current == null) {
+            return Optional.empty();
+        }
+
+        List<WalletEmbeddings.Neighbour> neighbours = current.nearest(address, k);
+        List<EmbeddingNeighbourResult> results = new ArrayList<>(neighbours.size());
+        for (int i = 0; i < neighbours.size(); i++) {
+            results.add(EmbeddingNeighbourResult.builder()
+                    .address(neighbours.get(i).getAddress())
+                    .cosineSimilarity(neighbours.get(i).getSimilarity())
+                    .rank(i + 1)
+                    .build());
+        }
+        return Optional.of(results);
+    }
+
+    /**
+     * Vector de la wallet, o vacío si no hay modelo o la wallet no está en él
+     */
+    public Optional<float[]> getVector(String address) {
+        WalletEmbeddings current = model.get();
+        return current == null ? Optional.empty() : Optional.ofNullable(current.vector(address));
+    }
+
+    /**
+     * Estado del modelo para monitoreo
+     */
+    public Map<String, Object> getStatus() {
+        WalletEmbeddings current = model.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("ready", current != null);
+        status.put("training", training.get());
+        status.put("lastError", lastError.get());
+        status.put("parameters", lastRequest.get());
+
+        if (current != null) {
+            status.put("snapshotVersion", current.getGraph().getVersion());
+            status.put("wallets", current.getGraph().size());
+            status.put("dimensions", current.getDimensions());
+            status.put("memoryBytes", current.getMemoryBytes());
+            status.put("trainingTimeMs", current.getTrainingTimeMs());
+        }
+        return status;
+    }
+
+    private EmbeddingTrainingRequest withDefaults(EmbeddingTrainingRequest request) {
+        EmbeddingTrainingRequest r = request != null ? request : new EmbeddingTrainingRequest();
+        SkipGramTrainer.TrainingConfig defaults = SkipGramTrainer.TrainingConfig.builder().build();
+        return EmbeddingTrainingRequest.builder()
+                .walksPerWallet(r.getWalksPerWallet() != null ? r.getWalksPerWallet() : DEFAULT_WALKS_PER_WALLET)
+                .walkLength(r.getWalkLength() != null ? r.getWalkLength() : DEFAULT_WALK_LENGTH)
+                .returnParameter(r.getReturnParameter() != null ? r.getReturnParameter() : 1.0)
+                .inOutParameter(r.getInOutParameter() != null ? r.getInOutParameter() : 1.0)
+                .weightedByAmount(r.getWeightedByAmount() != null ? r.getWeightedByAmount() : Boolean.TRUE)
+                .dimensions(r.getDimensions() != null ? r.getDimensions() : defaults.getDimensions())
+                .windowSize(r.getWindowSize() != null ? r.getWindowSize() : defaults.getWindowSize())
+                .negativeSamples(r.getNegativeSamples() != null ? r.getNegativeSamples() : defaults.getNegativeSamples())
+                .epochs(r.getEpochs() != null ? r.getEpochs() : defaults.getEpochs())
+                .learningRate(r.getLearningRate() != null ? r.getLearningRate() : defaults.getLearningRate())
+                .threads(r.getThreads() != null ? r.getThreads() : defaults.getThreads())
+                .seed(r.getSeed() != null ? r.getSeed() : defaults.getSeed())
+                .build();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        trainingExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.service;
+
+import com.example.algorithm.WalletGraph;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio que mantiene un snapshot en memoria del grafo wallet→wallet
+ *
+ * Los motores in-memory (índice de distancias, centralidades, etc.) trabajan sobre
+ * este snapshot compacto en vez de lanzar expansiones Cypher por cada consulta.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class WalletGraphService {
+
+    private static final String WALLETS_QUERY = """
+        MATCH (w:Wallet)
+        RETURN w.address as address
+        """;
+
+    private static final String EDGES_QUERY = """
+        MATCH (w1:Wallet)-[:INPUT]->(t:Transaction)-[o:OUTPUT]->(w2:Wallet)
+        WHERE w1 <> w2
+        RETURN
+            w1.address as fromWallet,
+            w2.address as toWallet,
+            SUM(COALESCE(o.value, o.amount, 0)) as amount
+        """;
+
+    /** Misma agregación leída de la vista materializada (una relación por par) */
+    private static final String FLOW_EDGES_QUERY = """
+        MATCH (w1:Wallet)-[f:FLOW]->(w2:Wallet)
+        RETURN
+            w1.address as fromWallet,
+            w2.address as toWallet,
+            f.totalAmount as amount
+        """;
+
+    private final Neo4jClient neo4jClient;
+    private final FlowGraphService flowGraphService;
+
+    private final AtomicReference<WalletGraph> snapshot = new AtomicReference<>();
+
+    /**
+     * Retorna el snapshot actual, cargándolo desde Neo4j la primera vez
+     */
+    public WalletGraph getSnapshot() {
+        WalletGraph graph = snapshot.get();
+        if (graph == null) {
+            synchronized (this) {
+                graph = snapshot.get();
+                if (graph == null) {
+                    graph = loadFromNeo4j();
+                    snapshot.set(graph);
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Recarga el snapshot desde Neo4j y lo publica de forma atómica.
+     * Los lectores que ya tenían el snapshot anterior siguen usándolo sin bloqueo.
+     */
+    public WalletGraph reload() {
+        WalletGraph graph = loadFromNeo4j();
+        snapshot.set(graph);
+        return graph;
+    }
+
+    /**
+     * Construye el grafo compacto desde Neo4j
+     */
+    private WalletGraph loadFromNeo4j() {
+        long startTime = System.currentTimeMillis();
+        WalletGraph.Builder builder = WalletGraph.builder();
+
+        Collection<Map<String, Object>> wallets = neo4jClient.query(WALLETS_QUERY)
+                .fetch()
+                .all();
+        for (Map<String, Object> row : wallets) {
+            String address = (String) row.get("address");
+            if (address != null) {
+                builder.addWallet(address);
+            }
+        }
+
+        Collection<Map<String, Object>> edges = neo4jClient.query(
+                        flowGraphService.isMaterialised() ? FLOW_EDGES_QUERY : EDGES_QUERY)
+                .fetch()
+                .all();
+        for (Map<String, Object> row : edges) {
+            Object amount = row.get("amount");
+            builder.addEdge(
+                    (String) row.get("fromWallet"),
+                    (String) row.get("toWallet"),
+                    amount instanceof Number ? ((Number) amount).doubleValue() : 0.0);
+        }
+
+        WalletGraph graph = builder.build();
+        log.info("Snapshot del grafo cargado en {}ms: {} wallets, {} aristas (versión {})",
+                System.currentTimeMillis() - startTime, graph.size(), graph.edgeCount(), graph.getVersion());
+        return graph;
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.service;
+
+import com.example.algorithm.MinHashLshIndex;
+import com.example.dto.SimilarWalletResult;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.neo4j.core.Neo4jClient;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Servicio de similitud de wallets por contrapartes compartidas
+ *
+ * Mantiene un índice MinHash/LSH en memoria que se alimenta incrementalmente desde
+ * la ingesta de BlockCypher. Al primer uso (o bajo demanda) se reconstruye desde
+ * las transacciones ya guardadas en Neo4j; si esa carga falla, las consultas siguen
+ * sobre el índice incremental y no se reintenta hasta pasado
+ * {@link #BOOTSTRAP_RETRY_MS}.
+ */
+@Service
+@Slf4j
+public class WalletSimilarityService {
+
+    private static final String COUNTERPARTIES_QUERY = """
+        MATCH (w1:Wallet)-[:INPUT]->(t:Transaction)-[:OUTPUT]->(w2:Wallet)
+        WHERE w1 <> w2
+        RETURN w1.address as fromWallet, COLLECT(DISTINCT w2.address) as toWallets
+        """;
+
+    /** Espera tras una carga inicial fallida antes de reintentarla */
+    static final long BOOTSTRAP_RETRY_MS = 60_000L;
+
+    private final Neo4jClient neo4jClient;
+    private final int numHashes;
+    private final int bands;
+
+    private final AtomicReference<MinHashLshIndex> index = new AtomicReference<>();
+    private final AtomicBoolean bootstrapped = new AtomicBoolean(false);
+    private final AtomicReference<String> lastError = new AtomicReference<>();
+    private volatile long nextBootstrapAt = 0;
+
+    public WalletSimilarityService(Neo4jClient neo4jClient,
+                                   @Value("${similarity.minhash.hashes:128}") int numHashes,
+                                   @Value("${similarity.minhash.bands:32}") int bands) {
+        this.neo4jClient = neo4jClient;
+        this.numHashes = numHashes;
+        this.bands = bands;
+        this.index.set(new MinHashLshIndex(numHashes, bands));
+    }
+
+    /**
+     * Registra una transacción recién ingerida: inputs y outputs pasan a ser
+     * contrapartes mutuas. O(k) por par input/output.
+     */
+    public void recordTransaction(Collection<String> inputAddresses, Collection<String> outputAddresses) {
+        if (inputAddresses.isEmpty() || outputAddresses.isEmpty()) {
+            return;
+        }
+        index.get().addTransaction(inputAddresses, outputAddresses);
+    }
+
+    /**
+     * Wallets cuyo conjunto de contrapartes se parece al de {@code address}
+     *
+     * @param minSimilarity Jaccard estimado mínimo
+     * @param limit Máximo de resultados
+     */
+    public List<SimilarWalletResult> findSimilarWallets(String address, double minSimilarity, int limit) {
+        long startTime = System.nanoTime();
+        ensureBootstrapped();
+
+        try {
+            List<MinHashLshIndex.Match> matches = index.get().findSimilar(address, minSimilarity, limit);
+
+            List<SimilarWalletResult> results = new ArrayList<>(matches.size());
+            for (int i = 0; i < matches.size(); i++) {
+                results.add(SimilarWalletResult.builder()
+                        .address(matches.get(i).getAddress())
+                        .estimatedJaccard(matches.get(i).getSimilarity())
+                        .rank(i + 1)
+                        .build());
+            }
+
+            log.debug("Similar wallets for {}: {} matches in {}µs",
+                    address, results.size(), (System.nanoTime() - startTime) / 1000);
+            return results;
+
+        } catch (Exception e) {
+            log.error("Error finding similar wallets for {}", address, e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Reconstruye el índice completo desde Neo4j y lo publica de forma atómica.
+     * Las transacciones ingeridas durante la reconstrucción se registran en el índice
+     * anterior, por lo que conviene lanzarla con la ingesta detenida.
+     */
+    public synchronized int rebuildFromGraph() {
+        long startTime = System.currentTimeMillis();
+        MinHashLshIndex rebuilt = new MinHashLshIndex(numHashes, bands);
+
+        Collection<Map<String, Object>> rows = neo4jClient.query(COUNTERPARTIES_QUERY)
+                .fetch()
+                .all();
+        for (Map<String, Object> row : rows) {
+            String from = (String) row.get("fromWallet");
+            @SuppressWarnings("unchecked")
+            List<String> to = (List<String>) row.get("toWallets");
+            if (from == null || to == null) {
+                continue;
+            }
+            // Relación simétrica: el emisor es contraparte de cada receptor y viceversa
+            rebuilt.addTransaction(List.of(from), to);
+        }
+
+        index.set(rebuilt);
+        bootstrapped.set(true);
+        lastError.set(null);
+        log.info("Índice MinHash/LSH reconstruido en {}ms: {} wallets, {} buckets",
+                System.currentTimeMillis() - startTime, rebuilt.size(), rebuilt.getBucketCount());
+        return rebuilt.size();
+    }
+
+    /**
+     * Estado del índice para monitoreo
+     */
+    public Map<String, Object> getStatus() {
+        MinHashLshIndex current = index.get();
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("bootstrapped", bootstrapped.get());
+        status.put("lastError", lastError.get());
+        if (!bootstrapped.get() && lastError.get() != null) {
+            status.put("bootstrapRetryInMs", Math.max(0, nextBootstrapAt - System.currentTimeMillis()));
+        }
+        status.put("wallets", current.size());
+        status.put("buckets", current.getBucketCount());
+        status.put("signatureUpdates", current.getUpdates());
+        status.put("numHashes", current.getNumHashes());
+        status.put("bands", current.getBands());
+        status.put("rowsPerBand", current.getRowsPerBand());
+        status.put("similarityThreshold", current.getSimilarityThreshold());
+        return status;
+    }
+
+    private void ensureBootstrapped() {
+        if (bootstrapped.get() || System.currentTimeMillis() < nextBootstrapAt) {
+            return;
+        }
+        synchronized (this) {
+            if (bootstrapped.get() || System.currentTimeMillis() < nextBootstrapAt) {
+                return;
+            }
+            try {
+                rebuildFromGraph();
+            } catch (Exception e) {
+                lastError.set(e.getMessage());
+                nextBootstrapAt = System.currentTimeMillis() + BOOTSTRAP_RETRY_MS;
+                log.error("Error bootstrapping similarity index from Neo4j (retry in {}s)",
+                        BOOTSTRAP_RETRY_MS / 1000, e);
+            }
+        }
+    }
+}
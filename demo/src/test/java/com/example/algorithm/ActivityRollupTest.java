@@ -0,0 +1,102 @@
+package com.example.algorithm;
+
+import com.example.algorithm.ActivityRollup.Granularity;
+import com.example.algorithm.ActivityRollup.Span;
+import com.example.algorithm.WalletAggregates.BucketDelta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ActivityRollup y las cubetas de WalletAggregates
+ */
+class ActivityRollupTest {
+
+    private static final long HOUR = Granularity.HOUR.getMillis();
+    private static final long DAY = Granularity.DAY.getMillis();
+
+    private static long at(String instant) {
+        return Instant.parse(instant).toEpochMilli();
+    }
+
+    @Test
+    @DisplayName("Debería cubrir un rango con horas en los bordes y días completos en medio")
+    void testCoverSplitsIntoHoursAndDays() {
+        List<Span> spans = ActivityRollup.cover(at("2024-01-01T22:00:00Z"), at("2024-01-04T03:00:00Z"));
+
+        assertEquals(3, spans.size());
+        assertEquals(Granularity.HOUR, spans.get(0).getGranularity());
+        assertEquals(2, spans.get(0).getBuckets());
+        assertEquals(Granularity.DAY, spans.get(1).getGranularity());
+        assertEquals(at("2024-01-02T00:00:00Z"), spans.get(1).getFrom());
+        assertEquals(2, spans.get(1).getBuckets());
+        assertEquals(Granularity.HOUR, spans.get(2).getGranularity());
+        assertEquals(3, spans.get(2).getBuckets());
+
+        long covered = spans.stream().mapToLong(span -> span.getTo() - span.getFrom()).sum();
+        assertEquals(2 * HOUR + 2 * DAY + 3 * HOUR, covered, "Los tramos no se solapan ni dejan huecos");
+    }
+
+    @Test
+    @DisplayName("Debería usar sólo horas si no hay ningún día completo y redondear a la hora")
+    void testCoverWithoutFullDay() {
+        List<Span> spans = ActivityRollup.cover(at("2024-01-01T10:30:00Z"), at("2024-01-02T05:10:00Z"));
+
+        assertEquals(1, spans.size());
+        assertEquals(Granularity.HOUR, spans.get(0).getGranularity());
+        assertEquals(at("2024-01-01T10:00:00Z"), spans.get(0).getFrom());
+        assertEquals(at("2024-01-02T06:00:00Z"), spans.get(0).getTo());
+        assertTrue(ActivityRollup.cover(at("2024-01-01T10:00:00Z"), at("2024-01-01T10:00:00Z")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debería usar sólo días para un rango alineado a días")
+    void testCoverAlignedDays() {
+        List<Span> spans = ActivityRollup.cover(at("2024-03-01T00:00:00Z"), at("2024-04-01T00:00:00Z"));
+
+        assertEquals(1, spans.size());
+        assertEquals(Granularity.DAY, spans.get(0).getGranularity());
+        assertEquals(31, spans.get(0).getBuckets());
+    }
+
+    @Test
+    @DisplayName("Debería acumular cada transacción en su cubeta horaria y diaria")
+    void testBucketDeltas() {
+        WalletAggregates aggregates = new WalletAggregates()
+                .addTransaction("tx1", LocalDateTime.of(2024, 1, 1, 10, 5))
+                .addInput("tx1", "A", 100)
+                .addOutput("tx1", "B", 100)
+                .addTransaction("tx2", LocalDateTime.of(2024, 1, 1, 10, 50))
+                .addInput("tx2", "B", 60)
+                .addOutput("tx2", "A", 60)
+                .addTransaction("tx3", null)
+                .addInput("tx3", "A", 1);
+
+        List<BucketDelta> deltas = aggregates.bucketDeltas(List.of("tx1", "tx2", "tx3"));
+
+        assertEquals(4, deltas.size(), "Dos wallets × (hora, día); tx3 no tiene fecha");
+        for (BucketDelta delta : deltas) {
+            assertEquals(2, delta.getTxCount());
+            long expectedStart = delta.getGranularity() == Granularity.HOUR
+                    ? at("2024-01-01T10:00:00Z") : at("2024-01-01T00:00:00Z");
+            assertEquals(expectedStart, delta.getStart());
+            if (delta.getAddress().equals("A")) {
+                assertEquals(60, delta.getVolumeIn());
+                assertEquals(100, delta.getVolumeOut());
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Debería leer confirmed como milisegundos epoch")
+    void testParseEpochMillis() {
+        assertEquals(1231006505000L, ActivityRollup.parseEpochMillis("2009-01-03T18:15:05Z"));
+        assertNull(ActivityRollup.parseEpochMillis("2009-01-03"));
+        assertNull(ActivityRollup.parseEpochMillis(null));
+    }
+}
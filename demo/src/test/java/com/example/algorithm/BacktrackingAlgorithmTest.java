@@ -1 +1,242 @@
+package com.example.algorithm;
 
+import com.example.algorithm.BacktrackingAlgorithm.ChainType;
+import com.example.algorithm.BacktrackingAlgorithm.Edge;
+import com.example.algorithm.BacktrackingAlgorithm.SuspiciousChain;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.DisplayName;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para BacktrackingAlgorithm
+ */
+class BacktrackingAlgorithmTest {
+
+    private BacktrackingAlgorithm algorithm;
+    private Map<String, List<Edge>> testGraph;
+
+    @BeforeEach
+    void setUp() {
+        algorithm = new BacktrackingAlgorithm();
+        testGraph = createTestGraph();
+    }
+
+    /**
+     * Crea un grafo de prueba con un ciclo y varias ramas
+     *
+     * Estructura:
+     *    A → B → C → D → E
+     *    │   ↑       │
+     *    │   └───────┘ (ciclo B→C→D→B)
+     *    └→ F → G → H
+     */
+    private Map<String, List<Edge>> createTestGraph() {
+        Map<String, List<Edge>> graph = new HashMap<>();
+        graph.put("A", List.of(edge("B", 100), edge("F", 50)));
+        graph.put("B", List.of(edge("C", 90)));
+        graph.put("C", List.of(edge("D", 80)));
+        graph.put("D", List.of(edge("E", 40), edge("B", 30)));
+        graph.put("F", List.of(edge("G", 45)));
+        graph.put("G", List.of(edge("H", 40)));
+        return graph;
+    }
+
+    @Test
+    @DisplayName("Debería detectar el ciclo B→C→D→B")
+    void testDetectCycle() {
+        List<SuspiciousChain> chains = algorithm.findSuspiciousChains(testGraph, "A", 6);
+
+        SuspiciousChain cycle = chains.stream()
+            .filter(c -> c.getType() == ChainType.CYCLE)
+            .findFirst()
+            .orElseThrow();
+
+        assertEquals(List.of("B", "C", "D", "B"), cycle.getPath());
+        assertEquals(200.0, cycle.getTotalAmount(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Un ciclo debería reportarse una sola vez aunque se cierre por varios caminos")
+    void testCycleReportedOnce() {
+        // X → A y X → B entran al mismo ciclo A → B → C → A por puntos distintos
+        Map<String, List<Edge>> graph = new HashMap<>();
+        graph.put("X", List.of(edge("A", 10), edge("B", 10)));
+        graph.put("A", List.of(edge("B", 5)));
+        graph.put("B", List.of(edge("C", 5)));
+        graph.put("C", List.of(edge("A", 5)));
+        CycleStore shared = new CycleStore();
+
+        BacktrackingAlgorithm.BacktrackingMetrics metrics = algorithm.collectSuspiciousChains(
+            graph, "X", 6, ChainCollector.unbounded(), shared);
+        List<SuspiciousChain> cycles = algorithm.findSuspiciousChains(graph, "X", 6).stream()
+            .filter(c -> c.getType() == ChainType.CYCLE)
+            .collect(Collectors.toList());
+
+        assertEquals(1, cycles.size());
+        assertEquals(List.of("A", "B", "C", "A"), cycles.get(0).getPath());
+        assertEquals(1, metrics.getCyclesDetected());
+        assertEquals(1, metrics.getCycleRevisits());
+        assertEquals(1, shared.size());
+        assertEquals(1, shared.cycleCountThrough("C"));
+    }
+
+    @Test
+    @DisplayName("El modo paralelo debería encontrar las mismas cadenas que el secuencial")
+    void testParallelMatchesSequential() {
+        Map<String, List<Edge>> graph = createRandomGraph(60, 3, 17);
+
+        List<SuspiciousChain> sequential = algorithm.findSuspiciousChains(graph, "w0", 5);
+        List<SuspiciousChain> parallel = algorithm.findSuspiciousChainsParallel(graph, "w0", 5, Integer.MAX_VALUE);
+
+        assertEquals(signatures(sequential), signatures(parallel));
+    }
+
+    @Test
+    @DisplayName("El modo paralelo debería respetar el límite global de cadenas")
+    void testParallelResultCap() {
+        Map<String, List<Edge>> graph = createRandomGraph(200, 4, 23);
+
+        List<SuspiciousChain> chains = algorithm.findSuspiciousChainsParallel(graph, "w0", 7, 25);
+
+        assertEquals(25, chains.size());
+    }
+
+    @Test
+    @DisplayName("Debería manejar wallets sin salidas")
+    void testDeadEnd() {
+        assertTrue(algorithm.findSuspiciousChains(testGraph, "H", 5).isEmpty());
+        assertTrue(algorithm.findSuspiciousChainsParallel(testGraph, "H", 5, 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debería recorrer cadenas muy profundas sin desbordar la pila")
+    void testDeepChainWithoutStackOverflow() {
+        int length = 100_000;
+        Map<String, List<Edge>> graph = new HashMap<>();
+        for (int i = 0; i < length; i++) {
+            graph.put("w" + i, List.of(edge("w" + (i + 1), 1)));
+        }
+
+        // Límite de 1 cadena: la primera que se emite es el callejón sin salida del fondo
+        List<SuspiciousChain> chains = algorithm.findSuspiciousChainsParallel(graph, "w0", length + 10, 1);
+
+        assertEquals(1, chains.size());
+        SuspiciousChain longest = chains.get(0);
+        assertEquals(length + 1, longest.getDepth());
+        assertEquals("w" + length, longest.getPath().get(length));
+        assertTrue(longest.getDescription().endsWith("DEAD_END"));
+    }
+
+    @Test
+    @DisplayName("Debería cortar la búsqueda sólo por la profundidad configurada")
+    void testDepthLimitedOnlyByConfiguration() {
+        Map<String, List<Edge>> graph = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            graph.put("w" + i, List.of(edge("w" + (i + 1), 1)));
+        }
+
+        List<SuspiciousChain> chains = algorithm.findSuspiciousChains(graph, "w0", 30);
+
+        assertEquals(31, chains.stream().mapToInt(SuspiciousChain::getDepth).max().orElse(0));
+    }
+
+    @Test
+    @DisplayName("Al agotar el presupuesto debería devolver las mejores cadenas con complete=false")
+    void testBudgetStopsSearch() {
+        Map<String, List<Edge>> graph = createRandomGraph(200, 4, 11);
+
+        BacktrackingAlgorithm.BacktrackingResult result = algorithm.searchSuspiciousChains(
+            graph, "w0", 8, ChainCollector.topK(10_000), null, SearchBudget.of(0, 2000, 0, 0), false);
+
+        assertFalse(result.isComplete());
+        assertEquals("NODE_LIMIT", result.getStopReason());
+        assertTrue(result.getMetrics().getPathsExplored() <= 2048);
+        assertFalse(result.getChains().isEmpty());
+        // El top-K no llegó a llenarse: cualquier cadena futura podría entrar
+        assertEquals(1.0, result.getOptimalityGap(), 1e-9);
+
+        BacktrackingAlgorithm.BacktrackingResult complete = algorithm.searchSuspiciousChains(
+            testGraph, "A", 5, ChainCollector.topK(20), null, SearchBudget.of(10_000, 0, 0, 0), false);
+        assertTrue(complete.isComplete());
+        assertEquals(0.0, complete.getOptimalityGap(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("BEST_FIRST y BEAM sin límite deberían encontrar las mismas cadenas que DEPTH_FIRST")
+    void testStrategiesAgreeWithoutLimits() {
+        Map<String, List<Edge>> graph = createRandomGraph(60, 3, 5);
+
+        ChainCollector depthFirstCollector = ChainCollector.unbounded();
+        algorithm.collectSuspiciousChains(graph, "w0", 6, depthFirstCollector);
+        List<SuspiciousChain> depthFirst = depthFirstCollector.toSortedList();
+        ChainCollector bestFirst = ChainCollector.unbounded();
+        algorithm.collectSuspiciousChains(graph, "w0", 6, bestFirst, null, SearchBudget.unlimited(),
+            BacktrackingAlgorithm.ExplorationStrategy.BEST_FIRST);
+        ChainCollector beam = ChainCollector.unbounded();
+        algorithm.collectSuspiciousChainsBeam(graph, "w0", 6, Integer.MAX_VALUE, beam, null, SearchBudget.unlimited());
+
+        assertEquals(signatures(depthFirst), signatures(bestFirst.toSortedList()));
+        assertEquals(signatures(depthFirst), signatures(beam.toSortedList()));
+    }
+
+    @Test
+    @DisplayName("BEST_FIRST debería seguir primero la arista de mayor valor")
+    void testBestFirstFollowsHighValueEdgeFirst() {
+        Map<String, List<Edge>> graph = new HashMap<>();
+        graph.put("A", List.of(edge("B", 1), edge("C", 1000)));
+        graph.put("B", List.of(edge("D", 1)));
+        graph.put("C", List.of(edge("E", 990)));
+        graph.put("D", List.of(edge("F", 1)));
+        graph.put("E", List.of(edge("G", 980)));
+
+        List<SuspiciousChain> streamed = new ArrayList<>();
+        algorithm.collectSuspiciousChains(graph, "A", 5, ChainCollector.streaming(10, streamed::add), null,
+            SearchBudget.unlimited(), BacktrackingAlgorithm.ExplorationStrategy.BEST_FIRST);
+
+        assertEquals(List.of("A", "C", "E", "G"), streamed.get(0).getPath());
+    }
+
+    @Test
+    @DisplayName("BEAM debería acotar los caminos por nivel y llegar a gran profundidad")
+    void testBeamBoundsFrontier() {
+        Map<String, List<Edge>> graph = createRandomGraph(500, 4, 21);
+
+        ChainCollector collector = ChainCollector.unbounded();
+        BacktrackingAlgorithm.BacktrackingMetrics metrics = algorithm.collectSuspiciousChainsBeam(
+            graph, "w0", 15, 8, collector, null, SearchBudget.unlimited());
+
+        // A lo sumo W caminos expandidos por nivel (más la raíz)
+        assertTrue(metrics.getPathsExplored() <= 1 + 15 * 8);
+        assertTrue(metrics.getBeamPruned() > 0);
+        assertEquals(16, collector.toSortedList().stream().mapToInt(SuspiciousChain::getDepth).max().orElse(0));
+    }
+
+    private Map<String, List<Edge>> createRandomGraph(int wallets, int outDegree, long seed) {
+        Random random = new Random(seed);
+        Map<String, List<Edge>> graph = new HashMap<>();
+        for (int i = 0; i < wallets; i++) {
+            List<Edge> edges = new ArrayList<>();
+            for (int j = 0; j < outDegree; j++) {
+                edges.add(edge("w" + random.nextInt(wallets), 1 + random.nextInt(100)));
+            }
+            graph.put("w" + i, edges);
+        }
+        return graph;
+    }
+
+    private List<String> signatures(List<SuspiciousChain> chains) {
+        return chains.stream()
+            .map(c -> c.getType() + ":" + c.getPath())
+            .sorted()
+            .collect(Collectors.toList());
+    }
+
+    private Edge edge(String to, double amount) {
+        return new Edge(to, amount, "tx-" + to, 0L);
+    }
+}
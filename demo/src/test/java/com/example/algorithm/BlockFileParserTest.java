@@ -0,0 +1,349 @@
+package com.example.algorithm;
+
+import com.example.algorithm.BlockFileImporter.BlockContext;
+import com.example.algorithm.BlockFileImporter.ResolvedInput;
+import com.example.algorithm.BlockFileParser.Block;
+import com.example.algorithm.BlockFileParser.Tx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para BlockFileParser, BlockFileImporter, OutpointIndex y BitcoinScript
+ */
+class BlockFileParserTest {
+
+    /** Bloque génesis de mainnet (285 bytes) */
+    private static final String GENESIS_BLOCK =
+            "0100000000000000000000000000000000000000000000000000000000000000000000003ba3edfd7a7b12b27ac72c3e"
+            + "67768f617fc81bc3888a51323a9fb8aa4b1e5e4a29ab5f49ffff001d1dac2b7c0101000000010000000000000000000000"
+            + "000000000000000000000000000000000000000000ffffffff4d04ffff001d0104455468652054696d65732030332f4a61"
+            + "6e2f32303039204368616e63656c6c6f72206f6e206272696e6b206f66207365636f6e64206261696c6f757420666f7220"
+            + "62616e6b73ffffffff0100f2052a01000000434104678afdb0fe5548271967f1a67130b7105cd6a828e03909a67962e0ea"
+            + "1f61deb649f6bc3f4cef38c4f35504e51ec112de5c384df7ba0b8d578a4c702b6bf11d5fac00000000";
+    private static final String GENESIS_HASH = "000000000019d6689c085ae165831e934ff763ae46a2a6c172b3f1b60a8ce26f";
+    private static final String GENESIS_TXID = "4a5e1e4baab89f3a32518a88c31bc87f618f76673e2cc77ab2127b7afdeda33b";
+    private static final String SATOSHI = "1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa";
+
+    private static final HexFormat HEX = HexFormat.of();
+    private static final byte[] P2WPKH = HEX.parseHex("0014751e76e8199196d454941c45d1b3a323f1433bd6");
+    private static final byte[] P2WSH = HEX.parseHex(
+            "00201863143c14c5166804bd19203356da136c985678cd4d27a1b8c6329604903262");
+    private static final byte[] P2SH = HEX.parseHex("a914" + "11".repeat(20) + "87");
+    private static final byte[] OP_RETURN = HEX.parseHex("6a0568656c6c6f");
+
+    private Path dir;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        dir = Files.createTempDirectory("blocks");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Debería decodificar el bloque génesis: hash, txid y dirección P2PK")
+    void testGenesisBlock() {
+        List<Block> blocks = new ArrayList<>();
+        long count = new BlockFileParser(BitcoinScript.Network.MAINNET, true)
+                .parse(ByteBuffer.wrap(record(HEX.parseHex(GENESIS_BLOCK))), "blk00000.dat", false, blocks::add);
+
+        assertEquals(1, count);
+        Block genesis = blocks.get(0);
+        assertEquals(GENESIS_HASH, genesis.getHashHex());
+        assertEquals("0".repeat(64), genesis.getPrevHashHex());
+        assertEquals(1231006505L, genesis.getTime());
+
+        Tx coinbase = genesis.getTransactions().get(0);
+        assertEquals(GENESIS_TXID, coinbase.getHashHex());
+        assertTrue(coinbase.isCoinbase());
+        assertFalse(coinbase.isSegwit());
+        BlockFileParser.Output output = coinbase.getOutputs().get(0);
+        assertEquals(5_000_000_000L, output.getValue());
+        assertEquals(BitcoinScript.PAY_TO_PUBKEY, output.getScriptType());
+        assertEquals(SATOSHI, output.getAddress());
+    }
+
+    @Test
+    @DisplayName("El txid de una transacción segwit no debería incluir el witness")
+    void testSegwitTxid() {
+        TxBuilder spend = spendGenesis();
+        byte[] block = block(HEX.parseHex(GENESIS_HASH), 1, coinbase(1, P2WPKH), spend);
+        List<Block> blocks = new ArrayList<>();
+
+        new BlockFileParser(BitcoinScript.Network.MAINNET, false)
+                .parse(ByteBuffer.wrap(record(block)), "blk", false, blocks::add);
+
+        Tx tx = blocks.get(0).getTransactions().get(1);
+        assertTrue(tx.isSegwit());
+        assertFalse(tx.isCoinbase());
+        assertArrayEquals(spend.txid(), tx.getTxid());
+        assertEquals(GENESIS_TXID, BitcoinScript.reversedHex(tx.getInputs().get(0).getPrevTxid()));
+        List<BlockFileParser.Output> outputs = tx.getOutputs();
+        assertEquals(BitcoinScript.PAY_TO_SCRIPT_HASH, outputs.get(0).getScriptType());
+        assertTrue(outputs.get(0).getAddress().startsWith("3"));
+        assertEquals("bc1qrp33g0q5c5txsp9arysrx4k6zdkfs4nce4xj0gdcccefvpysxf3qccfmv3", outputs.get(1).getAddress());
+        assertEquals(BitcoinScript.NULL_DATA, outputs.get(2).getScriptType());
+        assertNull(outputs.get(2).getAddress());
+        assertNull(outputs.get(0).getScript());
+    }
+
+    @Test
+    @DisplayName("El importador debería resolver outpoints entre archivos y descartar bloques huérfanos")
+    void testImporterAcrossFiles() throws Exception {
+        byte[] genesisHash = HEX.parseHex(GENESIS_HASH);
+        byte[] block1 = block(reverse(genesisHash), 1, coinbase(1, P2WPKH), spendGenesis());
+        byte[] stale = block(reverse(genesisHash), 2, coinbase(99, P2SH));
+        byte[] block2 = block(blockHash(block1), 3, coinbase(2, P2WSH));
+
+        // Génesis y el huérfano en el primer archivo; los siguientes fuera de orden y con relleno
+        Files.write(dir.resolve("blk00000.dat"), concat(record(HEX.parseHex(GENESIS_BLOCK)), record(stale)));
+        Files.write(dir.resolve("blk00001.dat"), concat(record(block2), record(block1), new byte[64]));
+
+        Map<String, BlockContext> blocks = new ConcurrentHashMap<>();
+        Map<String, List<ResolvedInput>> inputs = new ConcurrentHashMap<>();
+        BlockFileImporter.Report report = new BlockFileImporter(BitcoinScript.Network.MAINNET, 2)
+                .run(List.of(dir.resolve("blk00000.dat"), dir.resolve("blk00001.dat")), file ->
+                        new BlockFileImporter.Sink() {
+                            @Override
+                            public void accept(BlockContext block, Tx tx, List<ResolvedInput> resolved) {
+                                blocks.put(tx.getHashHex(), block);
+                                inputs.put(tx.getHashHex(), resolved);
+                            }
+
+                            @Override
+                            public void close() {
+                            }
+                        });
+
+        assertEquals(4, report.getBlocks());
+        assertEquals(1, report.getStaleBlocks());
+        assertEquals(2, report.getTipHeight());
+        assertTrue(report.isGenesisFound());
+        assertEquals(4, report.getTransactions());
+        assertEquals(0, report.getUnresolvedInputs());
+
+        assertEquals(0, blocks.get(GENESIS_TXID).getHeight());
+        assertEquals(3, blocks.get(GENESIS_TXID).getConfirmations());
+        String spendTxid = BitcoinScript.reversedHex(spendGenesis().txid());
+        assertEquals(1, blocks.get(spendTxid).getHeight());
+        ResolvedInput input = inputs.get(spendTxid).get(0);
+        assertTrue(input.isResolved());
+        assertEquals(SATOSHI, input.getAddress());
+        assertEquals(5_000_000_000L, input.getValue());
+        // La coinbase del huérfano no se emite
+        assertFalse(inputs.containsKey(BitcoinScript.reversedHex(coinbase(99, P2SH).txid())));
+    }
+
+    @Test
+    @DisplayName("El índice de outpoints debería crecer y conservar valores y direcciones")
+    void testOutpointIndexGrowth() {
+        try (OutpointIndex index = new OutpointIndex(16)) {
+            for (int i = 0; i < 20_000; i++) {
+                index.put(txid(i), i % 7, i * 10L, i % 3 == 0 ? null : "addr" + i);
+            }
+            index.put(txid(5), 5, 1L, "replaced");
+
+            assertEquals(20_000, index.size());
+            for (int i = 0; i < 20_000; i += 997) {
+                OutpointIndex.Output output = index.get(txid(i), i % 7);
+                assertNotNull(output);
+                assertEquals(i == 5 ? 1L : i * 10L, output.getValue());
+                assertEquals(i % 3 == 0 ? null : i == 5 ? "replaced" : "addr" + i, output.getAddress());
+            }
+            assertNull(index.get(txid(1), 2));
+            assertNull(index.get(txid(20_001), 0));
+        }
+    }
+
+    @Test
+    @DisplayName("Debería codificar direcciones Base58Check, Bech32 y Bech32m")
+    void testAddressEncodings() {
+        ByteBuffer p2wpkh = ByteBuffer.wrap(P2WPKH);
+        assertEquals(BitcoinScript.PAY_TO_WITNESS_PUBKEY_HASH, BitcoinScript.type(p2wpkh, 0, P2WPKH.length));
+        assertEquals("bc1qw508d6qejxtdg4y5r3zarvary0c5xw7kv8f3t4", BitcoinScript.address(
+                BitcoinScript.Network.MAINNET, BitcoinScript.PAY_TO_WITNESS_PUBKEY_HASH, p2wpkh, 0, P2WPKH.length));
+
+        byte[] p2pkh = HEX.parseHex("76a914" + "62e907b15cbf27d5425399ebf6f0fb50ebb88f18" + "88ac");
+        assertEquals(SATOSHI, BitcoinScript.address(BitcoinScript.Network.MAINNET,
+                BitcoinScript.type(ByteBuffer.wrap(p2pkh), 0, p2pkh.length), ByteBuffer.wrap(p2pkh), 0, p2pkh.length));
+
+        byte[] taproot = HEX.parseHex("5120" + "79be667ef9dcbbac55a06295ce870b07029bfcdb2dce28d959f2815b16f81798");
+        String address = BitcoinScript.address(BitcoinScript.Network.MAINNET,
+                BitcoinScript.type(ByteBuffer.wrap(taproot), 0, taproot.length), ByteBuffer.wrap(taproot), 0, taproot.length);
+        assertTrue(address.startsWith("bc1p"));
+        assertEquals(62, address.length());
+
+        assertEquals("9c1185a5c5e9fc54612808977ee8f548b2258d31",
+                HEX.formatHex(BitcoinScript.Ripemd160.digest(new byte[0])));
+        assertEquals("8eb208f7e05d987a9b044a8e98c6b087f15a0bfc",
+                HEX.formatHex(BitcoinScript.Ripemd160.digest("abc".getBytes())));
+    }
+
+    // ---- Construcción de bloques sintéticos ----
+
+    private static TxBuilder spendGenesis() {
+        return new TxBuilder()
+                .input(reverse(HEX.parseHex(GENESIS_TXID)), 0, new byte[0])
+                .output(1_000_000_000L, P2SH)
+                .output(3_999_990_000L, P2WSH)
+                .output(0L, OP_RETURN)
+                .witness(HEX.parseHex("3044" + "ab".repeat(68)), HEX.parseHex("02" + "cd".repeat(32)));
+    }
+
+    private static TxBuilder coinbase(int tag, byte[] script) {
+        return new TxBuilder()
+                .input(new byte[32], -1, new byte[]{0x01, (byte) tag})
+                .output(5_000_000_000L, script);
+    }
+
+    /** Bloque con cabecera mínima; {@code prevHash} en orden interno */
+    private static byte[] block(byte[] prevHash, int time, TxBuilder... txs) {
+        Writer out = new Writer();
+        out.int32(1).bytes(prevHash).bytes(new byte[32]).int32(1231006505 + time * 600).int32(0x1d00ffff).int32(time);
+        out.varint(txs.length);
+        for (TxBuilder tx : txs) {
+            out.bytes(tx.serialize(true));
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] record(byte[] block) {
+        return new Writer().int32(BitcoinScript.Network.MAINNET.getMagic()).int32(block.length).bytes(block)
+                .toByteArray();
+    }
+
+    private static byte[] blockHash(byte[] block) {
+        return BitcoinScript.sha256d(block, 0, 80);
+    }
+
+    private static byte[] txid(int i) {
+        byte[] txid = new byte[32];
+        ByteBuffer.wrap(txid).putInt(i).putInt(i * 31).putInt(~i);
+        return txid;
+    }
+
+    private static byte[] reverse(byte[] bytes) {
+        byte[] reversed = new byte[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            reversed[i] = bytes[bytes.length - 1 - i];
+        }
+        return reversed;
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        Writer out = new Writer();
+        for (byte[] part : parts) {
+            out.bytes(part);
+        }
+        return out.toByteArray();
+    }
+
+    private static final class TxBuilder {
+        private final Writer inputs = new Writer();
+        private final Writer outputs = new Writer();
+        private final List<byte[]> witness = new ArrayList<>();
+        private int inputCount;
+        private int outputCount;
+
+        TxBuilder input(byte[] prevTxid, int vout, byte[] script) {
+            inputs.bytes(prevTxid).int32(vout).varint(script.length).bytes(script).int32(0xFFFFFFFF);
+            inputCount++;
+            return this;
+        }
+
+        TxBuilder output(long value, byte[] script) {
+            outputs.int64(value).varint(script.length).bytes(script);
+            outputCount++;
+            return this;
+        }
+
+        /** Witness del primer (único) input */
+        TxBuilder witness(byte[]... items) {
+            witness.addAll(List.of(items));
+            return this;
+        }
+
+        byte[] serialize(boolean withWitness) {
+            boolean segwit = withWitness && !witness.isEmpty();
+            Writer out = new Writer().int32(2);
+            if (segwit) {
+                out.bytes(new byte[]{0x00, 0x01});
+            }
+            out.varint(inputCount).bytes(inputs.toByteArray()).varint(outputCount).bytes(outputs.toByteArray());
+            if (segwit) {
+                out.varint(witness.size());
+                for (byte[] item : witness) {
+                    out.varint(item.length).bytes(item);
+                }
+            }
+            return out.int32(0).toByteArray();
+        }
+
+        byte[] txid() {
+            byte[] stripped = serialize(false);
+            return BitcoinScript.sha256d(stripped, 0, stripped.length);
+        }
+    }
+
+    private static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Writer bytes(byte[] bytes) {
+            out.write(bytes, 0, bytes.length);
+            return this;
+        }
+
+        Writer int32(int value) {
+            for (int i = 0; i < 4; i++) {
+                out.write(value >>> (8 * i));
+            }
+            return this;
+        }
+
+        Writer int64(long value) {
+            for (int i = 0; i < 8; i++) {
+                out.write((int) (value >>> (8 * i)));
+            }
+            return this;
+        }
+
+        Writer varint(int value) {
+            if (value < 0xFD) {
+                out.write(value);
+                return this;
+            }
+            out.write(0xFD);
+            out.write(value);
+            out.write(value >>> 8);
+            return this;
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+}
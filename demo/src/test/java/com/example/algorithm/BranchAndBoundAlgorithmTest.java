@@ -244,5 +244,49 @@ class BranchAndBoundAlgorithmTest {
         assertTrue(result.getNodesExplored() <= 10,
             "Debería explorar pocos nodos con poda efectiva: " + result.getNodesExplored());
     }
-}
 
+    @Test
+    @DisplayName("Una búsqueda sin cortar debería ser completa y sin brecha")
+    void testCompleteSearchHasNoGap() {
+        OptimalPathResult result = algorithm.findOptimalPath(
+            testGraph, "A", "D", 1000.0, SearchBudget.of(10_000, 0, 0, 0));
+
+        assertTrue(result.isComplete());
+        assertEquals("NONE", result.getStopReason());
+        assertEquals(0.0, result.getOptimalityGap(), 1e-9);
+        assertEquals(13.0, result.getLowerBound(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Al agotar el presupuesto de nodos debería devolver un resultado incompleto")
+    void testNodeBudgetStopsSearch() {
+        // Grafo en capas: 12 capas de 6 wallets, todas conectadas con la capa siguiente
+        Random random = new Random(3);
+        Map<String, List<Edge>> graph = new HashMap<>();
+        graph.put("S", new ArrayList<>());
+        for (int j = 0; j < 6; j++) {
+            graph.get("S").add(new Edge("L0-" + j, 1.0, 1 + random.nextInt(10), "tx", 0L));
+        }
+        for (int layer = 0; layer < 12; layer++) {
+            for (int j = 0; j < 6; j++) {
+                List<Edge> edges = new ArrayList<>();
+                for (int k = 0; k < 6; k++) {
+                    String next = layer == 11 ? "T" : "L" + (layer + 1) + "-" + k;
+                    edges.add(new Edge(next, 1.0, 1 + random.nextInt(10), "tx", 0L));
+                }
+                graph.put("L" + layer + "-" + j, edges);
+            }
+        }
+
+        OptimalPathResult full = algorithm.findOptimalPath(graph, "S", "T", 1000.0);
+        OptimalPathResult cut = algorithm.findOptimalPath(
+            graph, "S", "T", 1000.0, SearchBudget.of(0, 10, 0, 0));
+
+        assertTrue(full.isComplete());
+        assertFalse(cut.isComplete());
+        assertEquals("NODE_LIMIT", cut.getStopReason());
+        assertTrue(cut.getNodesExplored() < full.getNodesExplored());
+        assertTrue(cut.getLowerBound() <= full.getTotalCost() + 1e-9,
+            "La cota inferior no debe superar al óptimo");
+    }
+}
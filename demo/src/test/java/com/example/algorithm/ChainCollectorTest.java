@@ -0,0 +1,151 @@
+package com.example.algorithm;
+
+import com.example.algorithm.BacktrackingAlgorithm.ChainType;
+import com.example.algorithm.BacktrackingAlgorithm.Edge;
+import com.example.algorithm.BacktrackingAlgorithm.SuspiciousChain;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ChainCollector
+ */
+class ChainCollectorTest {
+
+    @Test
+    @DisplayName("Debería retener sólo las K cadenas más sospechosas")
+    void testKeepsTopK() {
+        ChainCollector collector = ChainCollector.topK(3);
+        double[] levels = {0.4, 0.9, 0.5, 0.7, 0.3, 0.8};
+        for (int i = 0; i < levels.length; i++) {
+            collector.offer(chain(List.of("A", "B" + i, "C"), levels[i]));
+        }
+
+        List<SuspiciousChain> top = collector.toSortedList();
+
+        assertEquals(3, top.size());
+        assertEquals(0.9, top.get(0).getSuspicionLevel(), 1e-9);
+        assertEquals(0.8, top.get(1).getSuspicionLevel(), 1e-9);
+        assertEquals(0.7, top.get(2).getSuspicionLevel(), 1e-9);
+        assertEquals(2, collector.getEvicted());
+    }
+
+    @Test
+    @DisplayName("Debería descartar cadenas equivalentes")
+    void testDeduplicatesEquivalentChains() {
+        ChainCollector collector = ChainCollector.topK(10);
+
+        assertTrue(collector.offer(chain(List.of("A", "B", "C"), 0.5)));
+        assertFalse(collector.offer(chain(List.of("A", "B", "C"), 0.5)));
+
+        assertEquals(1, collector.size());
+        assertEquals(1, collector.getDuplicates());
+    }
+
+    @Test
+    @DisplayName("El modo streaming debería entregar cada cadena admitida")
+    void testStreamingListener() {
+        List<SuspiciousChain> streamed = new ArrayList<>();
+        ChainCollector collector = ChainCollector.streaming(2, streamed::add);
+
+        collector.offer(chain(List.of("A", "B", "C"), 0.5));
+        collector.offer(chain(List.of("A", "B", "D"), 0.4));
+        collector.offer(chain(List.of("A", "B", "E"), 0.3)); // no entra
+        collector.offer(chain(List.of("A", "B", "F"), 0.6));
+
+        assertEquals(3, streamed.size());
+        assertEquals(2, collector.size());
+    }
+
+    @Test
+    @DisplayName("El modo streaming no debería reenviar una cadena desalojada y vuelta a encontrar")
+    void testStreamingEmitsOnce() {
+        List<SuspiciousChain> streamed = new ArrayList<>();
+        ChainCollector collector = ChainCollector.streaming(1, streamed::add);
+
+        collector.offer(chain(List.of("A", "B", "C"), 0.5));
+        collector.offer(chain(List.of("A", "B", "D"), 0.6)); // desaloja A-B-C
+        assertTrue(collector.offer(chain(List.of("A", "B", "C"), 0.7)), "Vuelve a entrar al top-K");
+
+        assertEquals(2, streamed.size());
+        assertEquals(List.of("A", "B", "C"), collector.toSortedList().get(0).getPath());
+    }
+
+    @Test
+    @DisplayName("Un listener lento no debería bloquear a los demás workers")
+    void testListenerRunsOutsideLock() throws Exception {
+        CountDownLatch listenerEntered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ChainCollector collector = ChainCollector.streaming(10, chain -> {
+            listenerEntered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        Thread slow = new Thread(() -> collector.offer(chain(List.of("A", "B", "C"), 0.5)));
+        slow.start();
+        assertTrue(listenerEntered.await(5, TimeUnit.SECONDS));
+
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        try {
+            Future<Integer> other = worker.submit(() -> {
+                collector.wouldAccept(0.4);
+                return collector.size();
+            });
+            assertEquals(1, other.get(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            slow.join();
+            worker.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("El top-K de la búsqueda debería coincidir con el prefijo de la búsqueda completa")
+    void testTopKMatchesFullSearchPrefix() {
+        Random random = new Random(7);
+        Map<String, List<Edge>> graph = new HashMap<>();
+        for (int i = 0; i < 80; i++) {
+            List<Edge> edges = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                edges.add(new Edge("w" + random.nextInt(80), 1 + random.nextInt(100), "tx", 0L));
+            }
+            graph.put("w" + i, edges);
+        }
+        BacktrackingAlgorithm algorithm = new BacktrackingAlgorithm();
+
+        List<SuspiciousChain> all = algorithm.findSuspiciousChains(graph, "w0", 5);
+        List<SuspiciousChain> top = algorithm.findTopSuspiciousChains(graph, "w0", 5, 40);
+
+        assertTrue(all.size() > 40);
+        assertEquals(paths(all.subList(0, 40)), paths(top));
+    }
+
+    private List<String> paths(List<SuspiciousChain> chains) {
+        List<String> paths = new ArrayList<>();
+        for (SuspiciousChain chain : chains) {
+            paths.add(chain.getType() + ":" + chain.getPath());
+        }
+        return paths;
+    }
+
+    private SuspiciousChain chain(List<String> path, double suspicionLevel) {
+        return SuspiciousChain.builder()
+            .path(path)
+            .type(ChainType.LINEAR_CHAIN)
+            .suspicionLevel(suspicionLevel)
+            .depth(path.size())
+            .build();
+    }
+}
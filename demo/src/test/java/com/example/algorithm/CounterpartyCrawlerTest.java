@@ -0,0 +1,152 @@
+package com.example.algorithm;
+
+import com.example.algorithm.CounterpartyCrawler.State;
+import com.example.algorithm.CounterpartyCrawler.Status;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para CounterpartyCrawler y BloomFilter
+ */
+class CounterpartyCrawlerTest {
+
+    /**
+     * API simulada: árbol binario S → S0, S1 → S00, S01, ... (contrapartes = hijos)
+     */
+    private static final class MockApi implements CounterpartyCrawler.WalletSource {
+        final Map<String, Integer> fetches = new ConcurrentHashMap<>();
+        final Set<String> expanded = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public List<String> expand(String address, boolean fetch) {
+            if (fetch) {
+                fetches.merge(address, 1, Integer::sum);
+            }
+            expanded.add(address);
+            return List.of(address + "0", address + "1");
+        }
+    }
+
+    private static CounterpartyCrawler crawler(MockApi api, Set<String> inGraph,
+                                               AtomicReference<State> saved, int parallelism) {
+        return new CounterpartyCrawler(api,
+                pending -> {
+                    Set<String> known = new HashSet<>(pending);
+                    known.retainAll(inGraph);
+                    return known;
+                },
+                state -> saved.set(copy(state)),
+                parallelism, 1);
+    }
+
+    /** Simula la persistencia: el estado guardado no comparte listas con el vivo */
+    private static State copy(State state) {
+        return state.toBuilder().build();
+    }
+
+    @Test
+    @DisplayName("Debería expandir por niveles hasta maxHops sin repetir wallets")
+    void testBreadthFirstHops() {
+        MockApi api = new MockApi();
+        AtomicReference<State> saved = new AtomicReference<>();
+
+        State result = crawler(api, Set.of(), saved, 4)
+                .run(State.start("c1", List.of("S", "S"), "BTC", 2, 1000), () -> false);
+
+        assertEquals(Status.COMPLETED, result.getStatus());
+        // Niveles 0, 1 y 2: 1 + 2 + 4 wallets
+        assertEquals(7, api.fetches.size());
+        assertTrue(api.fetches.values().stream().allMatch(n -> n == 1));
+        assertTrue(api.fetches.containsKey("S11"));
+        assertFalse(api.fetches.containsKey("S110"));
+        assertEquals(7L, result.getFetched());
+        assertEquals(Status.COMPLETED, saved.get().getStatus());
+    }
+
+    @Test
+    @DisplayName("El presupuesto de wallets debería acotar el descubrimiento")
+    void testWalletBudget() {
+        MockApi api = new MockApi();
+
+        State result = crawler(api, Set.of(), new AtomicReference<>(), 2)
+                .run(State.start("c2", List.of("S"), "BTC", 10, 5), () -> false);
+
+        assertEquals(5, result.getVisited().size());
+        assertEquals(5, api.fetches.size());
+    }
+
+    @Test
+    @DisplayName("Las wallets ya presentes en el grafo se expanden sin volver a pedirse a la API")
+    void testKnownWalletsAreReused() {
+        MockApi api = new MockApi();
+
+        State result = crawler(api, Set.of("S", "S0"), new AtomicReference<>(), 2)
+                .run(State.start("c3", List.of("S"), "BTC", 1, 100), () -> false);
+
+        assertEquals(Set.of("S1"), api.fetches.keySet());
+        assertEquals(Set.of("S", "S0", "S1"), api.expanded);
+        assertEquals(2L, result.getReused());
+    }
+
+    @Test
+    @DisplayName("Un crawl interrumpido debería reanudarse desde el checkpoint sin repetir wallets")
+    void testResumeAfterInterruption() {
+        MockApi api = new MockApi();
+        AtomicReference<State> saved = new AtomicReference<>();
+        AtomicInteger budget = new AtomicInteger(4);
+
+        // Se "cae" tras 4 expansiones
+        CounterpartyCrawler.WalletSource flaky = (address, fetch) -> {
+            List<String> counterparties = api.expand(address, fetch);
+            budget.decrementAndGet();
+            return counterparties;
+        };
+        State interrupted = new CounterpartyCrawler(flaky, pending -> Set.of(),
+                state -> saved.set(copy(state)), 1, 1)
+                .run(State.start("c4", List.of("S"), "BTC", 3, 1000), () -> budget.get() <= 0);
+
+        assertEquals(Status.INTERRUPTED, interrupted.getStatus());
+        int fetchedBeforeCrash = api.fetches.size();
+        assertTrue(fetchedBeforeCrash < 15);
+
+        State resumed = crawler(api, Set.of(), new AtomicReference<>(), 3)
+                .run(copy(saved.get()), () -> false);
+
+        assertEquals(Status.COMPLETED, resumed.getStatus());
+        assertEquals(15, api.fetches.size());
+        assertTrue(api.fetches.values().stream().allMatch(n -> n == 1));
+    }
+
+    @Test
+    @DisplayName("El filtro de Bloom no debería tener falsos negativos y respetar la fpp")
+    void testBloomFilter() {
+        BloomFilter filter = BloomFilter.create(10_000, 0.01);
+        List<String> inserted = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            inserted.add("bc1q" + i);
+            filter.put("bc1q" + i);
+        }
+
+        assertTrue(inserted.stream().allMatch(filter::mightContain));
+        int falsePositives = 0;
+        for (int i = 0; i < 20_000; i++) {
+            if (filter.mightContain("1Other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives / 20_000.0 < 0.02, "fpp=" + falsePositives / 20_000.0);
+        assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+        assertFalse(filter.put("bc1q42"));
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.algorithm;
+
+import com.example.algorithm.CycleStore.StoredCycle;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para CycleStore
+ */
+class CycleStoreTest {
+
+    @Test
+    @DisplayName("Debería calcular la rotación mínima")
+    void testMinimalRotation() {
+        assertEquals(2, CycleStore.minimalRotation(new int[]{5, 7, 1, 9}, 0, 4));
+        assertEquals(0, CycleStore.minimalRotation(new int[]{1, 2, 1, 3}, 0, 4));
+        assertEquals(2, CycleStore.minimalRotation(new int[]{1, 3, 1, 2}, 0, 4));
+        assertEquals(1, CycleStore.minimalRotation(new int[]{99, 8, 4, 6}, 1, 3));
+    }
+
+    @Test
+    @DisplayName("Todas las rotaciones de un ciclo deberían guardarse una sola vez")
+    void testRotationsAreDeduplicated() {
+        CycleStore store = new CycleStore();
+
+        int id = store.add(new int[]{3, 1, 2}, 0, 3, 10.0);
+        assertTrue(id >= 0);
+        assertEquals(-(id + 1), store.add(new int[]{1, 2, 3}, 0, 3, 10.0));
+        assertEquals(-(id + 1), store.add(new int[]{7, 2, 3, 1}, 1, 3, 10.0));
+
+        assertEquals(1, store.size());
+        assertEquals(3, store.get(id).getObservations());
+    }
+
+    @Test
+    @DisplayName("El sentido del ciclo debería distinguir ciclos distintos")
+    void testDirectionMatters() {
+        CycleStore store = new CycleStore();
+
+        assertTrue(store.add(new int[]{1, 2, 3}, 0, 3, 0) >= 0);
+        assertTrue(store.add(new int[]{1, 3, 2}, 0, 3, 0) >= 0);
+
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    @DisplayName("Debería consultar ciclos por wallet en su rotación canónica")
+    void testCyclesThroughWallet() {
+        CycleStore store = new CycleStore();
+        int[] ids = store.walletIds(new String[]{"C", "A", "B", "D"});
+
+        store.add(new int[]{ids[0], ids[1], ids[2]}, 0, 3, 30.0);
+        store.add(new int[]{ids[3], ids[2]}, 0, 2, 5.0);
+
+        List<StoredCycle> throughB = store.cyclesThrough("B", 10);
+        assertEquals(2, throughB.size());
+        assertEquals(List.of("C", "A", "B", "C"), throughB.get(0).getPath());
+        assertEquals(30.0, throughB.get(0).getTotalAmount(), 1e-9);
+        assertEquals(1, store.cycleCountThrough("A"));
+        assertTrue(store.cyclesThrough("Z", 10).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Al llenarse no debería aceptar ciclos nuevos pero sí reconocer los existentes")
+    void testCapacity() {
+        CycleStore store = new CycleStore(1);
+
+        int id = store.add(new int[]{1, 2}, 0, 2, 0);
+        assertEquals(Integer.MIN_VALUE, store.add(new int[]{3, 4}, 0, 2, 0));
+        assertEquals(-(id + 1), store.add(new int[]{2, 1}, 0, 2, 0));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    @DisplayName("Debería crecer más allá de la capacidad inicial")
+    void testGrowth() {
+        CycleStore store = new CycleStore();
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(store.add(new int[]{i, i + 1, i + 2}, 0, 3, i) >= 0);
+        }
+        for (int i = 0; i < 5000; i++) {
+            assertTrue(store.add(new int[]{i + 2, i, i + 1}, 0, 3, i) < 0);
+        }
+        assertEquals(5000, store.size());
+    }
+}
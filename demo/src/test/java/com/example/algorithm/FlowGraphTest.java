@@ -0,0 +1,95 @@
+package com.example.algorithm;
+
+import com.example.algorithm.FlowGraph.FlowEdge;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para FlowGraph
+ */
+class FlowGraphTest {
+
+    @Test
+    @DisplayName("Las transacciones paralelas deberían colapsarse en un flujo por par")
+    void testCollapseParallelTransactions() {
+        FlowGraph graph = new FlowGraph()
+            .add("A", "B", 10.0, 0.5, 100L, "tx1")
+            .add("A", "B", 20.0, 0.1, 300L, "tx2")
+            .add("A", "B", 5.0, 0.9, 200L, "tx3")
+            .add("A", "C", 1.0, 0.2, 50L, "tx4");
+
+        List<FlowEdge> flows = graph.flowsFrom("A");
+        assertEquals(2, flows.size());
+
+        FlowEdge ab = flows.get(0);
+        assertEquals("B", ab.getTo());
+        assertEquals(3, ab.getTxCount());
+        assertEquals(35.0, ab.getTotalAmount(), 1e-9);
+        assertEquals(0.1, ab.getMinFee(), 1e-9);
+        assertEquals(0.9, ab.getMaxFee(), 1e-9);
+        assertEquals("tx2", ab.getMinFeeTxHash());
+        assertEquals(100L, ab.getFirstTimestamp());
+        assertEquals(300L, ab.getLastTimestamp());
+
+        assertEquals(4, graph.getRawEdgeCount());
+        assertEquals(2, graph.getFlowEdgeCount());
+        assertEquals(2.0, graph.getCompressionRatio(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Debería ignorar self-loops y combinar flujos ya agregados")
+    void testAddFlow() {
+        FlowGraph graph = new FlowGraph()
+            .add("A", "A", 10.0, 0.1, 1L, "loop")
+            .addFlow(FlowEdge.builder().from("A").to("B").txCount(4).totalAmount(40.0)
+                .minFee(0.3).maxFee(0.3).minFeeTxHash("x").firstTimestamp(5).lastTimestamp(9).build())
+            .add("A", "B", 1.0, 0.2, 20L, "y");
+
+        FlowEdge ab = graph.flowsFrom("A").get(0);
+        assertEquals(1, graph.getFlowEdgeCount());
+        assertEquals(5, ab.getTxCount());
+        assertEquals(41.0, ab.getTotalAmount(), 1e-9);
+        assertEquals("y", ab.getMinFeeTxHash());
+        assertEquals(20L, ab.getLastTimestamp());
+    }
+
+    @Test
+    @DisplayName("El camino más barato sobre flujos debería coincidir con el de transacciones")
+    void testCheapestPathUnchangedOnFlows() {
+        FlowGraph flows = new FlowGraph();
+        Map<String, List<BranchAndBoundAlgorithm.Edge>> raw = new HashMap<>();
+        String[][] txs = {
+            {"S", "A", "5"}, {"S", "A", "1"}, {"S", "A", "3"},
+            {"A", "T", "4"}, {"A", "T", "2"},
+            {"S", "B", "1"}, {"B", "T", "7"}, {"B", "T", "6"}
+        };
+        int i = 0;
+        for (String[] tx : txs) {
+            double fee = Double.parseDouble(tx[2]);
+            flows.add(tx[0], tx[1], 1.0, fee, 0L, "tx" + i);
+            raw.computeIfAbsent(tx[0], k -> new ArrayList<>())
+                .add(new BranchAndBoundAlgorithm.Edge(tx[1], 1.0, fee, "tx" + i, 0L));
+            i++;
+        }
+        Map<String, List<BranchAndBoundAlgorithm.Edge>> collapsed = flows.map(flow ->
+            new BranchAndBoundAlgorithm.Edge(flow.getTo(), flow.getTotalAmount(), flow.getMinFee(),
+                flow.getMinFeeTxHash(), 0L));
+
+        BranchAndBoundAlgorithm algorithm = new BranchAndBoundAlgorithm();
+        var onRaw = algorithm.findOptimalPath(raw, "S", "T", Double.MAX_VALUE);
+        var onFlows = algorithm.findOptimalPath(collapsed, "S", "T", Double.MAX_VALUE);
+
+        assertTrue(onFlows.isPathFound());
+        assertEquals(onRaw.getTotalCost(), onFlows.getTotalCost(), 1e-9);
+        assertEquals(3.0, onFlows.getTotalCost(), 1e-9);
+        assertEquals(List.of("S", "A", "T"), onFlows.getPath());
+        assertEquals(4, collapsed.values().stream().mapToInt(List::size).sum());
+    }
+}
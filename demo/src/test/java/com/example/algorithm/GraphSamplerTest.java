@@ -0,0 +1,158 @@
+package com.example.algorithm;
+
+import com.example.algorithm.GraphSampler.Method;
+import com.example.algorithm.GraphSampler.Sample;
+import com.example.algorithm.SampleEstimator.Estimate;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para GraphSampler y SampleEstimator
+ */
+class GraphSamplerTest {
+
+    private static final int N = 2000;
+
+    /** Anillo con vecinos a distancia 1 y 2 (con triángulos), cuerdas aleatorias y un hub */
+    private static WalletGraph syntheticGraph() {
+        WalletGraph.Builder builder = WalletGraph.builder();
+        SplittableRandom random = new SplittableRandom(7);
+        for (int i = 0; i < N; i++) {
+            builder.addEdge("W" + i, "W" + ((i + 1) % N), 1.0);
+            builder.addEdge("W" + i, "W" + ((i + 2) % N), 1.0);
+            if (random.nextInt(4) == 0) {
+                builder.addEdge("W" + i, "W" + random.nextInt(N), 1.0);
+            }
+            if (i < 60) {
+                builder.addEdge("HUB", "W" + i, 1.0);
+            }
+        }
+        return builder.build();
+    }
+
+    private static void assertCovers(double exact, Estimate estimate) {
+        assertTrue(estimate.getCiLow() <= exact && exact <= estimate.getCiHigh(),
+                estimate.getMetric() + " " + estimate.getMethod() + ": " + exact
+                        + " fuera de [" + estimate.getCiLow() + ", " + estimate.getCiHigh() + "]");
+    }
+
+    @Test
+    @DisplayName("RANDOM_NODE debería devolver wallets distintas y ser determinístico por semilla")
+    void testRandomNodes() {
+        WalletGraph graph = syntheticGraph();
+        Sample sample = new GraphSampler(graph, 42).randomNodes(300);
+        Sample again = new GraphSampler(graph, 42).randomNodes(300);
+
+        assertEquals(300, sample.size());
+        assertEquals(300, sample.distinctNodes());
+        for (int i = 0; i < sample.size(); i++) {
+            assertEquals(sample.node(i), again.node(i));
+        }
+        assertEquals(graph.size(), new GraphSampler(graph, 1).randomNodes(N * 10).size());
+    }
+
+    @Test
+    @DisplayName("El intervalo del grado medio debería cubrir el valor exacto con cada muestreador insesgado")
+    void testMeanDegreeCoverage() {
+        WalletGraph graph = syntheticGraph();
+        double exact = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            exact += graph.degree(v);
+        }
+        exact /= graph.size();
+
+        GraphSampler sampler = new GraphSampler(graph, 11);
+        for (Method method : List.of(Method.RANDOM_NODE, Method.RANDOM_EDGE, Method.RANDOM_WALK)) {
+            Estimate estimate = SampleEstimator.meanDegree(graph, sampler.sample(method, 1500), 0.99);
+            assertTrue(estimate.isUnbiased());
+            assertTrue(estimate.getStandardError() > 0);
+            assertCovers(exact, estimate);
+        }
+    }
+
+    @Test
+    @DisplayName("El intervalo del clustering medio debería cubrir el valor exacto")
+    void testClusteringCoverage() {
+        WalletGraph graph = syntheticGraph();
+        double exact = 0;
+        for (int v = 0; v < graph.size(); v++) {
+            exact += SampleEstimator.localClustering(graph, v, Integer.MAX_VALUE, 0);
+        }
+        exact /= graph.size();
+
+        Sample sample = new GraphSampler(graph, 3).randomNodes(800);
+        assertCovers(exact, SampleEstimator.clusteringCoefficient(graph, sample, 0.99,
+                SampleEstimator.DEFAULT_MAX_WEDGES));
+    }
+
+    @Test
+    @DisplayName("El muestreo de cuñas debería aproximar el clustering local de wallets de grado alto")
+    void testWedgeSampling() {
+        WalletGraph graph = syntheticGraph();
+        int hub = graph.idOf("HUB");
+
+        double exact = SampleEstimator.localClustering(graph, hub, Integer.MAX_VALUE, 0);
+        double sampled = SampleEstimator.localClustering(graph, hub, 500, 0);
+
+        assertTrue(exact > 0.03);
+        assertEquals(exact, sampled, 0.04);
+    }
+
+    @Test
+    @DisplayName("El intervalo de la longitud media de camino debería cubrir el valor exacto")
+    void testAveragePathLength() {
+        WalletGraph graph = syntheticGraph();
+        Sample all = new GraphSampler(graph, 0).randomNodes(graph.size());
+        Estimate exact = SampleEstimator.averagePathLength(graph, all, 0.95, graph.size(), SearchBudget.unlimited());
+
+        Sample sample = new GraphSampler(graph, 5).randomNodes(200);
+        Estimate estimate = SampleEstimator.averagePathLength(graph, sample, 0.99, 60, SearchBudget.unlimited());
+
+        assertEquals(60, estimate.getSampleSize());
+        assertTrue(estimate.isComplete());
+        assertCovers(exact.getValue(), estimate);
+    }
+
+    @Test
+    @DisplayName("Un presupuesto agotado debería cortar los BFS y marcar la estimación incompleta")
+    void testAveragePathLengthBudget() {
+        WalletGraph graph = syntheticGraph();
+        Sample sample = new GraphSampler(graph, 5).randomNodes(200);
+
+        Estimate estimate = SampleEstimator.averagePathLength(graph, sample, 0.95, 60,
+                SearchBudget.of(0, graph.size() * 3L, 0, 0));
+
+        assertFalse(estimate.isComplete());
+        assertTrue(estimate.getSampleSize() < 60);
+        assertTrue(estimate.getValue() > 1);
+    }
+
+    @Test
+    @DisplayName("La distribución de grados debería sumar 1 y forest fire quedar marcado como sesgado")
+    void testDegreeDistributionAndForestFire() {
+        WalletGraph graph = syntheticGraph();
+        Sample fire = new GraphSampler(graph, 9).forestFire(500, GraphSampler.DEFAULT_BURN_PROBABILITY);
+
+        assertEquals(500, fire.size());
+        assertEquals(500, fire.distinctNodes());
+        assertFalse(fire.isUnbiased());
+
+        List<Estimate> distribution = SampleEstimator.degreeDistribution(graph, fire, 0.95);
+        double total = distribution.stream().mapToDouble(Estimate::getValue).sum();
+        assertEquals(1.0, total, 1e-9);
+        assertTrue(distribution.stream().noneMatch(Estimate::isUnbiased));
+    }
+
+    @Test
+    @DisplayName("El cuantil z debería coincidir con los valores de tabla")
+    void testZScore() {
+        assertEquals(1.645, SampleEstimator.zScore(0.90), 1e-3);
+        assertEquals(1.960, SampleEstimator.zScore(0.95), 1e-3);
+        assertEquals(2.576, SampleEstimator.zScore(0.99), 1e-3);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para HyperBall
+ */
+class HyperBallTest {
+
+    /**
+     * Estructura:
+     *
+     *    A → B → C → D
+     */
+    @Test
+    @DisplayName("Debería estimar reach@t en una cadena pequeña")
+    void testChainReach() {
+        WalletGraph graph = WalletGraph.builder()
+            .addEdge("A", "B", 1.0)
+            .addEdge("B", "C", 1.0)
+            .addEdge("C", "D", 1.0)
+            .build();
+
+        HyperBall.Result result = HyperBall.compute(graph, 3, 10, HyperBall.Direction.OUT);
+        int a = graph.idOf("A");
+        int d = graph.idOf("D");
+
+        assertEquals(1, Math.round(result.reach(a, 1)));
+        assertEquals(2, Math.round(result.reach(a, 2)));
+        assertEquals(3, Math.round(result.reach(a, 3)));
+        assertEquals(0, Math.round(result.reach(d, 3)), "D no tiene aristas salientes");
+        assertEquals(1.0 + 1.0 / 2 + 1.0 / 3, result.harmonicCentrality(a), 0.05);
+    }
+
+    @Test
+    @DisplayName("Debería respetar la dirección de expansión")
+    void testDirection() {
+        WalletGraph graph = WalletGraph.builder()
+            .addEdge("A", "B", 1.0)
+            .addEdge("B", "C", 1.0)
+            .build();
+        int c = graph.idOf("C");
+
+        HyperBall.Result out = HyperBall.compute(graph, 2, 10, HyperBall.Direction.OUT);
+        HyperBall.Result in = HyperBall.compute(graph, 2, 10, HyperBall.Direction.IN);
+
+        assertEquals(0, Math.round(out.reach(c, 2)));
+        assertEquals(2, Math.round(in.reach(c, 2)));
+    }
+
+    @Test
+    @DisplayName("Debería aproximar BFS exacto en un grafo aleatorio")
+    void testMatchesBreadthFirstSearch() {
+        Random random = new Random(7);
+        WalletGraph.Builder builder = WalletGraph.builder();
+        int wallets = 2000;
+        for (int i = 0; i < wallets; i++) {
+            builder.addWallet("w" + i);
+        }
+        for (int e = 0; e < 5000; e++) {
+            builder.addEdge("w" + random.nextInt(wallets), "w" + random.nextInt(wallets), 1.0);
+        }
+        WalletGraph graph = builder.build();
+        int hops = 4;
+
+        HyperBall.Result result = HyperBall.compute(graph, hops, 8, HyperBall.Direction.BOTH);
+
+        double totalRelativeError = 0.0;
+        int samples = 0;
+        for (int v = 0; v < wallets; v += 50) {
+            int exact = exactReach(graph, v, hops);
+            if (exact < 10) {
+                continue;
+            }
+            totalRelativeError += Math.abs(result.reach(v, hops) - exact) / exact;
+            samples++;
+        }
+        assertTrue(samples > 0);
+        double meanError = totalRelativeError / samples;
+        assertTrue(meanError < 3 * result.getRelativeStandardError(),
+            "Error relativo medio demasiado alto: " + meanError);
+    }
+
+    @Test
+    @DisplayName("Debería rechazar parámetros fuera de rango")
+    void testInvalidParameters() {
+        WalletGraph graph = WalletGraph.builder().addEdge("A", "B", 1.0).build();
+
+        assertThrows(IllegalArgumentException.class,
+            () -> HyperBall.compute(graph, 0, 7, HyperBall.Direction.OUT));
+        assertThrows(IllegalArgumentException.class,
+            () -> HyperBall.compute(graph, 3, 20, HyperBall.Direction.OUT));
+    }
+
+    private int exactReach(WalletGraph g, int source, int maxHops) {
+        int[] dist = new int[g.size()];
+        Arrays.fill(dist, -1);
+        Deque<Integer> queue = new ArrayDeque<>();
+        dist[source] = 0;
+        queue.add(source);
+        int reached = 0;
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            if (dist[u] == maxHops) {
+                continue;
+            }
+            for (int w : g.neighbours(u)) {
+                if (dist[w] < 0) {
+                    dist[w] = dist[u] + 1;
+                    reached++;
+                    queue.add(w);
+                }
+            }
+        }
+        return reached;
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para KCoreDecomposition
+ */
+class KCoreDecompositionTest {
+
+    /**
+     * Estructura:
+     *
+     *    K4 = {A, B, C, D} (todos conectados)  →  E → F
+     */
+    @Test
+    @DisplayName("Debería asignar core numbers exactos")
+    void testCoreNumbers() {
+        WalletGraph.Builder builder = WalletGraph.builder();
+        List<String> clique = List.of("A", "B", "C", "D");
+        for (String a : clique) {
+            for (String b : clique) {
+                if (a.compareTo(b) < 0) {
+                    builder.addEdge(a, b, 1.0);
+                }
+            }
+        }
+        builder.addEdge("D", "E", 1.0).addEdge("E", "F", 1.0);
+        builder.addWallet("G");
+
+        KCoreDecomposition.Result result = KCoreDecomposition.compute(builder.build());
+
+        assertEquals(3, result.getMaxCore());
+        assertEquals(3, result.coreNumber("A"));
+        assertEquals(3, result.coreNumber("D"));
+        assertEquals(1, result.coreNumber("E"));
+        assertEquals(1, result.coreNumber("F"));
+        assertEquals(0, result.coreNumber("G"));
+        assertNull(result.coreNumber("NO_EXISTE"));
+        assertEquals(4, result.walletsInCore(3).length);
+        assertArrayEquals(new long[]{1, 2, 0, 4}, result.histogram());
+    }
+
+    @Test
+    @DisplayName("Debería coincidir con el peeling secuencial en un grafo aleatorio")
+    void testMatchesSequentialPeeling() {
+        Random random = new Random(11);
+        WalletGraph.Builder builder = WalletGraph.builder();
+        int wallets = 1500;
+        for (int i = 0; i < wallets; i++) {
+            builder.addWallet("w" + i);
+        }
+        for (int e = 0; e < 9000; e++) {
+            // Sesgo hacia wallets de id bajo para generar cores profundos
+            int u = (int) Math.abs(random.nextGaussian() * wallets / 6) % wallets;
+            builder.addEdge("w" + u, "w" + random.nextInt(wallets), 1.0);
+        }
+        WalletGraph graph = builder.build();
+
+        KCoreDecomposition.Result result = KCoreDecomposition.compute(graph);
+        int[] expected = sequentialCores(graph);
+
+        for (int v = 0; v < wallets; v++) {
+            assertEquals(expected[v], result.coreNumber(v), "Core de " + graph.addressOf(v));
+        }
+    }
+
+    /** Peeling secuencial de referencia: siempre se quita la wallet de menor grado */
+    private int[] sequentialCores(WalletGraph g) {
+        int n = g.size();
+        int[] degree = new int[n];
+        boolean[] removed = new boolean[n];
+        int[] core = new int[n];
+        for (int v = 0; v < n; v++) {
+            degree[v] = g.degree(v);
+        }
+        int k = 0;
+        for (int removedCount = 0; removedCount < n; removedCount++) {
+            int best = -1;
+            for (int v = 0; v < n; v++) {
+                if (!removed[v] && (best < 0 || degree[v] < degree[best])) {
+                    best = v;
+                }
+            }
+            k = Math.max(k, degree[best]);
+            core[best] = k;
+            removed[best] = true;
+            for (int w : g.neighbours(best)) {
+                if (!removed[w]) {
+                    degree[w]--;
+                }
+            }
+        }
+        return core;
+    }
+}
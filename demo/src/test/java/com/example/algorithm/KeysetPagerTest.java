@@ -0,0 +1,147 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para KeysetPager y RunningStats
+ */
+class KeysetPagerTest {
+
+    /** Filas (clave, valor) ordenadas por clave; cada clave se expande en {@code fanOut} filas */
+    private static List<String[]> table(int keys, int fanOut) {
+        List<String[]> rows = new ArrayList<>();
+        for (int k = 0; k < keys; k++) {
+            for (int f = 0; f < fanOut; f++) {
+                rows.add(new String[]{String.format("k%05d", k), Integer.toString(f)});
+            }
+        }
+        return rows;
+    }
+
+    /** Simula {@code WHERE key > $cursor ORDER BY key LIMIT $limit} seguido de la expansión */
+    private static KeysetPager.PageFetcher<String[]> fetcher(List<String[]> table, List<String> cursors) {
+        return fetcher(table.stream().map(row -> row[0]).distinct().collect(Collectors.toList()), table, cursors);
+    }
+
+    /** Como el anterior, pero con claves que pueden no tener ninguna fila en {@code table} */
+    private static KeysetPager.PageFetcher<String[]> fetcher(List<String> allKeys, List<String[]> table,
+                                                             List<String> cursors) {
+        return (cursor, limit) -> {
+            cursors.add(cursor);
+            List<String> keys = allKeys.stream().filter(key -> key.compareTo(cursor) > 0)
+                    .sorted().limit(limit).collect(Collectors.toList());
+            List<String[]> rows = table.stream().filter(row -> keys.contains(row[0])).collect(Collectors.toList());
+            return new KeysetPager.Page<>(rows, keys.isEmpty() ? null : keys.get(keys.size() - 1), keys.size());
+        };
+    }
+
+    @Test
+    @DisplayName("Debería recorrer todas las filas pidiendo páginas por cursor")
+    void testVisitsAllRows() {
+        List<String[]> table = table(25, 3);
+        List<String> cursors = new ArrayList<>();
+
+        List<String[]> rows = KeysetPager.stream(fetcher(table, cursors), row -> row[0], "", 10)
+                .collect(Collectors.toList());
+
+        assertEquals(75, rows.size());
+        assertEquals(List.of("", "k00009", "k00019"), cursors);
+    }
+
+    @Test
+    @DisplayName("Debería pedir una página vacía final cuando el total es múltiplo del tamaño")
+    void testExactMultiple() {
+        List<String> cursors = new ArrayList<>();
+        KeysetPager<String[]> pager = new KeysetPager<>(fetcher(table(20, 1), cursors), row -> row[0], "", 10);
+
+        int count = 0;
+        while (pager.hasNext()) {
+            pager.next();
+            count++;
+        }
+
+        assertEquals(20, count);
+        assertEquals(3, pager.getPages());
+        assertFalse(pager.hasNext());
+    }
+
+    @Test
+    @DisplayName("Debería ser perezoso: sólo la primera página si se consume poco")
+    void testLazy() {
+        List<String> cursors = new ArrayList<>();
+
+        long taken = KeysetPager.stream(fetcher(table(1_000, 1), cursors), row -> row[0], "", 50)
+                .limit(5)
+                .count();
+
+        assertEquals(5, taken);
+        assertEquals(1, cursors.size());
+    }
+
+    @Test
+    @DisplayName("Debería rechazar páginas fuera de orden")
+    void testOutOfOrderPage() {
+        KeysetPager<String> pager = new KeysetPager<>(
+                (cursor, limit) -> new KeysetPager.Page<>(List.of("b", "a"), "b", 2), row -> row, "", 10);
+
+        assertThrows(IllegalStateException.class, pager::hasNext);
+    }
+
+    @Test
+    @DisplayName("No debería cortar el recorrido cuando algunas claves no producen filas")
+    void testKeysWithoutRows() {
+        // 25 claves; sólo las pares tienen filas (como coinbases o autotransferencias sin aristas)
+        List<String> keys = IntStream.range(0, 25).mapToObj(k -> String.format("k%05d", k))
+                .collect(Collectors.toList());
+        List<String[]> table = table(25, 2).stream()
+                .filter(row -> Integer.parseInt(row[0].substring(1)) % 2 == 0)
+                .collect(Collectors.toList());
+        List<String> cursors = new ArrayList<>();
+
+        List<String[]> rows = KeysetPager.stream(fetcher(keys, table, cursors), row -> row[0], "", 10)
+                .collect(Collectors.toList());
+
+        assertEquals(26, rows.size(), "13 claves pares × 2 filas");
+        assertEquals(List.of("", "k00009", "k00019"), cursors);
+    }
+
+    @Test
+    @DisplayName("Welford debería coincidir con media y varianza de dos pasadas, también al combinar")
+    void testRunningStats() {
+        double[] values = IntStream.range(0, 1_000).mapToDouble(i -> 1e9 + (i * 7919 % 1000)).toArray();
+        double mean = 0;
+        for (double value : values) {
+            mean += value / values.length;
+        }
+        double variance = 0;
+        for (double value : values) {
+            variance += (value - mean) * (value - mean) / values.length;
+        }
+
+        RunningStats all = new RunningStats();
+        RunningStats left = new RunningStats();
+        RunningStats right = new RunningStats();
+        for (int i = 0; i < values.length; i++) {
+            all.add(values[i]);
+            (i < 300 ? left : right).add(values[i]);
+        }
+        left.merge(right);
+
+        assertEquals(1_000, all.getCount());
+        assertEquals(mean, all.getMean(), 1e-3);
+        assertEquals(variance, all.getVariance(), 1e-3);
+        assertEquals(all.getVariance(), left.getVariance(), 1e-3);
+        assertEquals(all.getMean(), left.getMean(), 1e-6);
+        assertEquals(1e9, all.getMin());
+        assertEquals(1e9 + 999, all.getMax());
+        assertEquals(0.0, new RunningStats().getStdDev());
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.algorithm;
+
+import com.example.algorithm.BranchAndBoundAlgorithm.Edge;
+import com.example.algorithm.BranchAndBoundAlgorithm.OptimalPathResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para LazyAdjacency
+ */
+class LazyAdjacencyTest {
+
+    @Test
+    @DisplayName("Debería cargar toda la frontera pendiente en una sola ronda")
+    void testBatchesFrontier() {
+        List<Collection<String>> rounds = new ArrayList<>();
+        LazyAdjacency<String> adjacency = new LazyAdjacency<>(ids -> {
+            rounds.add(new ArrayList<>(ids));
+            Map<String, List<String>> loaded = new HashMap<>();
+            for (String id : ids) {
+                loaded.put(id, List.of(id + "-x"));
+            }
+            return loaded;
+        });
+
+        adjacency.hint("B");
+        adjacency.hint("C");
+        adjacency.hint("D");
+
+        assertEquals(List.of("B-x"), adjacency.neighbours("B"));
+        assertEquals(List.of("C-x"), adjacency.neighbours("C"));
+        assertEquals(List.of("D-x"), adjacency.neighbours("D"));
+
+        assertEquals(1, rounds.size());
+        assertEquals(Set.of("B", "C", "D"), new HashSet<>(rounds.get(0)));
+    }
+
+    @Test
+    @DisplayName("Las wallets sin aristas deberían quedar en caché como vacías")
+    void testMissingWalletsAreCachedAsEmpty() {
+        int[] calls = {0};
+        LazyAdjacency<String> adjacency = new LazyAdjacency<>(ids -> {
+            calls[0]++;
+            return Collections.emptyMap();
+        });
+
+        assertTrue(adjacency.neighbours("Z").isEmpty());
+        assertTrue(adjacency.neighbours("Z").isEmpty());
+        assertEquals(1, calls[0]);
+    }
+
+    @Test
+    @DisplayName("El LRU debería desalojar bloques y recargarlos al volver")
+    void testLruEviction() {
+        List<Collection<String>> rounds = new ArrayList<>();
+        LazyAdjacency<Integer> adjacency = new LazyAdjacency<>(ids -> {
+            rounds.add(new ArrayList<>(ids));
+            Map<String, List<Integer>> loaded = new HashMap<>();
+            for (String id : ids) {
+                loaded.put(id, List.of(1, 2, 3));
+            }
+            return loaded;
+        }, 1, 6);
+
+        adjacency.neighbours("A");
+        adjacency.neighbours("B");
+        adjacency.neighbours("A"); // A pasa a ser la más reciente
+        adjacency.neighbours("C"); // desaloja B
+        adjacency.neighbours("A");
+        adjacency.neighbours("B");
+
+        assertEquals(List.of(List.of("A"), List.of("B"), List.of("C"), List.of("B")), rounds);
+    }
+
+    @Test
+    @DisplayName("Branch & Bound perezoso debería coincidir con el grafo completo y cargar menos wallets")
+    void testBranchAndBoundOverLazyGraph() {
+        // Dos componentes: la búsqueda nunca debería cargar la segunda
+        Map<String, List<Edge>> graph = new HashMap<>();
+        Random random = new Random(9);
+        for (int i = 0; i < 40; i++) {
+            List<Edge> edges = new ArrayList<>();
+            for (int j = 0; j < 3; j++) {
+                edges.add(new Edge("a" + random.nextInt(40), 1.0, 1 + random.nextInt(20), "tx", 0L));
+            }
+            graph.put("a" + i, edges);
+            graph.put("b" + i, List.of(new Edge("b" + random.nextInt(40), 1.0, 1, "tx", 0L)));
+        }
+        BranchAndBoundAlgorithm algorithm = new BranchAndBoundAlgorithm();
+
+        OptimalPathResult eager = algorithm.findOptimalPath(graph, "a0", "a7", 1000.0);
+
+        LazyAdjacency<Edge> lazy = new LazyAdjacency<>(ids -> {
+            Map<String, List<Edge>> loaded = new HashMap<>();
+            for (String id : ids) {
+                loaded.put(id, graph.getOrDefault(id, Collections.emptyList()));
+            }
+            return loaded;
+        });
+        OptimalPathResult result = algorithm.findOptimalPath(lazy, "a0", "a7", 1000.0, SearchBudget.unlimited());
+
+        assertEquals(eager.isPathFound(), result.isPathFound());
+        assertEquals(eager.getTotalCost(), result.getTotalCost(), 1e-9);
+        assertTrue(lazy.getWalletsLoaded() <= 40, "Sólo la componente alcanzable: " + lazy.getWalletsLoaded());
+        assertTrue(lazy.getRounds() < lazy.getWalletsLoaded());
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para MinHashLshIndex
+ */
+class MinHashLshIndexTest {
+
+    private MinHashLshIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new MinHashLshIndex(128, 32);
+    }
+
+    @Test
+    @DisplayName("Debería encontrar wallets con contrapartes casi idénticas")
+    void testFindsNearDuplicates() {
+        List<String> shared = counterparties("c", 0, 100);
+        index.addCounterparties("BAD_ACTOR", shared);
+
+        List<String> almostSame = new ArrayList<>(shared.subList(0, 95));
+        almostSame.addAll(counterparties("x", 0, 5));
+        index.addCounterparties("CLONE", almostSame);
+
+        index.addCounterparties("UNRELATED", counterparties("u", 0, 100));
+
+        List<MinHashLshIndex.Match> similar = index.findSimilar("BAD_ACTOR", 0.5, 10);
+
+        assertEquals(1, similar.size());
+        assertEquals("CLONE", similar.get(0).getAddress());
+        assertEquals(95.0 / 105.0, similar.get(0).getSimilarity(), 0.15);
+    }
+
+    @Test
+    @DisplayName("Debería actualizarse incrementalmente")
+    void testIncrementalUpdates() {
+        List<String> shared = counterparties("c", 0, 60);
+        index.addCounterparties("A", shared);
+        index.addCounterparties("B", shared.subList(0, 10));
+
+        assertTrue(index.estimateSimilarity("A", "B") < 0.4);
+
+        // B agrega el resto de contrapartes en ingestas posteriores
+        index.addCounterparties("B", shared.subList(10, 40));
+        index.addCounterparties("B", shared.subList(40, 60));
+
+        assertEquals(1.0, index.estimateSimilarity("A", "B"), 1e-9);
+        assertEquals("B", index.findSimilar("A", 0.9, 5).get(0).getAddress());
+        assertFalse(index.addCounterparties("B", shared), "Sin contrapartes nuevas la firma no cambia");
+    }
+
+    @Test
+    @DisplayName("Debería registrar inputs y outputs como contrapartes mutuas")
+    void testAddTransaction() {
+        index.addTransaction(List.of("IN1", "IN2"), List.of("OUT1", "OUT2"));
+
+        assertEquals(4, index.size());
+        assertEquals(1.0, index.estimateSimilarity("IN1", "IN2"), 1e-9);
+        assertEquals(0.0, index.estimateSimilarity("IN1", "OUT1"), 1e-9);
+    }
+
+    @Test
+    @DisplayName("Debería devolver vacío para wallets no indexadas")
+    void testUnknownWallet() {
+        assertTrue(index.findSimilar("NO_EXISTE", 0.1, 10).isEmpty());
+        assertNull(index.estimateSimilarity("NO_EXISTE", "TAMPOCO"));
+    }
+
+    @Test
+    @DisplayName("Debería rechazar configuraciones inválidas")
+    void testInvalidConfiguration() {
+        assertThrows(IllegalArgumentException.class, () -> new MinHashLshIndex(100, 32));
+    }
+
+    private List<String> counterparties(String prefix, int from, int to) {
+        List<String> result = new ArrayList<>();
+        for (int i = from; i < to; i++) {
+            result.add(prefix + i);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para PrunedLandmarkLabeling
+ */
+class PrunedLandmarkLabelingTest {
+
+    private WalletGraph graph;
+    private PrunedLandmarkLabeling index;
+
+    /**
+     * Estructura:
+     *
+     *    A → B → C → D        F (aislada)
+     *        ↑       │
+     *        └── E ←─┘
+     */
+    @BeforeEach
+    void setUp() {
+        graph = WalletGraph.builder()
+            .addEdge("A", "B", 10.0)
+            .addEdge("B", "C", 8.0)
+            .addEdge("C", "D", 5.0)
+            .addEdge("D", "E", 4.0)
+            .addEdge("E", "B", 3.0)
+            .build();
+        index = PrunedLandmarkLabeling.build(graph);
+    }
+
+    @Test
+    @DisplayName("Debería responder distancias exactas en saltos")
+    void testExactDistances() {
+        assertEquals(0, index.distance("A", "A"));
+        assertEquals(1, index.distance("A", "B"));
+        assertEquals(2, index.distance("A", "C"));
+        assertEquals(2, index.distance("A", "E"), "A-B-E por la vista no dirigida");
+        assertEquals(2, index.distance("C", "E"));
+    }
+
+    @Test
+    @DisplayName("Debería devolver null para wallets fuera del índice")
+    void testUnknownWallet() {
+        assertNull(index.distance("A", "NO_EXISTE"));
+    }
+
+    @Test
+    @DisplayName("Debería marcar componentes desconectadas como inalcanzables")
+    void testUnreachable() {
+        WalletGraph.Builder builder = WalletGraph.builder()
+            .addEdge("A", "B", 1.0)
+            .addEdge("X", "Y", 1.0);
+        builder.addWallet("F");
+        PrunedLandmarkLabeling disconnected = PrunedLandmarkLabeling.build(builder.build());
+
+        assertEquals(PrunedLandmarkLabeling.UNREACHABLE, disconnected.distance("A", "Y"));
+        assertEquals(PrunedLandmarkLabeling.UNREACHABLE, disconnected.distance("F", "A"));
+    }
+
+    @Test
+    @DisplayName("Debería filtrar masivamente por k saltos")
+    void testFilterWithinHops() {
+        List<String> reachable = index.filterWithinHops("A", List.of("B", "C", "D", "E", "NO_EXISTE"), 2);
+
+        assertEquals(List.of("B", "C", "E"), reachable);
+    }
+
+    @Test
+    @DisplayName("Debería coincidir con BFS en un grafo aleatorio")
+    void testMatchesBreadthFirstSearch() {
+        Random random = new Random(42);
+        WalletGraph.Builder builder = WalletGraph.builder();
+        int wallets = 300;
+        for (int i = 0; i < wallets; i++) {
+            builder.addWallet("w" + i);
+        }
+        for (int e = 0; e < 600; e++) {
+            builder.addEdge("w" + random.nextInt(wallets), "w" + random.nextInt(wallets), 1.0);
+        }
+        WalletGraph randomGraph = builder.build();
+        PrunedLandmarkLabeling randomIndex = PrunedLandmarkLabeling.build(randomGraph);
+
+        for (int source = 0; source < wallets; source += 7) {
+            int[] expected = bfs(randomGraph, source);
+            for (int target = 0; target < wallets; target++) {
+                assertEquals(expected[target], randomIndex.distance(source, target),
+                    "Distancia " + source + " → " + target);
+            }
+        }
+    }
+
+    private int[] bfs(WalletGraph g, int source) {
+        int[] dist = new int[g.size()];
+        Arrays.fill(dist, PrunedLandmarkLabeling.UNREACHABLE);
+        Deque<Integer> queue = new ArrayDeque<>();
+        dist[source] = 0;
+        queue.add(source);
+        while (!queue.isEmpty()) {
+            int u = queue.poll();
+            for (int w : g.neighbours(u)) {
+                if (dist[w] == PrunedLandmarkLabeling.UNREACHABLE) {
+                    dist[w] = dist[u] + 1;
+                    queue.add(w);
+                }
+            }
+        }
+        return dist;
+    }
+}
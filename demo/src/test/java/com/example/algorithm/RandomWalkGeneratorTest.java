@@ -0,0 +1,98 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para RandomWalkGenerator y AliasTable
+ */
+class RandomWalkGeneratorTest {
+
+    private WalletGraph graph;
+
+    /**
+     * Estructura:
+     *
+     *    A → B → C → D        F (aislada)
+     *        ↑       │
+     *        └── E ←─┘
+     */
+    @BeforeEach
+    void setUp() {
+        WalletGraph.Builder builder = WalletGraph.builder()
+            .addEdge("A", "B", 10.0)
+            .addEdge("B", "C", 8.0)
+            .addEdge("C", "D", 5.0)
+            .addEdge("D", "E", 4.0)
+            .addEdge("E", "B", 3.0);
+        builder.addWallet("F");
+        graph = builder.build();
+    }
+
+    @Test
+    @DisplayName("Cada paso de una caminata debería seguir una arista")
+    void testWalksFollowEdges() {
+        RandomWalkGenerator generator = new RandomWalkGenerator(graph, true, 2);
+        int walkLength = 8;
+        int[] walks = generator.generate(3, walkLength, 0.5, 2.0, 1L);
+
+        assertEquals(graph.size() * 3 * walkLength, walks.length);
+        for (int base = 0; base < walks.length; base += walkLength) {
+            for (int step = 1; step < walkLength; step++) {
+                int from = walks[base + step - 1];
+                int to = walks[base + step];
+                if (to == RandomWalkGenerator.PADDING) {
+                    break;
+                }
+                int[] neighbours = graph.neighbours(from);
+                assertTrue(Arrays.binarySearch(neighbours, to) >= 0,
+                    "Paso inválido " + graph.addressOf(from) + " → " + graph.addressOf(to));
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Las wallets aisladas deberían producir caminatas de un solo paso")
+    void testIsolatedWallet() {
+        RandomWalkGenerator generator = new RandomWalkGenerator(graph, false, 16);
+        int walkLength = 5;
+        int[] walks = generator.generate(1, walkLength, 1.0, 1.0, 1L);
+
+        int f = graph.idOf("F");
+        assertEquals(f, walks[f * walkLength]);
+        assertEquals(RandomWalkGenerator.PADDING, walks[f * walkLength + 1]);
+    }
+
+    @Test
+    @DisplayName("Debería ser determinista para una misma semilla")
+    void testDeterministic() {
+        RandomWalkGenerator generator = new RandomWalkGenerator(graph, true, 2);
+
+        int[] first = generator.generate(4, 10, 1.0, 0.5, 99L);
+        int[] second = generator.generate(4, 10, 1.0, 0.5, 99L);
+
+        assertArrayEquals(first, second);
+    }
+
+    @Test
+    @DisplayName("La tabla de alias debería respetar la distribución")
+    void testAliasTableDistribution() {
+        AliasTable table = AliasTable.of(new double[]{1.0, 2.0, 7.0, 0.0});
+        SplittableRandom random = new SplittableRandom(3);
+        int[] counts = new int[4];
+        int samples = 200_000;
+        for (int i = 0; i < samples; i++) {
+            counts[table.sample(random)]++;
+        }
+
+        assertEquals(0.1, (double) counts[0] / samples, 0.01);
+        assertEquals(0.2, (double) counts[1] / samples, 0.01);
+        assertEquals(0.7, (double) counts[2] / samples, 0.01);
+        assertEquals(0, counts[3]);
+    }
+}
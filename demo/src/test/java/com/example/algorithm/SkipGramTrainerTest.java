@@ -0,0 +1,75 @@
+package com.example.algorithm;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SkipGramTrainer y WalletEmbeddings
+ */
+class SkipGramTrainerTest {
+
+    /**
+     * Dos comunidades densas (a0..a9 y b0..b9) unidas por una única arista a0 → b0
+     */
+    private WalletGraph twoCommunities() {
+        WalletGraph.Builder builder = WalletGraph.builder();
+        for (String prefix : List.of("a", "b")) {
+            for (int i = 0; i < 10; i++) {
+                for (int j = 0; j < 10; j++) {
+                    if (i != j) {
+                        builder.addEdge(prefix + i, prefix + j, 1.0);
+                    }
+                }
+            }
+        }
+        return builder.addEdge("a0", "b0", 1.0).build();
+    }
+
+    @Test
+    @DisplayName("Los vecinos más cercanos deberían pertenecer a la misma comunidad")
+    void testEmbeddingsSeparateCommunities() {
+        WalletGraph graph = twoCommunities();
+        int walkLength = 20;
+        int[] walks = new RandomWalkGenerator(graph, false, 4).generate(20, walkLength, 1.0, 1.0, 5L);
+
+        WalletEmbeddings embeddings = SkipGramTrainer.train(graph, walks, walkLength,
+            SkipGramTrainer.TrainingConfig.builder()
+                .dimensions(16)
+                .windowSize(3)
+                .epochs(3)
+                .threads(2)
+                .build());
+
+        List<WalletEmbeddings.Neighbour> nearest = embeddings.nearest("a5", 5);
+        assertEquals(5, nearest.size());
+        for (WalletEmbeddings.Neighbour neighbour : nearest) {
+            assertTrue(neighbour.getAddress().startsWith("a"),
+                "Vecino de otra comunidad: " + neighbour.getAddress());
+        }
+        assertTrue(embeddings.similarity("a5", "a6") > embeddings.similarity("a5", "b6"));
+    }
+
+    @Test
+    @DisplayName("Los vectores deberían estar normalizados")
+    void testVectorsAreNormalized() {
+        WalletGraph graph = twoCommunities();
+        int[] walks = new RandomWalkGenerator(graph, false, 4).generate(2, 10, 1.0, 1.0, 5L);
+
+        WalletEmbeddings embeddings = SkipGramTrainer.train(graph, walks, 10,
+            SkipGramTrainer.TrainingConfig.builder().dimensions(8).threads(1).build());
+
+        float[] vector = embeddings.vector("b3");
+        double norm = 0.0;
+        for (float x : vector) {
+            norm += x * x;
+        }
+        assertEquals(8, vector.length);
+        assertEquals(1.0, norm, 1e-4);
+        assertNull(embeddings.vector("NO_EXISTE"));
+        assertTrue(embeddings.nearest("NO_EXISTE", 3).isEmpty());
+    }
+}
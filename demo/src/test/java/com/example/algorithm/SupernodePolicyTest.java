@@ -0,0 +1,150 @@
+package com.example.algorithm;
+
+import com.example.algorithm.SupernodePolicy.Mode;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para SupernodeDetector y SupernodePolicy
+ */
+class SupernodePolicyTest {
+
+    private static final Function<String, String> SELF = edge -> edge;
+
+    private static SupernodeDetector hubDetector() {
+        return SupernodeDetector.of(Map.of("HUB", 5000), 1000);
+    }
+
+    private static List<String> targets(String prefix, int n) {
+        List<String> edges = new ArrayList<>();
+        for (int i = 0; i < n; i++) {
+            edges.add(prefix + i);
+        }
+        return edges;
+    }
+
+    @Test
+    @DisplayName("El detector debería marcar sólo la wallet con grado extremo")
+    void testDetectorFromGraph() {
+        WalletGraph.Builder builder = WalletGraph.builder();
+        for (int i = 0; i < 200; i++) {
+            builder.addEdge("W" + i, "HUB", 1.0);
+            builder.addEdge("W" + i, "W" + ((i + 1) % 200), 1.0);
+        }
+        SupernodeDetector detector = SupernodeDetector.fromGraph(builder.build(), 0.99, 10);
+
+        assertTrue(detector.isSupernode("HUB"));
+        assertFalse(detector.isSupernode("W1"));
+        assertEquals(1, detector.size());
+        assertEquals(200, detector.degreeOf("HUB"));
+        assertEquals("HUB", detector.top(5).get(0).get("address"));
+    }
+
+    @Test
+    @DisplayName("El piso de grado debería evitar supernodos en grafos pequeños")
+    void testDetectorMinDegree() {
+        WalletGraph graph = WalletGraph.builder()
+            .addEdge("A", "B", 1.0)
+            .addEdge("A", "C", 1.0)
+            .build();
+
+        assertEquals(0, SupernodeDetector.fromGraph(graph).size());
+    }
+
+    @Test
+    @DisplayName("STOP_AT debería cortar la expansión del supernodo pero no la del origen")
+    void testStopAt() {
+        SupernodePolicy policy = new SupernodePolicy(hubDetector(), Mode.STOP_AT, 10);
+
+        assertTrue(policy.filterEdges("HUB", targets("X", 100), SELF).isEmpty());
+        assertEquals(List.of("HUB", "A"), policy.filterEdges("S", List.of("HUB", "A"), SELF));
+
+        Map<String, Object> report = policy.getReport();
+        assertEquals(1L, report.get("stoppedAt"));
+        assertEquals(100L, report.get("droppedEdges"));
+        assertEquals(true, report.get("truncated"));
+
+        SupernodePolicy fromHub = new SupernodePolicy(hubDetector(), Mode.STOP_AT, 10).protect("HUB");
+        assertEquals(10, fromHub.filterEdges("HUB", targets("X", 100), SELF).size());
+    }
+
+    @Test
+    @DisplayName("SKIP debería descartar las aristas hacia supernodos salvo los extremos")
+    void testSkip() {
+        SupernodePolicy policy = new SupernodePolicy(hubDetector(), Mode.SKIP, 10);
+
+        assertEquals(List.of("A", "B"), policy.filterEdges("S", List.of("A", "HUB", "B"), SELF));
+        assertEquals(1L, policy.getReport().get("skippedEdges"));
+
+        SupernodePolicy towardsHub = new SupernodePolicy(hubDetector(), Mode.SKIP, 10).protect("S", "HUB");
+        assertEquals(List.of("A", "HUB"), towardsHub.filterEdges("S", List.of("A", "HUB"), SELF));
+        assertTrue(towardsHub.excludedAddresses().isEmpty());
+    }
+
+    @Test
+    @DisplayName("SAMPLE debería conservar K aristas de forma determinística y en orden")
+    void testSample() {
+        List<String> edges = targets("X", 1000);
+        SupernodePolicy policy = new SupernodePolicy(hubDetector(), Mode.SAMPLE, 25);
+
+        List<String> first = policy.filterEdges("HUB", edges, SELF);
+        List<String> second = new SupernodePolicy(hubDetector(), Mode.SAMPLE, 25).filterEdges("HUB", edges, SELF);
+
+        assertEquals(25, first.size());
+        assertEquals(first, second);
+        for (int i = 1; i < first.size(); i++) {
+            assertTrue(edges.indexOf(first.get(i - 1)) < edges.indexOf(first.get(i)));
+        }
+        assertEquals(975L, policy.getReport().get("droppedEdges"));
+        assertSame(edges, policy.filterEdges("W", edges, SELF));
+    }
+
+    @Test
+    @DisplayName("El proveedor envuelto no debería cargar supernodos cortados")
+    void testWrapDoesNotLoadStoppedSupernode() {
+        Map<String, List<String>> graph = new HashMap<>();
+        graph.put("S", List.of("HUB", "A"));
+        graph.put("HUB", targets("X", 5000));
+        graph.put("A", List.of("T"));
+        List<Collection<String>> requests = new ArrayList<>();
+        LazyAdjacency<String> lazy = new LazyAdjacency<>(ids -> {
+            requests.add(new ArrayList<>(ids));
+            Map<String, List<String>> block = new HashMap<>();
+            ids.forEach(id -> block.put(id, graph.getOrDefault(id, List.of())));
+            return block;
+        });
+
+        SupernodePolicy policy = new SupernodePolicy(hubDetector(), Mode.STOP_AT, 10).protect("S", "T");
+        AdjacencyProvider<String> provider = policy.wrap(lazy, SELF);
+
+        assertEquals(List.of("HUB", "A"), provider.neighbours("S"));
+        provider.hint("HUB");
+        provider.hint("A");
+        assertTrue(provider.neighbours("HUB").isEmpty());
+        assertEquals(List.of("T"), provider.neighbours("A"));
+
+        assertTrue(requests.stream().noneMatch(batch -> batch.contains("HUB")));
+        assertEquals(1L, policy.getReport().get("stoppedAt"));
+    }
+
+    @Test
+    @DisplayName("Sin supernodos conocidos la política no debería alterar nada")
+    void testInactive() {
+        SupernodePolicy policy = new SupernodePolicy(SupernodeDetector.empty(), Mode.STOP_AT, 10);
+        Map<String, List<String>> graph = Map.of("HUB", targets("X", 100));
+
+        assertFalse(policy.isActive());
+        assertSame(graph, policy.apply(graph, SELF));
+        assertTrue(policy.excludedAddresses().isEmpty());
+        assertEquals(false, policy.getReport().get("truncated"));
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.algorithm;
+
+import com.example.algorithm.WalletAggregates.PairDelta;
+import com.example.algorithm.WalletAggregates.WalletDelta;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para WalletAggregates
+ */
+class WalletAggregatesTest {
+
+    private static final LocalDateTime JAN = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime FEB = LocalDateTime.of(2024, 2, 1, 0, 0);
+
+    /** tx1: A paga 70 a B y 30 de cambio a sí misma; tx2: B devuelve 20 a A */
+    private static WalletAggregates twoTransactions() {
+        return new WalletAggregates()
+                .addTransaction("tx1", JAN)
+                .addInput("tx1", "A", 100)
+                .addOutput("tx1", "B", 70)
+                .addOutput("tx1", "A", 30)
+                .addTransaction("tx2", FEB)
+                .addInput("tx2", "B", 70)
+                .addOutput("tx2", "A", 20)
+                .addOutput("tx2", "B", 50);
+    }
+
+    private static Map<String, WalletDelta> byAddress(List<WalletDelta> deltas) {
+        return deltas.stream().collect(Collectors.toMap(WalletDelta::getAddress, Function.identity()));
+    }
+
+    @Test
+    @DisplayName("Debería sumar volumen, transacciones y rango de fechas por wallet")
+    void testWalletDeltas() {
+        Map<String, WalletDelta> deltas = byAddress(twoTransactions().walletDeltas(List.of("tx1", "tx2")));
+
+        WalletDelta a = deltas.get("A");
+        assertEquals(50, a.getVolumeIn());
+        assertEquals(100, a.getVolumeOut());
+        assertEquals(2, a.getTxCount());
+        assertEquals(JAN, a.getFirstSeen());
+        assertEquals(FEB, a.getLastSeen());
+
+        WalletDelta b = deltas.get("B");
+        assertEquals(120, b.getVolumeIn());
+        assertEquals(70, b.getVolumeOut());
+        assertEquals(2, b.getTxCount());
+    }
+
+    @Test
+    @DisplayName("Debería guardar cada par una vez en orden canónico con ambos sentidos")
+    void testPairDeltasAreCanonical() {
+        List<PairDelta> pairs = twoTransactions().pairDeltas(List.of("tx1", "tx2"));
+
+        assertEquals(1, pairs.size(), "A→B y B→A son el mismo par; el cambio a sí misma no cuenta");
+        PairDelta pair = pairs.get(0);
+        assertEquals("A", pair.getLow());
+        assertEquals("B", pair.getHigh());
+        assertEquals(70, pair.getForward());
+        assertEquals(20, pair.getBackward());
+        assertEquals(2, pair.getTxCount());
+        assertEquals(JAN, pair.getFirstSeen());
+        assertEquals(FEB, pair.getLastSeen());
+    }
+
+    @Test
+    @DisplayName("Debería ignorar las transacciones no reclamadas")
+    void testOnlyClaimedTransactions() {
+        WalletAggregates aggregates = twoTransactions();
+
+        Map<String, WalletDelta> deltas = byAddress(aggregates.walletDeltas(List.of("tx2")));
+        List<PairDelta> pairs = aggregates.pairDeltas(List.of("tx2"));
+
+        assertEquals(20, deltas.get("A").getVolumeIn());
+        assertEquals(0, deltas.get("A").getVolumeOut());
+        assertEquals(1, deltas.get("A").getTxCount());
+        assertEquals(FEB, deltas.get("A").getFirstSeen());
+        assertEquals(0, pairs.get(0).getForward());
+        assertEquals(20, pairs.get(0).getBackward());
+        assertTrue(aggregates.walletDeltas(List.of("tx3")).isEmpty());
+    }
+
+    @Test
+    @DisplayName("Debería contar una vez por transacción un par con varios outputs")
+    void testPairCountedOncePerTransaction() {
+        WalletAggregates aggregates = new WalletAggregates()
+                .addTransaction("tx", null)
+                .addInput("tx", "X", 10)
+                .addInput("tx", "Y", 10)
+                .addOutput("tx", "Z", 5)
+                .addOutput("tx", "Z", 7);
+
+        List<PairDelta> pairs = aggregates.pairDeltas(List.of("tx"));
+
+        assertEquals(2, pairs.size());
+        for (PairDelta pair : pairs) {
+            assertEquals(1, pair.getTxCount());
+            assertEquals(12, pair.getForward());
+            assertNull(pair.getFirstSeen());
+        }
+        assertEquals(1, byAddress(aggregates.walletDeltas(List.of("tx"))).get("Z").getTxCount());
+    }
+
+    @Test
+    @DisplayName("Debería leer instantes ISO-8601 en UTC y tolerar valores inválidos")
+    void testParseTimestamp() {
+        assertEquals(LocalDateTime.of(2009, 1, 3, 18, 15, 5),
+                WalletAggregates.parseTimestamp("2009-01-03T18:15:05Z"));
+        assertEquals(LocalDateTime.of(2024, 1, 1, 0, 0),
+                WalletAggregates.parseTimestamp("2024-01-01T02:00:00+02:00"));
+        assertNull(WalletAggregates.parseTimestamp("ayer"));
+        assertNull(WalletAggregates.parseTimestamp(null));
+    }
+}
@@ -9,6 +9,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.neo4j.core.Neo4jClient;
 
 import java.util.*;
 
@@ -26,13 +27,20 @@ class BacktrackingServiceTest {
     private TransactionRepository transactionRepository;
 
     @Mock
-    private org.springframework.data.neo4j.core.Neo4jClient neo4jClient;
+    private Neo4jClient supernodeClient;
+
+    @Mock
+    private FlowGraphService flowGraphService;
+
+    @Mock
+    private GraphStreamService graphStreamService;
 
     private BacktrackingService service;
 
     @BeforeEach
     void setUp() {
-        service = new BacktrackingService(transactionRepository, neo4jClient);
+        service = new BacktrackingService(transactionRepository, new SupernodeService(supernodeClient),
+                flowGraphService, graphStreamService);
     }
 
     @Test
@@ -116,6 +124,27 @@ class BacktrackingServiceTest {
         });
     }
 
+    @Test
+    @DisplayName("Debería cargar tantos niveles de wallets como la profundidad pedida")
+    void testGraphLoadReachesSearchDepth() {
+        // Cadena lineal w0 → w1 → ... → w11, más larga que (depth + 2) / 2 niveles
+        List<GraphStreamService.EdgeRow> chain = new ArrayList<>();
+        for (int i = 0; i < 11; i++) {
+            chain.add(new GraphStreamService.EdgeRow("tx" + i, "w" + i, "w" + (i + 1), 1_000L - i, null));
+        }
+        when(graphStreamService.streamEdges(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> frontier = invocation.getArgument(0);
+            Set<String> wallets = new HashSet<>(frontier);
+            return chain.stream().filter(edge -> wallets.contains(edge.getFrom()) || wallets.contains(edge.getTo()));
+        });
+
+        List<SuspiciousChain> chains = service.detectTopSuspiciousChains("w0", 8, 100);
+
+        assertEquals(9, chains.stream().mapToInt(chainFound -> chainFound.getPath().size()).max().orElse(0),
+            "La búsqueda de profundidad 8 debería llegar hasta w8");
+        verify(graphStreamService, times(8)).streamEdges(anyCollection());
+    }
+
     // Métodos auxiliares para crear datos mock
 
     private List<Map<String, Object>> createMockTransactionEdges() {
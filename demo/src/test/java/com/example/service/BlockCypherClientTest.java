@@ -0,0 +1,237 @@
+package com.example.service;
+
+import com.example.dto.BlockCypherAddress;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para BlockCypherClient contra un servidor HTTP local
+ */
+class BlockCypherClientTest {
+
+    private static final String PAGE_1 = """
+        {"address": "A1", "balance": 500, "total_received": 900, "total_sent": 400, "n_tx": 3,
+         "hasMore": true, "unknown_field": {"ignored": true},
+         "txs": [
+           {"hash": "T3", "block_height": 300, "total": 100, "fees": 10,
+            "inputs": [{"prev_hash": "T2", "output_index": 1, "output_value": 110, "addresses": ["A1"]}],
+            "outputs": [{"value": 100, "addresses": ["B1"], "script_type": "pay-to-pubkey-hash", "spent_by": "T9"}]},
+           {"hash": "T2", "block_height": 200, "total": 50, "fees": 5, "inputs": [], "outputs": []}
+         ]}
+        """;
+
+    private static final String PAGE_2 = """
+        {"address": "A1", "hasMore": false,
+         "txs": [{"hash": "T1", "block_height": 100, "total": 20, "fees": 1, "inputs": [], "outputs": []}]}
+        """;
+
+    private HttpServer server;
+    private Path cacheDir;
+    private final Queue<String> requestedUris = new ConcurrentLinkedQueue<>();
+    private volatile Function<HttpExchange, Integer> handler;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        cacheDir = Files.createTempDirectory("blockcypher-cache");
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", exchange -> {
+            requestedUris.add(exchange.getRequestURI().toString());
+            handler.apply(exchange);
+        });
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.stop(0);
+        try (Stream<Path> files = Files.walk(cacheDir)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private BlockCypherClient client(double requestsPerSecond, int maxRetries) {
+        return client(requestsPerSecond, maxRetries, new ResponseCache(cacheDir, 1 << 20, false), 300);
+    }
+
+    private BlockCypherClient client(double requestsPerSecond, int maxRetries, ResponseCache cache, long headTtlSeconds) {
+        WebClient webClient = WebClient.create("http://127.0.0.1:" + server.getAddress().getPort());
+        return new BlockCypherClient(webClient, cache, new ObjectMapper(), "", requestsPerSecond, maxRetries, 10, 2,
+                headTtlSeconds);
+    }
+
+    private static int respond(HttpExchange exchange, int status, String body) {
+        try {
+            byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(status, bytes.length == 0 ? -1 : bytes.length);
+            if (bytes.length > 0) {
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(bytes);
+                }
+            }
+            exchange.close();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return status;
+    }
+
+    @Test
+    @DisplayName("Debería decodificar páginas tipadas y paginar con before hasta agotar hasMore")
+    void testPaginationAndTypedDecoding() {
+        handler = exchange -> respond(exchange, 200,
+                exchange.getRequestURI().getQuery().contains("before=200") ? PAGE_2 : PAGE_1);
+
+        List<BlockCypherAddress> pages = client(1000, 0).fetchAddress("BTC", "A1", 0)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertNotNull(pages);
+        assertEquals(2, pages.size());
+        BlockCypherAddress first = pages.get(0);
+        assertEquals(900L, first.getTotalReceived());
+        assertEquals(3, first.getNTx());
+        BlockCypherAddress.Tx tx = first.getTxs().get(0);
+        assertEquals(1, tx.getInputs().get(0).getOutputIndex());
+        assertEquals("T9", tx.getOutputs().get(0).getSpentBy());
+        assertEquals("T1", pages.get(1).getTxs().get(0).getHash());
+
+        List<String> uris = List.copyOf(requestedUris);
+        assertTrue(uris.get(0).startsWith("/btc/main/addrs/A1/full?limit=2"));
+        assertTrue(uris.get(1).contains("before=200"));
+    }
+
+    @Test
+    @DisplayName("El límite de páginas debería cortar la paginación")
+    void testMaxPages() {
+        handler = exchange -> respond(exchange, 200, PAGE_1);
+
+        List<BlockCypherAddress> pages = client(1000, 0).fetchAddress("BTC", "A1", 1)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(1, pages.size());
+        assertEquals(1, requestedUris.size());
+    }
+
+    @Test
+    @DisplayName("Un 429 o un 5xx debería reintentarse con backoff")
+    void testRetriesThrottledAndServerErrors() {
+        AtomicInteger calls = new AtomicInteger();
+        handler = exchange -> switch (calls.getAndIncrement()) {
+            case 0 -> {
+                exchange.getResponseHeaders().add("Retry-After", "0");
+                yield respond(exchange, 429, "");
+            }
+            case 1 -> respond(exchange, 503, "");
+            default -> respond(exchange, 200, PAGE_2);
+        };
+        BlockCypherClient client = client(1000, 3);
+
+        BlockCypherAddress page = client.fetchAddressPage("BTC", "A1", null).block(Duration.ofSeconds(10));
+
+        assertEquals("T1", page.getTxs().get(0).getHash());
+        assertEquals(3, calls.get());
+        assertEquals(2L, client.getStats().get("retries"));
+        assertEquals(1L, client.getStats().get("throttled"));
+    }
+
+    @Test
+    @DisplayName("Un 404 no debería reintentarse")
+    void testClientErrorNotRetried() {
+        handler = exchange -> respond(exchange, 404, "{\"error\": \"not found\"}");
+        BlockCypherClient client = client(1000, 3);
+
+        assertThrows(WebClientResponseException.NotFound.class,
+                () -> client.fetchAddressPage("BTC", "A1", null).block(Duration.ofSeconds(10)));
+        assertEquals(1, requestedUris.size());
+        assertEquals(1L, client.getStats().get("failures"));
+    }
+
+    @Test
+    @DisplayName("Una segunda ingesta debería servirse desde la caché en disco sin tocar la API")
+    void testPagesServedFromCache() {
+        handler = exchange -> respond(exchange, 200,
+                exchange.getRequestURI().getQuery().contains("before=200") ? PAGE_2 : PAGE_1);
+        ResponseCache cache = new ResponseCache(cacheDir, 1 << 20, true);
+
+        client(1000, 0, cache, 300).fetchAddress("BTC", "A1", 0).collectList().block(Duration.ofSeconds(10));
+        assertEquals(2, requestedUris.size());
+
+        BlockCypherClient reopened = client(1000, 0, new ResponseCache(cacheDir, 1 << 20, true), 300);
+        List<BlockCypherAddress> pages = reopened.fetchAddress("BTC", "A1", 0)
+                .collectList()
+                .block(Duration.ofSeconds(10));
+
+        assertEquals(2, pages.size());
+        assertEquals("T1", pages.get(1).getTxs().get(0).getHash());
+        assertEquals(2, requestedUris.size());
+        assertEquals(2L, reopened.getStats().get("cacheHits"));
+    }
+
+    @Test
+    @DisplayName("La página más reciente vencida debería revalidarse con If-None-Match")
+    void testHeadPageRevalidatedWithEtag() {
+        Queue<String> ifNoneMatch = new ConcurrentLinkedQueue<>();
+        handler = exchange -> {
+            String etag = exchange.getRequestHeaders().getFirst("If-None-Match");
+            ifNoneMatch.add(String.valueOf(etag));
+            if ("\"v1\"".equals(etag)) {
+                return respond(exchange, 304, "");
+            }
+            exchange.getResponseHeaders().add("ETag", "\"v1\"");
+            return respond(exchange, 200, PAGE_2);
+        };
+        // TTL 0: la página más reciente siempre se revalida
+        BlockCypherClient client = client(1000, 0, new ResponseCache(cacheDir, 1 << 20, true), 0);
+
+        client.fetchAddressPage("BTC", "A1", null).block(Duration.ofSeconds(10));
+        BlockCypherAddress page = client.fetchAddressPage("BTC", "A1", null).block(Duration.ofSeconds(10));
+
+        assertEquals("T1", page.getTxs().get(0).getHash());
+        assertEquals(List.of("null", "\"v1\""), List.copyOf(ifNoneMatch));
+        assertEquals(1L, client.getStats().get("notModified"));
+    }
+
+    @Test
+    @DisplayName("El limitador debería espaciar las peticiones según la tasa configurada")
+    void testRateLimiterSpacing() {
+        BlockCypherClient.RateLimiter limiter = new BlockCypherClient.RateLimiter(10);
+
+        Duration first = limiter.reserve();
+        limiter.reserve();
+        Duration third = limiter.reserve();
+
+        assertTrue(first.toMillis() <= 1);
+        assertTrue(third.toMillis() >= 190 && third.toMillis() <= 200);
+
+        limiter.pause(Duration.ofSeconds(2));
+        assertTrue(limiter.reserve().toMillis() >= 1900);
+    }
+}
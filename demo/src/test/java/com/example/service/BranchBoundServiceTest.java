@@ -8,6 +8,7 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.neo4j.core.Neo4jClient;
 
 import java.util.*;
 
@@ -27,11 +28,18 @@ class BranchBoundServiceTest {
     @Mock
     private org.springframework.data.neo4j.core.Neo4jClient neo4jClient;
 
+    @Mock
+    private Neo4jClient supernodeClient;
+
+    @Mock
+    private FlowGraphService flowGraphService;
+
     private BranchBoundService service;
 
     @BeforeEach
     void setUp() {
-        service = new BranchBoundService(transactionRepository, neo4jClient);
+        service = new BranchBoundService(transactionRepository, neo4jClient, new SupernodeService(supernodeClient),
+                flowGraphService);
     }
 
     @Test
@@ -157,8 +165,104 @@ class BranchBoundServiceTest {
         assertTrue(result.getBranchesPruned() >= 0);
     }
 
+    @Test
+    @DisplayName("Con y sin la vista FLOW debería encontrar el mismo camino y costo")
+    void testSameCheapestPathWithAndWithoutFlow() {
+        // Dos transacciones paralelas A → C: sólo cuenta la de fee mínimo
+        List<Object[]> transactions = List.of(
+            new Object[]{"tx1", "walletA", "walletC", 50.0, 20L},
+            new Object[]{"tx1b", "walletA", "walletC", 10.0, 2L},
+            new Object[]{"tx2", "walletC", "walletB", 40.0, 15L},
+            new Object[]{"tx3", "walletA", "walletD", 30.0, 5L},
+            new Object[]{"tx4", "walletD", "walletB", 25.0, 14L});
+        List<String> queries = stubAdjacency(transactions);
+
+        when(flowGraphService.isMaterialised()).thenReturn(false);
+        OptimalPathResult perTransaction = service.findCheapestPath("walletA", "walletB");
+        when(flowGraphService.isMaterialised()).thenReturn(true);
+        OptimalPathResult perFlow = service.findCheapestPath("walletA", "walletB");
+
+        assertTrue(perTransaction.isPathFound());
+        assertEquals(List.of("walletA", "walletC", "walletB"), perTransaction.getPath());
+        assertEquals(17.0, perTransaction.getTotalCost(), 1e-9);
+        assertEquals(perTransaction.getPath(), perFlow.getPath());
+        assertEquals(perTransaction.getTotalCost(), perFlow.getTotalCost(), 1e-9);
+
+        // Ambas consultas leen el fee con la expresión con la que se materializa minFee
+        assertTrue(queries.stream().anyMatch(q -> q.contains("COALESCE(t.fees, t.fee, 0)")));
+        assertTrue(queries.stream().anyMatch(q -> q.contains("COALESCE(f.minFee, 0)")));
+    }
+
     // Métodos auxiliares
 
+    /**
+     * Simula Neo4jClient para las dos consultas de adyacencia sobre el mismo fixture
+     * [txHash, from, to, amount, fees]: por transacción, o agregado por par como FLOW.
+     *
+     * @return Consultas ejecutadas, en orden
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> stubAdjacency(List<Object[]> transactions) {
+        List<String> queries = new ArrayList<>();
+        Neo4jClient.UnboundRunnableSpec unbound = mock(Neo4jClient.UnboundRunnableSpec.class);
+        Neo4jClient.RunnableSpec bound = mock(Neo4jClient.RunnableSpec.class);
+        Neo4jClient.RecordFetchSpec<Map<String, Object>> fetch = mock(Neo4jClient.RecordFetchSpec.class);
+        List<String> ids = new ArrayList<>();
+
+        when(neo4jClient.query(anyString())).thenAnswer(invocation -> {
+            queries.add(invocation.getArgument(0));
+            return unbound;
+        });
+        when(unbound.bindAll(anyMap())).thenAnswer(invocation -> {
+            ids.clear();
+            ids.addAll((Collection<String>) ((Map<String, Object>) invocation.getArgument(0)).get("ids"));
+            return bound;
+        });
+        when(bound.fetch()).thenReturn(fetch);
+        when(fetch.all()).thenAnswer(invocation -> {
+            boolean flow = queries.get(queries.size() - 1).contains(":FLOW");
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (String id : ids) {
+                List<Map<String, Object>> edges = new ArrayList<>();
+                for (Object[] tx : transactions) {
+                    if (tx[1].equals(id)) edges.add(adjacencyEdge(tx, (String) tx[2], transactions, flow));
+                    if (tx[2].equals(id)) edges.add(adjacencyEdge(tx, (String) tx[1], transactions, flow));
+                }
+                rows.add(Map.of("wallet", id, "edges", edges));
+            }
+            return rows;
+        });
+        return queries;
+    }
+
+    private Map<String, Object> adjacencyEdge(Object[] tx, String neighbour, List<Object[]> transactions,
+                                              boolean flow) {
+        Map<String, Object> edge = new HashMap<>();
+        edge.put("neighbour", neighbour);
+        if (!flow) {
+            edge.put("txHash", tx[0]);
+            edge.put("cost", tx[4]);
+            edge.put("amount", tx[3]);
+            return edge;
+        }
+        // FLOW: una arista por par con el fee mínimo y el monto total
+        Object[] cheapest = tx;
+        double total = 0;
+        long count = 0;
+        for (Object[] other : transactions) {
+            if (other[1].equals(tx[1]) && other[2].equals(tx[2])) {
+                total += (Double) other[3];
+                count++;
+                if ((Long) other[4] < (Long) cheapest[4]) cheapest = other;
+            }
+        }
+        edge.put("txHash", cheapest[0]);
+        edge.put("cost", cheapest[4]);
+        edge.put("amount", total);
+        edge.put("txCount", count);
+        return edge;
+    }
+
     private List<Map<String, Object>> createMockTransactionEdgesWithCosts() {
         List<Map<String, Object>> edges = new ArrayList<>();
 
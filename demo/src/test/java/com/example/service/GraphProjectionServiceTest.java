@@ -0,0 +1,61 @@
+package com.example.service;
+
+import com.example.dto.TransactionSummary;
+import com.example.dto.WalletSummary;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para GraphProjectionService
+ */
+class GraphProjectionServiceTest {
+
+    @Test
+    @DisplayName("Debería mapear las columnas escalares de una wallet")
+    void testToWallet() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("address", "1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa");
+        row.put("chain", "BTC");
+        row.put("balance", 5_000_000_000L);
+        row.put("totalReceived", 5_000_000_000L);
+        row.put("totalSent", 0L);
+        row.put("txCount", 1L);  // el driver devuelve enteros como Long
+        row.put("riskLevel", null);
+        row.put("tags", Arrays.asList("genesis", null));
+
+        WalletSummary wallet = GraphProjectionService.toWallet(row);
+
+        assertEquals("1A1zP1eP5QGefi2DMPTfTL5SLmv7DivfNa", wallet.getAddress());
+        assertEquals(5_000_000_000L, wallet.getBalance());
+        assertEquals(1, wallet.getTxCount());
+        assertNull(wallet.getRiskLevel());
+        assertEquals(List.of("genesis"), wallet.getTags());
+    }
+
+    @Test
+    @DisplayName("Debería dejar a null las propiedades ausentes de una transacción")
+    void testToTransactionWithMissingProperties() {
+        Map<String, Object> row = new HashMap<>();
+        row.put("hash", "abc");
+        row.put("totalOutput", 42L);
+        row.put("confirmations", 6L);
+        row.put("doubleSpend", true);
+
+        TransactionSummary tx = GraphProjectionService.toTransaction(row);
+
+        assertEquals("abc", tx.getHash());
+        assertEquals(42L, tx.getTotalOutput());
+        assertEquals(6, tx.getConfirmations());
+        assertTrue(tx.getDoubleSpend());
+        assertNull(tx.getFees());
+        assertNull(tx.getConfirmed());
+        assertNull(tx.getBlockHeight());
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.service;
+
+import com.example.algorithm.PrunedLandmarkLabeling;
+import com.example.algorithm.WalletGraph;
+import com.example.dto.HopDistanceResult;
+import com.example.repository.PathAnalysisRepository;
+import com.example.service.GraphStreamService.EdgeRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para PathAnalysisService
+ */
+@ExtendWith(MockitoExtension.class)
+class PathAnalysisServiceTest {
+
+    @Mock
+    private PathAnalysisRepository pathAnalysisRepository;
+
+    @Mock
+    private DistanceIndexService distanceIndexService;
+
+    @Mock
+    private Neo4jClient supernodeClient;
+
+    @Mock
+    private GraphStreamService graphStreamService;
+
+    private PathAnalysisService service;
+    private List<EdgeRow> edges;
+
+    @BeforeEach
+    void setUp() {
+        service = new PathAnalysisService(pathAnalysisRepository, distanceIndexService,
+                new SupernodeService(supernodeClient), graphStreamService);
+        edges = new ArrayList<>();
+    }
+
+    @Test
+    @DisplayName("El respaldo en Neo4j debería medir los mismos saltos que el índice")
+    void testFallbackMatchesIndex() {
+        Random random = new Random(3);
+        int wallets = 120;
+        WalletGraph.Builder builder = WalletGraph.builder();
+        for (int i = 0; i < wallets; i++) {
+            builder.addWallet("w" + i);
+        }
+        for (int e = 0; e < 200; e++) {
+            String from = "w" + random.nextInt(wallets);
+            String to = "w" + random.nextInt(wallets);
+            if (!from.equals(to)) {
+                builder.addEdge(from, to, 1.0);
+                edges.add(new EdgeRow("tx" + e, from, to, 1L, null));
+            }
+        }
+        PrunedLandmarkLabeling index = PrunedLandmarkLabeling.build(builder.build());
+        stubStreamedEdges();
+
+        for (int source = 0; source < wallets; source += 11) {
+            for (int target = 0; target < wallets; target += 5) {
+                String from = "w" + source;
+                String to = "w" + target;
+                int expected = index.distance(from, to);
+                if (expected > 10) {
+                    continue;
+                }
+
+                when(distanceIndexService.hopDistance(from, to)).thenReturn(Optional.of(expected));
+                HopDistanceResult indexed = service.findHopDistance(from, to);
+                when(distanceIndexService.hopDistance(from, to)).thenReturn(Optional.empty());
+                HopDistanceResult streamed = service.findHopDistance(from, to);
+
+                assertEquals("INDEX", indexed.getSource());
+                assertEquals("NEO4J", streamed.getSource());
+                assertEquals(indexed.getConnected(), streamed.getConnected(), from + " → " + to);
+                assertEquals(indexed.getHops(), streamed.getHops(), from + " → " + to);
+            }
+        }
+        verifyNoInteractions(pathAnalysisRepository);
+    }
+
+    @Test
+    @DisplayName("El respaldo debería contar saltos wallet → wallet sin dirección")
+    void testFallbackCountsWalletHops() {
+        // A → B ← C → D: A y D a 3 saltos en la vista no dirigida
+        edges.add(new EdgeRow("tx1", "A", "B", 10L, null));
+        edges.add(new EdgeRow("tx2", "C", "B", 5L, null));
+        edges.add(new EdgeRow("tx3", "C", "D", 5L, null));
+        edges.add(new EdgeRow("tx4", "X", "Y", 1L, null));
+        stubStreamedEdges();
+        when(distanceIndexService.hopDistance(anyString(), anyString())).thenReturn(Optional.empty());
+
+        assertEquals(3, service.findHopDistance("A", "D").getHops());
+        assertEquals(1, service.findHopDistance("B", "C").getHops());
+        assertEquals(0, service.findHopDistance("A", "A").getHops());
+
+        HopDistanceResult disconnected = service.findHopDistance("A", "Y");
+        assertFalse(disconnected.getConnected());
+        assertNull(disconnected.getHops());
+    }
+
+    @Test
+    @DisplayName("La expansión por saltos debería consultar un nivel por salto y parar en hops")
+    void testWithinHopsExpandsLevelByLevel() {
+        // Cadena w0 - w1 - ... - w6 (vecinos en ambos sentidos)
+        when(pathAnalysisRepository.findWalletNeighbours(anyList(), anyInt())).thenAnswer(invocation -> {
+            List<String> frontier = invocation.getArgument(0);
+            List<Map<String, Object>> rows = new ArrayList<>();
+            for (String wallet : frontier) {
+                int i = Integer.parseInt(wallet.substring(1));
+                for (int j : new int[]{i - 1, i + 1}) {
+                    if (j >= 0 && j <= 6) {
+                        rows.add(Map.of("result", Map.of("address", "w" + j, "txCount", 1L)));
+                    }
+                }
+            }
+            return rows;
+        });
+
+        List<Map<String, Object>> wallets = service.findWalletsWithinHops("w2", 3);
+
+        assertEquals(List.of("w1", "w3", "w0", "w4", "w5"),
+            wallets.stream().map(w -> w.get("address")).toList());
+        assertEquals(List.of(1, 1, 2, 2, 3), wallets.stream().map(w -> w.get("hops")).toList());
+        verify(pathAnalysisRepository, times(3)).findWalletNeighbours(anyList(), anyInt());
+    }
+
+    /** streamEdges devuelve las aristas del fixture que tocan alguna wallet del lote */
+    private void stubStreamedEdges() {
+        when(graphStreamService.streamEdges(anyCollection())).thenAnswer(invocation -> {
+            Collection<String> chunk = invocation.getArgument(0);
+            Set<String> wallets = new HashSet<>(chunk);
+            return edges.stream().filter(edge -> wallets.contains(edge.getFrom()) || wallets.contains(edge.getTo()));
+        });
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.service;
+
+import com.example.algorithm.ActivityRollup.Granularity;
+import com.example.dto.PatternDetectionResult;
+import com.example.repository.AlgorithmRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para PatternMatchingService
+ */
+@ExtendWith(MockitoExtension.class)
+class PatternMatchingServiceTest {
+
+    private static final long DAY = Granularity.DAY.getMillis();
+
+    @Mock
+    private AlgorithmRepository algorithmRepository;
+
+    @Mock
+    private GraphStreamService graphStreamService;
+
+    @Mock
+    private WalletActivityService walletActivityService;
+
+    @Mock
+    private WalletAggregateService walletAggregateService;
+
+    private PatternMatchingService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PatternMatchingService(algorithmRepository, graphStreamService, walletActivityService,
+                walletAggregateService);
+    }
+
+    @Test
+    @DisplayName("RAPID debería leer las cubetas horarias de la ventana cuando los agregados están completos")
+    void testRapidReadsBucketsWithinWindow() {
+        when(walletAggregateService.isMaterialised()).thenReturn(true);
+        when(walletActivityService.findBursts(eq(Granularity.HOUR), anyInt(), anyLong(), anyInt()))
+                .thenReturn(List.of(burst("walletA", 7)));
+
+        long before = System.currentTimeMillis();
+        List<PatternDetectionResult> patterns = service.detectAnomalyPatterns(3, 30, 2.5, List.of("RAPID"));
+
+        ArgumentCaptor<Long> since = ArgumentCaptor.forClass(Long.class);
+        verify(walletActivityService).findBursts(eq(Granularity.HOUR), anyInt(), since.capture(), anyInt());
+        verify(walletActivityService, never()).findBurstsFromTransactions(any(), anyInt(), anyLong(), anyInt());
+        assertTrue(since.getValue() >= before - 30 * DAY);
+        assertTrue(since.getValue() <= System.currentTimeMillis() - 30 * DAY);
+
+        assertEquals(1, patterns.size());
+        assertEquals("RAPID", patterns.get(0).getPatternType());
+        assertEquals(List.of("walletA"), patterns.get(0).getAffectedWallets());
+        assertEquals(7, patterns.get(0).getTransactionCount());
+    }
+
+    @Test
+    @DisplayName("RAPID debería recalcular desde las transacciones si los agregados no están completos")
+    void testRapidFallsBackToTransactions() {
+        when(walletAggregateService.isMaterialised()).thenReturn(false);
+        when(walletActivityService.findBurstsFromTransactions(eq(Granularity.HOUR), anyInt(), anyLong(), anyInt()))
+                .thenReturn(List.of(burst("walletB", 4)));
+
+        List<PatternDetectionResult> patterns = service.detectAnomalyPatterns(3, null, 2.5, List.of("RAPID"));
+
+        verify(walletActivityService).findBurstsFromTransactions(eq(Granularity.HOUR), anyInt(), eq(0L), anyInt());
+        verify(walletActivityService, never()).findBursts(any(), anyInt(), anyLong(), anyInt());
+        assertEquals(List.of("walletB"), patterns.get(0).getAffectedWallets());
+    }
+
+    private Map<String, Object> burst(String address, long txCount) {
+        return Map.of("address", address, "start", 0L, "volumeIn", 100L, "volumeOut", 50L, "txCount", txCount);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ResponseCache
+ */
+class ResponseCacheTest {
+
+    private Path root;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        root = Files.createTempDirectory("response-cache");
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(root)) {
+            for (Path path : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    private static byte[] json(String address, int padding) {
+        return ("{\"address\": \"" + address + "\", \"txs\": [\"" + "x".repeat(padding) + "\"]}")
+                .getBytes(StandardCharsets.UTF_8);
+    }
+
+    private long blobCount() throws IOException {
+        try (Stream<Path> files = Files.list(root.resolve("blobs"))) {
+            return files.count();
+        }
+    }
+
+    @Test
+    @DisplayName("Debería devolver el JSON guardado con su ETag y compartir blobs idénticos")
+    void testRoundTripAndDeduplication() throws IOException {
+        ResponseCache cache = new ResponseCache(root, 1 << 20, true);
+        byte[] body = json("A1", 1000);
+
+        cache.put("BTC", "A1", ResponseCache.HEAD_PAGE, body, "\"v1\"");
+        cache.put("BTC", "A2", ResponseCache.page(500L), body.clone(), null);
+
+        ResponseCache.Entry entry = cache.lookup("btc", "A1", "head");
+        assertNotNull(entry);
+        assertEquals("\"v1\"", entry.getEtag());
+        assertArrayEquals(body, cache.read(entry));
+        assertTrue(entry.getCompressedSize() < body.length);
+        assertEquals(1, blobCount());
+        assertEquals(1L, cache.getStats().get("dedupedWrites"));
+        assertNull(cache.lookup("BTC", "A1", ResponseCache.page(500L)));
+    }
+
+    @Test
+    @DisplayName("El índice debería sobrevivir a un reinicio")
+    void testReloadFromDisk() {
+        ResponseCache cache = new ResponseCache(root, 1 << 20, true);
+        cache.put("BTC", "A1", "head", json("A1", 10), "\"e1\"");
+        cache.put("BTC", "A1", "before-100", json("A1-old", 10), null);
+        cache.put("LTC", "L1", "head", json("L1", 10), null);
+
+        ResponseCache reopened = new ResponseCache(root, 1 << 20, true);
+
+        ResponseCache.Entry entry = reopened.lookup("BTC", "A1", "head");
+        assertEquals("\"e1\"", entry.getEtag());
+        assertArrayEquals(json("A1", 10), reopened.read(entry));
+        assertEquals(Set.of("A1"), reopened.addresses("BTC"));
+        assertEquals(3, reopened.getStats().get("entries"));
+    }
+
+    @Test
+    @DisplayName("Debería desalojar las entradas menos usadas al superar el tamaño máximo")
+    void testLruEviction() throws IOException {
+        // Letras aleatorias: cada blob comprimido pesa ~1.2 KB, caben dos
+        ResponseCache cache = new ResponseCache(root, 3_000, true);
+        for (String address : List.of("A", "B")) {
+            cache.put("BTC", address, "head", randomJson(address), null);
+        }
+        // A pasa a ser la más reciente; C obliga a desalojar B
+        assertNotNull(cache.lookup("BTC", "A", "head"));
+        cache.put("BTC", "C", "head", randomJson("C"), null);
+
+        assertNotNull(cache.lookup("BTC", "A", "head"));
+        assertNull(cache.lookup("BTC", "B", "head"));
+        assertNotNull(cache.lookup("BTC", "C", "head"));
+        assertTrue((long) cache.getStats().get("bytes") <= 3_000);
+        assertEquals(2, blobCount());
+        assertEquals(1L, cache.getStats().get("evictions"));
+    }
+
+    @Test
+    @DisplayName("Un blob corrupto debería tratarse como fallo de caché y descartarse")
+    void testCorruptedBlob() throws IOException {
+        ResponseCache cache = new ResponseCache(root, 1 << 20, true);
+        ResponseCache.Entry entry = cache.put("BTC", "A1", "head", json("A1", 100), null);
+        Files.write(root.resolve("blobs").resolve(entry.getBlob() + ".json.gz"), new byte[]{1, 2, 3});
+
+        assertNull(cache.read(entry));
+        assertNull(cache.lookup("BTC", "A1", "head"));
+        assertEquals(1L, cache.getStats().get("corrupted"));
+    }
+
+    @Test
+    @DisplayName("Desactivada no debería escribir ni devolver entradas")
+    void testDisabled() throws IOException {
+        ResponseCache cache = new ResponseCache(root.resolve("off"), 1 << 20, false);
+
+        assertNull(cache.put("BTC", "A1", "head", json("A1", 10), null));
+        assertNull(cache.lookup("BTC", "A1", "head"));
+        assertFalse(Files.exists(root.resolve("off")));
+    }
+
+    /** JSON con ~2000 caracteres aleatorios (apenas comprimible) */
+    private static byte[] randomJson(String address) {
+        Random random = new Random(address.hashCode());
+        StringBuilder raw = new StringBuilder();
+        for (int i = 0; i < 2000; i++) {
+            raw.append((char) ('a' + random.nextInt(26)));
+        }
+        return ("{\"address\": \"" + address + "\", \"raw\": \"" + raw + "\"}").getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,159 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para SpendLinkService
+ */
+@ExtendWith(MockitoExtension.class)
+class SpendLinkServiceTest {
+
+    private static final String TX_A = hash(1);
+    private static final String TX_B = hash(2);
+    private static final String TX_C = hash(3);
+    private static final String TX_MISSING = hash(9);
+    private static final String NON_BITCOIN = "zz-not-a-bitcoin-hash";
+
+    @Mock
+    private Neo4jClient neo4jClient;
+
+    private SpendLinkService service;
+
+    /** Transacción → outputs [outputIndex, value] */
+    private final Map<String, List<List<Object>>> outputs = new TreeMap<>();
+    /** Transacción → inputs [prevHash, outputIndex] */
+    private final Map<String, List<List<Object>>> inputs = new TreeMap<>();
+    /** Lotes recibidos por la consulta de escritura */
+    private final List<List<Map<String, Object>>> writes = new ArrayList<>();
+    private final List<Integer> pageSizes = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        service = new SpendLinkService(neo4jClient);
+
+        // A: output 1 multifirma (una relación OUTPUT por dirección)
+        outputs.put(TX_A, List.of(List.of(0L, 1_000L), List.of(1L, 2_000L), List.of(1L, 2_000L)));
+        inputs.put(TX_A, List.of());
+        outputs.put(TX_B, List.of(List.of(0L, 500L)));
+        // B: el input multifirma aparece dos veces; además un prevHash que no es hex, uno
+        // que no está en el grafo y uno nulo
+        inputs.put(TX_B, List.of(
+            List.of(TX_A, 0L), List.of(TX_A, 1L), List.of(TX_A, 1L),
+            List.of("not-hex", 0L), List.of(TX_MISSING, 0L), Arrays.asList(null, 0L)));
+        outputs.put(TX_C, List.of());
+        inputs.put(TX_C, List.of(List.of(TX_B, 0L)));
+        outputs.put(NON_BITCOIN, List.of(List.of(0L, 7L)));
+        inputs.put(NON_BITCOIN, List.of());
+    }
+
+    @Test
+    @DisplayName("Debería indexar todas las páginas, deduplicar inputs y escribir por lotes")
+    void testLinkAcrossPages() {
+        stubNeo4j();
+
+        Map<String, Object> result = service.link(2);
+
+        assertEquals(4L, result.get("transactionsScanned"));
+        // outpoints de A (0 y 1) y B (0); el hash no Bitcoin se salta
+        assertEquals(3L, result.get("outpointsIndexed"));
+        assertEquals(1L, result.get("nonBitcoinHashesSkipped"));
+        // B: A:0, A:1 (una vez), not-hex, MISSING:0; C: B:0 (el nulo no cuenta)
+        assertEquals(5L, result.get("inputsScanned"));
+        assertEquals(3L, result.get("inputsResolved"));
+        assertEquals(3L, result.get("spentByWritten"));
+
+        // Páginas de 2 en cada pasada: 2, 2, 0
+        assertEquals(List.of(2, 2, 0, 2, 2, 0), pageSizes);
+        // Lote lleno al llegar a 2 filas y el resto al final
+        assertEquals(2, writes.size());
+        assertEquals(2, writes.get(0).size());
+        assertEquals(1, writes.get(1).size());
+
+        Map<String, Object> multisig = writes.get(0).get(1);
+        assertEquals(TX_A, multisig.get("prevHash"));
+        assertEquals(1L, multisig.get("outputIndex"));
+        assertEquals(TX_B, multisig.get("spentBy"));
+        assertEquals(2_000L, multisig.get("value"));
+        Map<String, Object> last = writes.get(1).get(0);
+        assertEquals(TX_B, last.get("prevHash"));
+        assertEquals(TX_C, last.get("spentBy"));
+        assertEquals(500L, last.get("value"));
+    }
+
+    @Test
+    @DisplayName("Un fallo al enlazar tras la ingesta debería registrarse sin propagarse")
+    void testLinkTransactionsSwallowsFailure() {
+        when(neo4jClient.query(anyString())).thenThrow(new RuntimeException("Neo4j caído"));
+
+        assertEquals(0L, assertDoesNotThrow(() -> service.linkTransactions(List.of(TX_B))));
+        assertEquals(0L, service.linkTransactions(List.of()));
+        verify(neo4jClient, times(1)).query(anyString());
+    }
+
+    /**
+     * Simula Neo4jClient: las consultas se distinguen por su texto y las páginas se
+     * sirven ordenadas por hash a partir de {@code $after}
+     */
+    @SuppressWarnings("unchecked")
+    private void stubNeo4j() {
+        Neo4jClient.UnboundRunnableSpec unbound = mock(Neo4jClient.UnboundRunnableSpec.class);
+        Neo4jClient.RunnableSpec bound = mock(Neo4jClient.RunnableSpec.class);
+        Neo4jClient.RecordFetchSpec<Map<String, Object>> fetch = mock(Neo4jClient.RecordFetchSpec.class);
+        String[] query = new String[1];
+        Map<String, Object>[] params = new Map[1];
+
+        when(neo4jClient.query(anyString())).thenAnswer(invocation -> {
+            query[0] = invocation.getArgument(0);
+            params[0] = Map.of();
+            return unbound;
+        });
+        when(unbound.bindAll(anyMap())).thenAnswer(invocation -> {
+            params[0] = invocation.getArgument(0);
+            return bound;
+        });
+        when(unbound.fetch()).thenReturn(fetch);
+        when(bound.fetch()).thenReturn(fetch);
+        when(fetch.all()).thenAnswer(invocation -> {
+            if (query[0].contains("COUNT(t) AS transactions")) {
+                return List.of(Map.of("transactions", (long) outputs.size()));
+            }
+            if (query[0].contains("UNWIND $rows")) {
+                List<Map<String, Object>> rows = (List<Map<String, Object>>) params[0].get("rows");
+                writes.add(rows);
+                return List.of(Map.of("links", (long) rows.size()));
+            }
+            boolean outputPage = query[0].contains("AS outputs");
+            Map<String, List<List<Object>>> source = outputPage ? outputs : inputs;
+            String after = (String) params[0].get("after");
+            int limit = (Integer) params[0].get("limit");
+            List<Map<String, Object>> page = new ArrayList<>();
+            for (Map.Entry<String, List<List<Object>>> tx : source.entrySet()) {
+                if (tx.getKey().compareTo(after) > 0 && page.size() < limit) {
+                    page.add(Map.of("hash", tx.getKey(), outputPage ? "outputs" : "inputs", tx.getValue()));
+                }
+            }
+            pageSizes.add(page.size());
+            return page;
+        });
+    }
+
+    private static String hash(int n) {
+        return String.format("%064x", n);
+    }
+}
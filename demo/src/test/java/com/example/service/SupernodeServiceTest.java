@@ -0,0 +1,112 @@
+package com.example.service;
+
+import com.example.algorithm.SupernodeDetector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para SupernodeService
+ */
+@ExtendWith(MockitoExtension.class)
+class SupernodeServiceTest {
+
+    @Mock
+    private Neo4jClient neo4jClient;
+
+    private SupernodeService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new SupernodeService(neo4jClient);
+    }
+
+    @Test
+    @DisplayName("Debería derivar el umbral de la agregación de grados y cargar sólo los supernodos")
+    void testDetectsFromDegreeQuery() {
+        stubQuery("percentileDisc", List.of(Map.of(
+            "wallets", 10_000L, "meanDegree", 4.0, "stddevDegree", 300.0,
+            "quantileDegree", 900L, "maxDegree", 50_000L)));
+        Map<String, Object> bound = stubQuery("$threshold", List.of(
+            Map.of("address", "exchange", "degree", 50_000L),
+            Map.of("address", "pool", "degree", 2_000L)));
+
+        SupernodeDetector detector = service.getDetector();
+
+        // max(1000, 900, ceil(4 + 6·300)) = 1804
+        assertEquals(1804, detector.getThreshold());
+        assertEquals(1804, bound.get("threshold"));
+        assertTrue(detector.isSupernode("exchange"));
+        assertTrue(detector.isSupernode("pool"));
+        assertFalse(detector.isSupernode("someone"));
+        assertEquals(50_000, detector.degreeOf("exchange"));
+    }
+
+    @Test
+    @DisplayName("Debería reutilizar el detector mientras no venza")
+    void testReusesDetectorUntilRefresh() {
+        stubQuery("percentileDisc", List.of(Map.of(
+            "wallets", 3L, "meanDegree", 1.0, "stddevDegree", 0.0, "quantileDegree", 1L, "maxDegree", 1L)));
+        stubQuery("$threshold", List.of());
+
+        SupernodeDetector first = service.getDetector();
+        SupernodeDetector second = service.getDetector();
+        service.defaultPolicy();
+
+        assertSame(first, second);
+        verify(neo4jClient, times(2)).query(anyString());
+    }
+
+    @Test
+    @DisplayName("Un fallo no debería reintentarse en cada búsqueda y debería reportarse")
+    void testFailureBacksOff() {
+        when(neo4jClient.query(anyString())).thenThrow(new RuntimeException("Neo4j caído"));
+
+        SupernodeDetector detector = service.getDetector();
+        service.getDetector();
+        service.defaultPolicy();
+        Map<String, Object> listed = service.listSupernodes(10);
+
+        assertEquals(0, detector.size());
+        verify(neo4jClient, times(1)).query(anyString());
+        @SuppressWarnings("unchecked")
+        Map<String, Object> stats = (Map<String, Object>) listed.get("stats");
+        assertEquals("Neo4j caído", stats.get("lastError"));
+        assertNull(stats.get("refreshedAt"));
+    }
+
+    /**
+     * Responde {@code rows} a la consulta que contiene {@code marker}
+     *
+     * @return Parámetros con los que se ejecutó (se completan al ejecutarla)
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> stubQuery(String marker, Collection<Map<String, Object>> rows) {
+        Neo4jClient.UnboundRunnableSpec unbound = mock(Neo4jClient.UnboundRunnableSpec.class);
+        Neo4jClient.RunnableSpec runnable = mock(Neo4jClient.RunnableSpec.class);
+        Neo4jClient.RecordFetchSpec<Map<String, Object>> fetch = mock(Neo4jClient.RecordFetchSpec.class);
+        Map<String, Object> bound = new HashMap<>();
+
+        when(neo4jClient.query(contains(marker))).thenReturn(unbound);
+        when(unbound.bindAll(anyMap())).thenAnswer(invocation -> {
+            bound.putAll(invocation.getArgument(0));
+            return runnable;
+        });
+        when(runnable.fetch()).thenReturn(fetch);
+        when(fetch.all()).thenReturn(rows);
+        return bound;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.neo4j.core.Neo4jClient;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para WalletSimilarityService
+ */
+@ExtendWith(MockitoExtension.class)
+class WalletSimilarityServiceTest {
+
+    @Mock
+    private Neo4jClient neo4jClient;
+
+    private WalletSimilarityService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new WalletSimilarityService(neo4jClient, 128, 32);
+    }
+
+    @Test
+    @DisplayName("Una carga inicial fallida no debería reintentarse en cada consulta y debería reportarse")
+    void testFailedBootstrapBacksOff() {
+        when(neo4jClient.query(anyString())).thenThrow(new RuntimeException("Neo4j caído"));
+        service.recordTransaction(List.of("a"), List.of("x", "y"));
+        service.recordTransaction(List.of("b"), List.of("x", "y"));
+
+        service.findSimilarWallets("a", 0.5, 10);
+        // Las consultas siguen sobre el índice incremental
+        assertEquals("b", service.findSimilarWallets("a", 0.5, 10).get(0).getAddress());
+
+        verify(neo4jClient, times(1)).query(anyString());
+        Map<String, Object> status = service.getStatus();
+        assertEquals(false, status.get("bootstrapped"));
+        assertEquals("Neo4j caído", status.get("lastError"));
+        long retryIn = (Long) status.get("bootstrapRetryInMs");
+        assertTrue(retryIn > 0 && retryIn <= WalletSimilarityService.BOOTSTRAP_RETRY_MS);
+    }
+}